@@ -0,0 +1,91 @@
+package com.clinique.api;
+
+import com.clinique.api.entity.Appointment;
+import com.clinique.api.entity.AppointmentStatus;
+import com.clinique.api.entity.ClinicalNote;
+import com.clinique.api.entity.PatientProfile;
+import com.clinique.api.entity.Role;
+import com.clinique.api.entity.TherapistProfile;
+import com.clinique.api.entity.User;
+
+import java.lang.reflect.Constructor;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Jeux de données déterministes partagés par les benchmarks JMH.
+ */
+public final class BenchmarkData {
+
+    public static final String SECRET_KEY = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+    public static final long EXPIRATION = 86400000;
+
+    private BenchmarkData() {
+    }
+
+    public static User user(long id, Role role) {
+        return User.builder()
+                .id(id)
+                .email("user" + id + "@clinique.test")
+                .password("$2a$10$abcdefghijklmnopqrstuu")
+                .role(role)
+                .build();
+    }
+
+    /**
+     * Rendez-vous complets (patient, thérapeute, une note sur deux), graine fixe.
+     */
+    public static List<Appointment> appointments(int count) {
+        Random random = new Random(42);
+        TherapistProfile therapist = new TherapistProfile();
+        therapist.setId(1L);
+        therapist.setUser(user(1L, Role.ROLE_THERAPIST));
+        therapist.setFirstName("Claire");
+        therapist.setLastName("Martin");
+        therapist.setSpecialty("Thérapie cognitivo-comportementale");
+
+        LocalDateTime start = LocalDateTime.of(2025, 1, 6, 9, 0);
+        AppointmentStatus[] statuses = AppointmentStatus.values();
+        List<Appointment> appointments = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            PatientProfile patient = new PatientProfile();
+            patient.setId(100L + i);
+            patient.setUser(user(100L + i, Role.ROLE_PATIENT));
+            patient.setFirstName("Patient" + i);
+            patient.setLastName("Nom" + i);
+
+            Appointment appointment = new Appointment();
+            appointment.setId((long) i + 1);
+            appointment.setPatient(patient);
+            appointment.setTherapist(therapist);
+            appointment.setSessionDateTime(start.plusHours(i));
+            appointment.setStatus(statuses[random.nextInt(statuses.length)]);
+            appointment.setCreatedAt(start.minusDays(7));
+            appointment.setCancellationRiskScore(random.nextDouble());
+            if (i % 2 == 0) {
+                ClinicalNote note = new ClinicalNote();
+                note.setId((long) i + 1);
+                note.setAppointment(appointment);
+                note.setSummary("Séance " + i + " : progrès sur la gestion de l'anxiété, exercices à poursuivre.");
+                note.setPatientProgressScore(1 + random.nextInt(10));
+                appointment.setNote(note);
+            }
+            appointments.add(appointment);
+        }
+        return appointments;
+    }
+
+    /**
+     * Instancie un service sans ses dépendances : seules les méthodes pures (mapping) sont mesurées.
+     */
+    public static <T> T withoutDependencies(Class<T> type) {
+        try {
+            Constructor<?> constructor = type.getDeclaredConstructors()[0];
+            return type.cast(constructor.newInstance(new Object[constructor.getParameterCount()]));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Impossible d'instancier " + type.getSimpleName(), e);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.clinique.api.security;
+
+import com.clinique.api.BenchmarkData;
+import com.clinique.api.entity.Role;
+import com.clinique.api.entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût du filtre JWT par requête : parsing, chargement de l'utilisateur (en mémoire ici),
+ * validation, timer Micrometer et mise à jour du SecurityContext. La chaîne suivante est vide.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest authenticatedRequest;
+    private MockHttpServletRequest anonymousRequest;
+    private MockHttpServletResponse response;
+    private FilterChain chain;
+
+    @Setup
+    public void setUp() {
+        JwtService jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", BenchmarkData.SECRET_KEY);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", BenchmarkData.EXPIRATION);
+        User user = BenchmarkData.user(42L, Role.ROLE_PATIENT);
+
+        filter = new JwtAuthenticationFilter(jwtService, username -> user, new SimpleMeterRegistry());
+
+        authenticatedRequest = new MockHttpServletRequest("GET", "/api/v1/appointments/me");
+        authenticatedRequest.addHeader("Authorization", "Bearer " + jwtService.generateToken(user));
+        anonymousRequest = new MockHttpServletRequest("GET", "/api/v1/auth/login");
+        response = new MockHttpServletResponse();
+        chain = (req, res) -> { };
+    }
+
+    @Benchmark
+    public void validToken(Blackhole blackhole) throws ServletException, IOException {
+        filter.doFilterInternal(authenticatedRequest, response, chain);
+        blackhole.consume(SecurityContextHolder.getContext().getAuthentication());
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public void withoutToken() throws ServletException, IOException {
+        filter.doFilterInternal(anonymousRequest, response, chain);
+    }
+}
@@ -0,0 +1,95 @@
+package com.clinique.api.service;
+
+import com.clinique.api.BenchmarkData;
+import com.clinique.api.dto.AppointmentDTO;
+import com.clinique.api.entity.Appointment;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût des listes de rendez-vous renvoyées par l'API : mapping manuel entité -> DTO
+ * (AppointmentService et ClinicalNoteService) puis sérialisation Jackson de la liste.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AppointmentMappingBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int size;
+
+    private List<Appointment> appointments;
+    private List<AppointmentDTO> dtos;
+    private MethodHandle appointmentServiceMapper;
+    private MethodHandle clinicalNoteServiceMapper;
+    private ObjectWriter writer;
+
+    @Setup
+    public void setUp() throws Throwable {
+        appointments = BenchmarkData.appointments(size);
+        appointmentServiceMapper = mapper(AppointmentService.class);
+        clinicalNoteServiceMapper = mapper(ClinicalNoteService.class);
+
+        // Même configuration que l'ObjectMapper auto-configuré par Spring Boot
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = objectMapper.writerFor(objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, AppointmentDTO.class));
+        dtos = mapAll(appointmentServiceMapper);
+    }
+
+    private static MethodHandle mapper(Class<?> service) throws ReflectiveOperationException {
+        MethodHandle handle = MethodHandles.privateLookupIn(service, MethodHandles.lookup())
+                .findVirtual(service, "mapToAppointmentDTO", MethodType.methodType(AppointmentDTO.class, Appointment.class));
+        return handle.bindTo(BenchmarkData.withoutDependencies(service));
+    }
+
+    private List<AppointmentDTO> mapAll(MethodHandle mapper) throws Throwable {
+        List<AppointmentDTO> result = new ArrayList<>(appointments.size());
+        for (Appointment appointment : appointments) {
+            result.add((AppointmentDTO) mapper.invokeExact(appointment));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<AppointmentDTO> mapAppointmentService() throws Throwable {
+        return mapAll(appointmentServiceMapper);
+    }
+
+    @Benchmark
+    public List<AppointmentDTO> mapClinicalNoteService() throws Throwable {
+        return mapAll(clinicalNoteServiceMapper);
+    }
+
+    @Benchmark
+    public byte[] serializeList() throws Exception {
+        return writer.writeValueAsBytes(dtos);
+    }
+
+    @Benchmark
+    public byte[] mapAndSerialize() throws Throwable {
+        return writer.writeValueAsBytes(mapAll(appointmentServiceMapper));
+    }
+}
@@ -0,0 +1,90 @@
+package com.clinique.api.analytics;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Calcule (ou recalcule) les agrégats journaliers de l'historique, par lots de quelques jours :
+ * chaque lot est une transaction courte qui suit le même chemin que les mises à jour en direct
+ * (verrou par thérapeute, recalcul, report sur les spécialités), sans bloquer l'activité.
+ *
+ * Lancé au démarrage si les agrégats sont vides, ou à la demande (POST /api/v1/admin/analytics/backfill).
+ */
+@Slf4j
+@Component
+public class AnalyticsBackfillJob {
+
+    private final AppointmentStatsRepository statsRepository;
+    private final AppointmentStatsUpdater statsUpdater;
+    private final int chunkDays;
+    private final boolean onStartup;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public AnalyticsBackfillJob(AppointmentStatsRepository statsRepository,
+                                AppointmentStatsUpdater statsUpdater,
+                                @Value("${application.analytics.backfill.chunk-days:7}") int chunkDays,
+                                @Value("${application.analytics.backfill.on-startup:true}") boolean onStartup) {
+        this.statsRepository = statsRepository;
+        this.statsUpdater = statsUpdater;
+        this.chunkDays = chunkDays;
+        this.onStartup = onStartup;
+    }
+
+    /**
+     * Réserve l'exécution : un seul rattrapage à la fois.
+     */
+    public boolean tryStart() {
+        return running.compareAndSet(false, true);
+    }
+
+    /**
+     * Rattrapage des séances de [from, to[, à appeler après un tryStart() réussi.
+     */
+    @Async
+    public void run(LocalDate from, LocalDate to) {
+        try {
+            backfill(from, to);
+        } catch (DataAccessException e) {
+            log.error("Rattrapage des agrégats interrompu ({} -> {})", from, to, e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (!onStartup || !statsRepository.isEmpty()) {
+            return;
+        }
+        LocalDate[] range = statsRepository.findSessionDayRange();
+        if (range != null && tryStart()) {
+            log.info("Agrégats d'activité vides : rattrapage de l'historique");
+            run(range[0], range[1].plusDays(1));
+        }
+    }
+
+    private void backfill(LocalDate from, LocalDate to) {
+        long start = System.nanoTime();
+        long keys = 0;
+        long changed = 0;
+        for (LocalDate chunkStart = from; chunkStart.isBefore(to); chunkStart = chunkStart.plusDays(chunkDays)) {
+            LocalDate chunkEnd = chunkStart.plusDays(chunkDays).isBefore(to) ? chunkStart.plusDays(chunkDays) : to;
+            List<TherapistDay> chunk = statsRepository.findKeysBetween(chunkStart, chunkEnd);
+            changed += statsUpdater.refresh(chunk);
+            keys += chunk.size();
+        }
+        log.info("Rattrapage des agrégats {} -> {} terminé en {} s : {} jours-thérapeute relus, {} modifiés",
+                from, to, (System.nanoTime() - start) / 1_000_000_000, keys, changed);
+    }
+}
@@ -0,0 +1,98 @@
+package com.clinique.api.analytics;
+
+import com.clinique.api.dto.AnalyticsGroupBy;
+import com.clinique.api.dto.AnalyticsReportDTO;
+import com.clinique.api.exception.ConflictException;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.Period;
+
+/**
+ * Rapports d'activité de la clinique (réservés à l'admin), calculés sur les agrégats journaliers
+ * ou sur l'instantané en colonnes des rendez-vous, jamais sur les tables de base.
+ */
+@Service
+@Timed(value = "clinique.service", histogram = true)
+public class AnalyticsService {
+
+    private final AppointmentStatsRepository statsRepository;
+    private final AnalyticsBackfillJob backfillJob;
+    private final AppointmentColumnStore columnStore;
+    private final Period maxRange;
+
+    public AnalyticsService(AppointmentStatsRepository statsRepository,
+                            AnalyticsBackfillJob backfillJob,
+                            AppointmentColumnStore columnStore,
+                            @Value("${application.analytics.max-range:P5Y}") Period maxRange) {
+        this.statsRepository = statsRepository;
+        this.backfillJob = backfillJob;
+        this.columnStore = columnStore;
+        this.maxRange = maxRange;
+    }
+
+    /**
+     * Activité des séances de [from, to[, éventuellement limitée à une spécialité et/ou un thérapeute.
+     */
+    public AnalyticsReportDTO getReport(LocalDate from, LocalDate to, AnalyticsGroupBy groupBy,
+                                        String specialty, Long therapistId) {
+        validateRange(from, to);
+        String specialtyFilter = specialty == null || specialty.isBlank() ? null : specialty.strip();
+
+        // MAPPING MANUEL
+        AnalyticsReportDTO report = new AnalyticsReportDTO();
+        report.setFrom(from);
+        report.setTo(to);
+        report.setGroupBy(groupBy);
+        report.setSpecialty(specialtyFilter);
+        report.setTherapistId(therapistId);
+        report.setRows(statsRepository.report(from, to, groupBy, specialtyFilter, therapistId));
+        return report;
+    }
+
+    /**
+     * Même rapport calculé sur l'instantané en mémoire (quelques minutes de retard au plus),
+     * avec en plus le filtre par patient que les agrégats journaliers ne permettent pas.
+     */
+    public AnalyticsReportDTO getLiveReport(LocalDate from, LocalDate to, AnalyticsGroupBy groupBy,
+                                            String specialty, Long therapistId, Long patientId) {
+        validateRange(from, to);
+        String specialtyFilter = specialty == null || specialty.isBlank() ? null : specialty.strip();
+        AppointmentColumns columns = columnStore.getColumns();
+
+        // MAPPING MANUEL
+        AnalyticsReportDTO report = new AnalyticsReportDTO();
+        report.setFrom(from);
+        report.setTo(to);
+        report.setGroupBy(groupBy);
+        report.setSpecialty(specialtyFilter);
+        report.setTherapistId(therapistId);
+        report.setPatientId(patientId);
+        report.setSnapshotLoadedAt(columns.getLoadedAt());
+        report.setRows(columns.aggregate(from, to, groupBy, specialtyFilter, therapistId, patientId,
+                columnStore.getPool()));
+        return report;
+    }
+
+    /**
+     * Lance en tâche de fond le recalcul des agrégats des séances de [from, to[.
+     */
+    public void startBackfill(LocalDate from, LocalDate to) {
+        validateRange(from, to);
+        if (!backfillJob.tryStart()) {
+            throw new ConflictException("Un rattrapage des agrégats est déjà en cours");
+        }
+        backfillJob.run(from, to);
+    }
+
+    private void validateRange(LocalDate from, LocalDate to) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("Période invalide : from doit précéder to");
+        }
+        if (from.plus(maxRange).isBefore(to)) {
+            throw new IllegalArgumentException("Période limitée à " + maxRange);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.clinique.api.analytics;
+
+import com.clinique.api.entity.AppointmentStatus;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Détient l'instantané en colonnes des rendez-vous (AppointmentColumns) pour les tableaux de bord admin.
+ *
+ * Chargé au premier rapport demandé, puis rechargé en tâche de fond toutes les
+ * application.analytics.snapshot.refresh-interval : les requêtes lisent l'instantané courant
+ * pendant le rechargement et ne touchent jamais la base.
+ */
+@Slf4j
+@Component
+public class AppointmentColumnStore {
+
+    // Sans ORDER BY : le tri est fait en mémoire sur les minutes, plus vite qu'un tri sur disque côté base
+    private static final String SELECT_COLUMNS = "SELECT CAST(floor(extract(epoch FROM a.session_date_time) / 60) AS int) AS session_minute, "
+            + "a.therapist_profile_id, a.patient_profile_id, a.status, "
+            + "a.cancellation_risk_score, n.patient_progress_score, n.sentiment_score "
+            + "FROM appointments a LEFT JOIN clinical_notes n ON n.appointment_id = a.id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate cursorJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ForkJoinPool pool;
+
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private volatile AppointmentColumns columns;
+
+    public AppointmentColumnStore(JdbcTemplate jdbcTemplate,
+                                  DataSource dataSource,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${application.analytics.snapshot.fetch-size:10000}") int fetchSize,
+                                  @Value("${application.analytics.snapshot.parallelism:0}") int parallelism) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cursorJdbcTemplate = new JdbcTemplate(dataSource);
+        this.cursorJdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        // Pool dédié : un rapport lourd n'occupe pas le pool commun (flux parallèles, CompletableFuture)
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Instantané courant, chargé (une seule fois, même sous appels concurrents) s'il n'existe pas encore.
+     */
+    public AppointmentColumns getColumns() {
+        AppointmentColumns current = columns;
+        if (current != null) {
+            return current;
+        }
+        loadLock.lock();
+        try {
+            if (columns == null) {
+                columns = load();
+            }
+            return columns;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    /**
+     * Rechargement périodique, seulement si l'instantané a déjà servi : sans tableau de bord ouvert,
+     * ni mémoire ni lecture de la table.
+     */
+    @Scheduled(fixedDelayString = "${application.analytics.snapshot.refresh-interval:PT5M}",
+            initialDelayString = "${application.analytics.snapshot.refresh-interval:PT5M}")
+    public void refresh() {
+        if (columns == null || !loadLock.tryLock()) {
+            return;
+        }
+        try {
+            columns = load();
+        } catch (DataAccessException e) {
+            log.warn("Rechargement de l'instantané des rendez-vous échoué, l'ancien est conservé", e);
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private AppointmentColumns load() {
+        long start = System.nanoTime();
+        Instant loadedAt = Instant.now();
+
+        Map<Long, String> specialties = new HashMap<>();
+        jdbcTemplate.query("SELECT id, coalesce(specialty, '') AS specialty FROM therapist_profiles",
+                rs -> {
+                    specialties.put(rs.getLong("id"), rs.getString("specialty"));
+                });
+        Integer expected = jdbcTemplate.queryForObject("SELECT count(*) FROM appointments", Integer.class);
+
+        AppointmentColumns.Builder builder = AppointmentColumns.builder(expected == null ? 0 : expected);
+        readOnlyTransaction.executeWithoutResult(status -> cursorJdbcTemplate.query(SELECT_COLUMNS, rs -> {
+            builder.add(rs.getInt(1),
+                    rs.getLong(2),
+                    rs.getLong(3),
+                    AppointmentStatus.valueOf(rs.getString(4)),
+                    floatOrNaN(rs, 5),
+                    floatOrNaN(rs, 6),
+                    floatOrNaN(rs, 7));
+        }));
+        AppointmentColumns loaded = builder.build(specialties, loadedAt);
+
+        log.info("Instantané des rendez-vous chargé : {} lignes, ~{} Mo, en {} ms", loaded.size(),
+                loaded.estimatedBytes() >> 20, (System.nanoTime() - start) / 1_000_000);
+        return loaded;
+    }
+
+    private static float floatOrNaN(ResultSet rs, int column) throws SQLException {
+        float value = rs.getFloat(column);
+        return rs.wasNull() ? Float.NaN : value;
+    }
+}
@@ -0,0 +1,414 @@
+package com.clinique.api.analytics;
+
+import com.clinique.api.dto.AnalyticsGroupBy;
+import com.clinique.api.dto.AnalyticsRowDTO;
+import com.clinique.api.entity.AppointmentStatus;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Instantané immuable des rendez-vous en colonnes de types primitifs, trié par date de séance.
+ *
+ * Une ligne par RDV : minute de séance (depuis l'epoch, heure locale de la clinique), thérapeute
+ * (position dans le dictionnaire trié des IDs), patient, statut (ordinal) et scores (NaN si absent).
+ * La spécialité est portée par le thérapeute (dictionnaire trié, "" si aucune).
+ *
+ * Les requêtes bornent la plage par recherche dichotomique sur les minutes, puis parcourent les colonnes
+ * en parallèle (fork-join) : chaque tranche remplit ses propres tableaux de compteurs, fusionnés à la fin.
+ * Aucun objet n'est alloué par ligne.
+ */
+public final class AppointmentColumns {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final int MIN_SLICE = 16_384;
+
+    private static final byte COMPLETED = (byte) AppointmentStatus.COMPLETED.ordinal();
+    private static final byte CANCELLED_BY_PATIENT = (byte) AppointmentStatus.CANCELLED_BY_PATIENT.ordinal();
+    private static final byte CANCELLED_BY_THERAPIST = (byte) AppointmentStatus.CANCELLED_BY_THERAPIST.ordinal();
+
+    // Compteurs par groupe : RDV pris, terminés, annulés patient / thérapeute, nombre de chaque score
+    private static final int BOOKED = 0;
+    private static final int DONE = 1;
+    private static final int CANCELLED_PATIENT = 2;
+    private static final int CANCELLED_THERAPIST = 3;
+    private static final int RISK_COUNT = 4;
+    private static final int PROGRESS_COUNT = 5;
+    private static final int SENTIMENT_COUNT = 6;
+    private static final int COUNTERS = 7;
+    // Sommes par groupe : risque, progression, sentiment
+    private static final int SUMS = 3;
+
+    private final int size;
+    private final int[] sessionMinutes;
+    private final int[] therapists;
+    private final long[] patientIds;
+    private final byte[] statuses;
+    private final float[] riskScores;
+    private final float[] progressScores;
+    private final float[] sentimentScores;
+
+    private final long[] therapistIds;
+    private final int[] therapistSpecialties;
+    private final String[] specialties;
+    private final Instant loadedAt;
+
+    private AppointmentColumns(int size, int[] sessionMinutes, int[] therapists, long[] patientIds, byte[] statuses,
+                               float[] riskScores, float[] progressScores, float[] sentimentScores,
+                               long[] therapistIds, int[] therapistSpecialties, String[] specialties, Instant loadedAt) {
+        this.size = size;
+        this.sessionMinutes = sessionMinutes;
+        this.therapists = therapists;
+        this.patientIds = patientIds;
+        this.statuses = statuses;
+        this.riskScores = riskScores;
+        this.progressScores = progressScores;
+        this.sentimentScores = sentimentScores;
+        this.therapistIds = therapistIds;
+        this.therapistSpecialties = therapistSpecialties;
+        this.specialties = specialties;
+        this.loadedAt = loadedAt;
+    }
+
+    public static Builder builder(int expectedRows) {
+        return new Builder(expectedRows);
+    }
+
+    /**
+     * Minute de séance telle que stockée : minutes depuis l'epoch de la date-heure locale
+     * (même valeur que extract(epoch from session_date_time) / 60 côté SQL).
+     */
+    public static int minuteOf(LocalDateTime sessionDateTime) {
+        return (int) Math.floorDiv(sessionDateTime.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Instant getLoadedAt() {
+        return loadedAt;
+    }
+
+    /**
+     * Mémoire occupée par les colonnes (ordre de grandeur, en octets).
+     */
+    public long estimatedBytes() {
+        return (long) size * (Integer.BYTES * 2 + Long.BYTES + Byte.BYTES + Float.BYTES * 3);
+    }
+
+    /**
+     * Même rapport que sur les agrégats journaliers (mêmes lignes, même ordre), calculé sur l'instantané.
+     * Filtres optionnels : spécialité ("" pour aucune), thérapeute, patient.
+     */
+    public List<AnalyticsRowDTO> aggregate(LocalDate from, LocalDate to, AnalyticsGroupBy groupBy,
+                                           String specialty, Long therapistId, Long patientId, ForkJoinPool pool) {
+        int specialtyFilter = specialty == null ? -1 : Arrays.binarySearch(specialties, specialty);
+        int therapistFilter = therapistId == null ? -1 : Arrays.binarySearch(therapistIds, therapistId);
+        if ((specialty != null && specialtyFilter < 0) || (therapistId != null && therapistFilter < 0)) {
+            // Aucune ligne ne peut correspondre : comme en SQL, le total reste une ligne à zéro
+            return groupBy != AnalyticsGroupBy.TOTAL ? List.of()
+                    : List.of(toRow(groupBy, null, 0, new long[COUNTERS], new double[SUMS]));
+        }
+
+        int fromDay = (int) from.toEpochDay();
+        Grouping grouping = grouping(groupBy, from, to);
+        Filter filter = new Filter(specialtyFilter, therapistFilter, patientId != null, patientId == null ? 0 : patientId);
+        int lo = lowerBound(fromDay * MINUTES_PER_DAY);
+        int hi = lowerBound((int) to.toEpochDay() * MINUTES_PER_DAY);
+        int sliceSize = Math.max(MIN_SLICE, (hi - lo) / (pool.getParallelism() * 4) + 1);
+
+        Partial result = pool.invoke(new ScanTask(lo, hi, sliceSize, fromDay, grouping, filter));
+
+        List<AnalyticsRowDTO> rows = new ArrayList<>();
+        for (int slot = 0; slot < grouping.slots(); slot++) {
+            if (groupBy != AnalyticsGroupBy.TOTAL && result.counters()[slot * COUNTERS + BOOKED] == 0) {
+                continue;
+            }
+            Object key = grouping.keys() == null ? null : grouping.keys().get(slot);
+            rows.add(toRow(groupBy, key, slot, result.counters(), result.sums()));
+        }
+        return rows;
+    }
+
+    /**
+     * Découpage en groupes : DAY / MONTH passent par une table jour -> groupe sur la plage demandée,
+     * SPECIALTY / THERAPIST par les dictionnaires (déjà triés comme le rapport SQL).
+     */
+    private Grouping grouping(AnalyticsGroupBy groupBy, LocalDate from, LocalDate to) {
+        return switch (groupBy) {
+            case TOTAL -> new Grouping(groupBy, 1, null, null);
+            case SPECIALTY -> new Grouping(groupBy, specialties.length, null, Arrays.asList((Object[]) specialties));
+            case THERAPIST -> new Grouping(groupBy, therapistIds.length, null,
+                    Arrays.stream(therapistIds).boxed().map(Object.class::cast).toList());
+            case DAY, MONTH -> {
+                int days = (int) (to.toEpochDay() - from.toEpochDay());
+                int[] dayToSlot = new int[days];
+                List<Object> periods = new ArrayList<>();
+                LocalDate day = from;
+                for (int i = 0; i < days; i++, day = day.plusDays(1)) {
+                    LocalDate period = groupBy == AnalyticsGroupBy.DAY ? day : day.withDayOfMonth(1);
+                    if (periods.isEmpty() || !periods.get(periods.size() - 1).equals(period)) {
+                        periods.add(period);
+                    }
+                    dayToSlot[i] = periods.size() - 1;
+                }
+                yield new Grouping(groupBy, periods.size(), dayToSlot, periods);
+            }
+        };
+    }
+
+    private AnalyticsRowDTO toRow(AnalyticsGroupBy groupBy, Object key, int slot, long[] counters, double[] sums) {
+        int c = slot * COUNTERS;
+        int s = slot * SUMS;
+        // MAPPING MANUEL
+        AnalyticsRowDTO row = new AnalyticsRowDTO();
+        switch (groupBy) {
+            case DAY, MONTH -> row.setPeriod((LocalDate) key);
+            case SPECIALTY -> row.setSpecialty(((String) key).isEmpty() ? null : (String) key);
+            case THERAPIST -> row.setTherapistId((Long) key);
+            case TOTAL -> { }
+        }
+        row.setBooked(counters[c + BOOKED]);
+        row.setCompleted(counters[c + DONE]);
+        row.setCancelledByPatient(counters[c + CANCELLED_PATIENT]);
+        row.setCancelledByTherapist(counters[c + CANCELLED_THERAPIST]);
+        row.setAverageRiskScore(average(sums[s], counters[c + RISK_COUNT]));
+        row.setAverageProgressScore(average(sums[s + 1], counters[c + PROGRESS_COUNT]));
+        row.setAverageSentimentScore(average(sums[s + 2], counters[c + SENTIMENT_COUNT]));
+        return row;
+    }
+
+    private static Double average(double sum, long count) {
+        return count == 0 ? null : sum / count;
+    }
+
+    /**
+     * Première ligne dont la minute de séance est >= minute.
+     */
+    private int lowerBound(int minute) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sessionMinutes[mid] < minute) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private record Grouping(AnalyticsGroupBy groupBy, int slots, int[] dayToSlot, List<Object> keys) {
+    }
+
+    private record Filter(int specialty, int therapist, boolean hasPatient, long patientId) {
+    }
+
+    private record Partial(long[] counters, double[] sums) {
+
+        Partial merge(Partial other) {
+            for (int i = 0; i < counters.length; i++) {
+                counters[i] += other.counters[i];
+            }
+            for (int i = 0; i < sums.length; i++) {
+                sums[i] += other.sums[i];
+            }
+            return this;
+        }
+    }
+
+    private final class ScanTask extends RecursiveTask<Partial> {
+
+        private final int lo;
+        private final int hi;
+        private final int sliceSize;
+        private final int fromDay;
+        private final Grouping grouping;
+        private final Filter filter;
+
+        ScanTask(int lo, int hi, int sliceSize, int fromDay, Grouping grouping, Filter filter) {
+            this.lo = lo;
+            this.hi = hi;
+            this.sliceSize = sliceSize;
+            this.fromDay = fromDay;
+            this.grouping = grouping;
+            this.filter = filter;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (hi - lo <= sliceSize) {
+                return scan();
+            }
+            int mid = (lo + hi) >>> 1;
+            ScanTask right = new ScanTask(mid, hi, sliceSize, fromDay, grouping, filter);
+            right.fork();
+            Partial left = new ScanTask(lo, mid, sliceSize, fromDay, grouping, filter).compute();
+            return left.merge(right.join());
+        }
+
+        private Partial scan() {
+            long[] counters = new long[grouping.slots() * COUNTERS];
+            double[] sums = new double[grouping.slots() * SUMS];
+            AnalyticsGroupBy groupBy = grouping.groupBy();
+            int[] dayToSlot = grouping.dayToSlot();
+
+            for (int i = lo; i < hi; i++) {
+                int therapist = therapists[i];
+                int specialty = therapistSpecialties[therapist];
+                if ((filter.therapist() >= 0 && therapist != filter.therapist())
+                        || (filter.specialty() >= 0 && specialty != filter.specialty())
+                        || (filter.hasPatient() && patientIds[i] != filter.patientId())) {
+                    continue;
+                }
+                int slot = switch (groupBy) {
+                    case TOTAL -> 0;
+                    case DAY, MONTH -> dayToSlot[Math.floorDiv(sessionMinutes[i], MINUTES_PER_DAY) - fromDay];
+                    case SPECIALTY -> specialty;
+                    case THERAPIST -> therapist;
+                };
+
+                int c = slot * COUNTERS;
+                int s = slot * SUMS;
+                byte status = statuses[i];
+                counters[c + BOOKED]++;
+                if (status == COMPLETED) {
+                    counters[c + DONE]++;
+                } else if (status == CANCELLED_BY_PATIENT) {
+                    counters[c + CANCELLED_PATIENT]++;
+                } else if (status == CANCELLED_BY_THERAPIST) {
+                    counters[c + CANCELLED_THERAPIST]++;
+                }
+                float risk = riskScores[i];
+                if (!Float.isNaN(risk)) {
+                    counters[c + RISK_COUNT]++;
+                    sums[s] += risk;
+                }
+                float progress = progressScores[i];
+                if (!Float.isNaN(progress)) {
+                    counters[c + PROGRESS_COUNT]++;
+                    sums[s + 1] += progress;
+                }
+                float sentiment = sentimentScores[i];
+                if (!Float.isNaN(sentiment)) {
+                    counters[c + SENTIMENT_COUNT]++;
+                    sums[s + 2] += sentiment;
+                }
+            }
+            return new Partial(counters, sums);
+        }
+    }
+
+    /**
+     * Accumule les lignes dans n'importe quel ordre ; build() les trie par date de séance
+     * et construit les dictionnaires triés.
+     */
+    public static final class Builder {
+
+        private int size;
+        private int[] sessionMinutes;
+        private long[] therapistIds;
+        private long[] patientIds;
+        private byte[] statuses;
+        private float[] riskScores;
+        private float[] progressScores;
+        private float[] sentimentScores;
+
+        private Builder(int expectedRows) {
+            int capacity = Math.max(16, expectedRows);
+            sessionMinutes = new int[capacity];
+            therapistIds = new long[capacity];
+            patientIds = new long[capacity];
+            statuses = new byte[capacity];
+            riskScores = new float[capacity];
+            progressScores = new float[capacity];
+            sentimentScores = new float[capacity];
+        }
+
+        /**
+         * Ajoute un RDV ; les scores absents valent Float.NaN.
+         *
+         * @param sessionMinute voir minuteOf
+         */
+        public Builder add(int sessionMinute, long therapistId, long patientId, AppointmentStatus status,
+                           float riskScore, float progressScore, float sentimentScore) {
+            if (size == sessionMinutes.length) {
+                grow();
+            }
+            sessionMinutes[size] = sessionMinute;
+            therapistIds[size] = therapistId;
+            patientIds[size] = patientId;
+            statuses[size] = (byte) status.ordinal();
+            riskScores[size] = riskScore;
+            progressScores[size] = progressScore;
+            sentimentScores[size] = sentimentScore;
+            size++;
+            return this;
+        }
+
+        /**
+         * @param specialtiesByTherapist spécialité de chaque thérapeute ("" ou absent si aucune)
+         */
+        public AppointmentColumns build(Map<Long, String> specialtiesByTherapist, Instant loadedAt) {
+            // Tri par minute via des clés (minute, position) : un tri de long[], sans objet par ligne
+            long[] order = new long[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = ((long) sessionMinutes[i] << 32) | i;
+            }
+            Arrays.parallelSort(order);
+
+            long[] sortedTherapists = Arrays.stream(therapistIds, 0, size).distinct().sorted().toArray();
+            int[] minutes = new int[size];
+            int[] therapists = new int[size];
+            long[] patients = new long[size];
+            byte[] sortedStatuses = new byte[size];
+            float[] risks = new float[size];
+            float[] progresses = new float[size];
+            float[] sentiments = new float[size];
+            for (int i = 0; i < size; i++) {
+                int row = (int) order[i];
+                minutes[i] = sessionMinutes[row];
+                therapists[i] = Arrays.binarySearch(sortedTherapists, therapistIds[row]);
+                patients[i] = patientIds[row];
+                sortedStatuses[i] = statuses[row];
+                risks[i] = riskScores[row];
+                progresses[i] = progressScores[row];
+                sentiments[i] = sentimentScores[row];
+            }
+
+            String[] sortedSpecialties = Arrays.stream(sortedTherapists)
+                    .mapToObj(id -> specialtiesByTherapist.getOrDefault(id, ""))
+                    .distinct()
+                    .sorted()
+                    .toArray(String[]::new);
+            int[] therapistSpecialties = new int[sortedTherapists.length];
+            for (int i = 0; i < sortedTherapists.length; i++) {
+                therapistSpecialties[i] = Arrays.binarySearch(sortedSpecialties,
+                        specialtiesByTherapist.getOrDefault(sortedTherapists[i], ""));
+            }
+            return new AppointmentColumns(size, minutes, therapists, patients, sortedStatuses, risks, progresses,
+                    sentiments, sortedTherapists, therapistSpecialties, sortedSpecialties, loadedAt);
+        }
+
+        private void grow() {
+            int capacity = sessionMinutes.length + (sessionMinutes.length >> 1);
+            sessionMinutes = Arrays.copyOf(sessionMinutes, capacity);
+            therapistIds = Arrays.copyOf(therapistIds, capacity);
+            patientIds = Arrays.copyOf(patientIds, capacity);
+            statuses = Arrays.copyOf(statuses, capacity);
+            riskScores = Arrays.copyOf(riskScores, capacity);
+            progressScores = Arrays.copyOf(progressScores, capacity);
+            sentimentScores = Arrays.copyOf(sentimentScores, capacity);
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.clinique.api.analytics;
+
+import com.clinique.api.dto.AnalyticsGroupBy;
+import com.clinique.api.dto.AnalyticsRowDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Accès SQL aux agrégats journaliers (therapist_daily_stats, specialty_daily_stats).
+ *
+ * Les clés (jour, thérapeute) sont passées en deux tableaux déroulés par unnest() :
+ * une requête par lot, quel que soit le nombre de jours touchés.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AppointmentStatsRepository {
+
+    private static final String KEYS = "unnest(?::date[], ?::bigint[]) AS k(session_day, therapist_profile_id)";
+
+    private static final String COUNTER_COLUMNS = "booked, completed, cancelled_by_patient, cancelled_by_therapist, "
+            + "risk_score_sum, risk_score_count, progress_score_sum, progress_score_count, "
+            + "sentiment_score_sum, sentiment_score_count";
+
+    // Recalcul depuis les tables de base : une plage d'index (thérapeute, date) par clé
+    private static final String COMPUTE = "SELECT k.session_day, k.therapist_profile_id, "
+            + "coalesce(t.specialty, '') AS specialty, "
+            + "count(a.id) AS booked, "
+            + "count(a.id) FILTER (WHERE a.status = 'COMPLETED') AS completed, "
+            + "count(a.id) FILTER (WHERE a.status = 'CANCELLED_BY_PATIENT') AS cancelled_by_patient, "
+            + "count(a.id) FILTER (WHERE a.status = 'CANCELLED_BY_THERAPIST') AS cancelled_by_therapist, "
+            + "coalesce(sum(a.cancellation_risk_score), 0) AS risk_score_sum, "
+            + "count(a.cancellation_risk_score) AS risk_score_count, "
+            + "coalesce(sum(n.patient_progress_score), 0) AS progress_score_sum, "
+            + "count(n.patient_progress_score) AS progress_score_count, "
+            + "coalesce(sum(n.sentiment_score), 0) AS sentiment_score_sum, "
+            + "count(n.sentiment_score) AS sentiment_score_count "
+            + "FROM " + KEYS + " "
+            + "JOIN therapist_profiles t ON t.id = k.therapist_profile_id "
+            + "LEFT JOIN appointments a ON a.therapist_profile_id = k.therapist_profile_id "
+            + "AND a.session_date_time >= k.session_day AND a.session_date_time < k.session_day + 1 "
+            + "LEFT JOIN clinical_notes n ON n.appointment_id = a.id "
+            + "GROUP BY k.session_day, k.therapist_profile_id, t.specialty";
+
+    private static final String FIND = "SELECT s.session_day, s.therapist_profile_id, s.specialty, " + prefixed("s") + " "
+            + "FROM therapist_daily_stats s JOIN " + KEYS + " "
+            + "ON s.session_day = k.session_day AND s.therapist_profile_id = k.therapist_profile_id";
+
+    private static final String UPSERT_THERAPIST = "INSERT INTO therapist_daily_stats "
+            + "(session_day, therapist_profile_id, specialty, " + COUNTER_COLUMNS + ") "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) "
+            + "ON CONFLICT (session_day, therapist_profile_id) DO UPDATE SET specialty = EXCLUDED.specialty, "
+            + assignments("EXCLUDED.%s");
+
+    // Deltas : l'addition dans l'UPDATE est atomique, les transactions concurrentes ne s'écrasent pas
+    private static final String ADD_TO_SPECIALTY = "INSERT INTO specialty_daily_stats "
+            + "(session_day, specialty, " + COUNTER_COLUMNS + ") "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) "
+            + "ON CONFLICT (session_day, specialty) DO UPDATE SET "
+            + assignments("specialty_daily_stats.%1$s + EXCLUDED.%1$s");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private static String prefixed(String alias) {
+        return alias + "." + COUNTER_COLUMNS.replace(", ", ", " + alias + ".");
+    }
+
+    private static String assignments(String valueFormat) {
+        List<String> parts = new ArrayList<>();
+        for (String column : COUNTER_COLUMNS.split(", ")) {
+            parts.add(column + " = " + String.format(valueFormat, column));
+        }
+        return String.join(", ", parts);
+    }
+
+    /**
+     * Verrouille les thérapeutes (dans l'ordre des IDs) jusqu'à la fin de la transaction : les recalculs
+     * d'un même thérapeute s'exécutent l'un après l'autre, chacun voyant les écritures validées du précédent.
+     * FOR NO KEY UPDATE ne bloque pas la création de RDV (clé étrangère).
+     */
+    public void lockTherapists(Collection<Long> therapistIds) {
+        jdbcTemplate.query("SELECT id FROM therapist_profiles WHERE id = ANY(?::bigint[]) ORDER BY id FOR NO KEY UPDATE",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", therapistIds.toArray())),
+                rs -> null);
+    }
+
+    /**
+     * Agrégats des clés recalculés depuis appointments / clinical_notes (clé sans RDV : valeurs à zéro).
+     */
+    public List<TherapistDayStats> compute(Collection<TherapistDay> keys) {
+        return jdbcTemplate.query(COMPUTE, ps -> setKeys(ps, 1, keys), (rs, rowNum) -> readTherapistRow(rs));
+    }
+
+    /**
+     * Lignes actuellement stockées pour ces clés (les clés sans ligne sont absentes).
+     */
+    public List<TherapistDayStats> find(Collection<TherapistDay> keys) {
+        return jdbcTemplate.query(FIND, ps -> setKeys(ps, 1, keys), (rs, rowNum) -> readTherapistRow(rs));
+    }
+
+    /**
+     * Toutes les lignes d'un thérapeute dont la spécialité diffère de celle donnée.
+     */
+    public List<TherapistDayStats> findWithOtherSpecialty(Long therapistId, String specialty) {
+        return jdbcTemplate.query("SELECT s.session_day, s.therapist_profile_id, s.specialty, " + prefixed("s") + " "
+                        + "FROM therapist_daily_stats s WHERE s.therapist_profile_id = ? AND s.specialty <> ?",
+                (rs, rowNum) -> readTherapistRow(rs), therapistId, specialty);
+    }
+
+    /**
+     * Spécialité actuelle du thérapeute ("" si aucune), null s'il n'existe pas.
+     */
+    public String findSpecialty(Long therapistId) {
+        List<String> specialties = jdbcTemplate.queryForList(
+                "SELECT coalesce(specialty, '') FROM therapist_profiles WHERE id = ?", String.class, therapistId);
+        return specialties.isEmpty() ? null : specialties.get(0);
+    }
+
+    public void updateSpecialty(Long therapistId, String specialty) {
+        jdbcTemplate.update("UPDATE therapist_daily_stats SET specialty = ? WHERE therapist_profile_id = ?",
+                specialty, therapistId);
+    }
+
+    public void saveAll(List<TherapistDayStats> rows) {
+        jdbcTemplate.batchUpdate(UPSERT_THERAPIST, rows, rows.size(), (ps, row) -> {
+            ps.setDate(1, Date.valueOf(row.key().day()));
+            ps.setLong(2, row.key().therapistId());
+            ps.setString(3, row.specialty());
+            setCounters(ps, 4, row.stats());
+        });
+    }
+
+    /**
+     * Ajoute les deltas aux lignes de spécialité (créées au besoin), dans l'ordre des clés.
+     */
+    public void addToSpecialties(Map<SpecialtyDay, DailyStats> deltas) {
+        List<Map.Entry<SpecialtyDay, DailyStats>> entries = deltas.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .toList();
+        jdbcTemplate.batchUpdate(ADD_TO_SPECIALTY, entries, entries.size(), (ps, entry) -> {
+            ps.setDate(1, Date.valueOf(entry.getKey().day()));
+            ps.setString(2, entry.getKey().specialty());
+            setCounters(ps, 3, entry.getValue());
+        });
+    }
+
+    /**
+     * Clés à recalculer pour les séances de [from, to[ : jours avec des RDV et lignes déjà présentes.
+     */
+    public List<TherapistDay> findKeysBetween(LocalDate from, LocalDate to) {
+        return jdbcTemplate.query("SELECT DISTINCT CAST(session_date_time AS date) AS session_day, therapist_profile_id "
+                        + "FROM appointments WHERE session_date_time >= ? AND session_date_time < ? "
+                        + "UNION SELECT session_day, therapist_profile_id FROM therapist_daily_stats "
+                        + "WHERE session_day >= ? AND session_day < ?",
+                (rs, rowNum) -> new TherapistDay(rs.getDate("session_day").toLocalDate(), rs.getLong("therapist_profile_id")),
+                from, to, from, to);
+    }
+
+    /**
+     * Première et dernière date de séance (null si aucun RDV).
+     */
+    public LocalDate[] findSessionDayRange() {
+        return jdbcTemplate.queryForObject(
+                "SELECT CAST(min(session_date_time) AS date), CAST(max(session_date_time) AS date) FROM appointments",
+                (rs, rowNum) -> rs.getDate(1) == null ? null
+                        : new LocalDate[]{rs.getDate(1).toLocalDate(), rs.getDate(2).toLocalDate()});
+    }
+
+    public boolean isEmpty() {
+        return jdbcTemplate.queryForList("SELECT 1 FROM therapist_daily_stats LIMIT 1").isEmpty();
+    }
+
+    /**
+     * Rapport sur [from, to[ lu uniquement dans les agrégats : table des spécialités (quelques lignes par jour)
+     * sauf si un thérapeute est demandé (regroupement ou filtre).
+     */
+    public List<AnalyticsRowDTO> report(LocalDate from, LocalDate to, AnalyticsGroupBy groupBy,
+                                        String specialty, Long therapistId) {
+        boolean perTherapist = groupBy == AnalyticsGroupBy.THERAPIST || therapistId != null;
+        String key = switch (groupBy) {
+            case TOTAL -> null;
+            case DAY -> "s.session_day";
+            case MONTH -> "CAST(date_trunc('month', s.session_day) AS date)";
+            case SPECIALTY -> "s.specialty";
+            case THERAPIST -> "s.therapist_profile_id";
+        };
+
+        StringBuilder sql = new StringBuilder("SELECT ");
+        if (key != null) {
+            sql.append(key).append(" AS group_key, ");
+        }
+        sql.append("sum(s.booked) AS booked, sum(s.completed) AS completed, ")
+                .append("sum(s.cancelled_by_patient) AS cancelled_by_patient, ")
+                .append("sum(s.cancelled_by_therapist) AS cancelled_by_therapist, ")
+                .append("sum(s.risk_score_sum) / nullif(sum(s.risk_score_count), 0) AS average_risk_score, ")
+                .append("sum(s.progress_score_sum) / nullif(sum(s.progress_score_count), 0) AS average_progress_score, ")
+                .append("sum(s.sentiment_score_sum) / nullif(sum(s.sentiment_score_count), 0) AS average_sentiment_score ")
+                .append("FROM ").append(perTherapist ? "therapist_daily_stats" : "specialty_daily_stats").append(" s ")
+                .append("WHERE s.session_day >= ? AND s.session_day < ?");
+        List<Object> args = new ArrayList<>(List.of(from, to));
+        if (specialty != null) {
+            sql.append(" AND s.specialty = ?");
+            args.add(specialty);
+        }
+        if (therapistId != null) {
+            sql.append(" AND s.therapist_profile_id = ?");
+            args.add(therapistId);
+        }
+        if (key != null) {
+            // Les lignes à zéro (spécialité quittée, RDV supprimés) ne donnent pas de groupe vide
+            sql.append(" GROUP BY 1 HAVING sum(s.booked) > 0 ORDER BY 1");
+        }
+
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> {
+            AnalyticsRowDTO row = new AnalyticsRowDTO();
+            switch (groupBy) {
+                case DAY, MONTH -> row.setPeriod(rs.getDate("group_key").toLocalDate());
+                case SPECIALTY -> row.setSpecialty(rs.getString("group_key").isEmpty() ? null : rs.getString("group_key"));
+                case THERAPIST -> row.setTherapistId(rs.getLong("group_key"));
+                case TOTAL -> { }
+            }
+            row.setBooked(rs.getLong("booked"));
+            row.setCompleted(rs.getLong("completed"));
+            row.setCancelledByPatient(rs.getLong("cancelled_by_patient"));
+            row.setCancelledByTherapist(rs.getLong("cancelled_by_therapist"));
+            row.setAverageRiskScore(rs.getObject("average_risk_score", Double.class));
+            row.setAverageProgressScore(rs.getObject("average_progress_score", Double.class));
+            row.setAverageSentimentScore(rs.getObject("average_sentiment_score", Double.class));
+            return row;
+        }, args.toArray());
+    }
+
+    private static TherapistDayStats readTherapistRow(ResultSet rs) throws SQLException {
+        TherapistDay key = new TherapistDay(rs.getDate("session_day").toLocalDate(), rs.getLong("therapist_profile_id"));
+        return new TherapistDayStats(key, rs.getString("specialty"), DailyStats.read(rs));
+    }
+
+    private static void setKeys(PreparedStatement ps, int index, Collection<TherapistDay> keys) throws SQLException {
+        Date[] days = new Date[keys.size()];
+        Long[] therapistIds = new Long[keys.size()];
+        int i = 0;
+        for (TherapistDay key : keys) {
+            days[i] = Date.valueOf(key.day());
+            therapistIds[i] = key.therapistId();
+            i++;
+        }
+        ps.setArray(index, ps.getConnection().createArrayOf("date", days));
+        ps.setArray(index + 1, ps.getConnection().createArrayOf("bigint", therapistIds));
+    }
+
+    private static void setCounters(PreparedStatement ps, int index, DailyStats stats) throws SQLException {
+        ps.setLong(index, stats.booked());
+        ps.setLong(index + 1, stats.completed());
+        ps.setLong(index + 2, stats.cancelledByPatient());
+        ps.setLong(index + 3, stats.cancelledByTherapist());
+        ps.setDouble(index + 4, stats.riskScoreSum());
+        ps.setLong(index + 5, stats.riskScoreCount());
+        ps.setDouble(index + 6, stats.progressScoreSum());
+        ps.setLong(index + 7, stats.progressScoreCount());
+        ps.setDouble(index + 8, stats.sentimentScoreSum());
+        ps.setLong(index + 9, stats.sentimentScoreCount());
+    }
+}
@@ -0,0 +1,134 @@
+package com.clinique.api.analytics;
+
+import com.clinique.api.event.AppointmentCancelledEvent;
+import com.clinique.api.event.AppointmentCompletedEvent;
+import com.clinique.api.event.AppointmentsBookedEvent;
+import com.clinique.api.event.ClinicalNoteSavedEvent;
+import com.clinique.api.event.TherapistProfileChangedEvent;
+import com.clinique.api.repository.AppointmentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Tient à jour les agrégats journaliers à partir des événements de rendez-vous.
+ *
+ * Chaque événement désigne les (jour, thérapeute) touchés. Juste avant le commit, dans la même
+ * transaction, ces lignes sont recalculées depuis les tables de base (quelques RDV par clé) : l'agrégat
+ * est exact et validé avec la modification, ou annulé avec elle. La ligne de spécialité reçoit la
+ * différence entre l'ancienne et la nouvelle ligne du thérapeute.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AppointmentStatsUpdater {
+
+    private final AppointmentStatsRepository statsRepository;
+    private final AppointmentRepository appointmentRepository;
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onAppointmentsBooked(AppointmentsBookedEvent event) {
+        refreshPending(event.therapistId(), event.sessionDateTimes());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onAppointmentCancelled(AppointmentCancelledEvent event) {
+        refreshPending(event.therapistId(), List.of(event.sessionDateTime()));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onAppointmentCompleted(AppointmentCompletedEvent event) {
+        refreshPending(event.therapistId(), List.of(event.sessionDateTime()));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onClinicalNoteSaved(ClinicalNoteSavedEvent event) {
+        refreshPending(event.therapistProfileId(), List.of(event.sessionDateTime()));
+    }
+
+    /**
+     * Changement de spécialité : les lignes du thérapeute passent d'une spécialité à l'autre.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onTherapistProfileChanged(TherapistProfileChangedEvent event) {
+        appointmentRepository.flush();
+        Long therapistId = event.therapistProfileId();
+        statsRepository.lockTherapists(List.of(therapistId));
+        String specialty = statsRepository.findSpecialty(therapistId);
+        if (specialty == null) {
+            return;
+        }
+        List<TherapistDayStats> moved = statsRepository.findWithOtherSpecialty(therapistId, specialty);
+        if (moved.isEmpty()) {
+            return;
+        }
+
+        Map<SpecialtyDay, DailyStats> deltas = new HashMap<>();
+        for (TherapistDayStats row : moved) {
+            deltas.merge(row.specialtyDay(), row.stats().negate(), DailyStats::plus);
+            deltas.merge(new SpecialtyDay(row.key().day(), specialty), row.stats(), DailyStats::plus);
+        }
+        statsRepository.updateSpecialty(therapistId, specialty);
+        statsRepository.addToSpecialties(deltas);
+        log.info("Agrégats du thérapeute {} déplacés vers la spécialité '{}' ({} jours)", therapistId, specialty, moved.size());
+    }
+
+    /**
+     * Recalcule les lignes (jour, thérapeute) données et reporte les écarts sur les spécialités.
+     * Aussi utilisé par le rattrapage de l'historique (AnalyticsBackfillJob), une transaction par lot.
+     *
+     * @return nombre de lignes thérapeute modifiées
+     */
+    @Transactional
+    public int refresh(Collection<TherapistDay> keys) {
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        TreeSet<TherapistDay> sorted = new TreeSet<>(keys);
+        statsRepository.lockTherapists(sorted.stream().map(TherapistDay::therapistId).distinct().toList());
+
+        // Lus après le verrou : chaque requête voit les recalculs validés par les transactions précédentes
+        Map<TherapistDay, TherapistDayStats> before = statsRepository.find(sorted).stream()
+                .collect(Collectors.toMap(TherapistDayStats::key, Function.identity()));
+        List<TherapistDayStats> changed = new ArrayList<>();
+        Map<SpecialtyDay, DailyStats> deltas = new HashMap<>();
+        for (TherapistDayStats row : statsRepository.compute(sorted)) {
+            TherapistDayStats previous = before.get(row.key());
+            if (row.equals(previous)) {
+                continue;
+            }
+            changed.add(row);
+            if (previous != null) {
+                deltas.merge(previous.specialtyDay(), previous.stats().negate(), DailyStats::plus);
+            }
+            deltas.merge(row.specialtyDay(), row.stats(), DailyStats::plus);
+        }
+        deltas.values().removeIf(DailyStats::isZero);
+
+        changed.sort((a, b) -> a.key().compareTo(b.key()));
+        statsRepository.saveAll(changed);
+        statsRepository.addToSpecialties(deltas);
+        return changed.size();
+    }
+
+    private void refreshPending(Long therapistId, Collection<LocalDateTime> sessionDateTimes) {
+        // Les modifications JPA ne sont envoyées qu'au commit : les recalculs SQL doivent les voir
+        appointmentRepository.flush();
+        refresh(sessionDateTimes.stream()
+                .map(sessionDateTime -> new TherapistDay(sessionDateTime.toLocalDate(), therapistId))
+                .collect(Collectors.toSet()));
+    }
+}
@@ -0,0 +1,190 @@
+package com.clinique.api.analytics;
+
+import com.clinique.api.dto.CohortRetentionDTO;
+import com.clinique.api.dto.CohortRetentionRowDTO;
+import com.clinique.api.entity.AppointmentStatus;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Rétention des patients par cohorte (mois de première venue) et par spécialité (réservée à l'admin).
+ *
+ * L'historique est lu une fois par jour en une seule requête en flux, groupée par patient
+ * (index patient / date de séance), et réduit à la première et la dernière venue de chaque patient.
+ * Les rapports du jour sont ensuite calculés en parallèle sur ce résumé, puis mis en cache jusqu'au lendemain.
+ */
+@Slf4j
+@Service
+@Timed(value = "clinique.service", histogram = true)
+public class CohortRetentionService {
+
+    private static final String SELECT_VISITS = "SELECT a.patient_profile_id, "
+            + "CAST(a.session_date_time AS date) - DATE '1970-01-01' AS session_day, a.status, a.therapist_profile_id "
+            + "FROM appointments a WHERE a.session_date_time < ? "
+            + "ORDER BY a.patient_profile_id, a.session_date_time";
+
+    // Au-delà, le cache du jour est vidé (combinaisons de paramètres toutes différentes)
+    private static final int MAX_CACHED_REPORTS = 256;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate cursorJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Period maxRange;
+    private final int maxWeeks;
+
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private volatile Daily daily;
+
+    private record Daily(PatientVisitSummaries summaries, Map<ReportKey, CohortRetentionDTO> reports) {
+    }
+
+    private record ReportKey(LocalDate from, LocalDate to, int weeks) {
+    }
+
+    public CohortRetentionService(JdbcTemplate jdbcTemplate,
+                                  DataSource dataSource,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${application.analytics.snapshot.fetch-size:10000}") int fetchSize,
+                                  @Value("${application.analytics.max-range:P5Y}") Period maxRange,
+                                  @Value("${application.analytics.retention.max-weeks:52}") int maxWeeks) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cursorJdbcTemplate = new JdbcTemplate(dataSource);
+        this.cursorJdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.maxRange = maxRange;
+        this.maxWeeks = maxWeeks;
+    }
+
+    /**
+     * Courbes de rétention des patients entrés dans [from, to[, de la semaine 0 à weeks.
+     */
+    public CohortRetentionDTO getRetention(LocalDate from, LocalDate to, int weeks) {
+        if (from == null || to == null || !from.isBefore(to) || from.plus(maxRange).isBefore(to)) {
+            throw new IllegalArgumentException("Période invalide : from doit précéder to, sur " + maxRange + " au plus");
+        }
+        if (weeks < 1 || weeks > maxWeeks) {
+            throw new IllegalArgumentException("weeks doit être compris entre 1 et " + maxWeeks);
+        }
+        Daily current = getDaily(LocalDate.now());
+        if (current.reports().size() >= MAX_CACHED_REPORTS) {
+            current.reports().clear();
+        }
+        return current.reports().computeIfAbsent(new ReportKey(from, to, weeks),
+                key -> toReport(current.summaries(), key));
+    }
+
+    private Daily getDaily(LocalDate today) {
+        Daily current = daily;
+        if (current != null && current.summaries().getAsOf().equals(today)) {
+            return current;
+        }
+        loadLock.lock();
+        try {
+            current = daily;
+            if (current == null || !current.summaries().getAsOf().equals(today)) {
+                current = new Daily(load(today), new ConcurrentHashMap<>());
+                daily = current;
+            }
+            return current;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private PatientVisitSummaries load(LocalDate asOf) {
+        long start = System.nanoTime();
+        Map<Long, String> specialties = new HashMap<>();
+        jdbcTemplate.query("SELECT id, coalesce(specialty, '') AS specialty FROM therapist_profiles",
+                rs -> {
+                    specialties.put(rs.getLong("id"), rs.getString("specialty"));
+                });
+
+        PatientVisitSummaries.Builder builder = PatientVisitSummaries.builder(asOf);
+        long[] rows = {0};
+        readOnlyTransaction.executeWithoutResult(status -> cursorJdbcTemplate.query(SELECT_VISITS, rs -> {
+            builder.add(rs.getLong(1), rs.getInt(2), AppointmentStatus.valueOf(rs.getString(3)), rs.getLong(4));
+            rows[0]++;
+        }, Date.valueOf(asOf)));
+        PatientVisitSummaries summaries = builder.build(specialties);
+
+        log.info("Historique des venues au {} : {} RDV lus, {} patients, en {} ms", asOf, rows[0], summaries.size(),
+                (System.nanoTime() - start) / 1_000_000);
+        return summaries;
+    }
+
+    private CohortRetentionDTO toReport(PatientVisitSummaries summaries, ReportKey key) {
+        PatientVisitSummaries.CohortMatrix matrix = summaries.bucket(key.from(), key.to(), key.weeks());
+
+        List<CohortRetentionRowDTO> rows = new ArrayList<>();
+        for (int specialty = 0; specialty < matrix.specialties(); specialty++) {
+            int patients = 0;
+            int[] observed = new int[key.weeks() + 1];
+            int[] retained = new int[key.weeks() + 1];
+            List<CohortRetentionRowDTO> cohortRows = new ArrayList<>();
+            for (int cohort = 0; cohort < matrix.cohorts(); cohort++) {
+                if (matrix.patients(specialty, cohort) == 0) {
+                    continue;
+                }
+                patients += matrix.patients(specialty, cohort);
+                List<Double> rates = new ArrayList<>();
+                for (int week = 0; week <= key.weeks(); week++) {
+                    observed[week] += matrix.observed(specialty, cohort, week);
+                    retained[week] += matrix.retained(specialty, cohort, week);
+                    rates.add(rate(matrix.retained(specialty, cohort, week), matrix.observed(specialty, cohort, week)));
+                }
+                cohortRows.add(toRow(matrix.specialty(specialty), matrix.cohortMonth(cohort),
+                        matrix.patients(specialty, cohort), rates));
+            }
+            if (patients == 0) {
+                continue;
+            }
+            List<Double> rates = new ArrayList<>();
+            for (int week = 0; week <= key.weeks(); week++) {
+                rates.add(rate(retained[week], observed[week]));
+            }
+            // La ligne de synthèse de la spécialité précède ses cohortes
+            rows.add(toRow(matrix.specialty(specialty), null, patients, rates));
+            rows.addAll(cohortRows);
+        }
+
+        // MAPPING MANUEL
+        CohortRetentionDTO report = new CohortRetentionDTO();
+        report.setAsOf(summaries.getAsOf());
+        report.setFrom(key.from());
+        report.setTo(key.to());
+        report.setWeeks(key.weeks());
+        report.setRows(rows);
+        return report;
+    }
+
+    private static CohortRetentionRowDTO toRow(String specialty, LocalDate cohortMonth, int patients, List<Double> rates) {
+        // MAPPING MANUEL
+        CohortRetentionRowDTO row = new CohortRetentionRowDTO();
+        row.setSpecialty(specialty.isEmpty() ? null : specialty);
+        row.setCohortMonth(cohortMonth);
+        row.setPatients(patients);
+        row.setRetentionRates(rates);
+        return row;
+    }
+
+    private static Double rate(int retained, int observed) {
+        return observed == 0 ? null : (double) retained / observed;
+    }
+}
@@ -0,0 +1,72 @@
+package com.clinique.api.analytics;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Valeurs d'un agrégat journalier (mêmes colonnes que DailyAppointmentCounters).
+ * Additives : la différence entre deux états d'une ligne thérapeute s'applique telle quelle
+ * à la ligne de sa spécialité.
+ */
+public record DailyStats(
+        long booked,
+        long completed,
+        long cancelledByPatient,
+        long cancelledByTherapist,
+        double riskScoreSum,
+        long riskScoreCount,
+        double progressScoreSum,
+        long progressScoreCount,
+        double sentimentScoreSum,
+        long sentimentScoreCount
+) {
+
+    public static final DailyStats ZERO = new DailyStats(0, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+
+    static DailyStats read(ResultSet rs) throws SQLException {
+        return new DailyStats(
+                rs.getLong("booked"),
+                rs.getLong("completed"),
+                rs.getLong("cancelled_by_patient"),
+                rs.getLong("cancelled_by_therapist"),
+                rs.getDouble("risk_score_sum"),
+                rs.getLong("risk_score_count"),
+                rs.getDouble("progress_score_sum"),
+                rs.getLong("progress_score_count"),
+                rs.getDouble("sentiment_score_sum"),
+                rs.getLong("sentiment_score_count"));
+    }
+
+    public DailyStats plus(DailyStats other) {
+        return new DailyStats(
+                booked + other.booked,
+                completed + other.completed,
+                cancelledByPatient + other.cancelledByPatient,
+                cancelledByTherapist + other.cancelledByTherapist,
+                riskScoreSum + other.riskScoreSum,
+                riskScoreCount + other.riskScoreCount,
+                progressScoreSum + other.progressScoreSum,
+                progressScoreCount + other.progressScoreCount,
+                sentimentScoreSum + other.sentimentScoreSum,
+                sentimentScoreCount + other.sentimentScoreCount);
+    }
+
+    public DailyStats minus(DailyStats other) {
+        return plus(other.negate());
+    }
+
+    public DailyStats negate() {
+        return new DailyStats(-booked, -completed, -cancelledByPatient, -cancelledByTherapist,
+                -riskScoreSum, -riskScoreCount, -progressScoreSum, -progressScoreCount,
+                -sentimentScoreSum, -sentimentScoreCount);
+    }
+
+    /**
+     * Comparaison numérique (l'equals du record distingue 0.0 et -0.0, produit par negate()).
+     */
+    public boolean isZero() {
+        return booked == 0 && completed == 0 && cancelledByPatient == 0 && cancelledByTherapist == 0
+                && riskScoreSum == 0 && riskScoreCount == 0 && progressScoreSum == 0 && progressScoreCount == 0
+                && sentimentScoreSum == 0 && sentimentScoreCount == 0;
+    }
+}
@@ -0,0 +1,249 @@
+package com.clinique.api.analytics;
+
+import com.clinique.api.entity.AppointmentStatus;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Résumé compact de l'historique de chaque patient pour l'analyse de cohortes : jour de la première
+ * et de la dernière venue, et spécialité du thérapeute de la première venue (index dans un dictionnaire trié).
+ *
+ * Une venue est un RDV passé qui n'a pas été annulé par le patient (AppointmentStatus.isCancelledByPatient,
+ * comme pour le risque d'abandon). Les jours sont comptés depuis l'epoch.
+ */
+public final class PatientVisitSummaries {
+
+    private final LocalDate asOf;
+    private final int size;
+    private final int[] firstDays;
+    private final int[] lastDays;
+    private final int[] specialties;
+    private final String[] specialtyNames;
+
+    private PatientVisitSummaries(LocalDate asOf, int size, int[] firstDays, int[] lastDays,
+                                  int[] specialties, String[] specialtyNames) {
+        this.asOf = asOf;
+        this.size = size;
+        this.firstDays = firstDays;
+        this.lastDays = lastDays;
+        this.specialties = specialties;
+        this.specialtyNames = specialtyNames;
+    }
+
+    /**
+     * @param asOf seuls les RDV antérieurs à ce jour sont des venues
+     */
+    public static Builder builder(LocalDate asOf) {
+        return new Builder(asOf);
+    }
+
+    public LocalDate getAsOf() {
+        return asOf;
+    }
+
+    /**
+     * Nombre de patients venus au moins une fois.
+     */
+    public int size() {
+        return size;
+    }
+
+    public String[] getSpecialtyNames() {
+        return specialtyNames.clone();
+    }
+
+    /**
+     * Répartit en parallèle les patients entrés dans [from, to[ par (spécialité, mois d'entrée) et compte,
+     * pour chaque semaine N de 0 à weeks, les patients observables (N semaines écoulées avant asOf)
+     * et ceux encore venus à N semaines ou plus.
+     */
+    public CohortMatrix bucket(LocalDate from, LocalDate to, int weeks) {
+        int fromDay = (int) from.toEpochDay();
+        int toDay = (int) to.toEpochDay();
+        int asOfDay = (int) asOf.toEpochDay();
+
+        // Table jour -> cohorte (mois) sur la plage demandée
+        int[] dayToCohort = new int[toDay - fromDay];
+        LocalDate firstMonth = from.withDayOfMonth(1);
+        for (int i = 0; i < dayToCohort.length; i++) {
+            LocalDate month = from.plusDays(i).withDayOfMonth(1);
+            dayToCohort[i] = (int) ChronoUnit.MONTHS.between(firstMonth, month);
+        }
+        int cohorts = dayToCohort.length == 0 ? 0 : dayToCohort[dayToCohort.length - 1] + 1;
+
+        return IntStream.range(0, size).parallel().collect(
+                () -> new CohortMatrix(firstMonth, specialtyNames, cohorts, weeks),
+                (matrix, patient) -> {
+                    int first = firstDays[patient];
+                    if (first < fromDay || first >= toDay) {
+                        return;
+                    }
+                    int cell = specialties[patient] * cohorts + dayToCohort[first - fromDay];
+                    matrix.patients[cell]++;
+                    for (int week = 0; week <= weeks && first + 7 * week < asOfDay; week++) {
+                        int index = cell * (weeks + 1) + week;
+                        matrix.observed[index]++;
+                        if (lastDays[patient] >= first + 7 * week) {
+                            matrix.retained[index]++;
+                        }
+                    }
+                },
+                CohortMatrix::merge);
+    }
+
+    /**
+     * Compteurs à plat : patients[spécialité * cohortes + cohorte], observed / retained[cellule * (weeks + 1) + semaine].
+     */
+    public static final class CohortMatrix {
+
+        private final LocalDate firstMonth;
+        private final String[] specialtyNames;
+        private final int cohorts;
+        private final int weeks;
+        final int[] patients;
+        final int[] observed;
+        final int[] retained;
+
+        CohortMatrix(LocalDate firstMonth, String[] specialtyNames, int cohorts, int weeks) {
+            this.firstMonth = firstMonth;
+            this.specialtyNames = specialtyNames;
+            this.cohorts = cohorts;
+            this.weeks = weeks;
+            this.patients = new int[specialtyNames.length * cohorts];
+            this.observed = new int[patients.length * (weeks + 1)];
+            this.retained = new int[observed.length];
+        }
+
+        void merge(CohortMatrix other) {
+            Arrays.setAll(patients, i -> patients[i] + other.patients[i]);
+            Arrays.setAll(observed, i -> observed[i] + other.observed[i]);
+            Arrays.setAll(retained, i -> retained[i] + other.retained[i]);
+        }
+
+        public int specialties() {
+            return specialtyNames.length;
+        }
+
+        public String specialty(int specialty) {
+            return specialtyNames[specialty];
+        }
+
+        public int cohorts() {
+            return cohorts;
+        }
+
+        public LocalDate cohortMonth(int cohort) {
+            return firstMonth.plusMonths(cohort);
+        }
+
+        public int weeks() {
+            return weeks;
+        }
+
+        public int patients(int specialty, int cohort) {
+            return patients[specialty * cohorts + cohort];
+        }
+
+        public int observed(int specialty, int cohort, int week) {
+            return observed[(specialty * cohorts + cohort) * (weeks + 1) + week];
+        }
+
+        public int retained(int specialty, int cohort, int week) {
+            return retained[(specialty * cohorts + cohort) * (weeks + 1) + week];
+        }
+    }
+
+    /**
+     * Réduit au fil de l'eau des RDV groupés par patient (dans n'importe quel ordre à l'intérieur du groupe).
+     */
+    public static final class Builder {
+
+        private final LocalDate asOf;
+        private final int asOfDay;
+        private int size;
+        private int[] firstDays = new int[1024];
+        private int[] lastDays = new int[1024];
+        private long[] firstTherapists = new long[1024];
+
+        private boolean hasCurrent;
+        private long currentPatient;
+        private int currentFirst;
+        private int currentLast;
+        private long currentTherapist;
+        private boolean currentVisited;
+
+        private Builder(LocalDate asOf) {
+            this.asOf = asOf;
+            this.asOfDay = (int) asOf.toEpochDay();
+        }
+
+        /**
+         * @throws IllegalStateException si les RDV d'un patient ne se suivent pas
+         */
+        public Builder add(long patientId, int sessionDay, AppointmentStatus status, long therapistId) {
+            if (!hasCurrent || patientId != currentPatient) {
+                if (hasCurrent && patientId < currentPatient) {
+                    throw new IllegalStateException("Les rendez-vous doivent être groupés par patient croissant");
+                }
+                flush();
+                hasCurrent = true;
+                currentPatient = patientId;
+                currentVisited = false;
+            }
+            if (sessionDay >= asOfDay || status.isCancelledByPatient()) {
+                return this;
+            }
+            if (!currentVisited || sessionDay < currentFirst) {
+                currentFirst = sessionDay;
+                currentTherapist = therapistId;
+            }
+            if (!currentVisited || sessionDay > currentLast) {
+                currentLast = sessionDay;
+            }
+            currentVisited = true;
+            return this;
+        }
+
+        /**
+         * @param specialtiesByTherapist spécialité de chaque thérapeute ("" ou absent si aucune)
+         */
+        public PatientVisitSummaries build(Map<Long, String> specialtiesByTherapist) {
+            flush();
+            String[] names = Arrays.stream(firstTherapists, 0, size)
+                    .mapToObj(id -> specialtiesByTherapist.getOrDefault(id, ""))
+                    .distinct()
+                    .sorted()
+                    .toArray(String[]::new);
+            if (names.length == 0) {
+                names = new String[]{""};
+            }
+            int[] specialties = new int[size];
+            for (int i = 0; i < size; i++) {
+                specialties[i] = Arrays.binarySearch(names, specialtiesByTherapist.getOrDefault(firstTherapists[i], ""));
+            }
+            return new PatientVisitSummaries(asOf, size, Arrays.copyOf(firstDays, size), Arrays.copyOf(lastDays, size),
+                    specialties, names);
+        }
+
+        private void flush() {
+            if (!hasCurrent || !currentVisited) {
+                return;
+            }
+            if (size == firstDays.length) {
+                int capacity = size + (size >> 1);
+                firstDays = Arrays.copyOf(firstDays, capacity);
+                lastDays = Arrays.copyOf(lastDays, capacity);
+                firstTherapists = Arrays.copyOf(firstTherapists, capacity);
+            }
+            firstDays[size] = currentFirst;
+            lastDays[size] = currentLast;
+            firstTherapists[size] = currentTherapist;
+            size++;
+            currentVisited = false;
+        }
+    }
+}
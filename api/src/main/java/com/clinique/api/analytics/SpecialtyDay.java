@@ -0,0 +1,18 @@
+package com.clinique.api.analytics;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+
+/**
+ * Clé d'une ligne de specialty_daily_stats ("" pour les thérapeutes sans spécialité).
+ */
+public record SpecialtyDay(LocalDate day, String specialty) implements Comparable<SpecialtyDay> {
+
+    private static final Comparator<SpecialtyDay> ORDER =
+            Comparator.comparing(SpecialtyDay::day).thenComparing(SpecialtyDay::specialty);
+
+    @Override
+    public int compareTo(SpecialtyDay other) {
+        return ORDER.compare(this, other);
+    }
+}
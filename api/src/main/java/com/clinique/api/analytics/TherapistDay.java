@@ -0,0 +1,19 @@
+package com.clinique.api.analytics;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+
+/**
+ * Clé d'une ligne de therapist_daily_stats.
+ */
+public record TherapistDay(LocalDate day, Long therapistId) implements Comparable<TherapistDay> {
+
+    // Ordre des verrous et des écritures : thérapeute d'abord, comme le verrou sur therapist_profiles
+    private static final Comparator<TherapistDay> ORDER =
+            Comparator.comparing(TherapistDay::therapistId).thenComparing(TherapistDay::day);
+
+    @Override
+    public int compareTo(TherapistDay other) {
+        return ORDER.compare(this, other);
+    }
+}
@@ -0,0 +1,11 @@
+package com.clinique.api.analytics;
+
+/**
+ * Ligne de therapist_daily_stats : clé, spécialité ("" si aucune) et valeurs.
+ */
+public record TherapistDayStats(TherapistDay key, String specialty, DailyStats stats) {
+
+    public SpecialtyDay specialtyDay() {
+        return new SpecialtyDay(key.day(), specialty);
+    }
+}
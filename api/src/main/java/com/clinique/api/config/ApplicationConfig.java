@@ -63,12 +63,19 @@ public class ApplicationConfig {
     public AuthenticationManager authenticationManager(AuthenticationConfiguration config) throws Exception {
         return config.getAuthenticationManager();
     }
+    /**
+     * Client HTTP du service de ML (Python).
+     * Construit à partir du WebClient.Builder de Spring Boot pour être instrumenté
+     * automatiquement (métrique http.client.requests par endpoint et par résultat).
+     */
     @Bean
-    public org.springframework.web.reactive.function.client.WebClient mlWebClient() {
-        return org.springframework.web.reactive.function.client.WebClient.builder()
-                .baseUrl("http://localhost:8001") // L'adresse de votre service Python
+    public org.springframework.web.reactive.function.client.WebClient mlWebClient(
+            org.springframework.web.reactive.function.client.WebClient.Builder builder,
+            @org.springframework.beans.factory.annotation.Value("${application.ml.base-url}") String mlBaseUrl) {
+        return builder
+                .baseUrl(mlBaseUrl) // L'adresse de votre service Python
                 .defaultHeader(org.springframework.http.HttpHeaders.CONTENT_TYPE,
                         org.springframework.http.MediaType.APPLICATION_JSON_VALUE)
                 .build();
     }
-}
\ No newline at end of file
+}
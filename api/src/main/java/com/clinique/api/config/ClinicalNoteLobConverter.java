@@ -0,0 +1,96 @@
+package com.clinique.api.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Convertit les notes écrites quand summary / private_notes étaient mappés en @Lob
+ * (db/clinical-notes-lob-to-text.sql) : la colonne TEXT contient alors l'OID d'un large object,
+ * que le mapping actuel renverrait tel quel comme texte de la note (et que search_vector indexerait).
+ *
+ * Lancé au démarrage avant NoteSearchSchemaInitializer. Le script est idempotent et n'est envoyé
+ * que si la base contient des large objects. Si des notes restent à convertir, l'erreur est
+ * journalisée à chaque démarrage. Désactivable avec application.notes.convert-lobs=false
+ * lorsque le script est appliqué à la main.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "application.notes.convert-lobs", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class ClinicalNoteLobConverter {
+
+    private static final String SCRIPT = "db/clinical-notes-lob-to-text.sql";
+
+    private static final String HAS_LARGE_OBJECTS = "SELECT EXISTS (SELECT 1 FROM pg_largeobject_metadata)";
+
+    // Notes dont un champ est encore l'OID d'un large object existant
+    private static final String COUNT_LOB_NOTES = "SELECT count(*) FROM clinical_notes n "
+            + "WHERE EXISTS (SELECT 1 FROM pg_largeobject_metadata m "
+            + "WHERE (n.summary ~ '^[0-9]+$' AND m.oid::text = n.summary) "
+            + "OR (n.private_notes ~ '^[0-9]+$' AND m.oid::text = n.private_notes))";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void convert() throws IOException {
+        try {
+            if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(HAS_LARGE_OBJECTS, Boolean.class))) {
+                return;
+            }
+            Long lobNotes = jdbcTemplate.queryForObject(COUNT_LOB_NOTES, Long.class);
+            if (lobNotes == null || lobNotes == 0) {
+                return;
+            }
+            log.warn("{} notes cliniques stockées en large object : conversion en texte ({})", lobNotes, SCRIPT);
+            runScript();
+
+            Long remaining = jdbcTemplate.queryForObject(COUNT_LOB_NOTES, Long.class);
+            if (remaining != null && remaining > 0) {
+                log.error("{} notes cliniques contiennent encore l'OID d'un large object au lieu de leur texte : "
+                        + "elles s'affichent et sont indexées comme des nombres tant que {} n'a pas abouti", remaining, SCRIPT);
+            }
+        } catch (DataAccessException e) {
+            log.error("Notes cliniques non vérifiées : les notes écrites en large object ne sont pas converties ({})",
+                    SCRIPT, e);
+        }
+    }
+
+    private void runScript() throws IOException {
+        String script = new ClassPathResource(SCRIPT).getContentAsString(StandardCharsets.UTF_8);
+        long start = System.nanoTime();
+        try {
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                try (Statement statement = connection.createStatement()) {
+                    try {
+                        // Envoyé d'un bloc : le script ouvre et valide sa propre transaction (BEGIN ... COMMIT)
+                        statement.execute(script);
+                    } catch (SQLException e) {
+                        // Ne pas rendre au pool une connexion restée dans la transaction en échec
+                        statement.execute("ROLLBACK");
+                        throw e;
+                    }
+                }
+                return null;
+            });
+            log.info("Notes cliniques converties en {} ms", (System.nanoTime() - start) / 1_000_000);
+        } catch (DataAccessException e) {
+            log.error("Échec de la conversion des notes cliniques ({})", SCRIPT, e);
+        }
+    }
+}
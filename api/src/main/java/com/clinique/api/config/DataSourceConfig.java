@@ -0,0 +1,78 @@
+package com.clinique.api.config;
+
+import com.clinique.api.dbpool.ConnectionHoldMetricsTrackerFactory;
+import com.clinique.api.dbpool.ConnectionHoldTracker;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.client.RestTemplateCustomizer;
+import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * DataSource JDBC (JPA, JdbcTemplate, COPY) déclarée explicitement : Spring Boot n'en
+ * auto-configure plus dès qu'une ConnectionFactory R2DBC existe (lecture des listes en flux).
+ * Les propriétés spring.datasource.* et spring.datasource.hikari.* s'appliquent comme avant.
+ *
+ * Chaque connexion empruntée est attribuée à la méthode qui la tient (ConnectionHoldTracker) ;
+ * les clients HTTP (RestTemplate, WebClient) y ajoutent leur temps d'appel pour repérer
+ * les connexions immobilisées pendant un appel au service de ML.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties dataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    public ConnectionHoldTracker connectionHoldTracker(
+            MeterRegistry registry,
+            @Value("${application.datasource.hold.slow-threshold:PT1S}") Duration slowThreshold) {
+        return new ConnectionHoldTracker(registry, slowThreshold);
+    }
+
+    // Suivi de métriques posé avant le démarrage du pool : Spring Boot ne pose alors pas le sien,
+    // les métriques hikaricp.* sont conservées par délégation
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties dataSourceProperties, MeterRegistry registry,
+                                       ConnectionHoldTracker connectionHoldTracker) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setMetricsTrackerFactory(new ConnectionHoldMetricsTrackerFactory(
+                new MicrometerMetricsTrackerFactory(registry), connectionHoldTracker));
+        return dataSource;
+    }
+
+    @Bean
+    public RestTemplateCustomizer connectionHoldRestTemplateCustomizer(ConnectionHoldTracker connectionHoldTracker) {
+        ClientHttpRequestInterceptor interceptor = (request, body, execution) -> {
+            ConnectionHoldTracker.OutboundCall call = connectionHoldTracker.startOutboundCall();
+            try {
+                return execution.execute(request, body);
+            } finally {
+                call.finish();
+            }
+        };
+        return restTemplate -> restTemplate.getInterceptors().add(interceptor);
+    }
+
+    // L'échange démarre à l'abonnement, sur le thread qui attend la réponse (block())
+    @Bean
+    public WebClientCustomizer connectionHoldWebClientCustomizer(ConnectionHoldTracker connectionHoldTracker) {
+        return builder -> builder.filter((request, next) -> Mono.defer(() -> {
+            ConnectionHoldTracker.OutboundCall call = connectionHoldTracker.startOutboundCall();
+            return next.exchange(request).doFinally(signal -> call.finish());
+        }));
+    }
+}
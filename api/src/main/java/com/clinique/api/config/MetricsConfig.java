@@ -0,0 +1,21 @@
+package com.clinique.api.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration des métriques Micrometer (exposées via /actuator/prometheus).
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Active l'annotation @Timed sur les beans Spring (méthodes publiques des services).
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+}
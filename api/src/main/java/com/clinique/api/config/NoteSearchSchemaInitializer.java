@@ -0,0 +1,52 @@
+package com.clinique.api.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Installe la recherche plein texte des notes (db/clinical-notes-search.sql) que ddl-auto
+ * ne sait pas créer : configuration unaccent, colonne tsvector générée, index GIN.
+ *
+ * Lancé une fois le schéma Hibernate à jour, après ClinicalNoteLobConverter (le texte indexé
+ * doit être celui des notes, pas l'OID d'un ancien large object). Le script est idempotent : seul le premier démarrage
+ * sur une base existante est long (réécriture de clinical_notes). Désactivable avec
+ * application.notes.search.install-schema=false lorsque le script est appliqué à la main.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "application.notes.search.install-schema", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class NoteSearchSchemaInitializer {
+
+    private static final String SCRIPT = "db/clinical-notes-search.sql";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    public void install() throws IOException {
+        String script = new ClassPathResource(SCRIPT).getContentAsString(StandardCharsets.UTF_8);
+        long start = System.nanoTime();
+        try {
+            // Envoyé d'un bloc : le découpage sur ";" casserait les blocs DO $$ ... $$
+            jdbcTemplate.execute(script);
+            log.info("Recherche dans les notes : schéma vérifié en {} ms", (System.nanoTime() - start) / 1_000_000);
+        } catch (DataAccessException e) {
+            // L'application reste utilisable, seule la recherche échouera
+            log.error("Recherche dans les notes indisponible : échec de {} (extensions unaccent / btree_gin ?)",
+                    SCRIPT, e);
+        }
+    }
+}
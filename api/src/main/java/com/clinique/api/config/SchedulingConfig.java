@@ -0,0 +1,28 @@
+package com.clinique.api.config;
+
+import com.clinique.api.reminder.ReminderProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Active les tâches planifiées (@Scheduled), les traitements asynchrones (@Async)
+ * de l'application et leurs propriétés de configuration.
+ */
+@Configuration
+@EnableAsync
+@EnableConfigurationProperties(ReminderProperties.class)
+public class SchedulingConfig {
+
+    /**
+     * Tâches planifiées, désactivables d'un bloc avec application.scheduling.enabled=false
+     * (profil generate-data : le générateur doit être seul à lire et écrire la base).
+     */
+    @Configuration
+    @EnableScheduling
+    @ConditionalOnProperty(name = "application.scheduling.enabled", havingValue = "true", matchIfMissing = true)
+    static class Scheduling {
+    }
+}
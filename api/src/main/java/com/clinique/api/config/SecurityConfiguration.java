@@ -1,17 +1,29 @@
 package com.clinique.api.config;
 
+import com.clinique.api.entity.Role;
 import com.clinique.api.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
+import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -25,15 +37,59 @@ import java.util.List;
 @EnableMethodSecurity
 public class SecurityConfiguration {
 
+        private static final String METRICS_SCRAPE_AUTHORITY = "ROLE_METRICS";
+
         private final JwtAuthenticationFilter jwtAuthFilter;
         private final AuthenticationProvider authenticationProvider;
 
+        /**
+         * Endpoints Actuator : /actuator/health reste public (sondes), les métriques (dont le scrape Prometheus)
+         * sont réservées aux administrateurs (JWT) et au compte de scrape (HTTP Basic, application.metrics.scrape.*).
+         * Sans mot de passe de scrape configuré, seul le JWT administrateur est accepté.
+         */
+        @Bean
+        @Order(1)
+        public SecurityFilterChain actuatorSecurityFilterChain(
+                        HttpSecurity http,
+                        PasswordEncoder passwordEncoder,
+                        @Value("${application.metrics.scrape.username:prometheus}") String scrapeUsername,
+                        @Value("${application.metrics.scrape.password:}") String scrapePassword) throws Exception {
+                InMemoryUserDetailsManager scrapeUsers = new InMemoryUserDetailsManager();
+                if (!scrapePassword.isBlank()) {
+                        scrapeUsers.createUser(User.withUsername(scrapeUsername)
+                                        .password(passwordEncoder.encode(scrapePassword))
+                                        .authorities(METRICS_SCRAPE_AUTHORITY)
+                                        .build());
+                }
+                DaoAuthenticationProvider scrapeProvider = new DaoAuthenticationProvider(scrapeUsers);
+                scrapeProvider.setPasswordEncoder(passwordEncoder);
+
+                http
+                                // Matcher explicite : securityMatcher(String) exige Spring MVC et empêche le démarrage
+                                // sans serveur web (profil generate-data)
+                                .securityMatcher(PathPatternRequestMatcher.withDefaults().matcher("/actuator/**"))
+                                .csrf(AbstractHttpConfigurer::disable)
+                                .authorizeHttpRequests(auth -> auth
+                                                .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                                                .anyRequest().hasAnyAuthority(Role.ROLE_ADMIN.name(), METRICS_SCRAPE_AUTHORITY))
+                                .httpBasic(Customizer.withDefaults())
+                                .authenticationManager(new ProviderManager(scrapeProvider))
+                                .sessionManagement(sess -> sess.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                                .addFilterBefore(jwtAuthFilter, BasicAuthenticationFilter.class);
+
+                return http.build();
+        }
+
         @Bean
+        @Order(2)
         public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
                 http
                                 .cors(org.springframework.security.config.Customizer.withDefaults())
                                 .csrf(AbstractHttpConfigurer::disable)
                                 .authorizeHttpRequests(auth -> auth
+                                                // Réponses en flux : la requête initiale a déjà été autorisée, le dispatch
+                                                // ASYNC qui termine la réponse n'a plus de contexte JWT (STATELESS)
+                                                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                                                 .requestMatchers(
                                                                 "/api/v1/auth/**",
                                                                 "/v2/api-docs",
@@ -0,0 +1,31 @@
+package com.clinique.api.config;
+
+import com.clinique.api.threads.VirtualThreadPinningMonitor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Mode threads virtuels (spring.threads.virtual.enabled=true, profil "virtual-threads").
+ *
+ * Spring Boot bascule alors Tomcat, l'exécuteur @Async et le planificateur @Scheduled
+ * sur des threads virtuels ; les appels bloquants (block() du mlWebClient, RestTemplate
+ * de MlService, JDBC) libèrent leur thread porteur au lieu d'occuper un thread du pool.
+ * On y ajoute la détection des épinglages qui annuleraient ce bénéfice.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class ThreadingConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(
+            MeterRegistry registry,
+            @Value("${application.threads.pinned-threshold:PT0.02S}") Duration pinnedThreshold) {
+        return new VirtualThreadPinningMonitor(registry, pinnedThreshold);
+    }
+}
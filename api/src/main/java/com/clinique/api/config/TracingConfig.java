@@ -0,0 +1,51 @@
+package com.clinique.api.config;
+
+import com.clinique.api.tracing.FileSpanExporter;
+import com.clinique.api.tracing.SlowTraceSpanProcessor;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.tracing.ConditionalOnEnabledTracing;
+import org.springframework.boot.actuate.autoconfigure.tracing.SpanProcessors;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Configuration du tracing distribué (Micrometer Tracing + OpenTelemetry).
+ *
+ * Les appels HTTP sortants (mlWebClient, RestTemplate de MlService) propagent
+ * automatiquement l'en-tête W3C "traceparent" vers le service de ML.
+ * L'export (collecteur OTLP local et/ou fichier) ne garde que les traces lentes,
+ * en erreur, ou un petit échantillon de base.
+ */
+@Configuration
+@ConditionalOnEnabledTracing
+public class TracingConfig {
+
+    /**
+     * Remplace la liste des processeurs de Spring Boot : le BatchSpanProcessor
+     * auto-configuré ne reçoit plus que les traces retenues par SlowTraceSpanProcessor.
+     */
+    @Bean
+    public SpanProcessors spanProcessors(
+            BatchSpanProcessor otelSpanProcessor,
+            @Value("${application.tracing.slow-threshold:PT0.5S}") Duration slowThreshold,
+            @Value("${application.tracing.baseline-ratio:0.01}") double baselineRatio,
+            @Value("${application.tracing.max-buffered-traces:10000}") int maxBufferedTraces) {
+        return SpanProcessors.of(new SlowTraceSpanProcessor(
+                otelSpanProcessor, slowThreshold.toNanos(), baselineRatio, maxBufferedTraces));
+    }
+
+    /**
+     * Export fichier, activé en renseignant application.tracing.file.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "application.tracing.file")
+    public SpanExporter fileSpanExporter(@Value("${application.tracing.file}") String file) {
+        return new FileSpanExporter(Path.of(file));
+    }
+}
@@ -1,6 +1,8 @@
 package com.clinique.api.config;
 
+import com.clinique.api.dto.ExportFormat;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.format.FormatterRegistry;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -16,4 +18,12 @@ public class WebMvcConfig implements WebMvcConfigurer {
                 .allowCredentials(true)
                 .maxAge(3600);
     }
+
+    /**
+     * Paramètre format=csv|ndjson insensible à la casse.
+     */
+    @Override
+    public void addFormatters(FormatterRegistry registry) {
+        registry.addConverter(String.class, ExportFormat.class, value -> ExportFormat.valueOf(value.trim().toUpperCase()));
+    }
 }
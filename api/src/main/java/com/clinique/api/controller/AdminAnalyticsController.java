@@ -0,0 +1,91 @@
+package com.clinique.api.controller;
+
+import com.clinique.api.analytics.AnalyticsService;
+import com.clinique.api.analytics.CohortRetentionService;
+import com.clinique.api.dto.AnalyticsGroupBy;
+import com.clinique.api.dto.AnalyticsReportDTO;
+import com.clinique.api.dto.CohortRetentionDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+/**
+ * Contrôleur des rapports d'activité de la clinique (admin uniquement).
+ */
+@RestController
+@RequestMapping("/api/v1/admin/analytics")
+@RequiredArgsConstructor
+@PreAuthorize("hasAuthority('ROLE_ADMIN')")
+public class AdminAnalyticsController {
+
+    private final AnalyticsService analyticsService;
+    private final CohortRetentionService cohortRetentionService;
+
+    /**
+     * Endpoint d'activité sur les séances de [from, to[ : RDV pris, terminés, annulés (patient / thérapeute),
+     * risque d'annulation, progression et sentiment moyens.
+     * Ex: /api/v1/admin/analytics?from=2025-01-01&to=2025-07-01&groupBy=MONTH&specialty=Psychologue
+     */
+    @GetMapping
+    public ResponseEntity<AnalyticsReportDTO> getReport(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "TOTAL") AnalyticsGroupBy groupBy,
+            @RequestParam(required = false) String specialty,
+            @RequestParam(required = false) Long therapistId
+    ) {
+        return ResponseEntity.ok(analyticsService.getReport(from, to, groupBy, specialty, therapistId));
+    }
+
+    /**
+     * Endpoint d'activité calculée sur l'instantané en mémoire des rendez-vous (tableaux de bord interactifs) :
+     * mêmes paramètres, plus un filtre par patient.
+     * Ex: /api/v1/admin/analytics/live?from=2025-01-01&to=2026-01-01&groupBy=THERAPIST&specialty=Psychologue
+     */
+    @GetMapping("/live")
+    public ResponseEntity<AnalyticsReportDTO> getLiveReport(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "TOTAL") AnalyticsGroupBy groupBy,
+            @RequestParam(required = false) String specialty,
+            @RequestParam(required = false) Long therapistId,
+            @RequestParam(required = false) Long patientId
+    ) {
+        return ResponseEntity.ok(analyticsService.getLiveReport(from, to, groupBy, specialty, therapistId, patientId));
+    }
+
+    /**
+     * Endpoint de rétention des patients entrés entre from et to : part encore venue N semaines
+     * après la première venue (N = 0..weeks), par spécialité et par mois d'entrée. Calculé une fois par jour.
+     * Ex: /api/v1/admin/analytics/retention?from=2025-01-01&to=2025-07-01&weeks=12
+     */
+    @GetMapping("/retention")
+    public ResponseEntity<CohortRetentionDTO> getRetention(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "12") int weeks
+    ) {
+        return ResponseEntity.ok(cohortRetentionService.getRetention(from, to, weeks));
+    }
+
+    /**
+     * Endpoint de recalcul des agrégats de [from, to[ (reprise d'historique, écritures faites hors de l'API).
+     * Répond tout de suite (202) ; 409 si un recalcul est déjà en cours.
+     */
+    @PostMapping("/backfill")
+    public ResponseEntity<Void> startBackfill(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        analyticsService.startBackfill(from, to);
+        return ResponseEntity.accepted().build();
+    }
+}
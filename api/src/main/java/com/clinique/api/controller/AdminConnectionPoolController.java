@@ -0,0 +1,34 @@
+package com.clinique.api.controller;
+
+import com.clinique.api.dbpool.ConnectionPoolService;
+import com.clinique.api.dto.ConnectionPoolStatusDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+
+/**
+ * Contrôleur de diagnostic du pool de connexions JDBC (admin uniquement).
+ */
+@RestController
+@RequestMapping("/api/v1/admin/db-pool")
+@RequiredArgsConstructor
+@PreAuthorize("hasAuthority('ROLE_ADMIN')")
+public class AdminConnectionPoolController {
+
+    private final ConnectionPoolService connectionPoolService;
+
+    /**
+     * Endpoint d'état : connexions actives / libres, threads en attente, et connexions tenues
+     * depuis au moins minHeld (ISO-8601, PT0S par défaut) avec la méthode qui les tient.
+     */
+    @GetMapping
+    public ResponseEntity<ConnectionPoolStatusDTO> getStatus(@RequestParam(defaultValue = "PT0S") Duration minHeld) {
+        return ResponseEntity.ok(connectionPoolService.getStatus(minHeld));
+    }
+}
@@ -0,0 +1,43 @@
+package com.clinique.api.controller;
+
+import com.clinique.api.dto.MlExportStatusDTO;
+import com.clinique.api.mlexport.MlTrainingExportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Contrôleur des exports de données d'entraînement pour le service de ML (admin uniquement).
+ */
+@RestController
+@RequestMapping("/api/v1/admin/ml-exports")
+@RequiredArgsConstructor
+@PreAuthorize("hasAuthority('ROLE_ADMIN')")
+public class AdminMlExportController {
+
+    private final MlTrainingExportService exportService;
+
+    /**
+     * Endpoint d'état des exports : filigrane et dernier fichier de chaque jeu d'entraînement.
+     */
+    @GetMapping
+    public ResponseEntity<List<MlExportStatusDTO>> getStatus() {
+        return ResponseEntity.ok(exportService.getStatus());
+    }
+
+    /**
+     * Endpoint d'export immédiat des nouveaux exemples (en plus de l'export de nuit).
+     * Répond tout de suite (202) ; 409 si un export est déjà en cours.
+     */
+    @PostMapping
+    public ResponseEntity<Void> startExport() {
+        exportService.startExport();
+        return ResponseEntity.accepted().build();
+    }
+}
@@ -0,0 +1,42 @@
+package com.clinique.api.controller;
+
+import com.clinique.api.dto.MlRescoringStatusDTO;
+import com.clinique.api.mlrescore.AppointmentRescoringService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Contrôleur du re-scoring des rendez-vous à venir (admin uniquement).
+ */
+@RestController
+@RequestMapping("/api/v1/admin/ml-rescoring")
+@RequiredArgsConstructor
+@PreAuthorize("hasAuthority('ROLE_ADMIN')")
+public class AdminMlRescoringController {
+
+    private final AppointmentRescoringService rescoringService;
+
+    /**
+     * Endpoint d'état : passage en cours et bilan du dernier passage.
+     */
+    @GetMapping
+    public ResponseEntity<MlRescoringStatusDTO> getStatus() {
+        return ResponseEntity.ok(rescoringService.getStatus());
+    }
+
+    /**
+     * Endpoint de re-scoring immédiat (en plus du passage de nuit). force=true re-score aussi
+     * les RDV déjà scorés par le modèle courant. Répond tout de suite (202) ; 409 si un passage est en cours.
+     */
+    @PostMapping
+    public ResponseEntity<Void> startRescoring(@RequestParam(defaultValue = "false") boolean force) {
+        rescoringService.startRescoring(force);
+        return ResponseEntity.accepted().build();
+    }
+}
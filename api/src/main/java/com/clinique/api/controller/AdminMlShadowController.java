@@ -0,0 +1,33 @@
+package com.clinique.api.controller;
+
+import com.clinique.api.dto.ShadowReportDTO;
+import com.clinique.api.mlshadow.ShadowReportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Contrôleur de l'évaluation shadow des modèles de ML candidats (admin uniquement).
+ */
+@RestController
+@RequestMapping("/api/v1/admin/ml-shadow")
+@RequiredArgsConstructor
+@PreAuthorize("hasAuthority('ROLE_ADMIN')")
+public class AdminMlShadowController {
+
+    private final ShadowReportService shadowReportService;
+
+    /**
+     * Endpoint de comparaison du modèle d'annulation courant et du candidat sur le trafic réel :
+     * AUC, score de Brier, calibration par tranche de score et latence des appels.
+     * Ex: /api/v1/admin/ml-shadow/report?candidateVersion=cancellation_candidate-3f2a9c1e7b44
+     */
+    @GetMapping("/report")
+    public ResponseEntity<ShadowReportDTO> getReport(@RequestParam(required = false) String candidateVersion) {
+        return ResponseEntity.ok(shadowReportService.getReport(candidateVersion));
+    }
+}
@@ -1,20 +1,31 @@
 package com.clinique.api.controller;
 
 import com.clinique.api.dto.AppointmentDTO;
+import com.clinique.api.dto.AppointmentSeriesDTO;
+import com.clinique.api.dto.CreateAppointmentSeriesRequest;
 import com.clinique.api.dto.CreateAppointmentRequest;
+import com.clinique.api.dto.ExportFormat;
 import com.clinique.api.dto.PredictionTimingResponse;
 import com.clinique.api.dto.UpdateNoteRequest;
 import com.clinique.api.entity.User;
+import com.clinique.api.service.AppointmentExportService;
 import com.clinique.api.service.AppointmentService;
 import com.clinique.api.service.ClinicalNoteService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
 
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -27,6 +38,7 @@ public class AppointmentController {
 
     private final AppointmentService appointmentService;
     private final ClinicalNoteService clinicalNoteService;
+    private final AppointmentExportService appointmentExportService;
 
     /**
      * Endpoint pour créer un rendez-vous.
@@ -40,6 +52,18 @@ public class AppointmentController {
         return ResponseEntity.status(HttpStatus.CREATED).body(appointment);
     }
 
+    /**
+     * Endpoint pour créer une série de rendez-vous récurrents (ex: hebdomadaire).
+     */
+    @PostMapping("/series")
+    @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_THERAPIST')")
+    public ResponseEntity<AppointmentSeriesDTO> createAppointmentSeries(
+            @Valid @RequestBody CreateAppointmentSeriesRequest request
+    ) {
+        AppointmentSeriesDTO series = appointmentService.createAppointmentSeries(request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(series);
+    }
+
     /**
      * Endpoint pour récupérer un rendez-vous par son ID.
      */
@@ -79,6 +103,63 @@ public class AppointmentController {
         return ResponseEntity.ok(appointments);
     }
 
+    /**
+     * Historique d'un patient en flux : NDJSON (application/x-ndjson) ou SSE (text/event-stream)
+     * selon l'en-tête Accept. Chaque rendez-vous est envoyé dès qu'il est lu, sans liste en mémoire.
+     */
+    @GetMapping(value = "/patient/{patientId}/stream",
+            produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    @PreAuthorize("isAuthenticated()")
+    public Flux<AppointmentDTO> streamAppointmentsForPatient(
+            @PathVariable Long patientId,
+            @AuthenticationPrincipal User currentUser
+    ) {
+        return appointmentService.streamAppointmentsForPatient(patientId, currentUser);
+    }
+
+    /**
+     * Rendez-vous d'un thérapeute en flux (NDJSON ou SSE).
+     */
+    @GetMapping(value = "/therapist/{therapistId}/stream",
+            produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    @PreAuthorize("isAuthenticated()")
+    public Flux<AppointmentDTO> streamAppointmentsForTherapist(
+            @PathVariable Long therapistId,
+            @AuthenticationPrincipal User currentUser
+    ) {
+        return appointmentService.streamAppointmentsForTherapist(therapistId, currentUser);
+    }
+
+    /**
+     * Export (CSV ou NDJSON) des rendez-vous et notes d'un thérapeute, éventuellement limité à [from, to[.
+     * Le fichier est écrit au fil de la lecture, compressé en gzip si le client l'accepte.
+     */
+    @GetMapping("/therapist/{therapistId}/export")
+    @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_THERAPIST')")
+    public ResponseEntity<StreamingResponseBody> exportAppointmentsForTherapist(
+            @PathVariable Long therapistId,
+            @RequestParam(defaultValue = "CSV") ExportFormat format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @AuthenticationPrincipal User currentUser
+    ) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        StreamingResponseBody body = appointmentExportService.exportTherapistAppointments(
+                therapistId, from, to, format, gzip, currentUser);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_TYPE, format.getContentType() + ";charset=UTF-8")
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("therapist-" + therapistId + "-appointments." + format.getExtension())
+                        .build().toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
     /**
      * Endpoint pour créer ou mettre à jour la note clinique d'un RDV.
      */
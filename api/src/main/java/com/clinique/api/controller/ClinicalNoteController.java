@@ -0,0 +1,58 @@
+package com.clinique.api.controller;
+
+import com.clinique.api.dto.ClinicalNoteDetailDTO;
+import com.clinique.api.dto.NoteSearchPageDTO;
+import com.clinique.api.entity.User;
+import com.clinique.api.service.ClinicalNoteService;
+import com.clinique.api.service.NoteSearchService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Contrôleur des notes cliniques (consultation et recherche).
+ * L'écriture d'une note reste sur /api/v1/appointments/{id}/note.
+ */
+@RestController
+@RequestMapping("/api/v1/notes")
+@RequiredArgsConstructor
+public class ClinicalNoteController {
+
+    private final NoteSearchService noteSearchService;
+    private final ClinicalNoteService clinicalNoteService;
+
+    /**
+     * Endpoint pour lire une note complète : seul chemin qui charge son texte
+     * (les listes de rendez-vous n'en donnent que l'ID et les scores).
+     */
+    @GetMapping("/{noteId}")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ClinicalNoteDetailDTO> getNote(
+            @PathVariable Long noteId,
+            @AuthenticationPrincipal User currentUser
+    ) {
+        return ResponseEntity.ok(clinicalNoteService.getNote(noteId, currentUser));
+    }
+
+    /**
+     * Endpoint de recherche par mots-clés dans les notes d'un thérapeute (le thérapeute lui-même ou l'admin).
+     * Ex: /api/v1/notes/therapist/12/search?q=sommeil -médicament&page=0&size=20
+     */
+    @GetMapping("/therapist/{therapistId}/search")
+    @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_THERAPIST')")
+    public ResponseEntity<NoteSearchPageDTO> searchTherapistNotes(
+            @PathVariable Long therapistId,
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @AuthenticationPrincipal User currentUser
+    ) {
+        return ResponseEntity.ok(noteSearchService.searchTherapistNotes(therapistId, q, page, size, currentUser));
+    }
+}
@@ -1,14 +1,19 @@
 package com.clinique.api.controller;
 
+import com.clinique.api.dto.PatientChurnRiskDTO;
 import com.clinique.api.dto.PatientInfoDTO;
+import com.clinique.api.dto.ProgressTimelineDTO;
 import com.clinique.api.entity.User;
+import com.clinique.api.service.PatientProgressService;
 import com.clinique.api.service.PatientService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
@@ -19,6 +24,7 @@ import java.util.List;
 public class PatientController {
 
     private final PatientService patientService;
+    private final PatientProgressService patientProgressService;
 
     /**
      * Endpoint pour récupérer la liste de tous les patients
@@ -32,6 +38,17 @@ public class PatientController {
         return ResponseEntity.ok(patients);
     }
 
+    /**
+     * Endpoint du risque d'abandon de tous les patients du thérapeute connecté, du plus au moins à risque
+     * (une seule prédiction par lot côté service de ML).
+     */
+    @GetMapping("/churn-risks")
+    @PreAuthorize("hasAuthority('ROLE_THERAPIST')")
+    public ResponseEntity<List<PatientChurnRiskDTO>> getMyPatientsChurnRisks(
+            @AuthenticationPrincipal User currentUser) {
+        return ResponseEntity.ok(patientService.getMyPatientsChurnRisks(currentUser));
+    }
+
     @GetMapping("/{id}/churn-risk")
     @PreAuthorize("hasAuthority('ROLE_THERAPIST')")
     public ResponseEntity<com.clinique.api.dto.ChurnRiskDTO> getChurnRisk(
@@ -39,4 +56,17 @@ public class PatientController {
             @AuthenticationPrincipal User currentUser) {
         return ResponseEntity.ok(patientService.getPatientChurnRisk(id, currentUser));
     }
-}
\ No newline at end of file
+
+    /**
+     * Endpoint de la chronologie des scores (progression, sentiment) d'un patient, pour les graphiques.
+     * Ex: /api/v1/patients/42/progress?maxPoints=100 (sans maxPoints : toutes les séances notées)
+     */
+    @GetMapping("/{id}/progress")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ProgressTimelineDTO> getProgressTimeline(
+            @PathVariable Long id,
+            @RequestParam(required = false) Integer maxPoints,
+            @AuthenticationPrincipal User currentUser) {
+        return ResponseEntity.ok(patientProgressService.getTimeline(id, maxPoints, currentUser));
+    }
+}
@@ -1,13 +1,18 @@
 package com.clinique.api.controller;
 
 import com.clinique.api.dto.TherapistInfoDTO;
+import com.clinique.api.service.TherapistDirectory;
 import com.clinique.api.service.TherapistService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
 
 import java.util.List;
 
@@ -18,9 +23,29 @@ public class TherapistController {
 
     private final TherapistService therapistService;
 
+    /**
+     * Annuaire servi depuis l'instantané en mémoire, filtrable par spécialité et par nom.
+     * Un client qui renvoie l'ETag reçu (If-None-Match) obtient un 304 tant que l'annuaire n'a pas changé.
+     */
     @GetMapping
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<List<TherapistInfoDTO>> getAllTherapists() {
-        return ResponseEntity.ok(therapistService.getAllTherapists());
+    public ResponseEntity<List<TherapistInfoDTO>> getAllTherapists(
+            @RequestParam(required = false) String specialty,
+            @RequestParam(required = false) String q) {
+        TherapistDirectory directory = therapistService.getDirectory();
+        // Spring compare l'ETag à If-None-Match et répond 304 sans sérialiser le corps
+        return ResponseEntity.ok()
+                .eTag(directory.getEtag())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(directory.search(specialty, q));
+    }
+
+    /**
+     * Annuaire des thérapeutes en flux (NDJSON ou SSE selon l'en-tête Accept).
+     */
+    @GetMapping(value = "/stream", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    @PreAuthorize("isAuthenticated()")
+    public Flux<TherapistInfoDTO> streamAllTherapists() {
+        return therapistService.streamAllTherapists();
     }
 }
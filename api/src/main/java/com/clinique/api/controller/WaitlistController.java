@@ -0,0 +1,75 @@
+package com.clinique.api.controller;
+
+import com.clinique.api.dto.AppointmentDTO;
+import com.clinique.api.dto.JoinWaitlistRequest;
+import com.clinique.api.dto.WaitlistEntryDTO;
+import com.clinique.api.entity.User;
+import com.clinique.api.service.WaitlistService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Contrôleur gérant la liste d'attente des thérapeutes.
+ */
+@RestController
+@RequestMapping("/api/v1/waitlist")
+@RequiredArgsConstructor
+public class WaitlistController {
+
+    private final WaitlistService waitlistService;
+
+    /**
+     * Inscrit un patient sur la liste d'attente d'un thérapeute.
+     */
+    @PostMapping
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<WaitlistEntryDTO> join(
+            @Valid @RequestBody JoinWaitlistRequest request,
+            @AuthenticationPrincipal User currentUser
+    ) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(waitlistService.join(request, currentUser));
+    }
+
+    /**
+     * Liste les inscriptions du patient connecté (avec les créneaux proposés).
+     */
+    @GetMapping("/me")
+    @PreAuthorize("hasAuthority('ROLE_PATIENT')")
+    public ResponseEntity<List<WaitlistEntryDTO>> getMyEntries(@AuthenticationPrincipal User currentUser) {
+        return ResponseEntity.ok(waitlistService.getMyEntries(currentUser));
+    }
+
+    @PutMapping("/{entryId}/accept")
+    @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_PATIENT')")
+    public ResponseEntity<AppointmentDTO> acceptOffer(
+            @PathVariable Long entryId,
+            @AuthenticationPrincipal User currentUser
+    ) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(waitlistService.acceptOffer(entryId, currentUser));
+    }
+
+    @PutMapping("/{entryId}/decline")
+    @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_PATIENT')")
+    public ResponseEntity<WaitlistEntryDTO> declineOffer(
+            @PathVariable Long entryId,
+            @AuthenticationPrincipal User currentUser
+    ) {
+        return ResponseEntity.ok(waitlistService.declineOffer(entryId, currentUser));
+    }
+
+    @DeleteMapping("/{entryId}")
+    @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_PATIENT')")
+    public ResponseEntity<WaitlistEntryDTO> withdraw(
+            @PathVariable Long entryId,
+            @AuthenticationPrincipal User currentUser
+    ) {
+        return ResponseEntity.ok(waitlistService.withdraw(entryId, currentUser));
+    }
+}
@@ -0,0 +1,208 @@
+package com.clinique.api.datagen;
+
+import com.clinique.api.entity.AppointmentStatus;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Modèle déterministe d'une clinique synthétique.
+ * Chaque thérapeute / patient a son propre générateur dérivé de (graine, index) :
+ * un même patient produit toujours la même chronologie, quel que soit l'ordre de génération.
+ * Cela permet de rejouer les chronologies (RDV puis notes) sans rien garder en mémoire.
+ */
+public class ClinicDataModel {
+
+    private static final String[] FIRST_NAMES = {
+            "Camille", "Léa", "Manon", "Chloé", "Inès", "Sarah", "Emma", "Julie", "Louise", "Alice",
+            "Lucas", "Hugo", "Thomas", "Nathan", "Louis", "Yanis", "Adam", "Karim", "Mehdi", "Paul"
+    };
+    private static final String[] LAST_NAMES = {
+            "Martin", "Bernard", "Dubois", "Thomas", "Robert", "Richard", "Petit", "Durand", "Leroy", "Moreau",
+            "Simon", "Laurent", "Lefebvre", "Michel", "Garcia", "Benali", "Haddad", "Roux", "Fournier", "Girard"
+    };
+    private static final String[] SPECIALTIES = {
+            "Psychologie clinique", "Thérapie cognitivo-comportementale", "Kinésithérapie",
+            "Orthophonie", "Psychomotricité", "Ergothérapie"
+    };
+    private static final int[] SPECIALTY_WEIGHTS = {30, 25, 20, 10, 8, 7};
+    private static final String[] CREDENTIALS = {"Psychologue", "Docteur", "Diplôme d'État", "Master 2"};
+
+    private static final String[] LOW_PROGRESS = {
+            "Séance difficile, anxiété élevée et sommeil perturbé.",
+            "Peu de progrès, le patient exprime de la fatigue et du découragement."
+    };
+    private static final String[] MID_PROGRESS = {
+            "Séance de suivi, progrès modérés sur les exercices proposés.",
+            "Situation stable, travail sur la gestion du stress à poursuivre."
+    };
+    private static final String[] HIGH_PROGRESS = {
+            "Très bonne séance, le patient se sent beaucoup mieux.",
+            "Progrès nets et réguliers, objectifs presque atteints."
+    };
+
+    private static final int MAX_APPOINTMENTS_PER_PATIENT = 200;
+
+    private final long seed;
+    private final int therapists;
+    private final double meanAppointments;
+    private final int historyDays;
+    private final int horizonDays;
+    private final double noteRate;
+    private final LocalDate anchor;
+
+    public ClinicDataModel(DataGeneratorProperties properties, LocalDate anchor) {
+        this.seed = properties.getSeed();
+        this.therapists = properties.getTherapists();
+        this.meanAppointments = Math.max(1.0, properties.getMeanAppointmentsPerPatient());
+        this.historyDays = properties.getHistoryDays();
+        this.horizonDays = properties.getHorizonDays();
+        this.noteRate = properties.getNoteRate();
+        this.anchor = anchor;
+    }
+
+    public record Therapist(int index, String firstName, String lastName, String specialty, String credentials) {
+    }
+
+    public record Patient(int index, String firstName, String lastName, LocalDate dateOfBirth,
+                          String phoneNumber, int therapistIndex) {
+    }
+
+    public record Note(String summary, int progressScore, double sentimentScore, String sentimentLabel) {
+    }
+
+    public record Appointment(int therapistIndex, LocalDateTime sessionDateTime, AppointmentStatus status,
+                              LocalDateTime createdAt, Double cancellationRiskScore, Note note) {
+    }
+
+    public Therapist therapist(int index) {
+        SplittableRandom random = random(1, index);
+        return new Therapist(index,
+                FIRST_NAMES[random.nextInt(FIRST_NAMES.length)],
+                LAST_NAMES[random.nextInt(LAST_NAMES.length)],
+                SPECIALTIES[weighted(random, SPECIALTY_WEIGHTS)],
+                CREDENTIALS[random.nextInt(CREDENTIALS.length)]);
+    }
+
+    public Patient patient(int index) {
+        SplittableRandom random = random(2, index);
+        // Charge inégale : les premiers thérapeutes ont beaucoup plus de patients que les derniers
+        int therapistIndex = (int) Math.min(therapists - 1, Math.floor(therapists * Math.pow(random.nextDouble(), 1.5)));
+        return new Patient(index,
+                FIRST_NAMES[random.nextInt(FIRST_NAMES.length)],
+                LAST_NAMES[random.nextInt(LAST_NAMES.length)],
+                anchor.minusYears(18 + random.nextInt(62)).minusDays(random.nextInt(365)),
+                String.format("06%08d", random.nextInt(100_000_000)),
+                therapistIndex);
+    }
+
+    /**
+     * Chronologie complète d'un patient, triée par date de séance.
+     */
+    public List<Appointment> timeline(Patient patient) {
+        SplittableRandom random = random(3, patient.index());
+        int count = Math.min(MAX_APPOINTMENTS_PER_PATIENT, geometric(random, meanAppointments));
+
+        // Propension à annuler propre au patient (la plupart annulent peu, quelques-uns souvent)
+        double cancelPropensity = 0.4 * random.nextDouble() * random.nextDouble();
+        double progress = 2 + random.nextInt(4);
+        double drift = 0.1 + 0.3 * random.nextDouble();
+        int cadenceDays = random.nextInt(10) < 7 ? 7 : 14;
+
+        LocalDateTime now = anchor.atStartOfDay();
+        LocalDate day = anchor.minusDays(random.nextInt(Math.max(1, historyDays)));
+        LocalDate last = anchor.plusDays(horizonDays);
+        List<Appointment> appointments = new ArrayList<>(count);
+        for (int i = 0; i < count && !day.isAfter(last); i++) {
+            day = skipWeekend(day);
+            LocalDateTime session = day.atTime(8 + random.nextInt(11), random.nextBoolean() ? 0 : 30);
+            // Délai de prise de RDV : souvent quelques jours, parfois plusieurs semaines
+            int leadDays = 1 + (int) (45 * random.nextDouble() * random.nextDouble());
+            LocalDateTime createdAt = session.minusDays(leadDays).withHour(9 + random.nextInt(9));
+            double risk = Math.round((0.7 * cancelPropensity / 0.4 + 0.3 * random.nextDouble()) * 10_000) / 10_000.0;
+
+            AppointmentStatus status;
+            double draw = random.nextDouble();
+            if (session.isBefore(now)) {
+                if (draw < cancelPropensity) {
+                    status = AppointmentStatus.CANCELLED_BY_PATIENT;
+                } else if (draw < cancelPropensity + 0.03) {
+                    status = AppointmentStatus.CANCELLED_BY_THERAPIST;
+                } else {
+                    status = AppointmentStatus.COMPLETED;
+                }
+            } else {
+                status = draw < cancelPropensity / 2 ? AppointmentStatus.CANCELLED_BY_PATIENT : AppointmentStatus.SCHEDULED;
+            }
+
+            Note note = null;
+            if (status == AppointmentStatus.COMPLETED) {
+                progress = Math.min(10, progress + drift);
+                int score = clamp((int) Math.round(progress + random.nextDouble() * 2 - 1), 1, 10);
+                if (random.nextDouble() < noteRate) {
+                    note = note(random, score);
+                }
+            }
+            appointments.add(new Appointment(patient.therapistIndex(), session, status, createdAt, risk, note));
+            day = day.plusDays(cadenceDays + (random.nextInt(10) == 0 ? 7 : 0));
+        }
+        return appointments;
+    }
+
+    private Note note(SplittableRandom random, int score) {
+        String[] templates = score <= 3 ? LOW_PROGRESS : score <= 7 ? MID_PROGRESS : HIGH_PROGRESS;
+        double sentiment = Math.max(-1, Math.min(1, (score - 5.5) / 4.5 + (random.nextDouble() - 0.5) * 0.4));
+        sentiment = Math.round(sentiment * 10_000) / 10_000.0;
+        // Mêmes seuils que le service de ML (/predict-sentiment)
+        String label = sentiment > 0.1 ? "POSITIVE" : sentiment < -0.1 ? "NEGATIVE" : "NEUTRAL";
+        return new Note(templates[random.nextInt(templates.length)], score, sentiment, label);
+    }
+
+    private SplittableRandom random(int stream, int index) {
+        return new SplittableRandom(mix(seed * 31 + stream) ^ mix(index + 1L));
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static int geometric(SplittableRandom random, double mean) {
+        double p = 1.0 / mean;
+        return 1 + (int) Math.floor(Math.log(1 - random.nextDouble()) / Math.log(1 - p + 1e-12));
+    }
+
+    private static int weighted(SplittableRandom random, int[] weights) {
+        int total = 0;
+        for (int weight : weights) {
+            total += weight;
+        }
+        int draw = random.nextInt(total);
+        for (int i = 0; i < weights.length; i++) {
+            draw -= weights[i];
+            if (draw < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    private static LocalDate skipWeekend(LocalDate day) {
+        if (day.getDayOfWeek() == DayOfWeek.SATURDAY) {
+            return day.plusDays(2);
+        }
+        if (day.getDayOfWeek() == DayOfWeek.SUNDAY) {
+            return day.plusDays(1);
+        }
+        return day;
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
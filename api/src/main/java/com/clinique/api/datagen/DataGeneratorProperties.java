@@ -0,0 +1,61 @@
+package com.clinique.api.datagen;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.LocalDate;
+
+/**
+ * Configuration du générateur de données synthétiques (préfixe "application.datagen").
+ */
+@Data
+@ConfigurationProperties(prefix = "application.datagen")
+public class DataGeneratorProperties {
+
+    /**
+     * Graine : même graine + même date d'ancrage = exactement les mêmes données.
+     */
+    private long seed = 42L;
+
+    private int therapists = 1_000;
+
+    private int patients = 20_000;
+
+    /**
+     * Nombre moyen de RDV par patient (loi géométrique : beaucoup de suivis courts, quelques longs).
+     */
+    private double meanAppointmentsPerPatient = 12.0;
+
+    /**
+     * Profondeur de l'historique généré avant la date d'ancrage.
+     */
+    private int historyDays = 730;
+
+    /**
+     * RDV futurs (SCHEDULED) générés jusqu'à ce nombre de jours après la date d'ancrage.
+     */
+    private int horizonDays = 60;
+
+    /**
+     * Proportion des séances terminées qui ont une note clinique.
+     */
+    private double noteRate = 0.9;
+
+    /**
+     * Date de référence ("aujourd'hui" pour le jeu de données). Vide = date du jour :
+     * la fixer pour des campagnes comparables d'un jour à l'autre.
+     */
+    private LocalDate anchor;
+
+    /**
+     * Emails générés : therapist{i}@domaine et patient{i}@domaine (mêmes comptes que la campagne JMeter).
+     */
+    private String emailDomain = "loadtest.clinique";
+
+    private String password = "password123";
+
+    /**
+     * Ferme le contexte Spring une fois la génération terminée (la JVM s'arrête ensuite).
+     */
+    private boolean exitOnCompletion = true;
+}
@@ -0,0 +1,118 @@
+package com.clinique.api.datagen;
+
+import org.postgresql.copy.CopyIn;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Écrit des lignes au format texte de COPY FROM STDIN (tabulations, \N pour NULL),
+ * par blocs : la mémoire reste constante quel que soit le nombre de lignes.
+ */
+public class PgCopyWriter {
+
+    private static final int FLUSH_THRESHOLD = 1 << 16;
+
+    private final CopyIn copyIn;
+    private final StringBuilder buffer = new StringBuilder(FLUSH_THRESHOLD + 1024);
+    private boolean firstField = true;
+    private long rows;
+
+    public PgCopyWriter(CopyIn copyIn) {
+        this.copyIn = copyIn;
+    }
+
+    public PgCopyWriter field(String value) {
+        separator();
+        if (value == null) {
+            buffer.append("\\N");
+            return this;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> buffer.append("\\\\");
+                case '\t' -> buffer.append("\\t");
+                case '\n' -> buffer.append("\\n");
+                case '\r' -> buffer.append("\\r");
+                default -> buffer.append(c);
+            }
+        }
+        return this;
+    }
+
+    public PgCopyWriter field(long value) {
+        separator();
+        buffer.append(value);
+        return this;
+    }
+
+    public PgCopyWriter field(Number value) {
+        if (value == null) {
+            return field((String) null);
+        }
+        separator();
+        buffer.append(value);
+        return this;
+    }
+
+    public PgCopyWriter field(LocalDate value) {
+        return field(value == null ? null : value.toString());
+    }
+
+    public PgCopyWriter field(LocalDateTime value) {
+        return field(value == null ? null : value.toString());
+    }
+
+    public PgCopyWriter field(Enum<?> value) {
+        return field(value == null ? null : value.name());
+    }
+
+    public void endRow() throws SQLException {
+        buffer.append('\n');
+        firstField = true;
+        rows++;
+        if (buffer.length() >= FLUSH_THRESHOLD) {
+            flush();
+        }
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    private void separator() {
+        if (!firstField) {
+            buffer.append('\t');
+        }
+        firstField = false;
+    }
+
+    private void flush() throws SQLException {
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+
+    /**
+     * Envoie le reste du tampon et termine le COPY (les lignes sont alors visibles).
+     */
+    public long finish() throws SQLException {
+        if (!buffer.isEmpty()) {
+            flush();
+        }
+        copyIn.endCopy();
+        return rows;
+    }
+
+    /**
+     * Abandonne le COPY en cours : aucune ligne n'est insérée.
+     */
+    public void cancel() throws SQLException {
+        if (copyIn.isActive()) {
+            copyIn.cancelCopy();
+        }
+    }
+}
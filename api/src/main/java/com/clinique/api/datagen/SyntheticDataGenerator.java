@@ -0,0 +1,178 @@
+package com.clinique.api.datagen;
+
+import com.clinique.api.entity.Role;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+/**
+ * Génère une clinique synthétique (thérapeutes, patients, RDV, notes) directement par COPY,
+ * sans passer par JPA : des millions de lignes en quelques minutes.
+ *
+ * Lancement : java -jar api.jar --spring.profiles.active=generate-data
+ *             --application.datagen.therapists=20000 --application.datagen.patients=400000
+ */
+@Slf4j
+@Component
+@Profile("generate-data")
+@EnableConfigurationProperties(DataGeneratorProperties.class)
+@RequiredArgsConstructor
+public class SyntheticDataGenerator implements CommandLineRunner {
+
+    // Ordre des clés étrangères
+    private static final String[] TABLES = {"users", "therapist_profiles", "patient_profiles", "appointments", "clinical_notes"};
+
+    private final DataGeneratorProperties properties;
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final ConfigurableApplicationContext context;
+
+    @FunctionalInterface
+    private interface RowSource {
+        void write(PgCopyWriter writer) throws SQLException;
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        LocalDate anchor = properties.getAnchor() != null ? properties.getAnchor() : LocalDate.now();
+        ClinicDataModel model = new ClinicDataModel(properties, anchor);
+        String domain = "@" + properties.getEmailDomain();
+
+        Integer existing = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM users WHERE email LIKE ?", Integer.class, "%" + domain);
+        if (existing != null && existing > 0) {
+            throw new IllegalStateException(existing + " comptes " + domain + " existent déjà : "
+                    + "utiliser une base vide ou un autre application.datagen.email-domain");
+        }
+
+        log.info("Génération : graine={}, ancrage={}, {} thérapeutes, {} patients, ~{} RDV/patient",
+                properties.getSeed(), anchor, properties.getTherapists(), properties.getPatients(),
+                properties.getMeanAppointmentsPerPatient());
+        long start = System.nanoTime();
+
+        // Identifiants attribués ici (au-delà de l'existant) pour écrire les clés étrangères sans relire la base
+        long userBase = maxId("users");
+        long therapistBase = maxId("therapist_profiles");
+        long patientBase = maxId("patient_profiles");
+        long appointmentBase = maxId("appointments");
+        long noteBase = maxId("clinical_notes");
+        int therapists = properties.getTherapists();
+        int patients = properties.getPatients();
+        // Un seul hachage BCrypt pour tous les comptes (le calcul par compte prendrait des heures)
+        String passwordHash = passwordEncoder.encode(properties.getPassword());
+
+        copy("users", "COPY users (id, email, password, role) FROM STDIN", writer -> {
+            for (int t = 0; t < therapists; t++) {
+                writer.field(userBase + 1 + t).field("therapist" + (t + 1) + domain)
+                        .field(passwordHash).field(Role.ROLE_THERAPIST).endRow();
+            }
+            for (int p = 0; p < patients; p++) {
+                writer.field(userBase + 1 + therapists + p).field("patient" + (p + 1) + domain)
+                        .field(passwordHash).field(Role.ROLE_PATIENT).endRow();
+            }
+        });
+
+        copy("therapist_profiles", "COPY therapist_profiles (id, user_id, first_name, last_name, specialty, credentials) FROM STDIN", writer -> {
+            for (int t = 0; t < therapists; t++) {
+                ClinicDataModel.Therapist therapist = model.therapist(t);
+                writer.field(therapistBase + 1 + t).field(userBase + 1 + t)
+                        .field(therapist.firstName()).field(therapist.lastName())
+                        .field(therapist.specialty()).field(therapist.credentials()).endRow();
+            }
+        });
+
+        copy("patient_profiles", "COPY patient_profiles (id, user_id, first_name, last_name, date_of_birth, phone_number) FROM STDIN", writer -> {
+            for (int p = 0; p < patients; p++) {
+                ClinicDataModel.Patient patient = model.patient(p);
+                writer.field(patientBase + 1 + p).field(userBase + 1 + therapists + p)
+                        .field(patient.firstName()).field(patient.lastName())
+                        .field(patient.dateOfBirth()).field(patient.phoneNumber()).endRow();
+            }
+        });
+
+        // Les chronologies sont rejouées (déterministes) pour les notes : rien n'est gardé en mémoire
+        copy("appointments", "COPY appointments (id, patient_profile_id, therapist_profile_id, session_date_time, status, "
+                + "created_at, cancellation_risk_score) FROM STDIN", writer -> {
+            long appointmentId = appointmentBase;
+            for (int p = 0; p < patients; p++) {
+                for (ClinicDataModel.Appointment appointment : model.timeline(model.patient(p))) {
+                    writer.field(++appointmentId).field(patientBase + 1 + p)
+                            .field(therapistBase + 1 + appointment.therapistIndex())
+                            .field(appointment.sessionDateTime()).field(appointment.status())
+                            .field(appointment.createdAt()).field(appointment.cancellationRiskScore()).endRow();
+                }
+            }
+        });
+
+        copy("clinical_notes", "COPY clinical_notes (id, appointment_id, therapist_profile_id, summary, private_notes, "
+                + "patient_progress_score, sentiment_score, sentiment_label) FROM STDIN", writer -> {
+            long appointmentId = appointmentBase;
+            long noteId = noteBase;
+            for (int p = 0; p < patients; p++) {
+                for (ClinicDataModel.Appointment appointment : model.timeline(model.patient(p))) {
+                    appointmentId++;
+                    ClinicDataModel.Note note = appointment.note();
+                    if (note != null) {
+                        writer.field(++noteId).field(appointmentId)
+                                .field(therapistBase + 1 + appointment.therapistIndex())
+                                .field(note.summary()).field((String) null)
+                                .field(note.progressScore()).field(note.sentimentScore())
+                                .field(note.sentimentLabel()).endRow();
+                    }
+                }
+            }
+        });
+
+        for (String table : TABLES) {
+            jdbcTemplate.execute("SELECT setval(pg_get_serial_sequence('" + table + "', 'id'), "
+                    + "(SELECT coalesce(max(id), 1) FROM " + table + "))");
+            jdbcTemplate.execute("ANALYZE " + table);
+        }
+        log.info("Génération terminée en {} s", (System.nanoTime() - start) / 1_000_000_000);
+
+        // Ferme le contexte (pas de serveur web dans ce profil) : la JVM s'arrête d'elle-même, sans System.exit
+        // qui couperait aussi un appelant embarquant l'application (tests, lanceur)
+        if (properties.isExitOnCompletion()) {
+            SpringApplication.exit(context, () -> 0);
+        }
+    }
+
+    private long maxId(String table) {
+        Long max = jdbcTemplate.queryForObject("SELECT coalesce(max(id), 0) FROM " + table, Long.class);
+        return max != null ? max : 0L;
+    }
+
+    private void copy(String table, String sql, RowSource source) throws SQLException {
+        long start = System.nanoTime();
+        try (Connection connection = dataSource.getConnection()) {
+            CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            PgCopyWriter writer = new PgCopyWriter(copyManager.copyIn(sql));
+            long rows;
+            try {
+                source.write(writer);
+                rows = writer.finish();
+            } catch (SQLException | RuntimeException e) {
+                writer.cancel();
+                throw e;
+            }
+            double seconds = Math.max(1e-3, (System.nanoTime() - start) / 1e9);
+            log.info("{} : {} lignes en {} s ({} lignes/s)", table, rows,
+                    String.format("%.1f", seconds), Math.round(rows / seconds));
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.clinique.api.dbpool;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Déclare la méthode de service (ou le job planifié / asynchrone) en cours à ConnectionHoldTracker.
+ * Placé à l'extérieur des intercepteurs de transaction : la méthode est connue quand la transaction
+ * emprunte sa connexion, et encore quand elle la rend.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class ConnectionHoldAspect {
+
+    private final ConnectionHoldTracker holdTracker;
+    private final Map<Method, String> methodNames = new ConcurrentHashMap<>();
+
+    @Around("@within(org.springframework.stereotype.Service) "
+            + "|| (@within(org.springframework.stereotype.Component) "
+            + "&& (@annotation(org.springframework.scheduling.annotation.Scheduled) "
+            + "|| @annotation(org.springframework.scheduling.annotation.Async)))")
+    public Object track(ProceedingJoinPoint joinPoint) throws Throwable {
+        String previous = holdTracker.enter(name(joinPoint));
+        try {
+            return joinPoint.proceed();
+        } finally {
+            holdTracker.exit(previous);
+        }
+    }
+
+    private String name(ProceedingJoinPoint joinPoint) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        return methodNames.computeIfAbsent(method, m ->
+                AopUtils.getTargetClass(joinPoint.getTarget()).getSimpleName() + "." + m.getName());
+    }
+}
@@ -0,0 +1,55 @@
+package com.clinique.api.dbpool;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+/**
+ * Suivi de métriques Hikari qui prévient ConnectionHoldTracker des emprunts et retours de connexions,
+ * en plus du suivi délégué (métriques hikaricp.* de Micrometer). Hikari l'appelle sur le thread
+ * qui emprunte puis rend la connexion.
+ */
+public class ConnectionHoldMetricsTrackerFactory implements MetricsTrackerFactory {
+
+    private final MetricsTrackerFactory delegate;
+    private final ConnectionHoldTracker holdTracker;
+
+    public ConnectionHoldMetricsTrackerFactory(MetricsTrackerFactory delegate, ConnectionHoldTracker holdTracker) {
+        this.delegate = delegate;
+        this.holdTracker = holdTracker;
+    }
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        IMetricsTracker tracker = delegate.create(poolName, poolStats);
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+                tracker.recordConnectionCreatedMillis(connectionCreatedMillis);
+            }
+
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                tracker.recordConnectionAcquiredNanos(elapsedAcquiredNanos);
+                holdTracker.connectionAcquired();
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                tracker.recordConnectionUsageMillis(elapsedBorrowedMillis);
+                holdTracker.connectionReleased();
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                tracker.recordConnectionTimeout();
+                holdTracker.connectionTimedOut();
+            }
+
+            @Override
+            public void close() {
+                tracker.close();
+            }
+        };
+    }
+}
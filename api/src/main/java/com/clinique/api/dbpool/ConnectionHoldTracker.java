@@ -0,0 +1,219 @@
+package com.clinique.api.dbpool;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Attribue chaque connexion JDBC empruntée au pool à la méthode de service (ou au job) qui la détient,
+ * et mesure combien de temps elle reste empruntée, dont le temps passé en appels HTTP sortants.
+ * Avec JPA, une connexion est tenue de l'ouverture à la fin de la transaction : la détention mesurée
+ * est la durée de la transaction.
+ *
+ * Métriques (tag method = Classe.méthode) :
+ * clinique.db.connection.hold (durée de détention), clinique.db.connection.hold.outbound (part de cette durée
+ * passée en appels HTTP sortants), clinique.db.connection.hold.slow (détentions au-delà du seuil, journalisées
+ * en WARN). À chaque attente de connexion expirée, les connexions tenues depuis le plus longtemps sont
+ * journalisées : une famine du pool désigne directement les méthodes responsables.
+ *
+ * Les appels viennent du thread qui emprunte ou rend la connexion (suivi de métriques Hikari),
+ * de ConnectionHoldAspect et des clients HTTP instrumentés.
+ */
+@Slf4j
+public class ConnectionHoldTracker {
+
+    static final String UNKNOWN_METHOD = "other";
+    private static final int REPORTED_HOLDS = 5;
+    private static final long STARVATION_REPORT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    /**
+     * Connexion actuellement empruntée.
+     */
+    public static final class Hold {
+        private final String method;
+        private final String thread;
+        private final LocalDateTime acquiredAt = LocalDateTime.now();
+        private final long acquiredNanos = System.nanoTime();
+        private final AtomicLong outboundNanos = new AtomicLong();
+        // Début de l'appel HTTP en cours (0 si aucun) : visible dans openHolds() avant sa fin
+        private final AtomicLong outboundSince = new AtomicLong();
+
+        private Hold(String method, String thread) {
+            this.method = method;
+            this.thread = thread;
+        }
+
+        public String method() {
+            return method;
+        }
+
+        public String thread() {
+            return thread;
+        }
+
+        public LocalDateTime acquiredAt() {
+            return acquiredAt;
+        }
+
+        public Duration held() {
+            return Duration.ofNanos(System.nanoTime() - acquiredNanos);
+        }
+
+        public Duration outbound() {
+            long since = outboundSince.get();
+            return Duration.ofNanos(outboundNanos.get() + (since == 0 ? 0 : System.nanoTime() - since));
+        }
+    }
+
+    /**
+     * Appel HTTP sortant en cours : son temps est ajouté aux connexions tenues par le thread appelant
+     * au moment de l'appel (la réponse peut arriver sur un autre thread).
+     */
+    public static final class OutboundCall {
+        private final List<Hold> holds;
+        private final long start = System.nanoTime();
+
+        private OutboundCall(List<Hold> holds) {
+            this.holds = holds;
+            for (Hold hold : holds) {
+                hold.outboundSince.compareAndSet(0, start);
+            }
+        }
+
+        public void finish() {
+            long elapsed = System.nanoTime() - start;
+            for (Hold hold : holds) {
+                hold.outboundSince.compareAndSet(start, 0);
+                hold.outboundNanos.addAndGet(elapsed);
+            }
+        }
+    }
+
+    private static final class ThreadState {
+        private String method;
+        private final Deque<Hold> holds = new ArrayDeque<>();
+    }
+
+    private final MeterRegistry registry;
+    private final Duration slowThreshold;
+    private final ThreadLocal<ThreadState> state = ThreadLocal.withInitial(ThreadState::new);
+    private final Set<Hold> openHolds = ConcurrentHashMap.newKeySet();
+    private final AtomicLong lastStarvationReport = new AtomicLong(System.nanoTime() - STARVATION_REPORT_INTERVAL_NANOS);
+
+    public ConnectionHoldTracker(MeterRegistry registry, Duration slowThreshold) {
+        this.registry = registry;
+        this.slowThreshold = slowThreshold;
+    }
+
+    /**
+     * Déclare la méthode en cours sur ce thread ; renvoie la précédente, à rétablir avec exit().
+     */
+    public String enter(String method) {
+        ThreadState current = state.get();
+        String previous = current.method;
+        current.method = method;
+        return previous;
+    }
+
+    public void exit(String previous) {
+        state.get().method = previous;
+    }
+
+    public void connectionAcquired() {
+        ThreadState current = state.get();
+        Hold hold = new Hold(current.method != null ? current.method : UNKNOWN_METHOD, Thread.currentThread().getName());
+        current.holds.push(hold);
+        openHolds.add(hold);
+    }
+
+    /**
+     * Connexion rendue au pool par ce thread (la dernière empruntée, les connexions d'un thread
+     * étant rendues dans l'ordre inverse de leur emprunt).
+     */
+    public void connectionReleased() {
+        Hold hold = state.get().holds.poll();
+        if (hold == null) {
+            // Empruntée sur un autre thread : durée déjà suivie par hikaricp.connections.usage
+            return;
+        }
+        openHolds.remove(hold);
+        Duration held = hold.held();
+        Duration outbound = hold.outbound();
+
+        Timer.builder("clinique.db.connection.hold")
+                .description("Durée de détention d'une connexion JDBC (durée de la transaction)")
+                .tag("method", hold.method)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(held);
+        Timer.builder("clinique.db.connection.hold.outbound")
+                .description("Temps passé en appels HTTP sortants pendant la détention d'une connexion JDBC")
+                .tag("method", hold.method)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(outbound);
+
+        if (held.compareTo(slowThreshold) >= 0) {
+            Counter.builder("clinique.db.connection.hold.slow")
+                    .description("Connexions JDBC tenues au-delà du seuil")
+                    .tag("method", hold.method)
+                    .register(registry)
+                    .increment();
+            log.warn("Connexion JDBC tenue {} ms par {} (dont {} ms d'appels HTTP sortants) sur {}",
+                    held.toMillis(), hold.method, outbound.toMillis(), hold.thread);
+        }
+    }
+
+    /**
+     * Attente d'une connexion expirée : journalise (au plus toutes les 10 s) qui tient le pool.
+     */
+    public void connectionTimedOut() {
+        ThreadState current = state.get();
+        // Hikari signale aussi l'attente expirée comme un emprunt (recordConnectionAcquiredNanos) juste avant
+        Hold failed = current.holds.poll();
+        if (failed != null) {
+            openHolds.remove(failed);
+        }
+        String method = current.method;
+        long now = System.nanoTime();
+        long last = lastStarvationReport.get();
+        if (now - last < STARVATION_REPORT_INTERVAL_NANOS || !lastStarvationReport.compareAndSet(last, now)) {
+            log.debug("Pas de connexion JDBC disponible pour {}", method);
+            return;
+        }
+        List<Hold> longest = openHolds(Duration.ZERO).stream().limit(REPORTED_HOLDS).toList();
+        StringBuilder report = new StringBuilder();
+        for (Hold hold : longest) {
+            report.append("\n\t").append(hold.method).append(" : ").append(hold.held().toMillis()).append(" ms (dont ")
+                    .append(hold.outbound().toMillis()).append(" ms d'appels HTTP) sur ").append(hold.thread);
+        }
+        log.warn("Pas de connexion JDBC disponible pour {} ; {} connexions tenues, les plus anciennes :{}",
+                method != null ? method : UNKNOWN_METHOD, openHolds.size(), report);
+    }
+
+    public OutboundCall startOutboundCall() {
+        return new OutboundCall(List.copyOf(state.get().holds));
+    }
+
+    /**
+     * Connexions tenues depuis au moins minHeld, les plus anciennes d'abord.
+     */
+    public List<Hold> openHolds(Duration minHeld) {
+        return openHolds.stream()
+                .filter(hold -> hold.held().compareTo(minHeld) >= 0)
+                .sorted(Comparator.comparingLong(hold -> hold.acquiredNanos))
+                .toList();
+    }
+}
@@ -0,0 +1,49 @@
+package com.clinique.api.dbpool;
+
+import com.clinique.api.dto.ConnectionHoldDTO;
+import com.clinique.api.dto.ConnectionPoolStatusDTO;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Diagnostic du pool JDBC sous charge : occupation du pool et méthodes qui tiennent ses connexions.
+ */
+@Service
+@Timed(value = "clinique.service", histogram = true)
+@RequiredArgsConstructor
+public class ConnectionPoolService {
+
+    private final HikariDataSource dataSource;
+    private final ConnectionHoldTracker holdTracker;
+
+    /**
+     * @param minHeld ne liste que les connexions tenues depuis au moins cette durée
+     */
+    public ConnectionPoolStatusDTO getStatus(Duration minHeld) {
+        // MAPPING MANUEL
+        ConnectionPoolStatusDTO dto = new ConnectionPoolStatusDTO();
+        dto.setPoolName(dataSource.getPoolName());
+        dto.setMaximumPoolSize(dataSource.getMaximumPoolSize());
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        if (pool != null) {
+            dto.setActiveConnections(pool.getActiveConnections());
+            dto.setIdleConnections(pool.getIdleConnections());
+            dto.setThreadsAwaitingConnection(pool.getThreadsAwaitingConnection());
+        }
+        dto.setHolds(holdTracker.openHolds(minHeld).stream().map(hold -> {
+            ConnectionHoldDTO holdDto = new ConnectionHoldDTO();
+            holdDto.setMethod(hold.method());
+            holdDto.setThread(hold.thread());
+            holdDto.setAcquiredAt(hold.acquiredAt());
+            holdDto.setHeldMillis(hold.held().toMillis());
+            holdDto.setOutboundHttpMillis(hold.outbound().toMillis());
+            return holdDto;
+        }).toList());
+        return dto;
+    }
+}
@@ -0,0 +1,18 @@
+package com.clinique.api.dto;
+
+/**
+ * Regroupement des rapports d'activité (paramètre groupBy).
+ */
+public enum AnalyticsGroupBy {
+    /**
+     * Une seule ligne pour toute la période.
+     */
+    TOTAL,
+    DAY,
+    /**
+     * Par mois calendaire (period = premier jour du mois).
+     */
+    MONTH,
+    SPECIALTY,
+    THERAPIST
+}
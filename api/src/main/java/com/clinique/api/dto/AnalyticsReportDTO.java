@@ -0,0 +1,23 @@
+package com.clinique.api.dto;
+
+import lombok.Data;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Rapport d'activité de la clinique sur les séances de [from, to[, calculé sur les agrégats journaliers
+ * ou, pour /live, sur l'instantané en mémoire des rendez-vous (snapshotLoadedAt indique alors sa date).
+ */
+@Data
+public class AnalyticsReportDTO {
+    private LocalDate from;
+    private LocalDate to;
+    private AnalyticsGroupBy groupBy;
+    private String specialty;
+    private Long therapistId;
+    private Long patientId;
+    private Instant snapshotLoadedAt;
+    private List<AnalyticsRowDTO> rows;
+}
@@ -0,0 +1,23 @@
+package com.clinique.api.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Une ligne de rapport d'activité. Seul le champ de regroupement demandé est renseigné
+ * (period pour DAY / MONTH, specialty, therapistId) ; les moyennes sont null sans valeur.
+ */
+@Data
+public class AnalyticsRowDTO {
+    private LocalDate period;
+    private String specialty;
+    private Long therapistId;
+    private long booked;
+    private long completed;
+    private long cancelledByPatient;
+    private long cancelledByTherapist;
+    private Double averageRiskScore;
+    private Double averageProgressScore;
+    private Double averageSentimentScore;
+}
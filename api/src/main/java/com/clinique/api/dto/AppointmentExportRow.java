@@ -0,0 +1,26 @@
+package com.clinique.api.dto;
+
+import com.clinique.api.entity.AppointmentStatus;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Une ligne d'export : un rendez-vous, son patient et sa note clinique (colonnes vides sans note).
+ * Réutilisée d'une ligne à l'autre pendant l'export.
+ */
+@Data
+public class AppointmentExportRow {
+    private Long appointmentId;
+    private LocalDateTime sessionDateTime;
+    private AppointmentStatus status;
+    private Double cancellationRiskScore;
+    private Long patientId;
+    private String patientFirstName;
+    private String patientLastName;
+    private Long noteId;
+    private String noteSummary;
+    private Integer patientProgressScore;
+    private Double sentimentScore;
+    private String sentimentLabel;
+}
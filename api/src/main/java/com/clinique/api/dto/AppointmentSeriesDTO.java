@@ -0,0 +1,11 @@
+package com.clinique.api.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class AppointmentSeriesDTO {
+    private String seriesId;
+    private List<AppointmentDTO> appointments;
+}
@@ -0,0 +1,15 @@
+package com.clinique.api.dto;
+
+import lombok.Data;
+
+/**
+ * Tranche de score [lowerBound, upperBound[ : score moyen prédit et taux d'annulation observé.
+ */
+@Data
+public class CalibrationBinDTO {
+    private double lowerBound;
+    private double upperBound;
+    private int count;
+    private double meanScore;
+    private double observedRate;
+}
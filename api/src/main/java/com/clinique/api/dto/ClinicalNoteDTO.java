@@ -5,6 +5,10 @@ import lombok.Data;
 @Data
 public class ClinicalNoteDTO { // Assurez-vous que cette classe n'est pas 'private'
     private Long id;
+
+    /**
+     * Absent des listes de rendez-vous (texte chargé à la demande) : voir GET /api/v1/notes/{id}.
+     */
     private String summary;
 
     // --- NOUVEAU CHAMP ---
@@ -0,0 +1,22 @@
+package com.clinique.api.dto;
+
+import lombok.Data;
+
+/**
+ * Note clinique complète, avec son texte : renvoyée seulement par GET /api/v1/notes/{id}.
+ */
+@Data
+public class ClinicalNoteDetailDTO {
+    private Long id;
+    private Long appointmentId;
+    private String summary;
+
+    /**
+     * Notes privées : renseignées uniquement pour le thérapeute auteur de la note.
+     */
+    private String privateNotes;
+
+    private Integer patientProgressScore;
+    private Double sentimentScore;
+    private String sentimentLabel;
+}
@@ -0,0 +1,19 @@
+package com.clinique.api.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Rétention des patients entrés entre from (inclus) et to (exclu), semaine par semaine jusqu'à weeks,
+ * d'après l'historique arrêté la veille de asOf.
+ */
+@Data
+public class CohortRetentionDTO {
+    private LocalDate asOf;
+    private LocalDate from;
+    private LocalDate to;
+    private int weeks;
+    private List<CohortRetentionRowDTO> rows;
+}
@@ -0,0 +1,22 @@
+package com.clinique.api.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Courbe de rétention d'une cohorte : patients dont la première venue tombe dans le mois cohortMonth,
+ * chez un thérapeute de la spécialité donnée (null : sans spécialité). cohortMonth est null sur la ligne
+ * qui réunit toutes les cohortes de la spécialité.
+ *
+ * retentionRates[N] : part des patients encore venus au moins N semaines après leur première venue,
+ * parmi ceux pour qui ces N semaines sont écoulées (null si aucun).
+ */
+@Data
+public class CohortRetentionRowDTO {
+    private String specialty;
+    private LocalDate cohortMonth;
+    private int patients;
+    private List<Double> retentionRates;
+}
@@ -0,0 +1,17 @@
+package com.clinique.api.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Connexion JDBC actuellement empruntée : méthode qui la tient, depuis quand, dont temps d'appels HTTP sortants.
+ */
+@Data
+public class ConnectionHoldDTO {
+    private String method;
+    private String thread;
+    private LocalDateTime acquiredAt;
+    private long heldMillis;
+    private long outboundHttpMillis;
+}
@@ -0,0 +1,18 @@
+package com.clinique.api.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * État du pool de connexions JDBC (Hikari) et connexions tenues depuis le plus longtemps.
+ */
+@Data
+public class ConnectionPoolStatusDTO {
+    private String poolName;
+    private int maximumPoolSize;
+    private int activeConnections;
+    private int idleConnections;
+    private int threadsAwaitingConnection;
+    private List<ConnectionHoldDTO> holds;
+}
@@ -0,0 +1,32 @@
+package com.clinique.api.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO pour la création d'une série de rendez-vous récurrents.
+ */
+@Data
+public class CreateAppointmentSeriesRequest {
+
+    @NotNull(message = "L'ID du patient est obligatoire")
+    private Long patientId;
+
+    @NotNull(message = "L'ID du thérapeute est obligatoire")
+    private Long therapistId;
+
+    /**
+     * Date et heure de la première séance ; l'heure est reprise pour toutes les séances.
+     */
+    @NotNull(message = "La date de la première séance est obligatoire")
+    @Future(message = "La première séance doit être dans le futur")
+    private LocalDateTime firstSessionDateTime;
+
+    @Valid
+    @NotNull(message = "La règle de récurrence est obligatoire")
+    private RecurrenceRule recurrence;
+}
@@ -0,0 +1,37 @@
+package com.clinique.api.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO pour l'inscription d'un patient sur la liste d'attente d'un thérapeute.
+ */
+@Data
+public class JoinWaitlistRequest {
+
+    /**
+     * L'ID du *profil* thérapeute (TherapistProfile).
+     */
+    @NotNull(message = "L'ID du thérapeute est obligatoire")
+    private Long therapistId;
+
+    /**
+     * L'ID du *profil* patient. Ignoré si c'est le patient lui-même qui s'inscrit.
+     */
+    private Long patientId;
+
+    /**
+     * Plage horaire acceptée (optionnelle).
+     */
+    private LocalDateTime earliestDateTime;
+    private LocalDateTime latestDateTime;
+
+    /**
+     * Priorité (uniquement modifiable par un thérapeute ou un admin).
+     */
+    @Min(value = 0, message = "La priorité doit être positive")
+    private Integer priority;
+}
@@ -0,0 +1,19 @@
+package com.clinique.api.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * État de l'export d'un jeu d'entraînement : exemples exportés jusqu'à exportedUntil (exclu),
+ * et résultat du dernier passage.
+ */
+@Data
+public class MlExportStatusDTO {
+    private String dataset;
+    private LocalDateTime exportedUntil;
+    private LocalDateTime lastRunAt;
+    private long lastRows;
+    private String lastFile;
+    private boolean running;
+}
@@ -0,0 +1,19 @@
+package com.clinique.api.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * État du re-scoring des RDV à venir et bilan du dernier passage (depuis le démarrage de l'API).
+ */
+@Data
+public class MlRescoringStatusDTO {
+    private boolean running;
+    private LocalDateTime lastStartedAt;
+    private LocalDateTime lastFinishedAt;
+    private String modelVersion;
+    private long scanned;
+    private long rescored;
+    private int failedPages;
+}
@@ -0,0 +1,26 @@
+package com.clinique.api.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Une note clinique trouvée par la recherche plein texte.
+ */
+@Data
+public class NoteSearchHitDTO {
+    private Long noteId;
+    private Long appointmentId;
+    private LocalDateTime sessionDateTime;
+    private PatientInfoDTO patient;
+
+    /**
+     * Extraits du résumé, HTML échappé, mots trouvés entourés de &lt;mark&gt;.
+     */
+    private String highlight;
+
+    /**
+     * Pertinence (ts_rank_cd) : sert au tri, sans unité.
+     */
+    private double rank;
+}
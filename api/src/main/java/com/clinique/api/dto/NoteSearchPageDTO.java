@@ -0,0 +1,18 @@
+package com.clinique.api.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Une page de résultats de recherche dans les notes.
+ * Pas de total (il faudrait compter toutes les correspondances) : hasNext suffit à paginer.
+ */
+@Data
+public class NoteSearchPageDTO {
+    private String query;
+    private int page;
+    private int size;
+    private boolean hasNext;
+    private List<NoteSearchHitDTO> results;
+}
@@ -0,0 +1,14 @@
+package com.clinique.api.dto;
+
+import lombok.Data;
+
+/**
+ * Risque d'abandon d'un patient du thérapeute connecté (liste triée du plus au moins à risque).
+ * churnProbability est null si le service de ML n'a pas répondu.
+ */
+@Data
+public class PatientChurnRiskDTO {
+    private PatientInfoDTO patient;
+    private boolean churnRisk;
+    private Double churnProbability;
+}
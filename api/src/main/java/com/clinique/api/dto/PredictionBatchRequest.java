@@ -0,0 +1,17 @@
+package com.clinique.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Plusieurs jeux de features envoyés en un seul appel à /predict-batch.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PredictionBatchRequest {
+    private List<PredictionRequest> items;
+}
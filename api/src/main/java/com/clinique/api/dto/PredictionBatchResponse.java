@@ -0,0 +1,22 @@
+package com.clinique.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class PredictionBatchResponse {
+
+    /**
+     * Un score par élément de la requête, dans le même ordre.
+     */
+    @JsonProperty("cancellation_risk_scores")
+    private List<Double> cancellationRiskScores;
+
+    /**
+     * Version du modèle qui a produit la prédiction (absente si le modèle n'est pas chargé).
+     */
+    @JsonProperty("model_version")
+    private String modelVersion;
+}
@@ -4,6 +4,9 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
 @Data
 @AllArgsConstructor // Pratique pour construire l'objet
 public class PredictionRequest {
@@ -17,4 +20,19 @@ public class PredictionRequest {
 
     @JsonProperty("hour_of_day")
     private int hourOfDay;
+
+    /**
+     * Features d'un RDV, telles qu'envoyées à la réservation (délai en jours calendaires, dimanche = 0).
+     * Le re-scoring de nuit les recalcule de la même façon : même modèle, même score.
+     */
+    public static PredictionRequest of(LocalDateTime createdAt, LocalDateTime sessionDateTime) {
+        double leadTimeDays = (double) ChronoUnit.DAYS.between(
+                createdAt.toLocalDate(),
+                sessionDateTime.toLocalDate()
+        );
+        int dayOfWeek = sessionDateTime.getDayOfWeek().getValue();
+        int hourOfDay = sessionDateTime.getHour();
+        if (dayOfWeek == 7) dayOfWeek = 0;
+        return new PredictionRequest(leadTimeDays, dayOfWeek, hourOfDay);
+    }
 }
\ No newline at end of file
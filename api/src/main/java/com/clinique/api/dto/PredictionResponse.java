@@ -9,4 +9,10 @@ public class PredictionResponse {
     // Doit correspondre exactement au nom de l'API Python
     @JsonProperty("cancellation_risk_score")
     private Double cancellationRiskScore;
-}
\ No newline at end of file
+
+    /**
+     * Version du modèle qui a produit la prédiction (absente si le modèle n'est pas chargé).
+     */
+    @JsonProperty("model_version")
+    private String modelVersion;
+}
@@ -8,4 +8,10 @@ public class PredictionTimingResponse {
 
     @JsonProperty("recommended_days_next_session")
     private int recommendedDaysNextSession;
-}
\ No newline at end of file
+
+    /**
+     * Version du modèle qui a produit la prédiction (absente si le modèle n'est pas chargé).
+     */
+    @JsonProperty("model_version")
+    private String modelVersion;
+}
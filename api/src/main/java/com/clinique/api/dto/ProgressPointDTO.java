@@ -0,0 +1,20 @@
+package com.clinique.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Une séance notée de la chronologie d'un patient (date et scores, sans le texte de la note).
+ * Chargée par "SELECT new ..." en parcourant uniquement les index couvrants.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProgressPointDTO {
+    private LocalDateTime sessionDateTime;
+    private Integer patientProgressScore;
+    private Double sentimentScore;
+}
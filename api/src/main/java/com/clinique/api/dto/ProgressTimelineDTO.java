@@ -0,0 +1,23 @@
+package com.clinique.api.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Chronologie des scores d'un patient, en colonnes (une liste par série, même indice = même point)
+ * pour rester compacte sur les longs historiques. Un score absent vaut null.
+ *
+ * Si downsampled est vrai, chaque point résume plusieurs séances consécutives
+ * (date et scores moyens) : totalSessions reste le nombre de séances notées.
+ */
+@Data
+public class ProgressTimelineDTO {
+    private Long patientId;
+    private int totalSessions;
+    private boolean downsampled;
+    private List<LocalDateTime> sessionDateTimes;
+    private List<Double> progressScores;
+    private List<Double> sentimentScores;
+}
@@ -0,0 +1,10 @@
+package com.clinique.api.dto;
+
+/**
+ * Fréquence de répétition d'une série de rendez-vous (équivalent du FREQ d'une RRULE).
+ */
+public enum RecurrenceFrequency {
+    DAILY,
+    WEEKLY,
+    MONTHLY
+}
@@ -0,0 +1,45 @@
+package com.clinique.api.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Règle de récurrence inspirée des RRULE (RFC 5545), limitée aux cas utiles
+ * pour des séances de thérapie. Ex: FREQ=WEEKLY;INTERVAL=1;BYDAY=MO,TH;COUNT=12
+ * Il faut renseigner "count" ou "until" (ou les deux : le premier atteint l'emporte).
+ */
+@Data
+public class RecurrenceRule {
+
+    @NotNull(message = "La fréquence est obligatoire")
+    private RecurrenceFrequency frequency;
+
+    /**
+     * Toutes les N périodes (ex: 2 = une semaine sur deux).
+     */
+    @Min(value = 1, message = "L'intervalle doit être au minimum 1")
+    private int interval = 1;
+
+    /**
+     * Nombre total de séances.
+     */
+    @Min(value = 1, message = "Le nombre de séances doit être au minimum 1")
+    @Max(value = 104, message = "Une série ne peut pas dépasser 104 séances")
+    private Integer count;
+
+    /**
+     * Dernière date possible (incluse).
+     */
+    private LocalDate until;
+
+    /**
+     * Jours de la semaine (uniquement pour WEEKLY). Par défaut : le jour de la première séance.
+     */
+    private List<DayOfWeek> byDay;
+}
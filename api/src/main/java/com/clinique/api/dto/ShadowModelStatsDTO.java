@@ -0,0 +1,21 @@
+package com.clinique.api.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Qualité et latence d'un modèle dans un rapport de scoring shadow.
+ * auc est null tant qu'il manque des RDV annulés ou honorés parmi les issues connues.
+ */
+@Data
+public class ShadowModelStatsDTO {
+    private String version;
+    private Double auc;
+    private double brierScore;
+    private double meanScore;
+    private double latencyP50Ms;
+    private double latencyP95Ms;
+    private double meanBatchSize;
+    private List<CalibrationBinDTO> calibration;
+}
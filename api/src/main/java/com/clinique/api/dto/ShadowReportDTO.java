@@ -0,0 +1,24 @@
+package com.clinique.api.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Comparaison du modèle d'annulation courant et du modèle candidat sur les mêmes RDV (scoring shadow).
+ * Qualité mesurée sur les RDV dont l'issue est connue (terminés ou annulés par le patient) ;
+ * les autres sont comptés dans pending.
+ */
+@Data
+public class ShadowReportDTO {
+    private String candidateVersion;
+    private List<String> primaryVersions;
+    private long scored;
+    private long labelled;
+    private long cancelled;
+    private long pending;
+    private long dropped;
+    private double meanAbsoluteDifference;
+    private ShadowModelStatsDTO primary;
+    private ShadowModelStatsDTO candidate;
+}
@@ -1,12 +1,16 @@
 package com.clinique.api.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 /**
  * Sous-DTO contenant les informations publiques d'un thérapeute.
  * Utilisé à l'intérieur de AppointmentDTO.
  */
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class TherapistInfoDTO {
 
     /**
@@ -0,0 +1,23 @@
+package com.clinique.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection légère d'un rendez-vous à venir.
+ * Chargée directement par une requête JPQL "SELECT new ..." pour éviter
+ * d'hydrater les entités (et leurs relations LAZY) lors des gros chargements.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UpcomingAppointmentDTO {
+    private Long appointmentId;
+    private Long patientId;
+    private Long therapistId;
+    private LocalDateTime sessionDateTime;
+    private Double cancellationRiskScore;
+}
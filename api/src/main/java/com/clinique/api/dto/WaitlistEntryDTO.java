@@ -0,0 +1,20 @@
+package com.clinique.api.dto;
+
+import com.clinique.api.entity.WaitlistStatus;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class WaitlistEntryDTO {
+    private Long id;
+    private Long patientId;
+    private Long therapistId;
+    private int priority;
+    private LocalDateTime earliestDateTime;
+    private LocalDateTime latestDateTime;
+    private WaitlistStatus status;
+    private LocalDateTime createdAt;
+    private LocalDateTime offeredSessionDateTime;
+    private LocalDateTime offerExpiresAt;
+}
@@ -10,7 +10,15 @@ import java.time.LocalDateTime;
 @Data
 @NoArgsConstructor
 @Entity
-@Table(name = "appointments")
+@Table(name = "appointments", indexes = {
+        @Index(name = "idx_appointments_series", columnList = "series_id"),
+        // Listes par patient / thérapeute, lues dans l'ordre chronologique sans tri.
+        // L'id en fin de clé rend l'index couvrant pour la chronologie de progression (jointure aux notes)
+        @Index(name = "idx_appointments_patient_session_id", columnList = "patient_profile_id, session_date_time, id"),
+        @Index(name = "idx_appointments_therapist_session", columnList = "therapist_profile_id, session_date_time"),
+        // Parcours des RDV planifiés à venir par pages (re-scoring de nuit)
+        @Index(name = "idx_appointments_status_session_id", columnList = "status, session_date_time, id")
+})
 public class Appointment {
 
     @Id
@@ -52,4 +60,16 @@ public class Appointment {
      */
     @Column
     private Double cancellationRiskScore;
-}
\ No newline at end of file
+
+    /**
+     * Version du modèle d'annulation qui a calculé cancellationRiskScore (null si pas de score).
+     */
+    @Column(length = 64)
+    private String cancellationRiskModelVersion;
+
+    /**
+     * Identifiant de la série récurrente à laquelle appartient ce RDV (null si RDV isolé).
+     */
+    @Column(length = 36)
+    private String seriesId;
+}
@@ -22,5 +22,13 @@ public enum AppointmentStatus {
     /**
      * Le rendez-vous a été annulé par le thérapeute.
      */
-    CANCELLED_BY_THERAPIST
-}
\ No newline at end of file
+    CANCELLED_BY_THERAPIST;
+
+    /**
+     * Annulation à l'initiative du patient : signal de désengagement commun au risque d'abandon
+     * (taux d'annulation) et à l'analyse de rétention (séance qui ne compte pas comme venue).
+     */
+    public boolean isCancelledByPatient() {
+        return this == CANCELLED_BY_PATIENT;
+    }
+}
@@ -2,12 +2,19 @@ package com.clinique.api.entity;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.LazyGroup;
 
 @Data
 @NoArgsConstructor
 @Entity
-@Table(name = "clinical_notes")
+@Table(name = "clinical_notes", indexes = {
+        // Index couvrant : la chronologie de progression lit les scores sans toucher à la table
+        @Index(name = "idx_clinical_notes_appointment_scores",
+                columnList = "appointment_id, patient_progress_score, sentiment_score")
+})
 public class ClinicalNote {
 
     @Id
@@ -18,15 +25,32 @@ public class ClinicalNote {
     @JoinColumn(name = "appointment_id", nullable = false, unique = true)
     private Appointment appointment;
 
-    // --- CORRECTION IMPORTANTE ---
-    @Lob
-    @Column(columnDefinition = "TEXT") // Force le type TEXT au lieu de OID
+    // Copie de appointment.therapist.id : la recherche plein texte filtre par thérapeute
+    // dans son index GIN composite (voir db/clinical-notes-search.sql), sans jointure
+    @Column(name = "therapist_profile_id")
+    private Long therapistProfileId;
+
+    // Texte stocké directement dans la colonne TEXT, lié comme un VARCHAR. Pas de @Lob : sous PostgreSQL,
+    // Hibernate écrirait un "large object" et ne garderait que son OID dans la colonne
+    // (les anciennes notes sont converties au démarrage par ClinicalNoteLobConverter).
+    // Pas de @JdbcTypeCode(LONG32VARCHAR) non plus : le driver refuse ce type pour une valeur NULL.
+    //
+    // Corps de la note chargé à la demande (enhancement Hibernate, voir pom.xml) : les listes de RDV
+    // ne lisent que les colonnes scalaires ; le premier accès à summary ou privateNotes charge
+    // les deux en une requête (même groupe). Exclus de toString / equals pour ne pas le déclencher.
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("body")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @Column(columnDefinition = "TEXT")
     private String summary;
 
-    @Lob
-    @Column(columnDefinition = "TEXT") // Force le type TEXT au lieu de OID
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("body")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @Column(columnDefinition = "TEXT")
     private String privateNotes;
-    // --- FIN CORRECTION ---
 
     @Column
     private Integer patientProgressScore;
@@ -36,4 +60,8 @@ public class ClinicalNote {
 
     @Column
     private String sentimentLabel;
+
+    // Version du modèle de sentiment qui a calculé sentimentScore / sentimentLabel
+    @Column(length = 64)
+    private String sentimentModelVersion;
 }
\ No newline at end of file
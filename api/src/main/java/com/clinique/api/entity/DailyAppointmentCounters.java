@@ -0,0 +1,48 @@
+package com.clinique.api.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.MappedSuperclass;
+import lombok.Data;
+
+/**
+ * Compteurs communs aux agrégats journaliers des rendez-vous (par thérapeute, par spécialité).
+ * Les moyennes sont stockées en somme + nombre de valeurs : les agrégats s'additionnent
+ * (jours -> mois, thérapeutes -> spécialité) sans perdre en précision.
+ */
+@Data
+@MappedSuperclass
+public abstract class DailyAppointmentCounters {
+
+    /**
+     * RDV dont la séance tombe ce jour-là, tous statuts confondus.
+     */
+    @Column(nullable = false)
+    private long booked;
+
+    @Column(nullable = false)
+    private long completed;
+
+    @Column(nullable = false)
+    private long cancelledByPatient;
+
+    @Column(nullable = false)
+    private long cancelledByTherapist;
+
+    @Column(nullable = false)
+    private double riskScoreSum;
+
+    @Column(nullable = false)
+    private long riskScoreCount;
+
+    @Column(nullable = false)
+    private double progressScoreSum;
+
+    @Column(nullable = false)
+    private long progressScoreCount;
+
+    @Column(nullable = false)
+    private double sentimentScoreSum;
+
+    @Column(nullable = false)
+    private long sentimentScoreCount;
+}
@@ -0,0 +1,34 @@
+package com.clinique.api.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filigrane d'un jeu d'entraînement exporté pour le service de ML : tout ce qui précède exportedUntil
+ * a déjà été écrit dans un fichier, l'export suivant repart de là.
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "ml_export_watermarks")
+public class MlExportWatermark {
+
+    @Id
+    @Column(length = 64)
+    private String dataset;
+
+    @Column(nullable = false)
+    private LocalDateTime exportedUntil;
+
+    private LocalDateTime lastRunAt;
+
+    /**
+     * Nombre d'exemples du dernier export (0 : aucun fichier écrit).
+     */
+    private long lastRows;
+
+    private String lastFile;
+}
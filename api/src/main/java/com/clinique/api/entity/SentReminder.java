@@ -0,0 +1,37 @@
+package com.clinique.api.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Rappel déjà envoyé pour un RDV et un délai : après un redémarrage, les rappels rattrapés
+ * (fenêtre catch-up) ne sont pas envoyés une seconde fois.
+ * Purgé au fil des rechargements dès qu'il sort de la fenêtre.
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "sent_reminders", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_sent_reminders_appointment_offset", columnNames = {"appointment_id", "offset_seconds"})
+})
+public class SentReminder {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "appointment_id", nullable = false)
+    private Long appointmentId;
+
+    /**
+     * Délai entre le rappel et la séance, en secondes (ex: 86400 pour "la veille").
+     */
+    @Column(name = "offset_seconds", nullable = false)
+    private long offsetSeconds;
+
+    @Column(nullable = false)
+    private LocalDateTime sentAt;
+}
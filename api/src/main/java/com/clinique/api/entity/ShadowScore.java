@@ -0,0 +1,54 @@
+package com.clinique.api.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Score d'un RDV par le modèle d'annulation courant et par le modèle candidat (scoring shadow).
+ * Écrit par lots par com.clinique.api.mlshadow.ShadowScorer (JDBC) ; l'entité sert à créer la table.
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "ml_shadow_scores", indexes = {
+        @Index(name = "idx_ml_shadow_scores_candidate", columnList = "candidate_version, appointment_id")
+})
+public class ShadowScore {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "appointment_id", nullable = false)
+    private Long appointmentId;
+
+    @Column(nullable = false)
+    private LocalDateTime scoredAt;
+
+    @Column(length = 64)
+    private String primaryVersion;
+
+    private double primaryScore;
+
+    /**
+     * Durée de l'appel de scoring pendant la réservation, pour un lot de primaryBatchSize RDV (1 ou la série).
+     */
+    private double primaryLatencyMs;
+
+    private int primaryBatchSize;
+
+    @Column(length = 64, nullable = false)
+    private String candidateVersion;
+
+    private double candidateScore;
+
+    /**
+     * Durée de l'appel au modèle candidat, pour un lot de candidateBatchSize RDV.
+     */
+    private double candidateLatencyMs;
+
+    private int candidateBatchSize;
+}
@@ -0,0 +1,38 @@
+package com.clinique.api.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Agrégat des rendez-vous d'une spécialité pour un jour de séance (somme des agrégats de ses thérapeutes).
+ * Quelques lignes par jour : les rapports à l'échelle de la clinique ne lisent que cette table.
+ * Spécialité vide ("") pour les thérapeutes qui n'en ont pas renseigné.
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
+@Entity
+@IdClass(SpecialtyDailyStats.Key.class)
+@Table(name = "specialty_daily_stats")
+public class SpecialtyDailyStats extends DailyAppointmentCounters {
+
+    @Id
+    @Column(name = "session_day")
+    private LocalDate day;
+
+    @Id
+    @Column(name = "specialty")
+    private String specialty;
+
+    @Data
+    @NoArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDate day;
+        private String specialty;
+    }
+}
@@ -0,0 +1,46 @@
+package com.clinique.api.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Agrégat des rendez-vous d'un thérapeute pour un jour de séance.
+ * Tenu à jour par com.clinique.api.analytics.AppointmentStatsUpdater (lu et écrit en SQL, pas par JPA) ;
+ * l'entité sert à créer la table.
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
+@Entity
+@IdClass(TherapistDailyStats.Key.class)
+@Table(name = "therapist_daily_stats", indexes = {
+        @Index(name = "idx_therapist_daily_stats_therapist", columnList = "therapist_profile_id, session_day")
+})
+public class TherapistDailyStats extends DailyAppointmentCounters {
+
+    @Id
+    @Column(name = "session_day")
+    private LocalDate day;
+
+    @Id
+    @Column(name = "therapist_profile_id")
+    private Long therapistProfileId;
+
+    /**
+     * Spécialité actuelle du thérapeute, recopiée pour filtrer sans jointure.
+     */
+    @Column
+    private String specialty;
+
+    @Data
+    @NoArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDate day;
+        private Long therapistProfileId;
+    }
+}
@@ -0,0 +1,62 @@
+package com.clinique.api.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Inscription d'un patient sur la liste d'attente d'un thérapeute.
+ * Quand un RDV de ce thérapeute est annulé, le créneau libéré est proposé
+ * à l'inscription la plus prioritaire dont la plage horaire convient.
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "waitlist_entries", indexes = {
+        @Index(name = "idx_waitlist_therapist_status", columnList = "therapist_profile_id, status")
+})
+public class WaitlistEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "patient_profile_id", nullable = false)
+    private PatientProfile patient;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "therapist_profile_id", nullable = false)
+    private TherapistProfile therapist;
+
+    /**
+     * Plus la valeur est grande, plus le patient passe tôt (fixée par le thérapeute).
+     */
+    @Column(nullable = false)
+    private int priority;
+
+    /**
+     * Plage horaire acceptée par le patient (null = pas de contrainte).
+     */
+    private LocalDateTime earliestDateTime;
+
+    private LocalDateTime latestDateTime;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private WaitlistStatus status;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * Créneau actuellement proposé (si status = OFFERED).
+     */
+    private LocalDateTime offeredSessionDateTime;
+
+    private LocalDateTime offerExpiresAt;
+}
@@ -0,0 +1,31 @@
+package com.clinique.api.entity;
+
+/**
+ * Définit les statuts possibles d'une inscription en liste d'attente.
+ */
+public enum WaitlistStatus {
+    /**
+     * Le patient attend qu'un créneau se libère.
+     */
+    WAITING,
+
+    /**
+     * Un créneau libéré a été proposé au patient, en attente de sa réponse.
+     */
+    OFFERED,
+
+    /**
+     * Le patient a accepté le créneau : un rendez-vous a été créé.
+     */
+    FULFILLED,
+
+    /**
+     * La proposition n'a pas reçu de réponse à temps.
+     */
+    EXPIRED,
+
+    /**
+     * Le patient s'est retiré de la liste d'attente.
+     */
+    WITHDRAWN
+}
@@ -0,0 +1,18 @@
+package com.clinique.api.event;
+
+import com.clinique.api.entity.AppointmentStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Publié lorsqu'un rendez-vous est annulé.
+ * Les écouteurs transactionnels ne le reçoivent qu'après le commit de l'annulation.
+ */
+public record AppointmentCancelledEvent(
+        Long appointmentId,
+        Long therapistId,
+        Long patientId,
+        LocalDateTime sessionDateTime,
+        AppointmentStatus status
+) {
+}
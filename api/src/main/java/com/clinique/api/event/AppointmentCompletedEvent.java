@@ -0,0 +1,14 @@
+package com.clinique.api.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Publié lorsqu'un thérapeute marque un rendez-vous comme terminé.
+ */
+public record AppointmentCompletedEvent(
+        Long appointmentId,
+        Long therapistId,
+        Long patientId,
+        LocalDateTime sessionDateTime
+) {
+}
@@ -0,0 +1,13 @@
+package com.clinique.api.event;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Publié lorsqu'un ou plusieurs rendez-vous (RDV isolé, série récurrente) sont créés pour un thérapeute.
+ */
+public record AppointmentsBookedEvent(
+        Long therapistId,
+        List<LocalDateTime> sessionDateTimes
+) {
+}
@@ -0,0 +1,21 @@
+package com.clinique.api.event;
+
+import com.clinique.api.dto.PredictionRequest;
+
+import java.util.List;
+
+/**
+ * Publié quand des rendez-vous viennent d'être créés avec un score de risque d'annulation
+ * (RDV isolé ou série). Après le commit, les mêmes features sont soumises au modèle candidat
+ * (scoring shadow), hors du chemin de la réservation.
+ *
+ * @param latencyMillis durée de l'appel de scoring fait pendant la réservation
+ */
+public record AppointmentsScoredEvent(
+        List<Long> appointmentIds,
+        List<PredictionRequest> features,
+        List<Double> scores,
+        String modelVersion,
+        double latencyMillis
+) {
+}
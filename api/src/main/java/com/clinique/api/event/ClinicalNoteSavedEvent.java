@@ -0,0 +1,17 @@
+package com.clinique.api.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Publié lorsqu'une note clinique est créée ou modifiée.
+ * La chronologie de progression du patient, gardée en cache, est invalidée après le commit ;
+ * les agrégats journaliers du thérapeute sont recalculés avec la note.
+ */
+public record ClinicalNoteSavedEvent(
+        Long noteId,
+        Long appointmentId,
+        Long patientProfileId,
+        Long therapistProfileId,
+        LocalDateTime sessionDateTime
+) {
+}
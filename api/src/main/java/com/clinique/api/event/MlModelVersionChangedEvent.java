@@ -0,0 +1,14 @@
+package com.clinique.api.event;
+
+/**
+ * Publié lorsque le service de ML annonce une nouvelle version d'un modèle (rechargement à chaud
+ * après un réentraînement). Les prédictions gardées en cache pour ce modèle sont invalidées.
+ *
+ * @param model cancellation, timing, churn ou sentiment
+ */
+public record MlModelVersionChangedEvent(
+        String model,
+        String previousVersion,
+        String version
+) {
+}
@@ -0,0 +1,10 @@
+package com.clinique.api.event;
+
+/**
+ * Publié lorsqu'un profil thérapeute est créé ou modifié (nom, spécialité).
+ * L'annuaire en mémoire est invalidé après le commit.
+ */
+public record TherapistProfileChangedEvent(
+        Long therapistProfileId
+) {
+}
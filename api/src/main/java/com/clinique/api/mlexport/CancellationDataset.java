@@ -0,0 +1,79 @@
+package com.clinique.api.mlexport;
+
+import com.clinique.api.entity.AppointmentStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.List;
+
+/**
+ * Exemples du modèle d'annulation (train.py) : délai de réservation, jour et heure de la séance,
+ * et si le patient a annulé. Seuls les RDV terminés ou annulés par le patient sont retenus, une fois
+ * la séance passée depuis application.ml.export.settle-period (statut définitif).
+ */
+@Component
+class CancellationDataset implements TrainingDataset {
+
+    private static final String SELECT_ROWS = "SELECT a.session_date_time, a.created_at, a.status FROM appointments a "
+            + "WHERE a.status IN ('COMPLETED', 'CANCELLED_BY_PATIENT') "
+            + "AND a.session_date_time >= ? AND a.session_date_time < ?";
+
+    private static final List<NpzWriter.Column> COLUMNS = List.of(
+            new NpzWriter.Column("lead_time_days", NpzWriter.Type.FLOAT64),
+            new NpzWriter.Column("day_of_week", NpzWriter.Type.INT8),
+            new NpzWriter.Column("hour_of_day", NpzWriter.Type.INT8),
+            new NpzWriter.Column("is_cancelled", NpzWriter.Type.INT8));
+
+    private final Period settlePeriod;
+
+    CancellationDataset(@Value("${application.ml.export.settle-period:P1D}") Period settlePeriod) {
+        this.settlePeriod = settlePeriod;
+    }
+
+    @Override
+    public String name() {
+        return "cancellation";
+    }
+
+    @Override
+    public List<NpzWriter.Column> columns() {
+        return COLUMNS;
+    }
+
+    @Override
+    public LocalDateTime initialWatermark(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.queryForObject("SELECT CAST(min(session_date_time) AS date) FROM appointments",
+                (rs, rowNum) -> rs.getDate(1) == null ? null : rs.getDate(1).toLocalDate().atStartOfDay());
+    }
+
+    @Override
+    public LocalDateTime cutoff(LocalDate today) {
+        return today.minus(settlePeriod).atStartOfDay();
+    }
+
+    @Override
+    public void write(JdbcTemplate cursorJdbcTemplate, LocalDateTime from, LocalDateTime to, NpzWriter writer) {
+        cursorJdbcTemplate.query(SELECT_ROWS, rs -> {
+            LocalDateTime session = rs.getTimestamp(1).toLocalDateTime();
+            LocalDateTime createdAt = rs.getTimestamp(2).toLocalDateTime();
+            try {
+                // Mêmes features que train.py (pandas : lundi = 0)
+                writer.float64(Duration.between(createdAt, session).toMillis() / 86_400_000.0)
+                        .int8(session.getDayOfWeek().getValue() - 1)
+                        .int8(session.getHour())
+                        .int8(AppointmentStatus.valueOf(rs.getString(3)).isCancelledByPatient() ? 1 : 0)
+                        .endRow();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+}
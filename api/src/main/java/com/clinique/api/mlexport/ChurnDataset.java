@@ -0,0 +1,110 @@
+package com.clinique.api.mlexport;
+
+import com.clinique.api.entity.AppointmentStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Exemples du modèle d'abandon (train_churn.py), par instantané mensuel : au 1er de chaque mois,
+ * pour chaque patient suivi (venu dans l'année), les features de PatientService.getPatientChurnRisk
+ * calculées sur l'historique antérieur, et l'étiquette "aucune venue dans les application.ml.export.churn-horizon
+ * qui suivent". Les annulations du patient sont celles d'AppointmentStatus.isCancelledByPatient.
+ *
+ * La fenêtre porte sur la date d'instantané : elle n'est exportable qu'une fois l'horizon écoulé.
+ */
+@Component
+class ChurnDataset implements TrainingDataset {
+
+    private static final String SELECT_SNAPSHOT = "SELECT h.last_session, h.total, h.cancelled, "
+            + "EXISTS (SELECT 1 FROM appointments f WHERE f.patient_profile_id = h.patient_profile_id "
+            + "  AND f.session_date_time >= ? AND f.session_date_time < ? AND NOT (f.status = ANY(?))) AS returned "
+            + "FROM (SELECT patient_profile_id, max(session_date_time) AS last_session, count(*) AS total, "
+            + "  count(*) FILTER (WHERE status = ANY(?)) AS cancelled "
+            + "  FROM appointments WHERE session_date_time < ? GROUP BY patient_profile_id) h "
+            + "WHERE h.last_session >= ?";
+
+    private static final List<NpzWriter.Column> COLUMNS = List.of(
+            new NpzWriter.Column("snapshot_day", NpzWriter.Type.INT32),
+            new NpzWriter.Column("days_since_last_visit", NpzWriter.Type.INT32),
+            new NpzWriter.Column("total_visits", NpzWriter.Type.INT32),
+            new NpzWriter.Column("cancellation_rate", NpzWriter.Type.FLOAT64),
+            new NpzWriter.Column("is_churn", NpzWriter.Type.INT8));
+
+    private final Period horizon;
+    private final Period activeWithin;
+
+    ChurnDataset(@Value("${application.ml.export.churn-horizon:P90D}") Period horizon,
+                 @Value("${application.ml.export.churn-active-within:P1Y}") Period activeWithin) {
+        this.horizon = horizon;
+        this.activeWithin = activeWithin;
+    }
+
+    @Override
+    public String name() {
+        return "churn";
+    }
+
+    @Override
+    public List<NpzWriter.Column> columns() {
+        return COLUMNS;
+    }
+
+    @Override
+    public LocalDateTime initialWatermark(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.queryForObject("SELECT CAST(min(session_date_time) AS date) FROM appointments",
+                (rs, rowNum) -> rs.getDate(1) == null ? null : rs.getDate(1).toLocalDate().atStartOfDay());
+    }
+
+    @Override
+    public LocalDateTime cutoff(LocalDate today) {
+        return today.minus(horizon).atStartOfDay();
+    }
+
+    @Override
+    public void write(JdbcTemplate cursorJdbcTemplate, LocalDateTime from, LocalDateTime to, NpzWriter writer) {
+        String[] cancelledByPatient = Arrays.stream(AppointmentStatus.values())
+                .filter(AppointmentStatus::isCancelledByPatient)
+                .map(Enum::name)
+                .toArray(String[]::new);
+
+        LocalDate firstSnapshot = from.toLocalDate().withDayOfMonth(1);
+        if (firstSnapshot.atStartOfDay().isBefore(from)) {
+            firstSnapshot = firstSnapshot.plusMonths(1);
+        }
+        for (LocalDate snapshot = firstSnapshot; snapshot.atStartOfDay().isBefore(to); snapshot = snapshot.plusMonths(1)) {
+            LocalDate day = snapshot;
+            cursorJdbcTemplate.query(SELECT_SNAPSHOT, ps -> {
+                ps.setTimestamp(1, Timestamp.valueOf(day.atStartOfDay()));
+                ps.setTimestamp(2, Timestamp.valueOf(day.plus(horizon).atStartOfDay()));
+                ps.setArray(3, ps.getConnection().createArrayOf("varchar", cancelledByPatient));
+                ps.setArray(4, ps.getConnection().createArrayOf("varchar", cancelledByPatient));
+                ps.setTimestamp(5, Timestamp.valueOf(day.atStartOfDay()));
+                ps.setTimestamp(6, Timestamp.valueOf(day.minus(activeWithin).atStartOfDay()));
+            }, rs -> {
+                LocalDate lastSession = rs.getTimestamp(1).toLocalDateTime().toLocalDate();
+                int total = rs.getInt(2);
+                try {
+                    writer.int32((int) day.toEpochDay())
+                            .int32((int) ChronoUnit.DAYS.between(lastSession, day))
+                            .int32(total)
+                            .float64((double) rs.getInt(3) / total)
+                            .int8(rs.getBoolean(4) ? 0 : 1)
+                            .endRow();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.clinique.api.mlexport;
+
+import com.clinique.api.entity.MlExportWatermark;
+import com.clinique.api.repository.MlExportWatermarkRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Exporte chaque nuit les nouveaux exemples étiquetés de chaque jeu d'entraînement, de son filigrane
+ * à la date où les étiquettes sont définitives, dans application.ml.export.dir/&lt;jeu&gt;/&lt;jeu&gt;_&lt;début&gt;_&lt;fin&gt;.npz.
+ *
+ * Les lignes sont lues par curseur (transaction en lecture seule) et écrites en colonnes au fil de l'eau ;
+ * le filigrane n'avance qu'une fois le fichier publié, un export interrompu est donc refait en entier.
+ * Lancé aussi à la demande (POST /api/v1/admin/ml-exports).
+ */
+@Slf4j
+@Component
+public class MlTrainingExportJob {
+
+    private static final DateTimeFormatter FILE_DATE = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private final List<TrainingDataset> datasets;
+    private final MlExportWatermarkRepository watermarkRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate cursorJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Path directory;
+    private final boolean enabled;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public MlTrainingExportJob(List<TrainingDataset> datasets,
+                               MlExportWatermarkRepository watermarkRepository,
+                               JdbcTemplate jdbcTemplate,
+                               DataSource dataSource,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${application.ml.export.dir:ml-exports}") String directory,
+                               @Value("${application.ml.export.fetch-size:10000}") int fetchSize,
+                               @Value("${application.ml.export.enabled:true}") boolean enabled) {
+        this.datasets = datasets;
+        this.watermarkRepository = watermarkRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.cursorJdbcTemplate = new JdbcTemplate(dataSource);
+        this.cursorJdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.directory = Path.of(directory);
+        this.enabled = enabled;
+    }
+
+    public List<TrainingDataset> getDatasets() {
+        return datasets;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * Réserve l'exécution : un seul export à la fois.
+     */
+    public boolean tryStart() {
+        return running.compareAndSet(false, true);
+    }
+
+    /**
+     * Export de tous les jeux, à appeler après un tryStart() réussi.
+     */
+    @Async
+    public void run() {
+        try {
+            exportAll(LocalDate.now());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    @Scheduled(cron = "${application.ml.export.cron:0 30 2 * * *}")
+    public void nightlyExport() {
+        if (!enabled || !tryStart()) {
+            return;
+        }
+        try {
+            exportAll(LocalDate.now());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    void exportAll(LocalDate today) {
+        for (TrainingDataset dataset : datasets) {
+            try {
+                export(dataset, today);
+            } catch (DataAccessException | IOException | UncheckedIOException e) {
+                // Les autres jeux sont exportés quand même ; celui-ci repartira du même filigrane
+                log.error("Export du jeu d'entraînement {} interrompu", dataset.name(), e);
+            }
+        }
+    }
+
+    private void export(TrainingDataset dataset, LocalDate today) throws IOException {
+        MlExportWatermark watermark = watermarkRepository.findById(dataset.name()).orElseGet(() -> {
+            MlExportWatermark initial = new MlExportWatermark();
+            initial.setDataset(dataset.name());
+            initial.setExportedUntil(dataset.initialWatermark(jdbcTemplate));
+            return initial;
+        });
+        LocalDateTime from = watermark.getExportedUntil();
+        LocalDateTime to = dataset.cutoff(today);
+        if (from == null || !from.isBefore(to)) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        Path target = directory.resolve(dataset.name()).resolve(dataset.name() + "_"
+                + FILE_DATE.format(from) + "_" + FILE_DATE.format(to) + ".npz");
+        long rows;
+        try (NpzWriter writer = NpzWriter.create(target, dataset.columns())) {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try {
+                    dataset.write(cursorJdbcTemplate, from, to, writer);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            rows = writer.rows();
+            if (rows > 0) {
+                writer.finish();
+            }
+        }
+
+        watermark.setExportedUntil(to);
+        watermark.setLastRunAt(LocalDateTime.now());
+        watermark.setLastRows(rows);
+        watermark.setLastFile(rows > 0 ? target.toString() : null);
+        watermarkRepository.save(watermark);
+        log.info("Jeu d'entraînement {} exporté ({} -> {}) : {} exemples en {} ms", dataset.name(), from, to, rows,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+}
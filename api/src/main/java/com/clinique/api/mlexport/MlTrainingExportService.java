@@ -0,0 +1,56 @@
+package com.clinique.api.mlexport;
+
+import com.clinique.api.dto.MlExportStatusDTO;
+import com.clinique.api.entity.MlExportWatermark;
+import com.clinique.api.exception.ConflictException;
+import com.clinique.api.repository.MlExportWatermarkRepository;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Suivi et déclenchement des exports de données d'entraînement (réservé à l'admin).
+ */
+@Service
+@RequiredArgsConstructor
+@Timed(value = "clinique.service", histogram = true)
+public class MlTrainingExportService {
+
+    private final MlTrainingExportJob exportJob;
+    private final MlExportWatermarkRepository watermarkRepository;
+
+    public List<MlExportStatusDTO> getStatus() {
+        boolean running = exportJob.isRunning();
+        return exportJob.getDatasets().stream()
+                .map(dataset -> toDTO(dataset.name(), watermarkRepository.findById(dataset.name()).orElse(null), running))
+                .toList();
+    }
+
+    /**
+     * Lance un export de tous les jeux en arrière-plan.
+     *
+     * @throws ConflictException si un export est déjà en cours
+     */
+    public void startExport() {
+        if (!exportJob.tryStart()) {
+            throw new ConflictException("Un export des données d'entraînement est déjà en cours");
+        }
+        exportJob.run();
+    }
+
+    private static MlExportStatusDTO toDTO(String dataset, MlExportWatermark watermark, boolean running) {
+        // MAPPING MANUEL
+        MlExportStatusDTO dto = new MlExportStatusDTO();
+        dto.setDataset(dataset);
+        dto.setRunning(running);
+        if (watermark != null) {
+            dto.setExportedUntil(watermark.getExportedUntil());
+            dto.setLastRunAt(watermark.getLastRunAt());
+            dto.setLastRows(watermark.getLastRows());
+            dto.setLastFile(watermark.getLastFile());
+        }
+        return dto;
+    }
+}
@@ -0,0 +1,189 @@
+package com.clinique.api.mlexport;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Écrit un fichier .npz compressé (format de numpy.savez_compressed) : une archive zip contenant
+ * un tableau .npy par colonne. Côté Python, np.load(fichier) rend les colonnes, prêtes pour pandas.
+ *
+ * Les valeurs sont écrites au fil de l'eau dans un fichier temporaire par colonne (la mémoire ne dépend
+ * pas du nombre de lignes). finish() assemble l'archive à côté de la cible puis la renomme : un lecteur
+ * ne voit jamais de fichier partiel.
+ */
+public final class NpzWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final byte[] NPY_MAGIC = {(byte) 0x93, 'N', 'U', 'M', 'P', 'Y', 1, 0};
+
+    public enum Type {
+        INT8("|i1"),
+        INT32("<i4"),
+        FLOAT64("<f8");
+
+        private final String descr;
+
+        Type(String descr) {
+            this.descr = descr;
+        }
+    }
+
+    public record Column(String name, Type type) {
+    }
+
+    private final Path target;
+    private final List<Column> columns;
+    private final List<Path> columnFiles = new ArrayList<>();
+    private final List<FileChannel> channels = new ArrayList<>();
+    private final List<ByteBuffer> buffers = new ArrayList<>();
+    private int column;
+    private long rows;
+
+    private NpzWriter(Path target, List<Column> columns) {
+        this.target = target;
+        this.columns = List.copyOf(columns);
+    }
+
+    /**
+     * Prépare l'écriture de target (les fichiers temporaires sont créés dans le même dossier).
+     */
+    public static NpzWriter create(Path target, List<Column> columns) throws IOException {
+        NpzWriter writer = new NpzWriter(target, columns);
+        try {
+            Files.createDirectories(target.toAbsolutePath().getParent());
+            for (Column c : writer.columns) {
+                Path file = Files.createTempFile(target.toAbsolutePath().getParent(), "." + c.name() + "-", ".col");
+                writer.columnFiles.add(file);
+                writer.channels.add(FileChannel.open(file, StandardOpenOption.WRITE));
+                writer.buffers.add(ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN));
+            }
+        } catch (IOException e) {
+            writer.close();
+            throw e;
+        }
+        return writer;
+    }
+
+    public NpzWriter int8(int value) throws IOException {
+        next(Type.INT8, Byte.BYTES).put((byte) value);
+        return this;
+    }
+
+    public NpzWriter int32(int value) throws IOException {
+        next(Type.INT32, Integer.BYTES).putInt(value);
+        return this;
+    }
+
+    /**
+     * Valeur absente : Double.NaN (comme pandas).
+     */
+    public NpzWriter float64(double value) throws IOException {
+        next(Type.FLOAT64, Double.BYTES).putDouble(value);
+        return this;
+    }
+
+    public void endRow() {
+        if (column != columns.size()) {
+            throw new IllegalStateException("Ligne incomplète : " + column + " colonnes sur " + columns.size());
+        }
+        column = 0;
+        rows++;
+    }
+
+    public long rows() {
+        return rows;
+    }
+
+    /**
+     * Assemble l'archive et la publie sous le nom cible.
+     */
+    public void finish() throws IOException {
+        if (column != 0) {
+            throw new IllegalStateException("Dernière ligne incomplète");
+        }
+        for (int i = 0; i < columns.size(); i++) {
+            drain(i);
+            channels.get(i).force(false);
+        }
+
+        Path partial = target.resolveSibling("." + target.getFileName() + ".partial");
+        try (OutputStream out = Files.newOutputStream(partial);
+             ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (int i = 0; i < columns.size(); i++) {
+                zip.putNextEntry(new ZipEntry(columns.get(i).name() + ".npy"));
+                zip.write(npyHeader(columns.get(i).type(), rows));
+                try (FileChannel in = FileChannel.open(columnFiles.get(i), StandardOpenOption.READ)) {
+                    in.transferTo(0, in.size(), Channels.newChannel(zip));
+                }
+                zip.closeEntry();
+            }
+        }
+        Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Supprime les fichiers temporaires (y compris après un échec).
+     */
+    @Override
+    public void close() throws IOException {
+        for (FileChannel channel : channels) {
+            channel.close();
+        }
+        for (Path file : columnFiles) {
+            Files.deleteIfExists(file);
+        }
+        Files.deleteIfExists(target.resolveSibling("." + target.getFileName() + ".partial"));
+    }
+
+    private ByteBuffer next(Type type, int bytes) throws IOException {
+        if (column >= columns.size() || columns.get(column).type() != type) {
+            throw new IllegalStateException("Colonne " + column + " : type " + type + " inattendu");
+        }
+        ByteBuffer buffer = buffers.get(column);
+        if (buffer.remaining() < bytes) {
+            drain(column);
+        }
+        column++;
+        return buffer;
+    }
+
+    private void drain(int index) throws IOException {
+        ByteBuffer buffer = buffers.get(index);
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channels.get(index).write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * En-tête .npy version 1.0 : magic, longueur, dictionnaire Python complété d'espaces
+     * pour que les données commencent sur un multiple de 64 octets.
+     */
+    static byte[] npyHeader(Type type, long rows) {
+        String dict = "{'descr': '" + type.descr + "', 'fortran_order': False, 'shape': (" + rows + ",), }";
+        int unpadded = NPY_MAGIC.length + 2 + dict.length() + 1;
+        int padding = (64 - unpadded % 64) % 64;
+        String header = dict + " ".repeat(padding) + "\n";
+
+        ByteBuffer buffer = ByteBuffer.allocate(NPY_MAGIC.length + 2 + header.length()).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(NPY_MAGIC);
+        buffer.putShort((short) header.length());
+        buffer.put(header.getBytes(StandardCharsets.US_ASCII));
+        return buffer.array();
+    }
+}
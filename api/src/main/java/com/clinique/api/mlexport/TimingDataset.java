@@ -0,0 +1,70 @@
+package com.clinique.api.mlexport;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Exemples du modèle de timing (train_timing.py) : score de progression d'une séance terminée
+ * et nombre de jours jusqu'à la séance terminée et notée suivante du même patient.
+ *
+ * La fenêtre porte sur la date de la séance suivante : un exemple n'existe qu'une fois cette séance passée.
+ * La séance précédente est retrouvée par l'index (patient, date de séance), sans fonction de fenêtre
+ * sur tout l'historique.
+ */
+@Component
+class TimingDataset implements TrainingDataset {
+
+    private static final String SELECT_ROWS = "SELECT p.patient_progress_score, "
+            + "EXTRACT(DAY FROM (a.session_date_time - p.session_date_time)) AS days_until_next_session "
+            + "FROM appointments a JOIN clinical_notes n ON n.appointment_id = a.id "
+            + "CROSS JOIN LATERAL (SELECT pa.session_date_time, pn.patient_progress_score "
+            + "  FROM appointments pa JOIN clinical_notes pn ON pn.appointment_id = pa.id "
+            + "  WHERE pa.patient_profile_id = a.patient_profile_id AND pa.session_date_time < a.session_date_time "
+            + "  AND pa.status = 'COMPLETED' AND pn.patient_progress_score IS NOT NULL "
+            + "  ORDER BY pa.session_date_time DESC LIMIT 1) p "
+            + "WHERE a.status = 'COMPLETED' AND n.patient_progress_score IS NOT NULL "
+            + "AND a.session_date_time >= ? AND a.session_date_time < ?";
+
+    private static final List<NpzWriter.Column> COLUMNS = List.of(
+            new NpzWriter.Column("patient_progress_score", NpzWriter.Type.INT32),
+            new NpzWriter.Column("days_until_next_session", NpzWriter.Type.INT32));
+
+    @Override
+    public String name() {
+        return "timing";
+    }
+
+    @Override
+    public List<NpzWriter.Column> columns() {
+        return COLUMNS;
+    }
+
+    @Override
+    public LocalDateTime initialWatermark(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.queryForObject("SELECT CAST(min(session_date_time) AS date) FROM appointments",
+                (rs, rowNum) -> rs.getDate(1) == null ? null : rs.getDate(1).toLocalDate().atStartOfDay());
+    }
+
+    @Override
+    public LocalDateTime cutoff(LocalDate today) {
+        return today.atStartOfDay();
+    }
+
+    @Override
+    public void write(JdbcTemplate cursorJdbcTemplate, LocalDateTime from, LocalDateTime to, NpzWriter writer) {
+        cursorJdbcTemplate.query(SELECT_ROWS, rs -> {
+            try {
+                writer.int32(rs.getInt(1)).int32(rs.getInt(2)).endRow();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+}
@@ -0,0 +1,39 @@
+package com.clinique.api.mlexport;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Jeu d'entraînement exporté pour un modèle du service de ML (une ligne = exemple étiqueté).
+ *
+ * Chaque export couvre une fenêtre [from, to[ sur une date propre au jeu (date de séance, date d'instantané) ;
+ * to est la dernière date dont l'étiquette est définitive, et devient le filigrane de l'export suivant.
+ */
+public interface TrainingDataset {
+
+    /**
+     * Nom du jeu : sous-dossier et préfixe des fichiers, clé du filigrane.
+     */
+    String name();
+
+    List<NpzWriter.Column> columns();
+
+    /**
+     * Début du tout premier export (historique complet), null si la base est vide.
+     */
+    LocalDateTime initialWatermark(JdbcTemplate jdbcTemplate);
+
+    /**
+     * Fin (exclue) de la fenêtre exportable aujourd'hui.
+     */
+    LocalDateTime cutoff(LocalDate today);
+
+    /**
+     * Écrit les exemples de [from, to[ (appelé dans une transaction en lecture seule, curseur côté serveur).
+     */
+    void write(JdbcTemplate cursorJdbcTemplate, LocalDateTime from, LocalDateTime to, NpzWriter writer) throws IOException;
+}
@@ -0,0 +1,268 @@
+package com.clinique.api.mlrescore;
+
+import com.clinique.api.analytics.AppointmentStatsUpdater;
+import com.clinique.api.analytics.TherapistDay;
+import com.clinique.api.dto.PredictionBatchRequest;
+import com.clinique.api.dto.PredictionBatchResponse;
+import com.clinique.api.dto.PredictionRequest;
+import com.clinique.api.service.MlModelVersions;
+import com.clinique.api.service.MlService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+/**
+ * Re-score les RDV à venir encore planifiés avec le modèle d'annulation courant : ceux scorés par
+ * une version précédente, ou jamais scorés (service de ML indisponible à la réservation).
+ *
+ * Les RDV sont parcourus par pages sur (date de séance, id) (index status / session / id, sans OFFSET) ;
+ * chaque page est scorée en un appel /predict-batch puis réécrite en un batch JDBC, avec le recalcul
+ * des agrégats journaliers touchés dans la même transaction. Une pause entre les pages borne la charge
+ * de la base et du service de ML ; après plusieurs pages en échec de suite, le passage s'arrête.
+ */
+@Slf4j
+@Component
+public class AppointmentRescoringJob {
+
+    private static final String SELECT_PAGE = "SELECT id, therapist_profile_id, created_at, session_date_time "
+            + "FROM appointments "
+            + "WHERE status = 'SCHEDULED' AND (session_date_time, id) > (?, ?) "
+            + "AND (? OR cancellation_risk_model_version IS DISTINCT FROM ?) "
+            + "ORDER BY session_date_time, id LIMIT ?";
+
+    // Le RDV a pu être annulé ou déplacé depuis la lecture de la page : il n'est alors pas touché
+    private static final String UPDATE_SCORE = "UPDATE appointments "
+            + "SET cancellation_risk_score = ?, cancellation_risk_model_version = ? "
+            + "WHERE id = ? AND status = 'SCHEDULED' AND session_date_time = ?";
+
+    private static final int MAX_CONSECUTIVE_FAILURES = 3;
+
+    record Candidate(long id, long therapistId, LocalDateTime createdAt, LocalDateTime sessionDateTime) {
+    }
+
+    /**
+     * Bilan d'un passage.
+     *
+     * @param modelVersion version courante au début du passage (null si le service de ML ne répond pas)
+     * @param scanned      RDV lus
+     * @param rescored     RDV réécrits
+     * @param failedPages  pages laissées en l'état (service de ML ou écriture en échec)
+     */
+    public record RescoringRun(LocalDateTime startedAt, LocalDateTime finishedAt, String modelVersion,
+                               long scanned, long rescored, int failedPages) {
+    }
+
+    private final WebClient mlWebClient;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MlService mlService;
+    private final MlModelVersions modelVersions;
+    private final AppointmentStatsUpdater statsUpdater;
+    private final int pageSize;
+    private final Duration pause;
+    private final Duration timeout;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile RescoringRun lastRun;
+
+    public AppointmentRescoringJob(WebClient mlWebClient,
+                                   JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   MlService mlService,
+                                   MlModelVersions modelVersions,
+                                   AppointmentStatsUpdater statsUpdater,
+                                   @Value("${application.ml.rescoring.page-size:500}") int pageSize,
+                                   @Value("${application.ml.rescoring.pause:PT0.5S}") Duration pause,
+                                   @Value("${application.ml.rescoring.timeout:PT10S}") Duration timeout) {
+        this.mlWebClient = mlWebClient;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.mlService = mlService;
+        this.modelVersions = modelVersions;
+        this.statsUpdater = statsUpdater;
+        this.pageSize = pageSize;
+        this.pause = pause;
+        this.timeout = timeout;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public RescoringRun getLastRun() {
+        return lastRun;
+    }
+
+    /**
+     * Réserve l'exécution : un seul passage à la fois.
+     */
+    public boolean tryStart() {
+        return running.compareAndSet(false, true);
+    }
+
+    /**
+     * Passage sur les RDV à venir, à appeler après un tryStart() réussi.
+     *
+     * @param force re-score aussi les RDV déjà scorés par la version courante
+     */
+    @Async
+    public void run(boolean force) {
+        try {
+            lastRun = rescore(LocalDateTime.now(), force);
+        } catch (RuntimeException e) {
+            log.error("Re-scoring des RDV à venir interrompu", e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    RescoringRun rescore(LocalDateTime from, boolean force) {
+        LocalDateTime startedAt = LocalDateTime.now();
+        // Version lue juste avant le passage : un modèle rechargé dans la journée est pris en compte
+        mlService.refreshModelVersions();
+        String currentVersion = modelVersions.get(MlModelVersions.CANCELLATION);
+        if (currentVersion == null) {
+            log.warn("Re-scoring des RDV à venir annulé : version du modèle d'annulation inconnue");
+            return new RescoringRun(startedAt, LocalDateTime.now(), null, 0, 0, 0);
+        }
+
+        long start = System.nanoTime();
+        LocalDateTime lastSession = from;
+        long lastId = 0;
+        long scanned = 0;
+        long rescored = 0;
+        int failedPages = 0;
+        int consecutiveFailures = 0;
+        while (true) {
+            List<Candidate> page = jdbcTemplate.query(SELECT_PAGE, (rs, rowNum) -> new Candidate(
+                            rs.getLong("id"),
+                            rs.getLong("therapist_profile_id"),
+                            rs.getTimestamp("created_at").toLocalDateTime(),
+                            rs.getTimestamp("session_date_time").toLocalDateTime()),
+                    Timestamp.valueOf(lastSession), lastId, force, currentVersion, pageSize);
+            if (page.isEmpty()) {
+                break;
+            }
+            scanned += page.size();
+            Candidate last = page.get(page.size() - 1);
+            lastSession = last.sessionDateTime();
+            lastId = last.id();
+
+            int written = -1;
+            PredictionBatchResponse response = score(page);
+            if (response != null) {
+                try {
+                    written = write(page, response);
+                } catch (DataAccessException e) {
+                    log.warn("Scores d'une page de {} RDV non enregistrés : {}", page.size(), e.getMessage());
+                }
+            }
+            if (written < 0) {
+                failedPages++;
+                if (++consecutiveFailures >= MAX_CONSECUTIVE_FAILURES) {
+                    log.warn("Re-scoring arrêté après {} pages en échec ; les RDV restants gardent leur score", consecutiveFailures);
+                    break;
+                }
+            } else {
+                consecutiveFailures = 0;
+                rescored += written;
+            }
+
+            if (page.size() < pageSize || !sleep()) {
+                break;
+            }
+        }
+
+        RescoringRun run = new RescoringRun(startedAt, LocalDateTime.now(), currentVersion, scanned, rescored, failedPages);
+        log.info("Re-scoring des RDV à venir ({}) : {} lus, {} réécrits, {} pages en échec, en {} ms",
+                currentVersion, scanned, rescored, failedPages, (System.nanoTime() - start) / 1_000_000);
+        return run;
+    }
+
+    /**
+     * Un seul appel vectorisé par page. Renvoie null si le service de ML est indisponible ou répond mal.
+     */
+    private PredictionBatchResponse score(List<Candidate> page) {
+        List<PredictionRequest> features = page.stream()
+                .map(candidate -> PredictionRequest.of(candidate.createdAt(), candidate.sessionDateTime()))
+                .toList();
+        try {
+            PredictionBatchResponse response = mlWebClient.post()
+                    .uri("/predict-batch")
+                    .bodyValue(new PredictionBatchRequest(features))
+                    .retrieve()
+                    .bodyToMono(PredictionBatchResponse.class)
+                    .block(timeout);
+            if (response == null || response.getModelVersion() == null || response.getCancellationRiskScores() == null
+                    || response.getCancellationRiskScores().size() != page.size()) {
+                log.warn("Réponse de scoring invalide pour une page de {} RDV", page.size());
+                return null;
+            }
+            modelVersions.observe(MlModelVersions.CANCELLATION, response.getModelVersion());
+            return response;
+        } catch (RuntimeException e) {
+            log.warn("Re-scoring d'une page de {} RDV impossible : {}", page.size(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Réécrit les scores de la page et recalcule les agrégats (somme des risques) des jours touchés.
+     *
+     * @return nombre de RDV réécrits
+     */
+    private int write(List<Candidate> page, PredictionBatchResponse response) {
+        List<Double> scores = response.getCancellationRiskScores();
+        List<Integer> indexes = IntStream.range(0, page.size()).boxed().toList();
+        Integer updated = transactionTemplate.execute(status -> {
+            int[][] counts = jdbcTemplate.batchUpdate(UPDATE_SCORE, indexes, indexes.size(), (ps, i) -> {
+                ps.setDouble(1, scores.get(i));
+                ps.setString(2, response.getModelVersion());
+                ps.setLong(3, page.get(i).id());
+                ps.setTimestamp(4, Timestamp.valueOf(page.get(i).sessionDateTime()));
+            });
+            Set<TherapistDay> touched = new HashSet<>();
+            int rows = 0;
+            for (int i = 0; i < page.size(); i++) {
+                int count = counts[0][i];
+                if (count > 0 || count == Statement.SUCCESS_NO_INFO) {
+                    Candidate candidate = page.get(i);
+                    touched.add(new TherapistDay(candidate.sessionDateTime().toLocalDate(), candidate.therapistId()));
+                    rows++;
+                }
+            }
+            statsUpdater.refresh(touched);
+            return rows;
+        });
+        return updated == null ? 0 : updated;
+    }
+
+    private boolean sleep() {
+        if (pause.isZero() || pause.isNegative()) {
+            return true;
+        }
+        try {
+            Thread.sleep(pause);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.clinique.api.mlrescore;
+
+import com.clinique.api.dto.MlRescoringStatusDTO;
+import com.clinique.api.event.MlModelVersionChangedEvent;
+import com.clinique.api.exception.ConflictException;
+import com.clinique.api.service.MlModelVersions;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Déclenchement et suivi du re-scoring des RDV à venir : chaque nuit, après le rechargement
+ * d'un nouveau modèle d'annulation, ou à la demande de l'admin.
+ *
+ * Le passage tourne toujours sur le pool @Async : le thread unique du planificateur n'attend pas
+ * les pauses entre les pages.
+ */
+@Slf4j
+@Service
+@Timed(value = "clinique.service", histogram = true)
+public class AppointmentRescoringService {
+
+    private final AppointmentRescoringJob rescoringJob;
+    private final boolean enabled;
+    private final boolean onModelChange;
+
+    public AppointmentRescoringService(AppointmentRescoringJob rescoringJob,
+                                       @Value("${application.ml.rescoring.enabled:true}") boolean enabled,
+                                       @Value("${application.ml.rescoring.on-model-change:true}") boolean onModelChange) {
+        this.rescoringJob = rescoringJob;
+        this.enabled = enabled;
+        this.onModelChange = onModelChange;
+    }
+
+    @Scheduled(cron = "${application.ml.rescoring.cron:0 0 4 * * *}")
+    public void nightlyRescoring() {
+        if (enabled && rescoringJob.tryStart()) {
+            rescoringJob.run(false);
+        }
+    }
+
+    @EventListener
+    public void onModelVersionChanged(MlModelVersionChangedEvent event) {
+        if (!enabled || !onModelChange || !MlModelVersions.CANCELLATION.equals(event.model())) {
+            return;
+        }
+        // Un passage déjà en cours a lu l'ancienne version : la nuit suivante rattrapera le reste
+        if (rescoringJob.tryStart()) {
+            log.info("Nouveau modèle d'annulation {} : re-scoring des RDV à venir", event.version());
+            rescoringJob.run(false);
+        }
+    }
+
+    public MlRescoringStatusDTO getStatus() {
+        // MAPPING MANUEL
+        MlRescoringStatusDTO dto = new MlRescoringStatusDTO();
+        dto.setRunning(rescoringJob.isRunning());
+        AppointmentRescoringJob.RescoringRun run = rescoringJob.getLastRun();
+        if (run != null) {
+            dto.setLastStartedAt(run.startedAt());
+            dto.setLastFinishedAt(run.finishedAt());
+            dto.setModelVersion(run.modelVersion());
+            dto.setScanned(run.scanned());
+            dto.setRescored(run.rescored());
+            dto.setFailedPages(run.failedPages());
+        }
+        return dto;
+    }
+
+    /**
+     * Lance un passage en arrière-plan.
+     *
+     * @param force re-score aussi les RDV déjà scorés par la version courante
+     * @throws ConflictException si un passage est déjà en cours
+     */
+    public void startRescoring(boolean force) {
+        if (!rescoringJob.tryStart()) {
+            throw new ConflictException("Un re-scoring des rendez-vous est déjà en cours");
+        }
+        rescoringJob.run(force);
+    }
+}
@@ -0,0 +1,94 @@
+package com.clinique.api.mlshadow;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Qualité d'un modèle de risque d'annulation sur des RDV dont l'issue est connue
+ * (label : annulé par le patient).
+ *
+ * @param auc         aire sous la courbe ROC (probabilité qu'un RDV annulé soit mieux classé qu'un RDV honoré),
+ *                    null s'il manque des exemples de l'une des deux classes
+ * @param brierScore  erreur quadratique moyenne entre score et issue (0 = parfait)
+ * @param calibration score moyen et taux d'annulation observé par tranche de score
+ */
+public record ShadowEvaluation(
+        int count,
+        int positives,
+        double meanScore,
+        Double auc,
+        double brierScore,
+        List<Bin> calibration
+) {
+
+    public record Bin(double lowerBound, double upperBound, int count, double meanScore, double observedRate) {
+    }
+
+    /**
+     * @param bins nombre de tranches de même largeur sur [0, 1] (les tranches vides sont omises)
+     */
+    public static ShadowEvaluation evaluate(double[] scores, boolean[] cancelled, int bins) {
+        if (scores.length != cancelled.length) {
+            throw new IllegalArgumentException("Un label par score attendu");
+        }
+        int n = scores.length;
+        int positives = 0;
+        double sum = 0;
+        double squaredError = 0;
+        int[] binCounts = new int[bins];
+        int[] binPositives = new int[bins];
+        double[] binSums = new double[bins];
+        for (int i = 0; i < n; i++) {
+            double label = cancelled[i] ? 1 : 0;
+            positives += cancelled[i] ? 1 : 0;
+            sum += scores[i];
+            squaredError += (scores[i] - label) * (scores[i] - label);
+            int bin = Math.min(bins - 1, Math.max(0, (int) (scores[i] * bins)));
+            binCounts[bin]++;
+            binPositives[bin] += cancelled[i] ? 1 : 0;
+            binSums[bin] += scores[i];
+        }
+
+        List<Bin> calibration = new ArrayList<>();
+        for (int bin = 0; bin < bins; bin++) {
+            if (binCounts[bin] > 0) {
+                calibration.add(new Bin((double) bin / bins, (double) (bin + 1) / bins, binCounts[bin],
+                        binSums[bin] / binCounts[bin], (double) binPositives[bin] / binCounts[bin]));
+            }
+        }
+        return new ShadowEvaluation(n, positives, n == 0 ? 0 : sum / n, auc(scores, cancelled, positives),
+                n == 0 ? 0 : squaredError / n, calibration);
+    }
+
+    /**
+     * AUC par les rangs (Mann-Whitney), rangs moyens pour les scores égaux.
+     */
+    static Double auc(double[] scores, boolean[] cancelled, int positives) {
+        int n = scores.length;
+        long negatives = n - positives;
+        if (positives == 0 || negatives == 0) {
+            return null;
+        }
+        Integer[] order = IntStream.range(0, n).boxed().toArray(Integer[]::new);
+        Arrays.sort(order, Comparator.comparingDouble(i -> scores[i]));
+
+        double positiveRankSum = 0;
+        for (int start = 0; start < n; ) {
+            int end = start;
+            while (end + 1 < n && scores[order[end + 1]] == scores[order[start]]) {
+                end++;
+            }
+            double rank = (start + end) / 2.0 + 1;
+            for (int k = start; k <= end; k++) {
+                if (cancelled[order[k]]) {
+                    positiveRankSum += rank;
+                }
+            }
+            start = end + 1;
+        }
+        return (positiveRankSum - positives * (positives + 1) / 2.0) / (positives * (double) negatives);
+    }
+}
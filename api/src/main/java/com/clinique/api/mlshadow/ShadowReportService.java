@@ -0,0 +1,163 @@
+package com.clinique.api.mlshadow;
+
+import com.clinique.api.dto.CalibrationBinDTO;
+import com.clinique.api.dto.ShadowModelStatsDTO;
+import com.clinique.api.dto.ShadowReportDTO;
+import com.clinique.api.entity.AppointmentStatus;
+import com.clinique.api.exception.ResourceNotFoundException;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Rapport de comparaison entre le modèle d'annulation courant et un modèle candidat (réservé à l'admin) :
+ * AUC, score de Brier et calibration sur les issues réelles, latence des appels de scoring.
+ *
+ * Calculé à la demande sur le journal ml_shadow_scores du candidat (index candidat / RDV),
+ * joint au statut actuel des rendez-vous.
+ */
+@Service
+@RequiredArgsConstructor
+@Timed(value = "clinique.service", histogram = true)
+public class ShadowReportService {
+
+    private static final int CALIBRATION_BINS = 10;
+
+    private static final String SELECT_SCORES = "SELECT s.primary_version, s.primary_score, s.primary_latency_ms, s.primary_batch_size, "
+            + "s.candidate_score, s.candidate_latency_ms, s.candidate_batch_size, a.status "
+            + "FROM ml_shadow_scores s LEFT JOIN appointments a ON a.id = s.appointment_id "
+            + "WHERE s.candidate_version = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ShadowScorer shadowScorer;
+
+    /**
+     * @param candidateVersion version évaluée (null : le dernier candidat journalisé)
+     */
+    public ShadowReportDTO getReport(String candidateVersion) {
+        String version = candidateVersion != null ? candidateVersion : latestCandidateVersion();
+
+        Rows rows = new Rows();
+        jdbcTemplate.query(SELECT_SCORES, rs -> {
+            String status = rs.getString("status");
+            rows.add(rs.getString("primary_version"), rs.getDouble("primary_score"), rs.getDouble("primary_latency_ms"),
+                    rs.getInt("primary_batch_size"), rs.getDouble("candidate_score"), rs.getDouble("candidate_latency_ms"), rs.getInt("candidate_batch_size"),
+                    status == null ? null : AppointmentStatus.valueOf(status));
+        }, version);
+        if (rows.size == 0) {
+            throw new ResourceNotFoundException("Aucun score shadow pour le candidat " + version);
+        }
+
+        boolean[] labels = Arrays.copyOf(rows.labels, rows.labelled);
+        ShadowEvaluation primary = ShadowEvaluation.evaluate(
+                Arrays.copyOf(rows.labelledPrimary, rows.labelled), labels, CALIBRATION_BINS);
+        ShadowEvaluation candidate = ShadowEvaluation.evaluate(
+                Arrays.copyOf(rows.labelledCandidate, rows.labelled), labels, CALIBRATION_BINS);
+
+        // MAPPING MANUEL
+        ShadowReportDTO report = new ShadowReportDTO();
+        report.setCandidateVersion(version);
+        report.setPrimaryVersions(List.copyOf(rows.primaryVersions));
+        report.setScored(rows.size);
+        report.setLabelled(rows.labelled);
+        report.setCancelled(primary.positives());
+        report.setPending(rows.size - rows.labelled);
+        report.setDropped(shadowScorer.getDroppedCount());
+        report.setMeanAbsoluteDifference(rows.absoluteDifferenceSum / rows.size);
+        report.setPrimary(toStats(rows.primaryVersions.size() == 1 ? rows.primaryVersions.first() : null, primary,
+                Arrays.copyOf(rows.primaryLatencies, rows.size), (double) rows.primaryBatchSizeSum / rows.size));
+        report.setCandidate(toStats(version, candidate, Arrays.copyOf(rows.candidateLatencies, rows.size),
+                (double) rows.candidateBatchSizeSum / rows.size));
+        return report;
+    }
+
+    private String latestCandidateVersion() {
+        try {
+            return jdbcTemplate.queryForObject(
+                    "SELECT candidate_version FROM ml_shadow_scores ORDER BY id DESC LIMIT 1", String.class);
+        } catch (EmptyResultDataAccessException e) {
+            throw new ResourceNotFoundException("Aucun score shadow enregistré");
+        }
+    }
+
+    /**
+     * Colonnes lues en flux ; seuls les RDV à l'issue connue entrent dans l'évaluation.
+     */
+    private static final class Rows {
+        int size;
+        int labelled;
+        double[] primaryLatencies = new double[1024];
+        double[] candidateLatencies = new double[1024];
+        double[] labelledPrimary = new double[1024];
+        double[] labelledCandidate = new double[1024];
+        boolean[] labels = new boolean[1024];
+        long primaryBatchSizeSum;
+        long candidateBatchSizeSum;
+        double absoluteDifferenceSum;
+        final TreeSet<String> primaryVersions = new TreeSet<>();
+
+        void add(String primaryVersion, double primaryScore, double primaryLatency, int primaryBatchSize,
+                 double candidateScore, double candidateLatency, int candidateBatchSize, AppointmentStatus status) {
+            if (size == primaryLatencies.length) {
+                primaryLatencies = Arrays.copyOf(primaryLatencies, size * 2);
+                candidateLatencies = Arrays.copyOf(candidateLatencies, size * 2);
+            }
+            primaryLatencies[size] = primaryLatency;
+            candidateLatencies[size] = candidateLatency;
+            size++;
+            primaryBatchSizeSum += primaryBatchSize;
+            candidateBatchSizeSum += candidateBatchSize;
+            absoluteDifferenceSum += Math.abs(primaryScore - candidateScore);
+            if (primaryVersion != null) {
+                primaryVersions.add(primaryVersion);
+            }
+            // Même étiquetage que l'entraînement (train.py) : honoré ou annulé par le patient
+            if (status == null || (status != AppointmentStatus.COMPLETED && !status.isCancelledByPatient())) {
+                return;
+            }
+            if (labelled == labels.length) {
+                labelledPrimary = Arrays.copyOf(labelledPrimary, labelled * 2);
+                labelledCandidate = Arrays.copyOf(labelledCandidate, labelled * 2);
+                labels = Arrays.copyOf(labels, labelled * 2);
+            }
+            labelledPrimary[labelled] = primaryScore;
+            labelledCandidate[labelled] = candidateScore;
+            labels[labelled] = status.isCancelledByPatient();
+            labelled++;
+        }
+    }
+
+    private static ShadowModelStatsDTO toStats(String version, ShadowEvaluation evaluation, double[] latencies,
+                                               double meanBatchSize) {
+        Arrays.sort(latencies);
+        // MAPPING MANUEL
+        ShadowModelStatsDTO stats = new ShadowModelStatsDTO();
+        stats.setVersion(version);
+        stats.setAuc(evaluation.auc());
+        stats.setBrierScore(evaluation.brierScore());
+        stats.setMeanScore(evaluation.meanScore());
+        stats.setLatencyP50Ms(percentile(latencies, 0.50));
+        stats.setLatencyP95Ms(percentile(latencies, 0.95));
+        stats.setMeanBatchSize(meanBatchSize);
+        stats.setCalibration(evaluation.calibration().stream().map(bin -> {
+            CalibrationBinDTO dto = new CalibrationBinDTO();
+            dto.setLowerBound(bin.lowerBound());
+            dto.setUpperBound(bin.upperBound());
+            dto.setCount(bin.count());
+            dto.setMeanScore(bin.meanScore());
+            dto.setObservedRate(bin.observedRate());
+            return dto;
+        }).toList());
+        return stats;
+    }
+
+    private static double percentile(double[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+}
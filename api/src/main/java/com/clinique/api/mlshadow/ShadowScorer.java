@@ -0,0 +1,184 @@
+package com.clinique.api.mlshadow;
+
+import com.clinique.api.dto.PredictionBatchRequest;
+import com.clinique.api.dto.PredictionBatchResponse;
+import com.clinique.api.dto.PredictionRequest;
+import com.clinique.api.event.AppointmentsScoredEvent;
+import com.clinique.api.service.MlModelVersions;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Scoring shadow : chaque RDV scoré à la réservation est aussi soumis au modèle d'annulation candidat
+ * (POST /predict-batch-candidate), et les deux scores sont enregistrés dans ml_shadow_scores pour
+ * comparer les modèles sur les issues réelles (ShadowReportService).
+ *
+ * La réservation ne fait que déposer les features dans une file bornée, après son commit ; un thread dédié
+ * vide la file par lots. File pleine ou service de ML lent : les RDV en trop ne sont pas évalués
+ * (compteur clinique.ml.shadow.dropped), la réservation n'attend jamais. Sans candidat chargé côté ML
+ * (version inconnue dans GET /models), rien n'est envoyé.
+ */
+@Slf4j
+@Component
+public class ShadowScorer {
+
+    static final String CANDIDATE = "cancellation_candidate";
+
+    private static final String INSERT_SCORE = "INSERT INTO ml_shadow_scores (appointment_id, scored_at, "
+            + "primary_version, primary_score, primary_latency_ms, primary_batch_size, candidate_version, candidate_score, "
+            + "candidate_latency_ms, candidate_batch_size) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    record Pending(long appointmentId, PredictionRequest features, double primaryScore, String primaryVersion,
+                   double primaryLatencyMs, int primaryBatchSize) {
+    }
+
+    private final WebClient mlWebClient;
+    private final JdbcTemplate jdbcTemplate;
+    private final MlModelVersions modelVersions;
+    private final boolean enabled;
+    private final double sampleRate;
+    private final int batchSize;
+    private final BlockingQueue<Pending> queue;
+    private final Counter dropped;
+    private final ExecutorService worker;
+    private volatile boolean running = true;
+
+    public ShadowScorer(WebClient mlWebClient,
+                        JdbcTemplate jdbcTemplate,
+                        MlModelVersions modelVersions,
+                        MeterRegistry registry,
+                        @Value("${application.ml.shadow.enabled:true}") boolean enabled,
+                        @Value("${application.ml.shadow.sample-rate:1.0}") double sampleRate,
+                        @Value("${application.ml.shadow.queue-capacity:10000}") int queueCapacity,
+                        @Value("${application.ml.shadow.batch-size:200}") int batchSize) {
+        this.mlWebClient = mlWebClient;
+        this.jdbcTemplate = jdbcTemplate;
+        this.modelVersions = modelVersions;
+        this.enabled = enabled;
+        this.sampleRate = sampleRate;
+        this.batchSize = batchSize;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.dropped = Counter.builder("clinique.ml.shadow.dropped")
+                .description("RDV non soumis au modèle candidat (file pleine ou appel en échec)")
+                .register(registry);
+        this.worker = Executors.newSingleThreadExecutor(Thread.ofPlatform().name("ml-shadow").daemon().factory());
+        if (enabled) {
+            worker.execute(this::drainLoop);
+        }
+    }
+
+    public long getDroppedCount() {
+        return (long) dropped.count();
+    }
+
+    /**
+     * Après le commit : un RDV annulé par rollback n'est pas évalué.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentsScored(AppointmentsScoredEvent event) {
+        if (!enabled || modelVersions.get(CANDIDATE) == null) {
+            return;
+        }
+        for (int i = 0; i < event.appointmentIds().size(); i++) {
+            Double score = event.scores().get(i);
+            if (score == null || (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+                continue;
+            }
+            Pending pending = new Pending(event.appointmentIds().get(i), event.features().get(i), score,
+                    event.modelVersion(), event.latencyMillis(), event.appointmentIds().size());
+            if (!queue.offer(pending)) {
+                dropped.increment();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        worker.shutdownNow();
+    }
+
+    private void drainLoop() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Pending first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                score(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                dropped.increment(batch.size());
+                log.warn("Scoring shadow de {} RDV impossible : {}", batch.size(), e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    void score(List<Pending> batch) {
+        long start = System.nanoTime();
+        PredictionBatchResponse response = mlWebClient.post()
+                .uri("/predict-batch-candidate")
+                .bodyValue(new PredictionBatchRequest(batch.stream().map(Pending::features).toList()))
+                .retrieve()
+                .bodyToMono(PredictionBatchResponse.class)
+                .block(Duration.ofSeconds(5));
+        double latencyMs = (System.nanoTime() - start) / 1e6;
+        // Sans version : plus de candidat chargé côté ML (scores -1), rien à comparer
+        if (response == null || response.getModelVersion() == null || response.getCancellationRiskScores() == null
+                || response.getCancellationRiskScores().size() != batch.size()) {
+            dropped.increment(batch.size());
+            return;
+        }
+        modelVersions.observe(CANDIDATE, response.getModelVersion());
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Double> scores = response.getCancellationRiskScores();
+        try {
+            List<Integer> indexes = IntStream.range(0, batch.size()).boxed().toList();
+            jdbcTemplate.batchUpdate(INSERT_SCORE, indexes, indexes.size(), (ps, i) -> {
+                Pending pending = batch.get(i);
+                ps.setLong(1, pending.appointmentId());
+                ps.setTimestamp(2, now);
+                ps.setString(3, pending.primaryVersion());
+                ps.setDouble(4, pending.primaryScore());
+                ps.setDouble(5, pending.primaryLatencyMs());
+                ps.setInt(6, pending.primaryBatchSize());
+                ps.setString(7, response.getModelVersion());
+                ps.setDouble(8, scores.get(i));
+                ps.setDouble(9, latencyMs);
+                ps.setInt(10, batch.size());
+            });
+        } catch (DataAccessException e) {
+            dropped.increment(batch.size());
+            log.warn("Scores shadow non enregistrés ({} RDV) : {}", batch.size(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.clinique.api.reminder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Écrit chaque rappel comme une ligne JSON dans un fichier local (NDJSON).
+ * Pratique pour vérifier les envois en développement ou en test de charge.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "application.reminders.sink", havingValue = "file")
+public class FileReminderSink implements ReminderSink {
+
+    private final ObjectMapper objectMapper;
+    private final Path file;
+    // Verrou plutôt que synchronized : une écriture disque n'épingle pas le thread virtuel appelant
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public FileReminderSink(ObjectMapper objectMapper, ReminderProperties properties) {
+        this.objectMapper = objectMapper;
+        this.file = Path.of(properties.getFile());
+    }
+
+    @Override
+    public void send(Reminder reminder) {
+        lock.lock();
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            writer.write(objectMapper.writeValueAsString(reminder));
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible d'écrire le rappel dans " + file, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
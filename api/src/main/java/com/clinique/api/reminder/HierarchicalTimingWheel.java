@@ -0,0 +1,187 @@
+package com.clinique.api.reminder;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Roue temporelle hiérarchique (à la Kafka / Netty) pour planifier un très grand
+ * nombre d'échéances avec un coût constant.
+ * - schedule() : O(1), on calcule directement le niveau et la case.
+ * - cancel()   : O(1), suppression paresseuse (l'entrée est ignorée à l'expiration).
+ * - advanceTo(): proportionnel au nombre de ticks écoulés + entrées expirées.
+ *
+ * Chaque niveau i couvre des cases de (wheelSize ^ i) ticks. Quand le temps franchit
+ * une frontière de niveau, la case correspondante est "redescendue" (cascade)
+ * vers les niveaux inférieurs. Les échéances au-delà du dernier niveau y sont
+ * stockées et ré-évaluées à chaque tour.
+ *
+ * La classe est thread-safe (méthodes synchronisées) : la planification peut venir
+ * d'un thread de rechargement pendant que le thread de tick fait avancer la roue.
+ */
+public class HierarchicalTimingWheel<T> {
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final int mask;
+    private final int shift;
+    private final ArrayDeque<Timeout<T>>[][] buckets;
+
+    /** Échéances déjà passées au moment de leur planification. */
+    private final List<Timeout<T>> overdue = new ArrayList<>();
+
+    /** Dernier tick traité (absolu, en nombre de ticks depuis l'epoch). */
+    private long currentTick;
+    private int size;
+
+    /**
+     * @param tickMillis durée d'un tick (résolution de la roue)
+     * @param wheelSize  nombre de cases par niveau (puissance de 2)
+     * @param levels     nombre de niveaux ; l'horizon "exact" vaut tickMillis * wheelSize ^ levels
+     * @param startMillis instant de départ de la roue
+     */
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimingWheel(long tickMillis, int wheelSize, int levels, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis doit être strictement positif");
+        }
+        if (wheelSize < 2 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("wheelSize doit être une puissance de 2");
+        }
+        if (levels < 1 || (long) Integer.numberOfTrailingZeros(wheelSize) * levels >= 63) {
+            throw new IllegalArgumentException("Nombre de niveaux invalide: " + levels);
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.mask = wheelSize - 1;
+        this.shift = Integer.numberOfTrailingZeros(wheelSize);
+        this.buckets = new ArrayDeque[levels][wheelSize];
+        this.currentTick = Math.floorDiv(startMillis, tickMillis);
+    }
+
+    /**
+     * Planifie un élément pour l'instant donné (epoch millis).
+     * Si l'instant est déjà passé, l'élément sera rendu au prochain advanceTo().
+     */
+    public synchronized Timeout<T> schedule(long expirationMillis, T payload) {
+        Timeout<T> timeout = new Timeout<>(Math.floorDiv(expirationMillis, tickMillis), payload);
+        place(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Fait avancer la roue jusqu'à l'instant donné et renvoie les éléments expirés,
+     * dans l'ordre de leurs échéances (à la résolution d'un tick près).
+     */
+    public synchronized List<T> advanceTo(long nowMillis) {
+        List<T> expired = new ArrayList<>();
+        drain(overdue, expired);
+        overdue.clear();
+
+        long targetTick = Math.floorDiv(nowMillis, tickMillis);
+        while (currentTick < targetTick) {
+            currentTick++;
+            // 1. Cascade des niveaux supérieurs, du plus haut au plus bas
+            for (int level = buckets.length - 1; level > 0; level--) {
+                long span = 1L << (shift * level);
+                if (currentTick % span == 0) {
+                    int slot = (int) ((currentTick >> (shift * level)) & mask);
+                    ArrayDeque<Timeout<T>> bucket = buckets[level][slot];
+                    if (bucket != null && !bucket.isEmpty()) {
+                        buckets[level][slot] = null;
+                        for (Timeout<T> timeout : bucket) {
+                            if (!timeout.cancelled) {
+                                place(timeout);
+                            } else {
+                                size--;
+                            }
+                        }
+                    }
+                }
+            }
+            // 2. Les entrées de la case courante du niveau 0 sont échues
+            int slot = (int) (currentTick & mask);
+            ArrayDeque<Timeout<T>> bucket = buckets[0][slot];
+            if (bucket != null && !bucket.isEmpty()) {
+                buckets[0][slot] = null;
+                drain(bucket, expired);
+            }
+            // 3. Les entrées redescendues directement à échéance
+            if (!overdue.isEmpty()) {
+                drain(overdue, expired);
+                overdue.clear();
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * Nombre d'éléments en attente (y compris ceux annulés pas encore purgés).
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    public int getWheelSize() {
+        return wheelSize;
+    }
+
+    private void place(Timeout<T> timeout) {
+        long delta = timeout.tick - currentTick;
+        if (delta <= 0) {
+            overdue.add(timeout);
+            return;
+        }
+        int level = 0;
+        while (level < buckets.length - 1 && delta >= (1L << (shift * (level + 1)))) {
+            level++;
+        }
+        int slot = (int) ((timeout.tick >> (shift * level)) & mask);
+        ArrayDeque<Timeout<T>> bucket = buckets[level][slot];
+        if (bucket == null) {
+            bucket = new ArrayDeque<>();
+            buckets[level][slot] = bucket;
+        }
+        bucket.add(timeout);
+    }
+
+    private void drain(Iterable<Timeout<T>> source, List<T> expired) {
+        for (Timeout<T> timeout : source) {
+            size--;
+            if (!timeout.cancelled) {
+                expired.add(timeout.payload);
+            }
+        }
+    }
+
+    /**
+     * Poignée renvoyée par schedule() ; permet d'annuler l'échéance en O(1).
+     */
+    public static final class Timeout<T> {
+        private final long tick;
+        private final T payload;
+        private volatile boolean cancelled;
+
+        private Timeout(long tick, T payload) {
+            this.tick = tick;
+            this.payload = payload;
+        }
+
+        public void cancel() {
+            this.cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public T getPayload() {
+            return payload;
+        }
+    }
+}
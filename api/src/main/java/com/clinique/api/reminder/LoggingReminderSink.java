@@ -0,0 +1,23 @@
+package com.clinique.api.reminder;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Implémentation par défaut : écrit simplement les rappels dans les logs.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "application.reminders.sink", havingValue = "log", matchIfMissing = true)
+public class LoggingReminderSink implements ReminderSink {
+
+    @Override
+    public void send(Reminder reminder) {
+        log.info("Rappel RDV {} pour le patient {} (séance le {}, risque {})",
+                reminder.getAppointmentId(),
+                reminder.getPatientId(),
+                reminder.getSessionDateTime(),
+                reminder.getCancellationRiskScore());
+    }
+}
@@ -0,0 +1,31 @@
+package com.clinique.api.reminder;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Un rappel à envoyer à un patient avant son rendez-vous.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Reminder {
+    private Long appointmentId;
+    private Long patientId;
+    private LocalDateTime sessionDateTime;
+
+    /**
+     * Délai entre le rappel et la séance (ex: PT24H pour "la veille").
+     */
+    private Duration offset;
+
+    /**
+     * Score de risque d'annulation au moment du chargement.
+     * Sert à prioriser l'envoi : les patients les plus à risque passent en premier.
+     */
+    private Double cancellationRiskScore;
+}
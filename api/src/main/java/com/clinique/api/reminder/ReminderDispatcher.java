@@ -0,0 +1,203 @@
+package com.clinique.api.reminder;
+
+import com.clinique.api.dto.UpcomingAppointmentDTO;
+import com.clinique.api.entity.AppointmentStatus;
+import com.clinique.api.entity.SentReminder;
+import com.clinique.api.repository.AppointmentRepository;
+import com.clinique.api.repository.SentReminderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Envoie les rappels des rendez-vous SCHEDULED à venir.
+ *
+ * Fonctionnement :
+ * 1. reloadWindow() charge périodiquement (et au démarrage) les rendez-vous dont un
+ *    rappel tombe dans la fenêtre [maintenant - catchUp, maintenant + horizon]
+ *    et les place dans une roue temporelle hiérarchique (planification O(1)).
+ * 2. tick() fait avancer la roue ; les rappels échus sont revérifiés en une seule
+ *    requête (le RDV est-il toujours SCHEDULED ?), triés par risque d'annulation
+ *    décroissant, puis envoyés au ReminderSink.
+ *
+ * Seuls les rappels envoyés sont persistés (SentReminder) : après un redémarrage, la fenêtre
+ * est rechargée et les rappels rattrapés qui étaient déjà partis ne sont pas renvoyés.
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "application.reminders.enabled", havingValue = "true", matchIfMissing = true)
+public class ReminderDispatcher {
+
+    private static final int WHEEL_SIZE = 64;
+    private static final int WHEEL_LEVELS = 4;
+
+    private static final Comparator<Reminder> BY_RISK_DESC = Comparator.comparing(
+            Reminder::getCancellationRiskScore, Comparator.nullsLast(Comparator.reverseOrder()));
+
+    private final AppointmentRepository appointmentRepository;
+    private final ReminderSink reminderSink;
+    private final ReminderProperties properties;
+    private final SentReminderRepository sentReminderRepository;
+    private final HierarchicalTimingWheel<Reminder> wheel;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    /**
+     * Rappels déjà planifiés (ou envoyés), indexés par clé (RDV, offset) -> échéance.
+     * Évite les doublons lors des rechargements successifs de la fenêtre.
+     */
+    private final Map<Long, Long> knownReminders = new ConcurrentHashMap<>();
+
+    public ReminderDispatcher(AppointmentRepository appointmentRepository,
+                              ReminderSink reminderSink,
+                              ReminderProperties properties,
+                              SentReminderRepository sentReminderRepository) {
+        if (properties.getOffsets().size() > 16) {
+            throw new IllegalArgumentException("16 délais de rappel au maximum");
+        }
+        this.appointmentRepository = appointmentRepository;
+        this.reminderSink = reminderSink;
+        this.properties = properties;
+        this.sentReminderRepository = sentReminderRepository;
+        this.wheel = new HierarchicalTimingWheel<>(properties.getTick().toMillis(), WHEEL_SIZE, WHEEL_LEVELS,
+                System.currentTimeMillis());
+    }
+
+    /**
+     * Charge les rappels de la fenêtre à venir dans la roue.
+     */
+    @Scheduled(fixedDelayString = "${application.reminders.reload-interval:PT15M}")
+    public void reloadWindow() {
+        long now = System.currentTimeMillis();
+        long earliest = now - properties.getCatchUp().toMillis();
+        long latest = now + properties.getHorizon().toMillis();
+
+        // Oubli des rappels trop anciens pour être rechargés
+        knownReminders.values().removeIf(fireAt -> fireAt < earliest);
+        sentReminderRepository.deleteBySentAtBefore(toLocalDateTime(earliest));
+
+        Duration maxOffset = properties.getOffsets().stream().max(Duration::compareTo).orElse(Duration.ZERO);
+        LocalDateTime from = LocalDateTime.now();
+        LocalDateTime to = from.plus(properties.getHorizon()).plus(maxOffset);
+        List<UpcomingAppointmentDTO> upcoming =
+                appointmentRepository.findUpcomingByStatus(AppointmentStatus.SCHEDULED, from, to);
+
+        List<Duration> offsets = properties.getOffsets();
+        List<Long> pastDueIds = new ArrayList<>();
+        for (UpcomingAppointmentDTO appointment : upcoming) {
+            long sessionMillis = appointment.getSessionDateTime().atZone(zone).toInstant().toEpochMilli();
+            if (offsets.stream().map(offset -> sessionMillis - offset.toMillis())
+                    .anyMatch(fireAt -> fireAt >= earliest && fireAt < now)) {
+                pastDueIds.add(appointment.getAppointmentId());
+            }
+        }
+        // Rappels échus à rattraper : une seule requête pour écarter ceux déjà envoyés avant un redémarrage
+        Set<String> alreadySent = new HashSet<>();
+        if (!pastDueIds.isEmpty()) {
+            for (SentReminder sentReminder : sentReminderRepository.findByAppointmentIdIn(pastDueIds)) {
+                alreadySent.add(sentKey(sentReminder.getAppointmentId(), Duration.ofSeconds(sentReminder.getOffsetSeconds())));
+            }
+        }
+
+        int added = 0;
+        for (UpcomingAppointmentDTO appointment : upcoming) {
+            long sessionMillis = appointment.getSessionDateTime().atZone(zone).toInstant().toEpochMilli();
+            for (int i = 0; i < offsets.size(); i++) {
+                long fireAt = sessionMillis - offsets.get(i).toMillis();
+                if (fireAt < earliest || fireAt > latest) {
+                    continue;
+                }
+                long key = (appointment.getAppointmentId() << 4) | i;
+                if (knownReminders.putIfAbsent(key, fireAt) == null
+                        && !alreadySent.contains(sentKey(appointment.getAppointmentId(), offsets.get(i)))) {
+                    wheel.schedule(fireAt, new Reminder(
+                            appointment.getAppointmentId(),
+                            appointment.getPatientId(),
+                            appointment.getSessionDateTime(),
+                            offsets.get(i),
+                            appointment.getCancellationRiskScore()));
+                    added++;
+                }
+            }
+        }
+        log.info("Rappels : {} RDV chargés, {} nouveaux rappels planifiés, {} en attente",
+                upcoming.size(), added, wheel.size());
+    }
+
+    /**
+     * Fait avancer la roue et envoie les rappels échus.
+     */
+    @Scheduled(fixedRateString = "${application.reminders.tick:PT1S}")
+    public void tick() {
+        List<Reminder> due = wheel.advanceTo(System.currentTimeMillis());
+        if (due.isEmpty()) {
+            return;
+        }
+        dispatch(due);
+    }
+
+    /**
+     * Nombre de rappels actuellement planifiés.
+     */
+    public int getPendingCount() {
+        return wheel.size();
+    }
+
+    private void dispatch(List<Reminder> due) {
+        // Une seule requête pour écarter les RDV annulés ou terminés depuis le chargement
+        Set<Long> ids = due.stream().map(Reminder::getAppointmentId).collect(Collectors.toSet());
+        Set<Long> stillScheduled = new HashSet<>(
+                appointmentRepository.findIdsByIdInAndStatus(ids, AppointmentStatus.SCHEDULED));
+
+        due.sort(BY_RISK_DESC);
+        int sent = 0;
+        for (Reminder reminder : due) {
+            if (!stillScheduled.contains(reminder.getAppointmentId())) {
+                continue;
+            }
+            try {
+                reminderSink.send(reminder);
+                sent++;
+            } catch (Exception e) {
+                log.warn("Échec de l'envoi du rappel pour le RDV {}: {}", reminder.getAppointmentId(), e.getMessage());
+                continue;
+            }
+            markSent(reminder);
+        }
+        log.debug("Rappels échus: {}, envoyés: {}", due.size(), sent);
+    }
+
+    private void markSent(Reminder reminder) {
+        SentReminder sentReminder = new SentReminder();
+        sentReminder.setAppointmentId(reminder.getAppointmentId());
+        sentReminder.setOffsetSeconds(reminder.getOffset().toSeconds());
+        sentReminder.setSentAt(LocalDateTime.now());
+        try {
+            sentReminderRepository.save(sentReminder);
+        } catch (Exception e) {
+            // Le rappel est parti : au pire, il sera renvoyé s'il est rattrapé après un redémarrage
+            log.warn("Impossible d'enregistrer l'envoi du rappel pour le RDV {}: {}", reminder.getAppointmentId(), e.getMessage());
+        }
+    }
+
+    private static String sentKey(Long appointmentId, Duration offset) {
+        return appointmentId + "/" + offset.toSeconds();
+    }
+
+    private LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), zone);
+    }
+}
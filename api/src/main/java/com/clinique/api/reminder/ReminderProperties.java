@@ -0,0 +1,47 @@
+package com.clinique.api.reminder;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Configuration du système de rappels (préfixe "application.reminders").
+ */
+@Data
+@ConfigurationProperties(prefix = "application.reminders")
+public class ReminderProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Délais avant la séance auxquels un rappel est envoyé (ex: 24h et 2h avant).
+     */
+    private List<Duration> offsets = List.of(Duration.ofHours(24), Duration.ofHours(2));
+
+    /**
+     * Fenêtre de rappels chargée en mémoire à chaque rechargement.
+     */
+    private Duration horizon = Duration.ofDays(2);
+
+    /**
+     * Rappels manqués (ex: pendant un redémarrage) encore envoyés s'ils datent de moins de ce délai.
+     */
+    private Duration catchUp = Duration.ofMinutes(10);
+
+    /**
+     * Résolution de la roue temporelle.
+     */
+    private Duration tick = Duration.ofSeconds(1);
+
+    /**
+     * Implémentation d'envoi : "log" ou "file".
+     */
+    private String sink = "log";
+
+    /**
+     * Fichier de sortie utilisé par le sink "file".
+     */
+    private String file = "reminders.ndjson";
+}
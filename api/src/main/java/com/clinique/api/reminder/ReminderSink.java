@@ -0,0 +1,11 @@
+package com.clinique.api.reminder;
+
+/**
+ * Point d'extension pour l'envoi effectif des rappels (SMS, e-mail, push...).
+ * Les implémentations locales (log, fichier) permettent de faire tourner
+ * le système sans fournisseur externe.
+ */
+public interface ReminderSink {
+
+    void send(Reminder reminder);
+}
@@ -0,0 +1,98 @@
+package com.clinique.api.repository;
+
+import com.clinique.api.dto.AppointmentDTO;
+import com.clinique.api.dto.ClinicalNoteDTO;
+import com.clinique.api.dto.PatientInfoDTO;
+import com.clinique.api.dto.TherapistInfoDTO;
+import com.clinique.api.entity.AppointmentStatus;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lecture réactive (R2DBC) des rendez-vous, pour les listes volumineuses envoyées en flux.
+ *
+ * Une seule requête (patient, thérapeute et note joints) lue par paquets de fetch-size lignes :
+ * le paquet suivant n'est demandé à PostgreSQL que lorsque le client a consommé le précédent.
+ */
+@Repository
+public class AppointmentReadRepository {
+
+    private static final String SELECT_APPOINTMENTS = "SELECT a.id, a.session_date_time, a.status, a.cancellation_risk_score, " +
+            "p.id AS patient_id, p.first_name AS patient_first_name, p.last_name AS patient_last_name, " +
+            "t.id AS therapist_id, t.first_name AS therapist_first_name, t.last_name AS therapist_last_name, t.specialty, " +
+            "n.id AS note_id, n.patient_progress_score, n.sentiment_score, n.sentiment_label " +
+            "FROM appointments a " +
+            "JOIN patient_profiles p ON p.id = a.patient_profile_id " +
+            "JOIN therapist_profiles t ON t.id = a.therapist_profile_id " +
+            "LEFT JOIN clinical_notes n ON n.appointment_id = a.id ";
+
+    private final DatabaseClient databaseClient;
+    private final int fetchSize;
+
+    public AppointmentReadRepository(DatabaseClient databaseClient,
+                                     @Value("${application.streaming.fetch-size:250}") int fetchSize) {
+        this.databaseClient = databaseClient;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Rendez-vous d'un patient, du plus ancien au plus récent (index patient_profile_id, session_date_time).
+     */
+    public Flux<AppointmentDTO> streamByPatientId(Long patientId) {
+        return stream(SELECT_APPOINTMENTS + "WHERE a.patient_profile_id = $1 ORDER BY a.session_date_time, a.id", patientId);
+    }
+
+    /**
+     * Rendez-vous d'un thérapeute, du plus ancien au plus récent (index therapist_profile_id, session_date_time).
+     */
+    public Flux<AppointmentDTO> streamByTherapistId(Long therapistId) {
+        return stream(SELECT_APPOINTMENTS + "WHERE a.therapist_profile_id = $1 ORDER BY a.session_date_time, a.id", therapistId);
+    }
+
+    private Flux<AppointmentDTO> stream(String sql, Long id) {
+        return databaseClient.sql(sql)
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .bind(0, id)
+                .map(AppointmentReadRepository::mapRow)
+                .all();
+    }
+
+    // Même forme que AppointmentService.mapToAppointmentDTO
+    private static AppointmentDTO mapRow(Readable row) {
+        PatientInfoDTO patient = new PatientInfoDTO();
+        patient.setId(row.get("patient_id", Long.class));
+        patient.setFirstName(row.get("patient_first_name", String.class));
+        patient.setLastName(row.get("patient_last_name", String.class));
+
+        TherapistInfoDTO therapist = new TherapistInfoDTO();
+        therapist.setId(row.get("therapist_id", Long.class));
+        therapist.setFirstName(row.get("therapist_first_name", String.class));
+        therapist.setLastName(row.get("therapist_last_name", String.class));
+        therapist.setSpecialty(row.get("specialty", String.class));
+
+        ClinicalNoteDTO note = null;
+        Long noteId = row.get("note_id", Long.class);
+        if (noteId != null) {
+            note = new ClinicalNoteDTO();
+            note.setId(noteId);
+            note.setPatientProgressScore(row.get("patient_progress_score", Integer.class));
+            note.setSentimentScore(row.get("sentiment_score", Double.class));
+            note.setSentimentLabel(row.get("sentiment_label", String.class));
+        }
+
+        AppointmentDTO dto = new AppointmentDTO();
+        dto.setId(row.get("id", Long.class));
+        dto.setSessionDateTime(row.get("session_date_time", LocalDateTime.class));
+        dto.setStatus(AppointmentStatus.valueOf(row.get("status", String.class)));
+        dto.setCancellationRiskScore(row.get("cancellation_risk_score", Double.class));
+        dto.setPatient(patient);
+        dto.setTherapist(therapist);
+        dto.setNote(note);
+        return dto;
+    }
+}
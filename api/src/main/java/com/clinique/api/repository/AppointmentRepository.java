@@ -1,11 +1,16 @@
 package com.clinique.api.repository;
 
+import com.clinique.api.dto.ProgressPointDTO;
+import com.clinique.api.dto.UpcomingAppointmentDTO;
 import com.clinique.api.entity.Appointment;
+import com.clinique.api.entity.AppointmentStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -16,14 +21,18 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
 
     /**
      * Trouve tous les rendez-vous associés à un ID de profil patient spécifique.
+     * Patient, thérapeute et note (colonnes scalaires, sans le texte) chargés dans la même requête.
      */
-    @Query("SELECT a FROM Appointment a WHERE a.patient.id = :patientId")
+    @Query("SELECT a FROM Appointment a JOIN FETCH a.patient JOIN FETCH a.therapist LEFT JOIN FETCH a.note " +
+            "WHERE a.patient.id = :patientId")
     List<Appointment> findByPatientId(@Param("patientId") Long patientId);
 
     /**
      * Trouve tous les rendez-vous associés à un ID de profil thérapeute spécifique.
+     * Patient, thérapeute et note (colonnes scalaires, sans le texte) chargés dans la même requête.
      */
-    @Query("SELECT a FROM Appointment a WHERE a.therapist.id = :therapistId")
+    @Query("SELECT a FROM Appointment a JOIN FETCH a.patient JOIN FETCH a.therapist LEFT JOIN FETCH a.note " +
+            "WHERE a.therapist.id = :therapistId")
     List<Appointment> findByTherapistId(@Param("therapistId") Long therapistId);
 
     /**
@@ -38,4 +47,74 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
             "ORDER BY a.sessionDateTime DESC " +
             "LIMIT 1")
     Integer findLastProgressScoreByPatientId(@Param("patientId") Long patientId);
-}
\ No newline at end of file
+
+    /**
+     * Toutes les séances notées d'un patient, dans l'ordre chronologique, avec leurs scores.
+     * Lecture par index seul : (patient, date, id) côté RDV puis (appointment_id, scores) côté notes.
+     */
+    @Query("SELECT new com.clinique.api.dto.ProgressPointDTO(" +
+            "a.sessionDateTime, cn.patientProgressScore, cn.sentimentScore) " +
+            "FROM Appointment a " +
+            "JOIN a.note cn " +
+            "WHERE a.patient.id = :patientId " +
+            "AND (cn.patientProgressScore IS NOT NULL OR cn.sentimentScore IS NOT NULL) " +
+            "ORDER BY a.sessionDateTime")
+    List<ProgressPointDTO> findProgressTimelineByPatientId(@Param("patientId") Long patientId);
+
+    /**
+     * Vérifie si le thérapeute (par ID utilisateur) a au moins un RDV avec ce patient.
+     */
+    @Query("SELECT COUNT(a) > 0 FROM Appointment a WHERE a.patient.id = :patientId " +
+            "AND a.therapist.user.id = :therapistUserId")
+    boolean existsByPatientAndTherapistUser(@Param("patientId") Long patientId,
+                                            @Param("therapistUserId") Long therapistUserId);
+
+    /**
+     * Charge (sans hydrater les entités) les rendez-vous d'un statut donné
+     * dont la séance tombe dans l'intervalle ]from, to].
+     */
+    @Query("SELECT new com.clinique.api.dto.UpcomingAppointmentDTO(" +
+            "a.id, a.patient.id, a.therapist.id, a.sessionDateTime, a.cancellationRiskScore) " +
+            "FROM Appointment a " +
+            "WHERE a.status = :status " +
+            "AND a.sessionDateTime > :from AND a.sessionDateTime <= :to")
+    List<UpcomingAppointmentDTO> findUpcomingByStatus(@Param("status") AppointmentStatus status,
+                                                      @Param("from") LocalDateTime from,
+                                                      @Param("to") LocalDateTime to);
+
+    /**
+     * Parmi les IDs donnés, renvoie ceux qui ont encore le statut indiqué.
+     */
+    @Query("SELECT a.id FROM Appointment a WHERE a.id IN :ids AND a.status = :status")
+    List<Long> findIdsByIdInAndStatus(@Param("ids") Collection<Long> ids,
+                                      @Param("status") AppointmentStatus status);
+
+    /**
+     * Vérifie si un thérapeute a déjà un RDV d'un statut donné à cet horaire précis.
+     */
+    @Query("SELECT COUNT(a) > 0 FROM Appointment a WHERE a.therapist.id = :therapistId " +
+            "AND a.sessionDateTime = :sessionDateTime AND a.status = :status")
+    boolean existsByTherapistAndSlot(@Param("therapistId") Long therapistId,
+                                     @Param("sessionDateTime") LocalDateTime sessionDateTime,
+                                     @Param("status") AppointmentStatus status);
+
+    /**
+     * Détection de conflits en une seule requête : parmi les créneaux demandés,
+     * renvoie ceux où le thérapeute OU le patient a déjà un RDV du statut donné.
+     */
+    @Query("SELECT DISTINCT a.sessionDateTime FROM Appointment a " +
+            "WHERE a.status = :status " +
+            "AND (a.therapist.id = :therapistId OR a.patient.id = :patientId) " +
+            "AND a.sessionDateTime IN :slots")
+    List<LocalDateTime> findConflictingSlots(@Param("therapistId") Long therapistId,
+                                             @Param("patientId") Long patientId,
+                                             @Param("slots") Collection<LocalDateTime> slots,
+                                             @Param("status") AppointmentStatus status);
+
+    /**
+     * Toutes les séances d'une série, avec patient et thérapeute chargés en une requête.
+     */
+    @Query("SELECT a FROM Appointment a JOIN FETCH a.patient JOIN FETCH a.therapist " +
+            "WHERE a.seriesId = :seriesId ORDER BY a.sessionDateTime")
+    List<Appointment> findBySeriesId(@Param("seriesId") String seriesId);
+}
@@ -2,6 +2,9 @@ package com.clinique.api.repository;
 
 import com.clinique.api.entity.ClinicalNote;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
 import java.util.Optional;
 
 /**
@@ -14,4 +17,12 @@ public interface ClinicalNoteRepository extends JpaRepository<ClinicalNote, Long
      * du rendez-vous auquel elle est associée.
      */
     Optional<ClinicalNote> findByAppointmentId(Long appointmentId);
-}
\ No newline at end of file
+
+    /**
+     * Note avec son rendez-vous, son patient et son thérapeute (contrôle d'accès en une requête).
+     * Le texte est lu au premier accès à summary / privateNotes.
+     */
+    @Query("SELECT n FROM ClinicalNote n JOIN FETCH n.appointment a JOIN FETCH a.patient JOIN FETCH a.therapist " +
+            "WHERE n.id = :id")
+    Optional<ClinicalNote> findWithAppointmentById(@Param("id") Long id);
+}
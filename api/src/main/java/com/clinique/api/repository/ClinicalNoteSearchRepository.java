@@ -0,0 +1,71 @@
+package com.clinique.api.repository;
+
+import com.clinique.api.dto.NoteSearchHitDTO;
+import com.clinique.api.dto.PatientInfoDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Recherche plein texte dans les résumés de notes (PostgreSQL tsvector, voir db/clinical-notes-search.sql).
+ *
+ * La page est d'abord choisie dans l'index GIN (thérapeute, search_vector) ; les extraits (ts_headline,
+ * qui relit le texte) et les jointures patient ne sont calculés que pour les lignes de cette page.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ClinicalNoteSearchRepository {
+
+    /**
+     * Début et fin des mots trouvés dans les extraits, remplacés ensuite par des balises après échappement HTML.
+     */
+    public static final char MATCH_START = '\u0002';
+    public static final char MATCH_END = '\u0003';
+
+    private static final String HEADLINE_OPTIONS = "StartSel=" + MATCH_START + ", StopSel=" + MATCH_END
+            + ", MaxFragments=2, MaxWords=20, MinWords=8, FragmentDelimiter=\" … \"";
+
+    // websearch_to_tsquery : syntaxe tolérante (guillemets, OR, -mot), jamais d'erreur de syntaxe
+    private static final String SEARCH = "WITH q AS (SELECT websearch_to_tsquery('clinique_fr', ?) AS query), " +
+            "page AS (" +
+            "  SELECT n.id, n.appointment_id, n.summary, ts_rank_cd(n.search_vector, q.query) AS rank " +
+            "  FROM clinical_notes n, q " +
+            "  WHERE n.therapist_profile_id = ? AND n.search_vector @@ q.query " +
+            "  ORDER BY rank DESC, n.id DESC " +
+            "  LIMIT ? OFFSET ?) " +
+            "SELECT page.id, page.appointment_id, page.rank, a.session_date_time, " +
+            "p.id AS patient_id, p.first_name, p.last_name, " +
+            "ts_headline('clinique_fr', page.summary, q.query, ?) AS highlight " +
+            "FROM page " +
+            "JOIN appointments a ON a.id = page.appointment_id " +
+            "JOIN patient_profiles p ON p.id = a.patient_profile_id, q " +
+            "ORDER BY page.rank DESC, page.id DESC";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Notes d'un thérapeute correspondant à la requête, par pertinence puis de la plus récente à la plus ancienne.
+     * Les extraits contiennent MATCH_START / MATCH_END autour des mots trouvés.
+     */
+    public List<NoteSearchHitDTO> search(Long therapistProfileId, String query, long offset, int limit) {
+        // Long (bigint) obligatoire : btree_gin ne sait pas comparer bigint et integer,
+        // l'index composite serait alors ignoré
+        return jdbcTemplate.query(SEARCH, (rs, rowNum) -> {
+            PatientInfoDTO patient = new PatientInfoDTO();
+            patient.setId(rs.getLong("patient_id"));
+            patient.setFirstName(rs.getString("first_name"));
+            patient.setLastName(rs.getString("last_name"));
+
+            NoteSearchHitDTO hit = new NoteSearchHitDTO();
+            hit.setNoteId(rs.getLong("id"));
+            hit.setAppointmentId(rs.getLong("appointment_id"));
+            hit.setSessionDateTime(rs.getTimestamp("session_date_time").toLocalDateTime());
+            hit.setPatient(patient);
+            hit.setHighlight(rs.getString("highlight"));
+            hit.setRank(rs.getDouble("rank"));
+            return hit;
+        }, query, therapistProfileId.longValue(), limit, offset, HEADLINE_OPTIONS);
+    }
+}
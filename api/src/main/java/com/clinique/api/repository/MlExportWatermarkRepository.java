@@ -0,0 +1,10 @@
+package com.clinique.api.repository;
+
+import com.clinique.api.entity.MlExportWatermark;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * Repository pour l'entité MlExportWatermark (clé : nom du jeu d'entraînement).
+ */
+public interface MlExportWatermarkRepository extends JpaRepository<MlExportWatermark, String> {
+}
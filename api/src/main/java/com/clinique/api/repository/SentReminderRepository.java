@@ -0,0 +1,23 @@
+package com.clinique.api.repository;
+
+import com.clinique.api.entity.SentReminder;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository pour l'entité SentReminder.
+ */
+public interface SentReminderRepository extends JpaRepository<SentReminder, Long> {
+
+    List<SentReminder> findByAppointmentIdIn(Collection<Long> appointmentIds);
+
+    /**
+     * Purge des rappels envoyés avant l'instant donné (hors de la fenêtre rechargée).
+     */
+    @Transactional
+    long deleteBySentAtBefore(LocalDateTime before);
+}
@@ -1,7 +1,12 @@
 package com.clinique.api.repository;
 
+import com.clinique.api.dto.TherapistInfoDTO;
 import com.clinique.api.entity.TherapistProfile;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -14,4 +19,20 @@ public interface TherapistProfileRepository extends JpaRepository<TherapistProfi
      * en utilisant l'ID de son compte User associé.
      */
     Optional<TherapistProfile> findByUserId(Long userId);
-}
\ No newline at end of file
+
+    /**
+     * Annuaire complet en une seule requête : t.user.id se lit sur la clé étrangère,
+     * sans charger les entités ni leur User un par un.
+     */
+    @Query("SELECT new com.clinique.api.dto.TherapistInfoDTO(t.user.id, t.firstName, t.lastName, t.specialty) "
+            + "FROM TherapistProfile t ORDER BY t.lastName, t.firstName, t.id")
+    List<TherapistInfoDTO> findDirectoryEntries();
+
+    /**
+     * Verrouille la ligne du thérapeute jusqu'à la fin de la transaction : les réservations
+     * d'un même thérapeute (vérification des conflits puis insertion) s'exécutent l'une après l'autre.
+     * FOR NO KEY UPDATE, comme pour les recalculs de statistiques, ne bloque pas les clés étrangères.
+     */
+    @Query(value = "SELECT id FROM therapist_profiles WHERE id = :id FOR NO KEY UPDATE", nativeQuery = true)
+    Optional<Long> lockById(@Param("id") Long id);
+}
@@ -0,0 +1,40 @@
+package com.clinique.api.repository;
+
+import com.clinique.api.dto.TherapistInfoDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+/**
+ * Lecture réactive (R2DBC) de l'annuaire des thérapeutes, envoyé en flux.
+ */
+@Repository
+public class TherapistReadRepository {
+
+    private final DatabaseClient databaseClient;
+    private final int fetchSize;
+
+    public TherapistReadRepository(DatabaseClient databaseClient,
+                                   @Value("${application.streaming.fetch-size:250}") int fetchSize) {
+        this.databaseClient = databaseClient;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Tous les thérapeutes ; l'ID exposé est celui du compte User, comme TherapistService.getAllTherapists.
+     */
+    public Flux<TherapistInfoDTO> streamAll() {
+        return databaseClient.sql("SELECT user_id, first_name, last_name, specialty FROM therapist_profiles ORDER BY id")
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .map(row -> {
+                    TherapistInfoDTO dto = new TherapistInfoDTO();
+                    dto.setId(row.get("user_id", Long.class));
+                    dto.setFirstName(row.get("first_name", String.class));
+                    dto.setLastName(row.get("last_name", String.class));
+                    dto.setSpecialty(row.get("specialty", String.class));
+                    return dto;
+                })
+                .all();
+    }
+}
@@ -0,0 +1,36 @@
+package com.clinique.api.repository;
+
+import com.clinique.api.entity.WaitlistEntry;
+import com.clinique.api.entity.WaitlistStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository pour l'entité WaitlistEntry.
+ */
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, Long> {
+
+    List<WaitlistEntry> findByStatus(WaitlistStatus status);
+
+    @Query("SELECT w FROM WaitlistEntry w WHERE w.patient.id = :patientId ORDER BY w.createdAt DESC")
+    List<WaitlistEntry> findByPatientId(@Param("patientId") Long patientId);
+
+    /**
+     * Vrai si le patient a déjà une inscription en cours (en attente ou avec une proposition) chez ce thérapeute.
+     */
+    @Query("SELECT COUNT(w) > 0 FROM WaitlistEntry w WHERE w.patient.id = :patientId " +
+            "AND w.therapist.id = :therapistId AND w.status IN (com.clinique.api.entity.WaitlistStatus.WAITING, " +
+            "com.clinique.api.entity.WaitlistStatus.OFFERED)")
+    boolean existsActiveEntry(@Param("patientId") Long patientId, @Param("therapistId") Long therapistId);
+
+    /**
+     * Propositions dont le délai de réponse est dépassé.
+     */
+    @Query("SELECT w FROM WaitlistEntry w WHERE w.status = com.clinique.api.entity.WaitlistStatus.OFFERED " +
+            "AND w.offerExpiresAt < :now")
+    List<WaitlistEntry> findExpiredOffers(@Param("now") LocalDateTime now);
+}
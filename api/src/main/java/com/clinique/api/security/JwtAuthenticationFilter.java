@@ -1,5 +1,7 @@
 package com.clinique.api.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -31,6 +33,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     // pour lui dire comment charger notre 'User' depuis la BDD.
     private final UserDetailsService userDetailsService;
 
+    // Mesure la durée de validation du token (hors reste de la chaîne de filtres)
+    private final MeterRegistry meterRegistry;
+
     @Override
     protected void doFilterInternal(
             @NonNull HttpServletRequest request,
@@ -60,6 +65,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // 3. Extraire le token (en enlevant "Bearer ")
         jwt = authHeader.substring(7);
 
+        Timer.Sample validationSample = Timer.start(meterRegistry);
+        String outcome = "rejected";
+        boolean recorded = false;
         try {
             // 4. Extraire l'email du token
             userEmail = jwtService.extractUsername(jwt);
@@ -87,13 +95,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                     // 9. METTRE À JOUR le Contexte de Sécurité
                     // C'est cette ligne qui "connecte" l'utilisateur pour cette requête
                     SecurityContextHolder.getContext().setAuthentication(authToken);
+                    outcome = "authenticated";
                 }
+            } else if (userEmail != null) {
+                outcome = "already_authenticated";
             }
 
+            recordValidation(validationSample, outcome);
+            recorded = true;
+
             // 10. Passer au filtre suivant
             filterChain.doFilter(request, response);
 
         } catch (Exception e) {
+            if (!recorded) {
+                recordValidation(validationSample, "error");
+            }
             // Gérer les tokens invalides (expirés, malformés, etc.)
             // On envoie une réponse 401 (Non autorisé)
             response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
@@ -102,4 +119,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                     .write("{\"error\": \"Token JWT Invalide ou Expiré\", \"message\": \"" + e.getMessage() + "\"}");
         }
     }
-}
\ No newline at end of file
+
+    private void recordValidation(Timer.Sample sample, String outcome) {
+        sample.stop(Timer.builder("clinique.security.jwt.validation")
+                .description("Durée de validation du token JWT (parsing, chargement de l'utilisateur, vérification)")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+}
@@ -0,0 +1,135 @@
+package com.clinique.api.service;
+
+import com.clinique.api.dto.AppointmentExportRow;
+import com.clinique.api.dto.ExportFormat;
+import com.clinique.api.entity.AppointmentStatus;
+import com.clinique.api.entity.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Export des rendez-vous et notes d'un thérapeute (reporting, assurances).
+ *
+ * Les lignes sont lues par un curseur côté serveur (fetch size application.export.fetch-size,
+ * dans une transaction en lecture seule, condition du curseur avec le driver PostgreSQL)
+ * et écrites au fil de l'eau dans la réponse : la mémoire utilisée ne dépend pas de la taille de l'export.
+ */
+@Service
+@Slf4j
+public class AppointmentExportService {
+
+    private static final String SELECT_EXPORT = "SELECT a.id, a.session_date_time, a.status, a.cancellation_risk_score, " +
+            "p.id AS patient_id, p.first_name, p.last_name, " +
+            "n.id AS note_id, n.summary, n.patient_progress_score, n.sentiment_score, n.sentiment_label " +
+            "FROM appointments a " +
+            "JOIN patient_profiles p ON p.id = a.patient_profile_id " +
+            "LEFT JOIN clinical_notes n ON n.appointment_id = a.id " +
+            "WHERE a.therapist_profile_id = ?";
+
+    private final AppointmentService appointmentService;
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate cursorJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public AppointmentExportService(AppointmentService appointmentService,
+                                    ObjectMapper objectMapper,
+                                    DataSource dataSource,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${application.export.fetch-size:1000}") int fetchSize) {
+        this.appointmentService = appointmentService;
+        this.objectMapper = objectMapper;
+        this.cursorJdbcTemplate = new JdbcTemplate(dataSource);
+        this.cursorJdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Prépare l'export des rendez-vous d'un thérapeute, entre from (inclus) et to (exclu) si renseignés.
+     *
+     * L'accès est vérifié tout de suite, avant le premier octet : seuls l'admin et le thérapeute
+     * lui-même peuvent exporter (règles de assertCanAccessAppointment appliquées à tout le planning).
+     *
+     * @param gzip compresser le corps (le client a annoncé Accept-Encoding: gzip)
+     */
+    public StreamingResponseBody exportTherapistAppointments(Long therapistProfileId, LocalDate from, LocalDate to,
+                                                             ExportFormat format, boolean gzip, User currentUser) {
+        appointmentService.assertCanListTherapistAppointments(therapistProfileId, currentUser);
+
+        StringBuilder sql = new StringBuilder(SELECT_EXPORT);
+        List<Object> params = new ArrayList<>();
+        params.add(therapistProfileId);
+        if (from != null) {
+            sql.append(" AND a.session_date_time >= ?");
+            params.add(Timestamp.valueOf(from.atStartOfDay()));
+        }
+        if (to != null) {
+            sql.append(" AND a.session_date_time < ?");
+            params.add(Timestamp.valueOf(to.atStartOfDay()));
+        }
+        sql.append(" ORDER BY a.session_date_time, a.id");
+
+        return out -> {
+            long start = System.nanoTime();
+            OutputStream body = gzip ? new GZIPOutputStream(out, 1 << 16) : out;
+            AppointmentExportWriter writer = AppointmentExportWriter.of(format, body, objectMapper);
+            writer.start();
+            long rows = write(sql.toString(), params.toArray(), writer);
+            writer.finish();
+            if (body instanceof GZIPOutputStream compressed) {
+                compressed.finish();
+            }
+            log.info("Export {} du thérapeute {} : {} lignes en {} ms", format, therapistProfileId, rows,
+                    (System.nanoTime() - start) / 1_000_000);
+        };
+    }
+
+    private long write(String sql, Object[] params, AppointmentExportWriter writer) {
+        AppointmentExportRow row = new AppointmentExportRow();
+        long[] rows = {0};
+        readOnlyTransaction.executeWithoutResult(status -> cursorJdbcTemplate.query(sql, rs -> {
+            map(rs, row);
+            try {
+                writer.write(row);
+            } catch (IOException e) {
+                // Client déconnecté : on arrête la lecture du curseur
+                throw new UncheckedIOException(e);
+            }
+            rows[0]++;
+        }, params));
+        return rows[0];
+    }
+
+    private static void map(ResultSet rs, AppointmentExportRow row) throws SQLException {
+        row.setAppointmentId(rs.getLong("id"));
+        row.setSessionDateTime(rs.getTimestamp("session_date_time").toLocalDateTime());
+        row.setStatus(AppointmentStatus.valueOf(rs.getString("status")));
+        row.setCancellationRiskScore(rs.getObject("cancellation_risk_score", Double.class));
+        row.setPatientId(rs.getLong("patient_id"));
+        row.setPatientFirstName(rs.getString("first_name"));
+        row.setPatientLastName(rs.getString("last_name"));
+        row.setNoteId(rs.getObject("note_id", Long.class));
+        row.setNoteSummary(rs.getString("summary"));
+        row.setPatientProgressScore(rs.getObject("patient_progress_score", Integer.class));
+        row.setSentimentScore(rs.getObject("sentiment_score", Double.class));
+        row.setSentimentLabel(rs.getString("sentiment_label"));
+    }
+}
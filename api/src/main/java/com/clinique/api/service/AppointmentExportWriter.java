@@ -0,0 +1,116 @@
+package com.clinique.api.service;
+
+import com.clinique.api.dto.AppointmentExportRow;
+import com.clinique.api.dto.ExportFormat;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Écrit les lignes d'export une par une (CSV RFC 4180 ou NDJSON) : rien n'est accumulé en mémoire.
+ */
+public abstract class AppointmentExportWriter {
+
+    static final String[] CSV_HEADER = {"appointment_id", "session_date_time", "status", "cancellation_risk_score",
+            "patient_id", "patient_first_name", "patient_last_name", "note_id", "note_summary",
+            "patient_progress_score", "sentiment_score", "sentiment_label"};
+
+    protected final Writer writer;
+
+    protected AppointmentExportWriter(OutputStream out) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+    }
+
+    public static AppointmentExportWriter of(ExportFormat format, OutputStream out, ObjectMapper objectMapper) {
+        return switch (format) {
+            case CSV -> new Csv(out);
+            case NDJSON -> new Ndjson(out, objectMapper);
+        };
+    }
+
+    public abstract void start() throws IOException;
+
+    public abstract void write(AppointmentExportRow row) throws IOException;
+
+    /**
+     * Vide le tampon sans fermer le flux sous-jacent (la compression est terminée par l'appelant).
+     */
+    public void finish() throws IOException {
+        writer.flush();
+    }
+
+    static final class Csv extends AppointmentExportWriter {
+
+        Csv(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void start() throws IOException {
+            writer.write(String.join(",", CSV_HEADER));
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void write(AppointmentExportRow row) throws IOException {
+            field(row.getAppointmentId(), false);
+            field(row.getSessionDateTime(), false);
+            field(row.getStatus(), false);
+            field(row.getCancellationRiskScore(), false);
+            field(row.getPatientId(), false);
+            field(row.getPatientFirstName(), false);
+            field(row.getPatientLastName(), false);
+            field(row.getNoteId(), false);
+            field(row.getNoteSummary(), false);
+            field(row.getPatientProgressScore(), false);
+            field(row.getSentimentScore(), false);
+            field(row.getSentimentLabel(), true);
+        }
+
+        private void field(Object value, boolean last) throws IOException {
+            if (value != null) {
+                String text = value.toString();
+                if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+                    writer.write('"');
+                    writer.write(text.replace("\"", "\"\""));
+                    writer.write('"');
+                } else {
+                    writer.write(text);
+                }
+            }
+            writer.write(last ? "\r\n" : ",");
+        }
+    }
+
+    static final class Ndjson extends AppointmentExportWriter {
+
+        private final ObjectWriter rowWriter;
+
+        Ndjson(OutputStream out, ObjectMapper objectMapper) {
+            super(out);
+            // Le Writer reste ouvert (et tamponné) entre deux lignes : Jackson ne doit ni le fermer ni le vider
+            this.rowWriter = objectMapper.writerFor(AppointmentExportRow.class)
+                    .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        }
+
+        @Override
+        public void start() {
+            // Pas d'en-tête : une ligne = un objet JSON
+        }
+
+        @Override
+        public void write(AppointmentExportRow row) throws IOException {
+            rowWriter.writeValue(writer, row);
+            writer.write('\n');
+        }
+    }
+}
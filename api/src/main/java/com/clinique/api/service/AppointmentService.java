@@ -2,89 +2,225 @@ package com.clinique.api.service;
 
 import com.clinique.api.dto.*;
 import com.clinique.api.entity.*;
+import com.clinique.api.event.AppointmentCancelledEvent;
+import com.clinique.api.event.AppointmentCompletedEvent;
+import com.clinique.api.event.AppointmentsBookedEvent;
+import com.clinique.api.event.AppointmentsScoredEvent;
+import com.clinique.api.event.MlModelVersionChangedEvent;
+import com.clinique.api.exception.ConflictException;
 import com.clinique.api.exception.ResourceNotFoundException;
 // PAS D'IMPORT DE MAPPER
+import com.clinique.api.repository.AppointmentReadRepository;
 import com.clinique.api.repository.AppointmentRepository;
 import com.clinique.api.repository.PatientProfileRepository;
 import com.clinique.api.repository.TherapistProfileRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.sql.Timestamp;
+import java.sql.Types;
 import java.time.Duration;
-import java.time.temporal.ChronoUnit;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(value = "clinique.service", histogram = true)
 @RequiredArgsConstructor
 @Slf4j
 public class AppointmentService {
 
     private final AppointmentRepository appointmentRepository;
+    private final AppointmentReadRepository appointmentReadRepository;
     private final PatientProfileRepository patientProfileRepository;
     private final TherapistProfileRepository therapistProfileRepository;
     // PAS DE MAPPER INJECTÉ
     private final WebClient mlWebClient;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JdbcTemplate jdbcTemplate;
+    private final MlModelVersions modelVersions;
+    private final TransactionTemplate transactionTemplate;
 
-    @Transactional
+    // Même borne que le RestTemplate de MlService
+    @Value("${application.ml.read-timeout:PT2S}")
+    private Duration mlReadTimeout;
+
+    // Recommandation de timing par dernier score de progression (une dizaine de valeurs possibles),
+    // valable tant que le modèle de timing n'a pas changé de version
+    private final Map<Integer, PredictionTimingResponse> timingCache = new ConcurrentHashMap<>();
+
+    private static final String INSERT_SERIES_SQL = "INSERT INTO appointments " +
+            "(patient_profile_id, therapist_profile_id, session_date_time, status, created_at, cancellation_risk_score, " +
+            "cancellation_risk_model_version, series_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    /**
+     * Crée un RDV avec son score de risque. Le scoring (/predict-batch avec un seul élément) précède
+     * la transaction : aucune connexion JDBC n'est tenue pendant l'attente du service de ML.
+     */
     public AppointmentDTO createAppointment(CreateAppointmentRequest request) {
-        PatientProfile patient = patientProfileRepository.findById(request.getPatientId())
-                .orElseThrow(() -> new ResourceNotFoundException("Profil patient non trouvé: " + request.getPatientId()));
+        PredictionRequest features = PredictionRequest.of(LocalDateTime.now(), request.getSessionDateTime());
+        long start = System.nanoTime();
+        PredictionBatchResponse prediction = getPredictionScores(List.of(features));
+        double latencyMillis = (System.nanoTime() - start) / 1e6;
+
+        return transactionTemplate.execute(status -> {
+            PatientProfile patient = patientProfileRepository.findById(request.getPatientId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Profil patient non trouvé: " + request.getPatientId()));
+
+            TherapistProfile therapist = therapistProfileRepository.findById(request.getTherapistId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Profil thérapeute non trouvé: " + request.getTherapistId()));
+
+            Appointment appointment = new Appointment();
+            appointment.setPatient(patient);
+            appointment.setTherapist(therapist);
+            appointment.setSessionDateTime(request.getSessionDateTime());
+            appointment.setStatus(AppointmentStatus.SCHEDULED);
+            if (prediction != null) {
+                appointment.setCancellationRiskScore(prediction.getCancellationRiskScores().get(0));
+                appointment.setCancellationRiskModelVersion(prediction.getModelVersion());
+            }
 
-        TherapistProfile therapist = therapistProfileRepository.findById(request.getTherapistId())
-                .orElseThrow(() -> new ResourceNotFoundException("Profil thérapeute non trouvé: " + request.getTherapistId()));
+            Appointment savedAppointment = appointmentRepository.save(appointment);
 
-        Appointment appointment = new Appointment();
-        appointment.setPatient(patient);
-        appointment.setTherapist(therapist);
-        appointment.setSessionDateTime(request.getSessionDateTime());
-        appointment.setStatus(AppointmentStatus.SCHEDULED);
+            if (prediction != null) {
+                log.info("Score de risque calculé avec succès: {}", savedAppointment.getCancellationRiskScore());
+                eventPublisher.publishEvent(new AppointmentsScoredEvent(List.of(savedAppointment.getId()),
+                        List.of(features), List.of(savedAppointment.getCancellationRiskScore()),
+                        prediction.getModelVersion(), latencyMillis));
+            }
+            eventPublisher.publishEvent(new AppointmentsBookedEvent(
+                    therapist.getId(), List.of(savedAppointment.getSessionDateTime())));
 
-        Appointment savedAppointment = appointmentRepository.save(appointment);
+            // MAPPING MANUEL
+            return mapToAppointmentDTO(savedAppointment);
+        });
+    }
 
-        try {
-            Double riskScore = getPredictionScore(savedAppointment);
-            savedAppointment.setCancellationRiskScore(riskScore);
-            savedAppointment = appointmentRepository.save(savedAppointment);
-            log.info("Score de risque calculé avec succès: {}", riskScore);
-        } catch (Exception e) {
-            log.warn("Impossible de contacter le service de ML (risque). Le RDV est créé sans score. Erreur: {}", e.getMessage());
-            savedAppointment.setCancellationRiskScore(null);
+    /**
+     * Crée une série de rendez-vous récurrents en une seule passe :
+     * 1. développement de la règle de récurrence,
+     * 2. UN appel de scoring ML pour toute la série (/predict-batch),
+     * 3. verrou sur le thérapeute, puis détection des conflits en UNE requête (thérapeute ou patient déjà pris),
+     * 4. insertion de toutes les séances en un batch JDBC.
+     * Le scoring a lieu hors transaction : ni le verrou ni une connexion JDBC ne sont tenus pendant
+     * l'appel au service de ML, deux réservations du même thérapeute ne s'attendent que le temps
+     * de la vérification et de l'insertion, sans pouvoir prendre le même créneau.
+     */
+    public AppointmentSeriesDTO createAppointmentSeries(CreateAppointmentSeriesRequest request) {
+        List<LocalDateTime> sessions = RecurrenceExpander.expand(request.getFirstSessionDateTime(), request.getRecurrence());
+        if (sessions.isEmpty()) {
+            throw new IllegalArgumentException("La règle de récurrence ne produit aucune séance");
         }
 
-        // MAPPING MANUEL
-        return mapToAppointmentDTO(savedAppointment);
+        LocalDateTime createdAt = LocalDateTime.now();
+        List<PredictionRequest> features = sessions.stream()
+                .map(session -> PredictionRequest.of(createdAt, session))
+                .collect(Collectors.toList());
+        long start = System.nanoTime();
+        PredictionBatchResponse prediction = getPredictionScores(features);
+        double latencyMillis = (System.nanoTime() - start) / 1e6;
+        List<Double> riskScores = prediction != null ? prediction.getCancellationRiskScores() : null;
+
+        // Aucune lecture avant le scoring : en open-in-view, la première connexion empruntée
+        // reste attachée à la requête jusqu'à sa fin, appel au service de ML compris
+        return transactionTemplate.execute(status -> {
+            if (!patientProfileRepository.existsById(request.getPatientId())) {
+                throw new ResourceNotFoundException("Profil patient non trouvé: " + request.getPatientId());
+            }
+            if (!therapistProfileRepository.existsById(request.getTherapistId())) {
+                throw new ResourceNotFoundException("Profil thérapeute non trouvé: " + request.getTherapistId());
+            }
+
+            // Tenu jusqu'au commit : une réservation concurrente du même thérapeute voit nos séances
+            therapistProfileRepository.lockById(request.getTherapistId());
+            List<LocalDateTime> conflicts = appointmentRepository.findConflictingSlots(
+                    request.getTherapistId(), request.getPatientId(), sessions, AppointmentStatus.SCHEDULED);
+            if (!conflicts.isEmpty()) {
+                Collections.sort(conflicts);
+                throw new ConflictException("Créneaux déjà occupés: " + conflicts);
+            }
+
+            String seriesId = UUID.randomUUID().toString();
+            List<Integer> indexes = new ArrayList<>(sessions.size());
+            for (int i = 0; i < sessions.size(); i++) {
+                indexes.add(i);
+            }
+            jdbcTemplate.batchUpdate(INSERT_SERIES_SQL, indexes, indexes.size(), (ps, i) -> {
+                ps.setLong(1, request.getPatientId());
+                ps.setLong(2, request.getTherapistId());
+                ps.setTimestamp(3, Timestamp.valueOf(sessions.get(i)));
+                ps.setString(4, AppointmentStatus.SCHEDULED.name());
+                ps.setTimestamp(5, Timestamp.valueOf(createdAt));
+                Double score = riskScores != null ? riskScores.get(i) : null;
+                if (score != null) {
+                    ps.setDouble(6, score);
+                    ps.setString(7, prediction.getModelVersion());
+                } else {
+                    ps.setNull(6, Types.DOUBLE);
+                    ps.setNull(7, Types.VARCHAR);
+                }
+                ps.setString(8, seriesId);
+            });
+            log.info("Série {} créée: {} séances", seriesId, sessions.size());
+            eventPublisher.publishEvent(new AppointmentsBookedEvent(request.getTherapistId(), sessions));
+
+            AppointmentSeriesDTO dto = new AppointmentSeriesDTO();
+            dto.setSeriesId(seriesId);
+            dto.setAppointments(appointmentRepository.findBySeriesId(seriesId).stream()
+                    .map(this::mapToAppointmentDTO)
+                    .collect(Collectors.toList()));
+            if (riskScores != null) {
+                // Ids relus avec la série : retrouvés par créneau (un seul RDV par créneau dans une série)
+                Map<LocalDateTime, Long> ids = dto.getAppointments().stream()
+                        .collect(Collectors.toMap(AppointmentDTO::getSessionDateTime, AppointmentDTO::getId));
+                eventPublisher.publishEvent(new AppointmentsScoredEvent(sessions.stream().map(ids::get).toList(),
+                        features, riskScores, prediction.getModelVersion(), latencyMillis));
+            }
+            return dto;
+        });
     }
 
-    // ... (les méthodes getPredictionScore et getTimingRecommendation restent les mêmes) ...
-    private Double getPredictionScore(Appointment appointment) {
-        double leadTimeDays = (double) ChronoUnit.DAYS.between(
-                appointment.getCreatedAt().toLocalDate(),
-                appointment.getSessionDateTime().toLocalDate()
-        );
-        int dayOfWeek = appointment.getSessionDateTime().getDayOfWeek().getValue();
-        int hourOfDay = appointment.getSessionDateTime().getHour();
-        if (dayOfWeek == 7) dayOfWeek = 0;
-
-        PredictionRequest predictionRequest = new PredictionRequest(leadTimeDays, dayOfWeek, hourOfDay);
-        log.info("Appel du service de ML (risque) avec les features: {}", predictionRequest);
-
-        PredictionResponse response = mlWebClient.post()
-                .uri("/predict")
-                .bodyValue(predictionRequest)
-                .retrieve()
-                .bodyToMono(PredictionResponse.class)
-                .block(Duration.ofSeconds(2));
-
-        if (response != null) {
-            return response.getCancellationRiskScore();
+    /**
+     * Score un ou plusieurs RDV en un seul appel vectorisé.
+     * Renvoie null si le service de ML est indisponible (les RDV sont créés sans score).
+     */
+    private PredictionBatchResponse getPredictionScores(List<PredictionRequest> features) {
+        try {
+            PredictionBatchResponse response = mlWebClient.post()
+                    .uri("/predict-batch")
+                    .bodyValue(new PredictionBatchRequest(features))
+                    .retrieve()
+                    .bodyToMono(PredictionBatchResponse.class)
+                    .block(mlReadTimeout);
+            if (response == null || response.getCancellationRiskScores() == null
+                    || response.getCancellationRiskScores().size() != features.size()) {
+                log.warn("Réponse de scoring par lot invalide, les RDV sont créés sans score");
+                return null;
+            }
+            modelVersions.observe(MlModelVersions.CANCELLATION, response.getModelVersion());
+            return response;
+        } catch (Exception e) {
+            log.warn("Impossible de contacter le service de ML (risque). Les RDV sont créés sans score. Erreur: {}", e.getMessage());
+            return null;
         }
-        return null;
     }
 
     @Transactional(readOnly = true)
@@ -99,15 +235,24 @@ public class AppointmentService {
             defaultResponse.setRecommendedDaysNextSession(7);
             return defaultResponse;
         }
+        PredictionTimingResponse cached = timingCache.get(lastScore);
+        if (cached != null && cached.getModelVersion().equals(modelVersions.get(MlModelVersions.TIMING))) {
+            return cached;
+        }
         PredictionTimingRequest timingRequest = new PredictionTimingRequest(lastScore);
         log.info("Appel du service de ML (timing) avec le score: {}", lastScore);
         try {
-            return mlWebClient.post()
+            PredictionTimingResponse response = mlWebClient.post()
                     .uri("/predict-timing")
                     .bodyValue(timingRequest)
                     .retrieve()
                     .bodyToMono(PredictionTimingResponse.class)
-                    .block(Duration.ofSeconds(2));
+                    .block(mlReadTimeout);
+            if (response != null && response.getModelVersion() != null) {
+                modelVersions.observe(MlModelVersions.TIMING, response.getModelVersion());
+                timingCache.put(lastScore, response);
+            }
+            return response;
         } catch (Exception e) {
             log.error("Erreur lors de l'appel du service de prédiction de timing: {}", e.getMessage());
             PredictionTimingResponse defaultResponse = new PredictionTimingResponse();
@@ -116,6 +261,12 @@ public class AppointmentService {
         }
     }
 
+    @EventListener
+    public void onModelVersionChanged(MlModelVersionChangedEvent event) {
+        if (MlModelVersions.TIMING.equals(event.model())) {
+            timingCache.clear();
+        }
+    }
 
     @Transactional(readOnly = true)
     public AppointmentDTO getAppointmentById(Long id, User currentUser) {
@@ -129,12 +280,7 @@ public class AppointmentService {
 
     @Transactional(readOnly = true)
     public List<AppointmentDTO> getAppointmentsForPatient(Long patientProfileId, User currentUser) {
-        PatientProfile patient = patientProfileRepository.findById(patientProfileId)
-                .orElseThrow(() -> new ResourceNotFoundException("Profil patient non trouvé avec l'ID: " + patientProfileId));
-
-        if (currentUser.getRole() == Role.ROLE_PATIENT && !patient.getUser().getId().equals(currentUser.getId())) {
-            throw new AccessDeniedException("Vous n'êtes pas autorisé à voir les rendez-vous de cet utilisateur.");
-        }
+        assertCanListPatientAppointments(patientProfileId, currentUser);
 
         // MAPPING MANUEL
         return appointmentRepository.findByPatientId(patientProfileId).stream()
@@ -144,6 +290,45 @@ public class AppointmentService {
 
     @Transactional(readOnly = true)
     public List<AppointmentDTO> getAppointmentsForTherapist(Long therapistProfileId, User currentUser) {
+        assertCanListTherapistAppointments(therapistProfileId, currentUser);
+
+        // MAPPING MANUEL
+        return appointmentRepository.findByTherapistId(therapistProfileId).stream()
+                .map(this::mapToAppointmentDTO) // Utilise notre méthode manuelle
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Variante en flux de getAppointmentsForPatient : l'accès est vérifié avant de renvoyer le flux,
+     * puis les rendez-vous sont lus (R2DBC) au rythme où le client les consomme.
+     */
+    public Flux<AppointmentDTO> streamAppointmentsForPatient(Long patientProfileId, User currentUser) {
+        assertCanListPatientAppointments(patientProfileId, currentUser);
+        return appointmentReadRepository.streamByPatientId(patientProfileId);
+    }
+
+    /**
+     * Variante en flux de getAppointmentsForTherapist (mêmes règles d'accès).
+     */
+    public Flux<AppointmentDTO> streamAppointmentsForTherapist(Long therapistProfileId, User currentUser) {
+        assertCanListTherapistAppointments(therapistProfileId, currentUser);
+        return appointmentReadRepository.streamByTherapistId(therapistProfileId);
+    }
+
+    private void assertCanListPatientAppointments(Long patientProfileId, User currentUser) {
+        PatientProfile patient = patientProfileRepository.findById(patientProfileId)
+                .orElseThrow(() -> new ResourceNotFoundException("Profil patient non trouvé avec l'ID: " + patientProfileId));
+
+        if (currentUser.getRole() == Role.ROLE_PATIENT && !patient.getUser().getId().equals(currentUser.getId())) {
+            throw new AccessDeniedException("Vous n'êtes pas autorisé à voir les rendez-vous de cet utilisateur.");
+        }
+    }
+
+    /**
+     * Accès au planning complet d'un thérapeute : l'admin, ou le thérapeute lui-même.
+     * Aussi utilisé par l'export (AppointmentExportService) et la recherche dans les notes (NoteSearchService).
+     */
+    public void assertCanListTherapistAppointments(Long therapistProfileId, User currentUser) {
         TherapistProfile therapist = therapistProfileRepository.findById(therapistProfileId)
                 .orElseThrow(() -> new ResourceNotFoundException("Profil thérapeute non trouvé avec l'ID: " + therapistProfileId));
 
@@ -156,11 +341,6 @@ public class AppointmentService {
         } else {
             throw new AccessDeniedException("Vous n'êtes pas autorisé à accéder à cette ressource.");
         }
-
-        // MAPPING MANUEL
-        return appointmentRepository.findByTherapistId(therapistProfileId).stream()
-                .map(this::mapToAppointmentDTO) // Utilise notre méthode manuelle
-                .collect(Collectors.toList());
     }
 
     private void assertCanAccessAppointment(Appointment appointment, User user) {
@@ -193,13 +373,15 @@ public class AppointmentService {
         therapistInfo.setLastName(appointment.getTherapist().getLastName());
         therapistInfo.setSpecialty(appointment.getTherapist().getSpecialty());
 
-        // 3. Mapper la Note (avec une vérification null)
+        // 3. Mapper la Note (avec une vérification null) : colonnes scalaires seulement,
+        // le texte (chargé à la demande) est servi par GET /api/v1/notes/{id}
         ClinicalNoteDTO noteInfo = null;
         if (appointment.getNote() != null) {
             noteInfo = new ClinicalNoteDTO();
             noteInfo.setId(appointment.getNote().getId());
-            noteInfo.setSummary(appointment.getNote().getSummary());
             noteInfo.setPatientProgressScore(appointment.getNote().getPatientProgressScore());
+            noteInfo.setSentimentScore(appointment.getNote().getSentimentScore());
+            noteInfo.setSentimentLabel(appointment.getNote().getSentimentLabel());
         }
 
         // 4. Construire le DTO principal
@@ -234,6 +416,14 @@ public class AppointmentService {
         appointment.setStatus(AppointmentStatus.CANCELLED_BY_PATIENT);
         Appointment savedAppointment = appointmentRepository.save(appointment);
 
+        // 5. Prévenir les écouteurs (liste d'attente...) une fois la transaction commitée
+        eventPublisher.publishEvent(new AppointmentCancelledEvent(
+                savedAppointment.getId(),
+                savedAppointment.getTherapist().getId(),
+                savedAppointment.getPatient().getId(),
+                savedAppointment.getSessionDateTime(),
+                savedAppointment.getStatus()));
+
         return mapToAppointmentDTO(savedAppointment); // Utilise notre mapping manuel
     }
 
@@ -254,6 +444,11 @@ public class AppointmentService {
         // 3. Mettre à jour le statut
         appointment.setStatus(AppointmentStatus.COMPLETED);
         Appointment savedAppointment = appointmentRepository.save(appointment);
+        eventPublisher.publishEvent(new AppointmentCompletedEvent(
+                savedAppointment.getId(),
+                savedAppointment.getTherapist().getId(),
+                savedAppointment.getPatient().getId(),
+                savedAppointment.getSessionDateTime()));
 
         return mapToAppointmentDTO(savedAppointment); // Utilise notre mapping manuel
     }
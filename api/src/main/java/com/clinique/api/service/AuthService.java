@@ -5,13 +5,16 @@ import com.clinique.api.dto.AuthResponse;
 import com.clinique.api.dto.RegisterRequest;
 import com.clinique.api.dto.UserDTO;
 import com.clinique.api.entity.*;
+import com.clinique.api.event.TherapistProfileChangedEvent;
 import com.clinique.api.exception.ResourceNotFoundException;
 // PAS DE MAPPER
 import com.clinique.api.repository.PatientProfileRepository;
 import com.clinique.api.repository.TherapistProfileRepository;
 import com.clinique.api.repository.UserRepository;
 import com.clinique.api.security.JwtService;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -20,6 +23,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
+@Timed(value = "clinique.service", histogram = true)
 @RequiredArgsConstructor
 public class AuthService {
 
@@ -29,6 +33,7 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final ApplicationEventPublisher eventPublisher;
     // PAS DE MAPPER
 
     @Transactional
@@ -59,6 +64,7 @@ public class AuthService {
             therapistProfile.setLastName(request.getLastName());
             therapistProfile.setSpecialty(request.getSpecialty());
             profileId = therapistProfileRepository.save(therapistProfile).getId();
+            eventPublisher.publishEvent(new TherapistProfileChangedEvent(profileId));
         } else {
             throw new IllegalArgumentException("Rôle non valide pour l'inscription");
         }
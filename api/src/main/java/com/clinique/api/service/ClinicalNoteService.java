@@ -3,23 +3,29 @@ package com.clinique.api.service;
 import com.clinique.api.dto.*;
 import com.clinique.api.entity.Appointment;
 import com.clinique.api.entity.ClinicalNote;
+import com.clinique.api.entity.Role;
 import com.clinique.api.entity.User;
+import com.clinique.api.event.ClinicalNoteSavedEvent;
 import com.clinique.api.exception.ResourceNotFoundException;
 // PAS DE MAPPER
 import com.clinique.api.repository.AppointmentRepository;
 import com.clinique.api.repository.ClinicalNoteRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
+@Timed(value = "clinique.service", histogram = true)
 @RequiredArgsConstructor
 public class ClinicalNoteService {
 
     private final AppointmentRepository appointmentRepository;
     private final ClinicalNoteRepository clinicalNoteRepository;
     private final MlService mlService; // Inject MlService
+    private final ApplicationEventPublisher eventPublisher;
     // PAS DE MAPPER
 
     @Transactional
@@ -35,6 +41,7 @@ public class ClinicalNoteService {
                 .orElse(new ClinicalNote());
 
         note.setAppointment(appointment);
+        note.setTherapistProfileId(appointment.getTherapist().getId());
         note.setSummary(request.getSummary());
         note.setPrivateNotes(request.getPrivateNotes());
         note.setPatientProgressScore(request.getPatientProgressScore());
@@ -49,16 +56,52 @@ public class ClinicalNoteService {
                     // Handle possibly different number format in JSON response
                 }
                 note.setSentimentLabel((String) sentiment.get("sentiment_label"));
+                note.setSentimentModelVersion((String) sentiment.get("model_version"));
             }
         }
 
         ClinicalNote savedNote = clinicalNoteRepository.save(note);
         appointment.setNote(savedNote);
+        // Scores modifiés : chronologie de progression du patient et agrégats du thérapeute
+        eventPublisher.publishEvent(new ClinicalNoteSavedEvent(savedNote.getId(), appointment.getId(),
+                appointment.getPatient().getId(), appointment.getTherapist().getId(), appointment.getSessionDateTime()));
 
         // MAPPING MANUEL
         return mapToAppointmentDTO(appointment);
     }
 
+    /**
+     * Note complète (texte compris) pour le thérapeute du RDV, son patient ou l'admin.
+     * Les notes privées ne sont renvoyées qu'au thérapeute auteur.
+     */
+    @Transactional(readOnly = true)
+    public ClinicalNoteDetailDTO getNote(Long noteId, User currentUser) {
+        ClinicalNote note = clinicalNoteRepository.findWithAppointmentById(noteId)
+                .orElseThrow(() -> new ResourceNotFoundException("Note clinique non trouvée avec l'ID: " + noteId));
+        Appointment appointment = note.getAppointment();
+
+        boolean author = currentUser.getRole() == Role.ROLE_THERAPIST
+                && appointment.getTherapist().getUser().getId().equals(currentUser.getId());
+        boolean ownPatient = currentUser.getRole() == Role.ROLE_PATIENT
+                && appointment.getPatient().getUser().getId().equals(currentUser.getId());
+        if (!author && !ownPatient && currentUser.getRole() != Role.ROLE_ADMIN) {
+            throw new AccessDeniedException("Vous n'êtes pas autorisé à lire cette note.");
+        }
+
+        // MAPPING MANUEL (le premier accès au texte le charge, notes privées comprises)
+        ClinicalNoteDetailDTO dto = new ClinicalNoteDetailDTO();
+        dto.setId(note.getId());
+        dto.setAppointmentId(appointment.getId());
+        dto.setSummary(note.getSummary());
+        if (author) {
+            dto.setPrivateNotes(note.getPrivateNotes());
+        }
+        dto.setPatientProgressScore(note.getPatientProgressScore());
+        dto.setSentimentScore(note.getSentimentScore());
+        dto.setSentimentLabel(note.getSentimentLabel());
+        return dto;
+    }
+
     // --- NOTRE NOUVELLE MÉTHODE DE MAPPING MANUEL ---
     private AppointmentDTO mapToAppointmentDTO(Appointment appointment) {
         PatientInfoDTO patientInfo = new PatientInfoDTO();
@@ -0,0 +1,57 @@
+package com.clinique.api.service;
+
+import com.clinique.api.event.MlModelVersionChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dernière version connue de chaque modèle du service de ML.
+ *
+ * Alimentée par chaque réponse de prédiction (champ model_version) et par la lecture périodique
+ * de GET /models ; un changement de version publie un MlModelVersionChangedEvent.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MlModelVersions {
+
+    public static final String CANCELLATION = "cancellation";
+    public static final String TIMING = "timing";
+    public static final String CHURN = "churn";
+    public static final String SENTIMENT = "sentiment";
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Map<String, String> versions = new ConcurrentHashMap<>();
+
+    /**
+     * Version courante du modèle, null tant qu'aucune n'a été vue.
+     */
+    public String get(String model) {
+        return versions.get(model);
+    }
+
+    public Map<String, String> getAll() {
+        return Map.copyOf(versions);
+    }
+
+    /**
+     * Enregistre la version annoncée par le service (ignorée si null : ancien service ou modèle absent).
+     */
+    public void observe(String model, String version) {
+        if (version == null) {
+            return;
+        }
+        String previous = versions.put(model, version);
+        if (previous != null && !Objects.equals(previous, version)) {
+            log.info("Modèle de ML '{}' remplacé : {} -> {}", model, previous, version);
+            eventPublisher.publishEvent(new MlModelVersionChangedEvent(model, previous, version));
+        }
+    }
+}
@@ -1,22 +1,93 @@
 package com.clinique.api.service;
 
+import com.clinique.api.event.MlModelVersionChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.http.ResponseEntity;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+@Slf4j
 @Service
 public class MlService {
 
-    private final RestTemplate restTemplate = new RestTemplate();
-    private final String ML_SERVICE_URL = "http://localhost:8001"; // Assuming uvicorn runs on 8001
+    private final RestTemplate restTemplate;
+    private final MlModelVersions modelVersions;
+    private final int maxCachedPredictions;
+
+    // Prédictions de churn par features : même entrée, même modèle => même réponse.
+    // La version du modèle est gardée avec la réponse, une réponse d'un ancien modèle n'est jamais resservie
+    private final Map<ChurnFeatures, CachedPrediction> churnCache = new ConcurrentHashMap<>();
+
+    public record ChurnFeatures(int daysSinceLast, int totalVisits, double cancellationRate) {
+    }
+
+    private record CachedPrediction(String modelVersion, Map<String, Object> response) {
+    }
+
+    // Le RestTemplateBuilder de Spring Boot instrumente les appels (métrique http.client.requests)
+    // Timeouts bornés : sans eux, un service de ML figé accumule des requêtes bloquées sans limite
+    // (surtout en threads virtuels, où Tomcat n'a plus de pool pour plafonner la concurrence)
+    public MlService(RestTemplateBuilder restTemplateBuilder,
+                     @Value("${application.ml.base-url}") String mlBaseUrl,
+                     @Value("${application.ml.connect-timeout:PT1S}") Duration connectTimeout,
+                     @Value("${application.ml.read-timeout:PT2S}") Duration readTimeout,
+                     MlModelVersions modelVersions,
+                     @Value("${application.ml.cache.max-predictions:10000}") int maxCachedPredictions) {
+        this.restTemplate = restTemplateBuilder.rootUri(mlBaseUrl)
+                .connectTimeout(connectTimeout)
+                .readTimeout(readTimeout)
+                .build();
+        this.modelVersions = modelVersions;
+        this.maxCachedPredictions = maxCachedPredictions;
+    }
+
+    /**
+     * Relit les versions des modèles chargés (GET /models) : un réentraînement est détecté
+     * même si aucune prédiction n'est demandée entre-temps.
+     */
+    @Scheduled(fixedDelayString = "${application.ml.models.poll-interval:PT1M}",
+            initialDelayString = "${application.ml.models.poll-interval:PT1M}")
+    public void refreshModelVersions() {
+        try {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> body = restTemplate.getForObject("/models", Map.class);
+            if (body == null || !(body.get("models") instanceof List<?> models)) {
+                return;
+            }
+            for (Object model : models) {
+                if (model instanceof Map<?, ?> info && info.get("name") instanceof String name) {
+                    modelVersions.observe(name, (String) info.get("version"));
+                }
+            }
+        } catch (RestClientException e) {
+            log.debug("Versions des modèles de ML indisponibles : {}", e.getMessage());
+        }
+    }
+
+    @EventListener
+    public void onModelVersionChanged(MlModelVersionChangedEvent event) {
+        if (MlModelVersions.CHURN.equals(event.model())) {
+            churnCache.clear();
+        }
+    }
 
     // --- EXISTING METHODS (Assuming they exist or adding them now) ---
 
     // --- NEW: Sentiment Analysis ---
     public Map<String, Object> analyzeSentiment(String text) {
-        String url = ML_SERVICE_URL + "/predict-sentiment";
+        String url = "/predict-sentiment";
         Map<String, String> request = new HashMap<>();
         request.put("text", text);
 
@@ -25,7 +96,11 @@ public class MlService {
             // complexity imports
             @SuppressWarnings("unchecked")
             ResponseEntity<Map> response = restTemplate.postForEntity(url, request, Map.class);
-            return (Map<String, Object>) response.getBody();
+            Map<String, Object> body = (Map<String, Object>) response.getBody();
+            if (body != null) {
+                modelVersions.observe(MlModelVersions.SENTIMENT, (String) body.get("model_version"));
+            }
+            return body;
         } catch (Exception e) {
             e.printStackTrace();
             return null; // Handle gracefully
@@ -34,19 +109,70 @@ public class MlService {
 
     // --- NEW: Churn Prediction ---
     public Map<String, Object> predictChurn(int daysSinceLast, int totalVisits, double cancellationRate) {
-        String url = ML_SERVICE_URL + "/predict-churn";
-        Map<String, Object> request = new HashMap<>();
-        request.put("days_since_last_visit", daysSinceLast);
-        request.put("total_visits", totalVisits);
-        request.put("cancellation_rate", cancellationRate);
+        return predictChurnBatch(List.of(new ChurnFeatures(daysSinceLast, totalVisits, cancellationRate))).get(0);
+    }
 
+    /**
+     * Prédictions de churn de plusieurs patients : les prédictions absentes du cache (ou d'un ancien modèle)
+     * sont demandées en un seul appel à /predict-churn-batch.
+     *
+     * @return une réponse par élément, dans le même ordre (null si le service de ML n'a pas répondu)
+     */
+    public List<Map<String, Object>> predictChurnBatch(List<ChurnFeatures> features) {
+        @SuppressWarnings("unchecked")
+        Map<String, Object>[] results = new Map[features.size()];
+        String currentVersion = modelVersions.get(MlModelVersions.CHURN);
+        List<Integer> misses = new ArrayList<>();
+        for (int i = 0; i < features.size(); i++) {
+            CachedPrediction cached = churnCache.get(features.get(i));
+            if (cached != null && cached.modelVersion().equals(currentVersion)) {
+                results[i] = cached.response();
+            } else {
+                misses.add(i);
+            }
+        }
+        if (misses.isEmpty()) {
+            return Arrays.asList(results);
+        }
+
+        List<Map<String, Object>> items = new ArrayList<>(misses.size());
+        for (int i : misses) {
+            ChurnFeatures f = features.get(i);
+            Map<String, Object> item = new HashMap<>();
+            item.put("days_since_last_visit", f.daysSinceLast());
+            item.put("total_visits", f.totalVisits());
+            item.put("cancellation_rate", f.cancellationRate());
+            items.add(item);
+        }
         try {
             @SuppressWarnings("unchecked")
-            ResponseEntity<Map> response = restTemplate.postForEntity(url, request, Map.class);
-            return (Map<String, Object>) response.getBody();
-        } catch (Exception e) {
-            e.printStackTrace();
-            return null;
+            Map<String, Object> body = restTemplate.postForObject("/predict-churn-batch", Map.of("items", items), Map.class);
+            if (body == null || !(body.get("churn_risks") instanceof List<?> risks)
+                    || !(body.get("churn_probabilities") instanceof List<?> probabilities)
+                    || risks.size() != misses.size() || probabilities.size() != misses.size()) {
+                log.warn("Réponse de churn par lot invalide ({} patients)", misses.size());
+                return Arrays.asList(results);
+            }
+            String version = (String) body.get("model_version");
+            modelVersions.observe(MlModelVersions.CHURN, version);
+            if (version != null && churnCache.size() + misses.size() > maxCachedPredictions) {
+                churnCache.clear();
+            }
+            for (int j = 0; j < misses.size(); j++) {
+                // Même forme que la réponse unitaire de /predict-churn
+                Map<String, Object> response = new HashMap<>();
+                response.put("is_churn_risk", risks.get(j));
+                response.put("churn_probability", probabilities.get(j));
+                response.put("model_version", version);
+                results[misses.get(j)] = response;
+                // Réponses sans version (modèle absent côté ML) : jamais mises en cache
+                if (version != null) {
+                    churnCache.put(features.get(misses.get(j)), new CachedPrediction(version, response));
+                }
+            }
+        } catch (RestClientException e) {
+            log.warn("Impossible de contacter le service de ML (churn, {} patients) : {}", misses.size(), e.getMessage());
         }
+        return Arrays.asList(results);
     }
 }
@@ -0,0 +1,83 @@
+package com.clinique.api.service;
+
+import com.clinique.api.dto.NoteSearchHitDTO;
+import com.clinique.api.dto.NoteSearchPageDTO;
+import com.clinique.api.entity.User;
+import com.clinique.api.repository.ClinicalNoteSearchRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.HtmlUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Recherche par mots-clés dans les notes cliniques d'un thérapeute.
+ */
+@Service
+@Timed(value = "clinique.service", histogram = true)
+public class NoteSearchService {
+
+    static final int MAX_QUERY_LENGTH = 200;
+
+    private final ClinicalNoteSearchRepository clinicalNoteSearchRepository;
+    private final AppointmentService appointmentService;
+    private final int maxPageSize;
+
+    public NoteSearchService(ClinicalNoteSearchRepository clinicalNoteSearchRepository,
+                             AppointmentService appointmentService,
+                             @Value("${application.notes.search.max-page-size:50}") int maxPageSize) {
+        this.clinicalNoteSearchRepository = clinicalNoteSearchRepository;
+        this.appointmentService = appointmentService;
+        this.maxPageSize = maxPageSize;
+    }
+
+    /**
+     * Une page de notes du thérapeute correspondant à la requête (syntaxe web : "expression exacte",
+     * OR, -exclu), la plus pertinente d'abord. Casse et accents sont ignorés, les mots sont
+     * ramenés à leur racine (séance / séances).
+     */
+    public NoteSearchPageDTO searchTherapistNotes(Long therapistProfileId, String query, int page, int size,
+                                                  User currentUser) {
+        String trimmed = query == null ? "" : query.strip();
+        if (trimmed.isEmpty()) {
+            throw new IllegalArgumentException("La recherche ne peut pas être vide");
+        }
+        if (trimmed.length() > MAX_QUERY_LENGTH) {
+            throw new IllegalArgumentException("La recherche est limitée à " + MAX_QUERY_LENGTH + " caractères");
+        }
+        if (page < 0 || size < 1 || size > maxPageSize) {
+            throw new IllegalArgumentException("Pagination invalide : page >= 0 et taille entre 1 et " + maxPageSize);
+        }
+        appointmentService.assertCanListTherapistAppointments(therapistProfileId, currentUser);
+
+        // Une ligne de plus que la page : dit s'il reste des résultats sans les compter
+        List<NoteSearchHitDTO> hits = clinicalNoteSearchRepository.search(
+                therapistProfileId, trimmed, (long) page * size, size + 1);
+        boolean hasNext = hits.size() > size;
+        List<NoteSearchHitDTO> results = hasNext ? hits.subList(0, size) : hits;
+        results.forEach(hit -> hit.setHighlight(toHtml(hit.getHighlight())));
+
+        NoteSearchPageDTO dto = new NoteSearchPageDTO();
+        dto.setQuery(trimmed);
+        dto.setPage(page);
+        dto.setSize(size);
+        dto.setHasNext(hasNext);
+        dto.setResults(results);
+        return dto;
+    }
+
+    /**
+     * Échappe le texte de la note (il vient de l'utilisateur) avant d'ajouter les balises de surlignage.
+     */
+    static String toHtml(String highlight) {
+        if (highlight == null) {
+            return null;
+        }
+        // Avec un encodage, seuls < > & " ' sont échappés : les accents restent lisibles
+        return HtmlUtils.htmlEscape(highlight, StandardCharsets.UTF_8.name())
+                .replace(String.valueOf(ClinicalNoteSearchRepository.MATCH_START), "<mark>")
+                .replace(String.valueOf(ClinicalNoteSearchRepository.MATCH_END), "</mark>");
+    }
+}
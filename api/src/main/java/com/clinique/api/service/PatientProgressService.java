@@ -0,0 +1,189 @@
+package com.clinique.api.service;
+
+import com.clinique.api.dto.ProgressPointDTO;
+import com.clinique.api.dto.ProgressTimelineDTO;
+import com.clinique.api.entity.PatientProfile;
+import com.clinique.api.entity.Role;
+import com.clinique.api.entity.User;
+import com.clinique.api.event.ClinicalNoteSavedEvent;
+import com.clinique.api.exception.ResourceNotFoundException;
+import com.clinique.api.repository.AppointmentRepository;
+import com.clinique.api.repository.PatientProfileRepository;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Chronologie des scores de progression et de sentiment d'un patient, pour les graphiques.
+ *
+ * La série complète est gardée en cache par patient (LRU borné, durée de vie limitée) et invalidée
+ * après le commit de chaque note enregistrée ; la réduction à maxPoints se fait à la lecture.
+ */
+@Slf4j
+@Service
+@Timed(value = "clinique.service", histogram = true)
+public class PatientProgressService {
+
+    private final AppointmentRepository appointmentRepository;
+    private final PatientProfileRepository patientProfileRepository;
+    private final int maxCachedPatients;
+    private final Duration cacheTtl;
+
+    // Accès (lecture comprise, ordre LRU) et invalidations sous le verrou de la map
+    private final Map<Long, CachedTimeline> cache;
+    private long invalidations;
+
+    private record CachedTimeline(List<ProgressPointDTO> points, Instant loadedAt) {
+    }
+
+    record TimelinePoint(LocalDateTime sessionDateTime, Double progressScore, Double sentimentScore) {
+
+        static TimelinePoint of(ProgressPointDTO point) {
+            Integer progress = point.getPatientProgressScore();
+            return new TimelinePoint(point.getSessionDateTime(),
+                    progress == null ? null : progress.doubleValue(), point.getSentimentScore());
+        }
+    }
+
+    public PatientProgressService(AppointmentRepository appointmentRepository,
+                                  PatientProfileRepository patientProfileRepository,
+                                  @Value("${application.progress.cache.max-patients:10000}") int maxCachedPatients,
+                                  @Value("${application.progress.cache.ttl:PT10M}") Duration cacheTtl) {
+        this.appointmentRepository = appointmentRepository;
+        this.patientProfileRepository = patientProfileRepository;
+        this.maxCachedPatients = maxCachedPatients;
+        this.cacheTtl = cacheTtl;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedTimeline> eldest) {
+                return size() > PatientProgressService.this.maxCachedPatients;
+            }
+        };
+    }
+
+    /**
+     * Chronologie du patient, accessible au patient lui-même, à ses thérapeutes et à l'admin.
+     *
+     * @param maxPoints nombre maximal de points renvoyés (null : toutes les séances). Au-delà, les séances
+     *                  consécutives sont regroupées par paquets de taille égale et moyennées.
+     */
+    public ProgressTimelineDTO getTimeline(Long patientProfileId, Integer maxPoints, User currentUser) {
+        if (maxPoints != null && maxPoints < 2) {
+            throw new IllegalArgumentException("maxPoints doit être au moins 2");
+        }
+        assertCanReadTimeline(patientProfileId, currentUser);
+
+        List<ProgressPointDTO> points = loadTimeline(patientProfileId);
+        boolean downsampled = maxPoints != null && points.size() > maxPoints;
+        List<TimelinePoint> series = downsampled
+                ? downsample(points, maxPoints)
+                : points.stream().map(TimelinePoint::of).toList();
+
+        // MAPPING MANUEL
+        ProgressTimelineDTO dto = new ProgressTimelineDTO();
+        dto.setPatientId(patientProfileId);
+        dto.setTotalSessions(points.size());
+        dto.setDownsampled(downsampled);
+        dto.setSessionDateTimes(series.stream().map(TimelinePoint::sessionDateTime).toList());
+        dto.setProgressScores(series.stream().map(TimelinePoint::progressScore).toList());
+        dto.setSentimentScores(series.stream().map(TimelinePoint::sentimentScore).toList());
+        return dto;
+    }
+
+    /**
+     * Après le commit seulement : une lecture concurrente ne peut plus remettre en cache l'ancienne série.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onClinicalNoteSaved(ClinicalNoteSavedEvent event) {
+        synchronized (cache) {
+            invalidations++;
+            cache.remove(event.patientProfileId());
+        }
+    }
+
+    private List<ProgressPointDTO> loadTimeline(Long patientProfileId) {
+        long seen;
+        synchronized (cache) {
+            CachedTimeline cached = cache.get(patientProfileId);
+            if (cached != null && cached.loadedAt().plus(cacheTtl).isAfter(Instant.now())) {
+                return cached.points();
+            }
+            seen = invalidations;
+        }
+
+        // Requête hors verrou : deux lectures simultanées du même patient sont possibles mais sans effet
+        List<ProgressPointDTO> points = List.copyOf(appointmentRepository.findProgressTimelineByPatientId(patientProfileId));
+        synchronized (cache) {
+            // Une note enregistrée pendant la lecture : la série lue est peut-être déjà périmée
+            if (invalidations == seen) {
+                cache.put(patientProfileId, new CachedTimeline(points, Instant.now()));
+            }
+        }
+        log.debug("Chronologie du patient {} relue : {} séances notées", patientProfileId, points.size());
+        return points;
+    }
+
+    private void assertCanReadTimeline(Long patientProfileId, User currentUser) {
+        PatientProfile patient = patientProfileRepository.findById(patientProfileId)
+                .orElseThrow(() -> new ResourceNotFoundException("Profil patient non trouvé avec l'ID: " + patientProfileId));
+
+        if (currentUser.getRole() == Role.ROLE_ADMIN) {
+            return;
+        }
+        if (currentUser.getRole() == Role.ROLE_PATIENT && patient.getUser().getId().equals(currentUser.getId())) {
+            return;
+        }
+        if (currentUser.getRole() == Role.ROLE_THERAPIST
+                && appointmentRepository.existsByPatientAndTherapistUser(patientProfileId, currentUser.getId())) {
+            return;
+        }
+        throw new AccessDeniedException("Vous n'êtes pas autorisé à voir la progression de ce patient.");
+    }
+
+    /**
+     * Regroupe les points en maxPoints paquets consécutifs (tailles égales à une unité près).
+     * Chaque paquet donne la date moyenne et la moyenne des scores présents (null si aucun).
+     */
+    static List<TimelinePoint> downsample(List<ProgressPointDTO> points, int maxPoints) {
+        List<TimelinePoint> result = new ArrayList<>(maxPoints);
+        int size = points.size();
+        for (int bucket = 0; bucket < maxPoints; bucket++) {
+            int from = (int) ((long) bucket * size / maxPoints);
+            int to = (int) ((long) (bucket + 1) * size / maxPoints);
+            long epochSecondsSum = 0;
+            double progressSum = 0;
+            int progressCount = 0;
+            double sentimentSum = 0;
+            int sentimentCount = 0;
+            for (int i = from; i < to; i++) {
+                ProgressPointDTO point = points.get(i);
+                epochSecondsSum += point.getSessionDateTime().toEpochSecond(ZoneOffset.UTC);
+                if (point.getPatientProgressScore() != null) {
+                    progressSum += point.getPatientProgressScore();
+                    progressCount++;
+                }
+                if (point.getSentimentScore() != null) {
+                    sentimentSum += point.getSentimentScore();
+                    sentimentCount++;
+                }
+            }
+            result.add(new TimelinePoint(
+                    LocalDateTime.ofEpochSecond(epochSecondsSum / (to - from), 0, ZoneOffset.UTC),
+                    progressCount > 0 ? progressSum / progressCount : null,
+                    sentimentCount > 0 ? sentimentSum / sentimentCount : null));
+        }
+        return result;
+    }
+}
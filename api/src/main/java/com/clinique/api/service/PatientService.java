@@ -1,20 +1,32 @@
 package com.clinique.api.service;
 
+import com.clinique.api.dto.PatientChurnRiskDTO;
 import com.clinique.api.dto.PatientInfoDTO;
+import com.clinique.api.entity.AppointmentStatus;
 import com.clinique.api.entity.PatientProfile;
 import com.clinique.api.entity.TherapistProfile;
 import com.clinique.api.entity.User;
 import com.clinique.api.exception.ResourceNotFoundException;
 import com.clinique.api.repository.PatientProfileRepository;
 import com.clinique.api.repository.TherapistProfileRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(value = "clinique.service", histogram = true)
 @RequiredArgsConstructor
 public class PatientService {
 
@@ -22,6 +34,18 @@ public class PatientService {
     private final TherapistProfileRepository therapistProfileRepository;
     private final com.clinique.api.repository.AppointmentRepository appointmentRepository;
     private final MlService mlService;
+    private final JdbcTemplate jdbcTemplate;
+
+    // Mêmes features que getPatientChurnRisk (tout l'historique du patient), pour tous les patients du thérapeute
+    private static final String SELECT_CHURN_FEATURES = "SELECT a.patient_profile_id, count(*) AS total_visits, "
+            + "count(*) FILTER (WHERE a.status = ANY(?)) AS cancelled, "
+            + "CAST(max(a.session_date_time) AS date) AS last_session_day "
+            + "FROM appointments a "
+            + "WHERE a.patient_profile_id IN (SELECT patient_profile_id FROM appointments WHERE therapist_profile_id = ?) "
+            + "GROUP BY a.patient_profile_id";
+
+    private record PatientChurnFeatures(long patientId, MlService.ChurnFeatures features) {
+    }
 
     /**
      * Récupère tous les patients qui ont un RDV avec le thérapeute connecté.
@@ -58,7 +82,7 @@ public class PatientService {
 
         // 3. Calculate Stats
         int totalVisits = appointments.size();
-        long cancelledCount = appointments.stream().filter(a -> "CANCELLED_BY_PATIENT".equals(a.getStatus())).count();
+        long cancelledCount = appointments.stream().filter(a -> a.getStatus() != null && a.getStatus().isCancelledByPatient()).count();
         double cancellationRate = (double) cancelledCount / totalVisits;
 
         appointments.sort((a, b) -> a.getSessionDateTime().compareTo(b.getSessionDateTime()));
@@ -79,6 +103,57 @@ public class PatientService {
         return dto;
     }
 
+    /**
+     * Risque d'abandon de tous les patients du thérapeute connecté : features calculées en une requête
+     * groupée, puis un seul appel de prédiction par lot (au lieu d'un appel par patient).
+     */
+    @Transactional(readOnly = true)
+    public List<PatientChurnRiskDTO> getMyPatientsChurnRisks(User currentUser) {
+        TherapistProfile therapist = therapistProfileRepository.findByUserId(currentUser.getId())
+                .orElseThrow(() -> new ResourceNotFoundException("Profil thérapeute non trouvé pour l'utilisateur"));
+
+        String[] cancelledByPatient = Arrays.stream(AppointmentStatus.values())
+                .filter(AppointmentStatus::isCancelledByPatient)
+                .map(Enum::name)
+                .toArray(String[]::new);
+        LocalDate today = LocalDate.now();
+        List<PatientChurnFeatures> rows = jdbcTemplate.query(SELECT_CHURN_FEATURES,
+                ps -> {
+                    ps.setArray(1, ps.getConnection().createArrayOf("varchar", cancelledByPatient));
+                    ps.setLong(2, therapist.getId());
+                },
+                (rs, rowNum) -> {
+                    int totalVisits = rs.getInt("total_visits");
+                    long daysSinceLast = ChronoUnit.DAYS.between(rs.getDate("last_session_day").toLocalDate(), today);
+                    return new PatientChurnFeatures(rs.getLong("patient_profile_id"), new MlService.ChurnFeatures(
+                            (int) daysSinceLast, totalVisits, (double) rs.getLong("cancelled") / totalVisits));
+                });
+
+        List<Map<String, Object>> predictions = mlService.predictChurnBatch(
+                rows.stream().map(PatientChurnFeatures::features).toList());
+        Map<Long, PatientProfile> patients = new HashMap<>();
+        for (PatientProfile patient : patientProfileRepository.findAllById(
+                rows.stream().map(PatientChurnFeatures::patientId).toList())) {
+            patients.put(patient.getId(), patient);
+        }
+
+        List<PatientChurnRiskDTO> risks = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            // MAPPING MANUEL
+            PatientChurnRiskDTO dto = new PatientChurnRiskDTO();
+            dto.setPatient(mapToPatientInfoDTO(patients.get(rows.get(i).patientId())));
+            Map<String, Object> prediction = predictions.get(i);
+            if (prediction != null) {
+                dto.setChurnRisk(Boolean.TRUE.equals(prediction.get("is_churn_risk")));
+                dto.setChurnProbability(((Number) prediction.get("churn_probability")).doubleValue());
+            }
+            risks.add(dto);
+        }
+        risks.sort(Comparator.comparing(PatientChurnRiskDTO::getChurnProbability,
+                Comparator.nullsLast(Comparator.reverseOrder())));
+        return risks;
+    }
+
     // Notre propre mapper manuel simple
     private PatientInfoDTO mapToPatientInfoDTO(PatientProfile patient) {
         PatientInfoDTO dto = new PatientInfoDTO();
@@ -6,10 +6,12 @@ import com.clinique.api.entity.PatientProfile;
 import com.clinique.api.entity.Role;
 import com.clinique.api.entity.TherapistProfile;
 import com.clinique.api.entity.User;
+import com.clinique.api.event.TherapistProfileChangedEvent;
 import com.clinique.api.exception.ResourceNotFoundException;
 import com.clinique.api.repository.PatientProfileRepository;
 import com.clinique.api.repository.TherapistProfileRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -19,6 +21,7 @@ public class ProfileService {
 
     private final PatientProfileRepository patientProfileRepository;
     private final TherapistProfileRepository therapistProfileRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Fetches the profile for the currently logged-in user.
@@ -66,6 +69,7 @@ public class ProfileService {
             profile.setSpecialty(request.getSpecialty());
             profile.setCredentials(request.getCredentials());
             TherapistProfile updatedProfile = therapistProfileRepository.save(profile);
+            eventPublisher.publishEvent(new TherapistProfileChangedEvent(updatedProfile.getId()));
             return mapTherapistToProfileDTO(updatedProfile, currentUser);
         }
 
@@ -0,0 +1,80 @@
+package com.clinique.api.service;
+
+import com.clinique.api.dto.RecurrenceRule;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Développe une règle de récurrence en liste de dates de séances.
+ */
+public final class RecurrenceExpander {
+
+    /**
+     * Nombre maximal de séances générées, même si "until" est très lointain.
+     */
+    public static final int MAX_OCCURRENCES = 104;
+
+    private RecurrenceExpander() {
+    }
+
+    public static List<LocalDateTime> expand(LocalDateTime first, RecurrenceRule rule) {
+        if (rule.getCount() == null && rule.getUntil() == null) {
+            throw new IllegalArgumentException("La règle de récurrence doit définir 'count' ou 'until'");
+        }
+        int limit = rule.getCount() != null ? Math.min(rule.getCount(), MAX_OCCURRENCES) : MAX_OCCURRENCES;
+        LocalDate until = rule.getUntil();
+        int interval = Math.max(1, rule.getInterval());
+
+        List<LocalDateTime> sessions = new ArrayList<>();
+        switch (rule.getFrequency()) {
+            case DAILY -> {
+                for (int k = 0; sessions.size() < limit; k++) {
+                    LocalDateTime next = first.plusDays((long) k * interval);
+                    if (until != null && next.toLocalDate().isAfter(until)) {
+                        break;
+                    }
+                    sessions.add(next);
+                }
+            }
+            case MONTHLY -> {
+                for (int k = 0; sessions.size() < limit; k++) {
+                    LocalDateTime next = first.plusMonths((long) k * interval);
+                    if (until != null && next.toLocalDate().isAfter(until)) {
+                        break;
+                    }
+                    sessions.add(next);
+                }
+            }
+            case WEEKLY -> {
+                TreeSet<DayOfWeek> days = new TreeSet<>();
+                if (rule.getByDay() == null || rule.getByDay().isEmpty()) {
+                    days.add(first.getDayOfWeek());
+                } else {
+                    days.addAll(rule.getByDay());
+                }
+                LocalDateTime weekStart = first.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                weeks:
+                for (int k = 0; sessions.size() < limit; k++) {
+                    LocalDateTime week = weekStart.plusWeeks((long) k * interval);
+                    for (DayOfWeek day : days) {
+                        LocalDateTime next = week.plusDays(day.getValue() - 1L);
+                        if (next.isBefore(first)) {
+                            continue;
+                        }
+                        if ((until != null && next.toLocalDate().isAfter(until)) || sessions.size() >= limit) {
+                            break weeks;
+                        }
+                        sessions.add(next);
+                    }
+                }
+            }
+        }
+        return sessions;
+    }
+}
@@ -0,0 +1,176 @@
+package com.clinique.api.service;
+
+import com.clinique.api.dto.TherapistInfoDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Instantané immuable de l'annuaire des thérapeutes, avec ses index de recherche :
+ * spécialité normalisée -> positions, et mots des noms triés pour la recherche par préfixe.
+ * L'ETag est un hachage du contenu : deux instantanés identiques ont le même ETag,
+ * même après un redémarrage ou sur une autre instance.
+ */
+public final class TherapistDirectory {
+
+    private static final Pattern ACCENTS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final List<TherapistInfoDTO> entries;
+    private final String etag;
+    private final Map<String, BitSet> bySpecialty;
+    // Mots des noms triés, et pour chacun la position de l'entrée correspondante
+    private final String[] nameTokens;
+    private final int[] nameTokenEntries;
+
+    private TherapistDirectory(List<TherapistInfoDTO> entries, String etag, Map<String, BitSet> bySpecialty,
+                               String[] nameTokens, int[] nameTokenEntries) {
+        this.entries = entries;
+        this.etag = etag;
+        this.bySpecialty = bySpecialty;
+        this.nameTokens = nameTokens;
+        this.nameTokenEntries = nameTokenEntries;
+    }
+
+    /**
+     * Construit l'instantané et ses index ; l'ordre des entrées est conservé dans les résultats.
+     */
+    public static TherapistDirectory of(List<TherapistInfoDTO> source) {
+        List<TherapistInfoDTO> entries = List.copyOf(source);
+        Map<String, BitSet> bySpecialty = new HashMap<>();
+        List<Map.Entry<String, Integer>> tokens = new ArrayList<>();
+        MessageDigest digest = sha256();
+
+        for (int i = 0; i < entries.size(); i++) {
+            TherapistInfoDTO entry = entries.get(i);
+            String specialty = normalize(entry.getSpecialty());
+            if (!specialty.isEmpty()) {
+                bySpecialty.computeIfAbsent(specialty, key -> new BitSet()).set(i);
+            }
+            // Un même mot (ex: prénom composé répété) ne compte qu'une fois par entrée
+            Set<String> words = new LinkedHashSet<>(tokenize(entry.getFirstName()));
+            words.addAll(tokenize(entry.getLastName()));
+            for (String word : words) {
+                tokens.add(Map.entry(word, i));
+            }
+            digest.update((entry.getId() + "\u001f" + entry.getFirstName() + "\u001f" + entry.getLastName()
+                    + "\u001f" + entry.getSpecialty() + "\u001e").getBytes(StandardCharsets.UTF_8));
+        }
+
+        tokens.sort(Map.Entry.<String, Integer>comparingByKey().thenComparing(Map.Entry.comparingByValue()));
+        String[] nameTokens = new String[tokens.size()];
+        int[] nameTokenEntries = new int[tokens.size()];
+        for (int i = 0; i < tokens.size(); i++) {
+            nameTokens[i] = tokens.get(i).getKey();
+            nameTokenEntries[i] = tokens.get(i).getValue();
+        }
+
+        String etag = "\"" + HexFormat.of().formatHex(digest.digest(), 0, 16) + "\"";
+        return new TherapistDirectory(entries, etag, bySpecialty, nameTokens, nameTokenEntries);
+    }
+
+    public List<TherapistInfoDTO> getEntries() {
+        return entries;
+    }
+
+    /**
+     * ETag fort (entre guillemets) de l'annuaire complet. Il vaut aussi pour les recherches :
+     * le résultat d'une même URL ne change que si l'annuaire change.
+     */
+    public String getEtag() {
+        return etag;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Filtre l'annuaire sans le parcourir : spécialité exacte et/ou chaque mot de la requête
+     * comme préfixe d'un mot du prénom ou du nom. Casse et accents sont ignorés.
+     *
+     * @param specialty spécialité recherchée (null ou vide : toutes)
+     * @param query     mots du nom recherchés (null ou vide : tous)
+     */
+    public List<TherapistInfoDTO> search(String specialty, String query) {
+        BitSet matches = null;
+
+        String wantedSpecialty = normalize(specialty);
+        if (!wantedSpecialty.isEmpty()) {
+            matches = (BitSet) bySpecialty.getOrDefault(wantedSpecialty, new BitSet()).clone();
+        }
+        for (String prefix : tokenize(query)) {
+            BitSet byName = prefixMatches(prefix);
+            if (matches == null) {
+                matches = byName;
+            } else {
+                matches.and(byName);
+            }
+        }
+
+        if (matches == null) {
+            return entries;
+        }
+        List<TherapistInfoDTO> result = new ArrayList<>(matches.cardinality());
+        for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+            result.add(entries.get(i));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private BitSet prefixMatches(String prefix) {
+        BitSet result = new BitSet(entries.size());
+        int from = Arrays.binarySearch(nameTokens, prefix);
+        if (from < 0) {
+            from = -from - 1;
+        } else {
+            // Première occurrence du mot exact
+            while (from > 0 && nameTokens[from - 1].equals(prefix)) {
+                from--;
+            }
+        }
+        for (int i = from; i < nameTokens.length && nameTokens[i].startsWith(prefix); i++) {
+            result.set(nameTokenEntries[i]);
+        }
+        return result;
+    }
+
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String stripped = ACCENTS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("");
+        return WHITESPACE.matcher(stripped.toLowerCase(Locale.ROOT).trim()).replaceAll(" ");
+    }
+
+    static List<String> tokenize(String value) {
+        String normalized = normalize(value);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        return Arrays.stream(SEPARATORS.split(normalized)).filter(word -> !word.isEmpty()).toList();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+}
@@ -1,34 +1,90 @@
 package com.clinique.api.service;
 
 import com.clinique.api.dto.TherapistInfoDTO;
-import com.clinique.api.entity.TherapistProfile;
+import com.clinique.api.event.TherapistProfileChangedEvent;
 import com.clinique.api.repository.TherapistProfileRepository;
+import com.clinique.api.repository.TherapistReadRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import reactor.core.publisher.Flux;
 
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class TherapistService {
 
     private final TherapistProfileRepository therapistProfileRepository;
+    private final TherapistReadRepository therapistReadRepository;
+
+    // L'instantané n'est valide que pour la génération à laquelle il a été construit
+    private final AtomicLong generation = new AtomicLong();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private volatile Snapshot snapshot;
+
+    private record Snapshot(long generation, TherapistDirectory directory) {
+    }
 
-    @Transactional(readOnly = true)
     public List<TherapistInfoDTO> getAllTherapists() {
-        return therapistProfileRepository.findAll().stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+        return getDirectory().getEntries();
+    }
+
+    /**
+     * Annuaire en mémoire, reconstruit (une seule requête) au premier appel
+     * qui suit une modification de profil thérapeute.
+     */
+    public TherapistDirectory getDirectory() {
+        Snapshot current = snapshot;
+        if (current != null && current.generation() == generation.get()) {
+            return current.directory();
+        }
+        rebuildLock.lock();
+        try {
+            current = snapshot;
+            long wanted = generation.get();
+            if (current != null && current.generation() == wanted) {
+                return current.directory();
+            }
+            long start = System.nanoTime();
+            TherapistDirectory directory = TherapistDirectory.of(therapistProfileRepository.findDirectoryEntries());
+            // Une invalidation pendant la lecture laisse la génération avancer : le prochain appel relira
+            snapshot = new Snapshot(wanted, directory);
+            log.debug("Annuaire reconstruit : {} thérapeutes en {} ms, ETag {}",
+                    directory.size(), (System.nanoTime() - start) / 1_000_000, directory.getEtag());
+            return directory;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Invalidé après le commit de la modification, pour ne jamais relire une version non validée.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTherapistProfileChanged(TherapistProfileChangedEvent event) {
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Filet de sécurité pour les écritures faites hors de cette instance (autre nœud, scripts SQL) :
+     * l'ETag ne change que si le contenu relu diffère.
+     */
+    @Scheduled(fixedDelayString = "${application.directory.refresh-interval:PT5M}",
+            initialDelayString = "${application.directory.refresh-interval:PT5M}")
+    public void expireDirectory() {
+        generation.incrementAndGet();
     }
 
-    private TherapistInfoDTO mapToDTO(TherapistProfile profile) {
-        TherapistInfoDTO dto = new TherapistInfoDTO();
-        dto.setId(profile.getUser().getId()); // Use User ID for consistency with Auth
-        dto.setFirstName(profile.getFirstName());
-        dto.setLastName(profile.getLastName());
-        dto.setSpecialty(profile.getSpecialty());
-        return dto;
+    /**
+     * Annuaire complet envoyé en flux (R2DBC), sans charger la liste en mémoire.
+     */
+    public Flux<TherapistInfoDTO> streamAllTherapists() {
+        return therapistReadRepository.streamAll();
     }
 }
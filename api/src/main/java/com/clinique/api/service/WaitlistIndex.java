@@ -0,0 +1,98 @@
+package com.clinique.api.service;
+
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index mémoire des inscriptions en attente (status WAITING), par thérapeute.
+ * Chaque thérapeute a un ensemble trié par priorité décroissante puis ancienneté :
+ * le premier patient éligible est trouvé sans aucune requête en base.
+ */
+@Component
+public class WaitlistIndex {
+
+    private static final Comparator<Candidate> ORDER = Comparator
+            .comparingInt(Candidate::priority).reversed()
+            .thenComparing(Candidate::createdAt, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Candidate::entryId);
+
+    private final Map<Long, NavigableSet<Candidate>> byTherapist = new ConcurrentHashMap<>();
+    private final Map<Long, Candidate> byEntryId = new ConcurrentHashMap<>();
+
+    /**
+     * Vue compacte d'une inscription, suffisante pour le matching.
+     */
+    public record Candidate(Long entryId, Long therapistId, Long patientId, int priority,
+                            LocalDateTime createdAt, LocalDateTime earliest, LocalDateTime latest) {
+
+        boolean accepts(LocalDateTime slot) {
+            return (earliest == null || !slot.isBefore(earliest))
+                    && (latest == null || !slot.isAfter(latest));
+        }
+    }
+
+    public void add(Candidate candidate) {
+        NavigableSet<Candidate> queue = byTherapist.computeIfAbsent(candidate.therapistId(), id -> new TreeSet<>(ORDER));
+        synchronized (queue) {
+            Candidate previous = byEntryId.put(candidate.entryId(), candidate);
+            if (previous != null) {
+                queue.remove(previous);
+            }
+            queue.add(candidate);
+        }
+    }
+
+    public void remove(Long entryId) {
+        Candidate candidate = byEntryId.get(entryId);
+        if (candidate == null) {
+            return;
+        }
+        NavigableSet<Candidate> queue = byTherapist.get(candidate.therapistId());
+        synchronized (queue) {
+            if (byEntryId.remove(entryId, candidate)) {
+                queue.remove(candidate);
+            }
+        }
+    }
+
+    /**
+     * Retire et renvoie le candidat le plus prioritaire dont la plage accepte le créneau.
+     *
+     * @param excludedPatientIds patients à ignorer (ex: celui qui vient d'annuler ce créneau)
+     */
+    public Optional<Candidate> pollBestMatch(Long therapistId, LocalDateTime slot, Set<Long> excludedPatientIds) {
+        NavigableSet<Candidate> queue = byTherapist.get(therapistId);
+        if (queue == null) {
+            return Optional.empty();
+        }
+        synchronized (queue) {
+            for (Iterator<Candidate> it = queue.iterator(); it.hasNext(); ) {
+                Candidate candidate = it.next();
+                if (candidate.accepts(slot) && !excludedPatientIds.contains(candidate.patientId())) {
+                    it.remove();
+                    byEntryId.remove(candidate.entryId());
+                    return Optional.of(candidate);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    public int size() {
+        return byEntryId.size();
+    }
+
+    public void clear() {
+        byTherapist.clear();
+        byEntryId.clear();
+    }
+}
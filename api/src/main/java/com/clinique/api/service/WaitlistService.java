@@ -0,0 +1,321 @@
+package com.clinique.api.service;
+
+import com.clinique.api.dto.AppointmentDTO;
+import com.clinique.api.dto.CreateAppointmentRequest;
+import com.clinique.api.dto.JoinWaitlistRequest;
+import com.clinique.api.dto.WaitlistEntryDTO;
+import com.clinique.api.entity.*;
+import com.clinique.api.event.AppointmentCancelledEvent;
+import com.clinique.api.exception.ConflictException;
+import com.clinique.api.exception.ResourceNotFoundException;
+import com.clinique.api.repository.AppointmentRepository;
+import com.clinique.api.repository.PatientProfileRepository;
+import com.clinique.api.repository.TherapistProfileRepository;
+import com.clinique.api.repository.WaitlistEntryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Gère la liste d'attente et le "backfill" automatique des créneaux annulés.
+ *
+ * Dès que l'annulation d'un RDV est commitée, le créneau est proposé au patient
+ * le plus prioritaire de la liste d'attente du thérapeute (recherche dans WaitlistIndex,
+ * sans scan de table). Le patient a un délai (offer-ttl) pour accepter ; sinon
+ * la proposition expire et le créneau passe au suivant.
+ *
+ * L'index ne reflète que des changements commités : les ajouts et retraits sont appliqués
+ * après le commit, et un candidat retiré pour recevoir une proposition y est remis si la
+ * transaction est annulée.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WaitlistService {
+
+    private final WaitlistEntryRepository waitlistEntryRepository;
+    private final PatientProfileRepository patientProfileRepository;
+    private final TherapistProfileRepository therapistProfileRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final AppointmentService appointmentService;
+    private final WaitlistIndex waitlistIndex;
+
+    @Value("${application.waitlist.offer-ttl:PT2H}")
+    private Duration offerTtl;
+
+    /**
+     * Reconstruit l'index mémoire à partir des inscriptions WAITING au démarrage.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuildIndex() {
+        waitlistIndex.clear();
+        waitlistEntryRepository.findByStatus(WaitlistStatus.WAITING)
+                .forEach(entry -> waitlistIndex.add(toCandidate(entry)));
+        log.info("Liste d'attente : {} inscriptions indexées", waitlistIndex.size());
+    }
+
+    @Transactional
+    public WaitlistEntryDTO join(JoinWaitlistRequest request, User currentUser) {
+        TherapistProfile therapist = therapistProfileRepository.findById(request.getTherapistId())
+                .orElseThrow(() -> new ResourceNotFoundException("Profil thérapeute non trouvé: " + request.getTherapistId()));
+
+        PatientProfile patient;
+        int priority = 0;
+        if (currentUser.getRole() == Role.ROLE_PATIENT) {
+            patient = patientProfileRepository.findByUserId(currentUser.getId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Profil patient non trouvé pour l'utilisateur"));
+        } else {
+            if (currentUser.getRole() == Role.ROLE_THERAPIST && !therapist.getUser().getId().equals(currentUser.getId())) {
+                throw new AccessDeniedException("Vous ne pouvez gérer que votre propre liste d'attente.");
+            }
+            if (request.getPatientId() == null) {
+                throw new IllegalArgumentException("L'ID du patient est obligatoire");
+            }
+            patient = patientProfileRepository.findById(request.getPatientId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Profil patient non trouvé: " + request.getPatientId()));
+            if (request.getPriority() != null) {
+                priority = request.getPriority();
+            }
+        }
+
+        if (request.getEarliestDateTime() != null && request.getLatestDateTime() != null
+                && request.getLatestDateTime().isBefore(request.getEarliestDateTime())) {
+            throw new IllegalArgumentException("La plage horaire est invalide");
+        }
+
+        if (waitlistEntryRepository.existsActiveEntry(patient.getId(), therapist.getId())) {
+            throw new ConflictException("Ce patient est déjà sur la liste d'attente de ce thérapeute.");
+        }
+
+        WaitlistEntry entry = new WaitlistEntry();
+        entry.setPatient(patient);
+        entry.setTherapist(therapist);
+        entry.setPriority(priority);
+        entry.setEarliestDateTime(request.getEarliestDateTime());
+        entry.setLatestDateTime(request.getLatestDateTime());
+        entry.setStatus(WaitlistStatus.WAITING);
+        WaitlistEntry saved = waitlistEntryRepository.save(entry);
+
+        WaitlistIndex.Candidate candidate = toCandidate(saved);
+        afterCommit(() -> waitlistIndex.add(candidate));
+        return mapToDTO(saved);
+    }
+
+    @Transactional(readOnly = true)
+    public List<WaitlistEntryDTO> getMyEntries(User currentUser) {
+        PatientProfile patient = patientProfileRepository.findByUserId(currentUser.getId())
+                .orElseThrow(() -> new ResourceNotFoundException("Profil patient non trouvé pour l'utilisateur"));
+        return waitlistEntryRepository.findByPatientId(patient.getId()).stream()
+                .map(this::mapToDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional
+    public WaitlistEntryDTO withdraw(Long entryId, User currentUser) {
+        WaitlistEntry entry = findOwnedEntry(entryId, currentUser);
+        if (entry.getStatus() != WaitlistStatus.WAITING && entry.getStatus() != WaitlistStatus.OFFERED) {
+            throw new IllegalStateException("Cette inscription n'est plus active.");
+        }
+        LocalDateTime offeredSlot = entry.getStatus() == WaitlistStatus.OFFERED ? entry.getOfferedSessionDateTime() : null;
+
+        entry.setStatus(WaitlistStatus.WITHDRAWN);
+        WaitlistEntry saved = waitlistEntryRepository.save(entry);
+
+        if (offeredSlot != null) {
+            offerSlot(entry.getTherapist().getId(), offeredSlot, Set.of(entry.getPatient().getId()));
+        }
+        afterCommit(() -> waitlistIndex.remove(entryId));
+        return mapToDTO(saved);
+    }
+
+    /**
+     * Le patient accepte le créneau proposé : le RDV est créé (avec score de risque).
+     */
+    @Transactional
+    public AppointmentDTO acceptOffer(Long entryId, User currentUser) {
+        WaitlistEntry entry = findOwnedEntry(entryId, currentUser);
+        if (entry.getStatus() != WaitlistStatus.OFFERED) {
+            throw new IllegalStateException("Aucun créneau n'est proposé pour cette inscription.");
+        }
+        if (entry.getOfferExpiresAt().isBefore(LocalDateTime.now())) {
+            throw new IllegalStateException("La proposition a expiré.");
+        }
+        Long therapistId = entry.getTherapist().getId();
+        if (appointmentRepository.existsByTherapistAndSlot(therapistId, entry.getOfferedSessionDateTime(), AppointmentStatus.SCHEDULED)) {
+            throw new IllegalStateException("Le créneau n'est plus disponible.");
+        }
+
+        CreateAppointmentRequest request = new CreateAppointmentRequest();
+        request.setPatientId(entry.getPatient().getId());
+        request.setTherapistId(therapistId);
+        request.setSessionDateTime(entry.getOfferedSessionDateTime());
+        AppointmentDTO appointment = appointmentService.createAppointment(request);
+
+        entry.setStatus(WaitlistStatus.FULFILLED);
+        waitlistEntryRepository.save(entry);
+        return appointment;
+    }
+
+    /**
+     * Le patient refuse le créneau : il retourne en attente et le créneau passe au suivant.
+     */
+    @Transactional
+    public WaitlistEntryDTO declineOffer(Long entryId, User currentUser) {
+        WaitlistEntry entry = findOwnedEntry(entryId, currentUser);
+        if (entry.getStatus() != WaitlistStatus.OFFERED) {
+            throw new IllegalStateException("Aucun créneau n'est proposé pour cette inscription.");
+        }
+        LocalDateTime slot = entry.getOfferedSessionDateTime();
+
+        entry.setStatus(WaitlistStatus.WAITING);
+        entry.setOfferedSessionDateTime(null);
+        entry.setOfferExpiresAt(null);
+        WaitlistEntry saved = waitlistEntryRepository.save(entry);
+
+        offerSlot(entry.getTherapist().getId(), slot, Set.of(entry.getPatient().getId()));
+        WaitlistIndex.Candidate candidate = toCandidate(saved);
+        afterCommit(() -> waitlistIndex.add(candidate));
+        return mapToDTO(saved);
+    }
+
+    /**
+     * Backfill : appelé de façon asynchrone juste après le commit de l'annulation.
+     */
+    @Async
+    @TransactionalEventListener
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onAppointmentCancelled(AppointmentCancelledEvent event) {
+        offerSlot(event.therapistId(), event.sessionDateTime(), Set.of(event.patientId()));
+    }
+
+    /**
+     * Fait expirer les propositions sans réponse et repropose leurs créneaux.
+     */
+    @Scheduled(fixedDelayString = "${application.waitlist.sweep-interval:PT1M}")
+    @Transactional
+    public void expireOffers() {
+        for (WaitlistEntry entry : waitlistEntryRepository.findExpiredOffers(LocalDateTime.now())) {
+            LocalDateTime slot = entry.getOfferedSessionDateTime();
+            entry.setStatus(WaitlistStatus.EXPIRED);
+            waitlistEntryRepository.save(entry);
+            offerSlot(entry.getTherapist().getId(), slot, Set.of(entry.getPatient().getId()));
+        }
+    }
+
+    /**
+     * Propose un créneau libre au meilleur candidat de la liste d'attente.
+     * Le candidat est retiré de l'index tout de suite (une transaction concurrente ne peut pas
+     * lui proposer un autre créneau) et y est remis si la transaction est annulée.
+     */
+    private void offerSlot(Long therapistId, LocalDateTime slot, Set<Long> excludedPatientIds) {
+        LocalDateTime now = LocalDateTime.now();
+        if (slot == null || !slot.isAfter(now)) {
+            return;
+        }
+        Optional<WaitlistIndex.Candidate> match;
+        while ((match = waitlistIndex.pollBestMatch(therapistId, slot, excludedPatientIds)).isPresent()) {
+            WaitlistIndex.Candidate candidate = match.get();
+            Optional<WaitlistEntry> entry = waitlistEntryRepository.findById(candidate.entryId());
+            // L'index peut être en retard sur la base : on ignore les entrées qui ne sont plus en attente
+            if (entry.isEmpty() || entry.get().getStatus() != WaitlistStatus.WAITING) {
+                continue;
+            }
+            WaitlistEntry offered = entry.get();
+            restoreOnRollback(candidate);
+            offered.setStatus(WaitlistStatus.OFFERED);
+            offered.setOfferedSessionDateTime(slot);
+            offered.setOfferExpiresAt(min(now.plus(offerTtl), slot));
+            waitlistEntryRepository.save(offered);
+            log.info("Créneau du {} (thérapeute {}) proposé à l'inscription {} (patient {})",
+                    slot, therapistId, candidate.entryId(), candidate.patientId());
+            return;
+        }
+        log.debug("Aucun patient en attente éligible pour le créneau du {} (thérapeute {})", slot, therapistId);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void restoreOnRollback(WaitlistIndex.Candidate candidate) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    waitlistIndex.add(candidate);
+                }
+            }
+        });
+    }
+
+    private WaitlistEntry findOwnedEntry(Long entryId, User currentUser) {
+        WaitlistEntry entry = waitlistEntryRepository.findById(entryId)
+                .orElseThrow(() -> new ResourceNotFoundException("Inscription non trouvée avec l'ID: " + entryId));
+        if (currentUser.getRole() != Role.ROLE_ADMIN
+                && !entry.getPatient().getUser().getId().equals(currentUser.getId())) {
+            throw new AccessDeniedException("Accès refusé : cette inscription ne vous appartient pas.");
+        }
+        return entry;
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private WaitlistIndex.Candidate toCandidate(WaitlistEntry entry) {
+        return new WaitlistIndex.Candidate(
+                entry.getId(),
+                entry.getTherapist().getId(),
+                entry.getPatient().getId(),
+                entry.getPriority(),
+                entry.getCreatedAt(),
+                entry.getEarliestDateTime(),
+                entry.getLatestDateTime());
+    }
+
+    private WaitlistEntryDTO mapToDTO(WaitlistEntry entry) {
+        WaitlistEntryDTO dto = new WaitlistEntryDTO();
+        dto.setId(entry.getId());
+        dto.setPatientId(entry.getPatient().getId());
+        dto.setTherapistId(entry.getTherapist().getId());
+        dto.setPriority(entry.getPriority());
+        dto.setEarliestDateTime(entry.getEarliestDateTime());
+        dto.setLatestDateTime(entry.getLatestDateTime());
+        dto.setStatus(entry.getStatus());
+        dto.setCreatedAt(entry.getCreatedAt());
+        dto.setOfferedSessionDateTime(entry.getOfferedSessionDateTime());
+        dto.setOfferExpiresAt(entry.getOfferExpiresAt());
+        return dto;
+    }
+}
@@ -0,0 +1,115 @@
+package com.clinique.api.threads;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Détecte les threads virtuels "épinglés" à leur thread porteur (blocage dans un bloc
+ * synchronized ou un appel natif) grâce à l'événement JFR jdk.VirtualThreadPinned.
+ *
+ * Chaque épinglage au-delà du seuil est compté (jvm.threads.virtual.pinned, par source)
+ * et la première occurrence de chaque pile est journalisée en WARN avec ses frames.
+ */
+@Slf4j
+public class VirtualThreadPinningMonitor implements AutoCloseable {
+
+    static final String EVENT = "jdk.VirtualThreadPinned";
+    private static final String APPLICATION_PACKAGE = "com.clinique.";
+    private static final int LOGGED_FRAMES = 12;
+
+    private final MeterRegistry registry;
+    private final Duration threshold;
+    private final Set<List<String>> reportedStacks = ConcurrentHashMap.newKeySet();
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry registry, Duration threshold) {
+        this.registry = registry;
+        this.threshold = threshold;
+    }
+
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable(EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(EVENT, this::onEvent);
+        stream.startAsync();
+        log.info("Surveillance de l'épinglage des threads virtuels (seuil {} ms)", threshold.toMillis());
+    }
+
+    @Override
+    public void close() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void onEvent(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        List<String> frames = stackTrace == null ? List.of() : stackTrace.getFrames().stream()
+                .filter(RecordedFrame::isJavaFrame)
+                .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                        + ":" + frame.getLineNumber())
+                .toList();
+        onPinned(event.getDuration(), frames);
+    }
+
+    /**
+     * Comptabilise un épinglage ; frames va du sommet de la pile vers l'appelant initial.
+     */
+    void onPinned(Duration duration, List<String> frames) {
+        String source = source(frames);
+        Counter.builder("jvm.threads.virtual.pinned")
+                .description("Threads virtuels épinglés au-delà du seuil")
+                .tag("source", source)
+                .register(registry)
+                .increment();
+        Timer.builder("jvm.threads.virtual.pinned.duration")
+                .description("Durée des épinglages de threads virtuels")
+                .register(registry)
+                .record(duration);
+
+        if (reportedStacks.add(frames)) {
+            log.warn("Thread virtuel épinglé {} ms (source {}) :\n\tat {}", duration.toMillis(), source,
+                    String.join("\n\tat ", frames.subList(0, Math.min(LOGGED_FRAMES, frames.size()))));
+        } else {
+            log.debug("Thread virtuel épinglé {} ms (source {})", duration.toMillis(), source);
+        }
+    }
+
+    /**
+     * Méthode responsable : la première frame de l'application, sinon la première hors JDK.
+     */
+    static String source(List<String> frames) {
+        String library = null;
+        for (String frame : frames) {
+            if (frame.startsWith(APPLICATION_PACKAGE)) {
+                return method(frame);
+            }
+            if (library == null && !frame.startsWith("java.") && !frame.startsWith("jdk.")
+                    && !frame.startsWith("sun.")) {
+                library = method(frame);
+            }
+        }
+        return library != null ? library : "unknown";
+    }
+
+    // Sans numéro de ligne, pour borner la cardinalité du tag
+    private static String method(String frame) {
+        int colon = frame.lastIndexOf(':');
+        return colon < 0 ? frame : frame.substring(0, colon);
+    }
+
+    int reportedStacks() {
+        return reportedStacks.size();
+    }
+}
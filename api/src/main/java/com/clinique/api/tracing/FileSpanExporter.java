@@ -0,0 +1,69 @@
+package com.clinique.api.tracing;
+
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Exporte les spans dans un fichier local, une ligne par span, quand aucun collecteur
+ * OTLP n'est disponible. Format : traceId spanId parentSpanId nom durée(ms) statut.
+ */
+@Slf4j
+public class FileSpanExporter implements SpanExporter {
+
+    private final Path file;
+    // Pas de synchronized : il épinglerait un appelant virtuel pendant toute l'écriture du lot
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public FileSpanExporter(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public CompletableResultCode export(Collection<SpanData> spans) {
+        lock.lock();
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (SpanData span : spans) {
+                writer.write(span.getTraceId());
+                writer.write(' ');
+                writer.write(span.getSpanId());
+                writer.write(' ');
+                writer.write(span.getParentSpanId());
+                writer.write(' ');
+                writer.write(span.getName().replace(' ', '_'));
+                writer.write(' ');
+                writer.write(Double.toString((span.getEndEpochNanos() - span.getStartEpochNanos()) / 1_000_000.0));
+                writer.write(' ');
+                writer.write(span.getStatus().getStatusCode().name());
+                writer.newLine();
+            }
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException e) {
+            log.warn("Impossible d'écrire les spans dans {}: {}", file, e.getMessage());
+            return CompletableResultCode.ofFailure();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        return CompletableResultCode.ofSuccess();
+    }
+}
@@ -0,0 +1,58 @@
+package com.clinique.api.tracing;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Crée un span autour de chaque appel de repository Spring Data, pour distinguer dans une trace
+ * le temps passé en base du reste de la requête.
+ * Span seul, sans Observation : la durée des appels est déjà mesurée par la métrique
+ * spring.data.repository.invocations de Spring Boot, un second timer doublerait le coût par requête.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class RepositoryObservationAspect {
+
+    private static final String REPOSITORY_PACKAGE = "com.clinique.api.repository";
+
+    private final Tracer tracer;
+    private final Map<Class<?>, String> repositoryNames = new ConcurrentHashMap<>();
+
+    @Around("target(org.springframework.data.repository.Repository)")
+    public Object observe(ProceedingJoinPoint joinPoint) throws Throwable {
+        String repository = repositoryNames.computeIfAbsent(joinPoint.getThis().getClass(), this::resolveName);
+        String method = joinPoint.getSignature().getName();
+
+        Span span = tracer.nextSpan()
+                .name(repository + "#" + method)
+                .tag("repository", repository)
+                .tag("method", method)
+                .start();
+        try (Tracer.SpanInScope scope = tracer.withSpan(span)) {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            span.error(e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    private String resolveName(Class<?> proxyClass) {
+        for (Class<?> candidate : proxyClass.getInterfaces()) {
+            if (candidate.getPackageName().startsWith(REPOSITORY_PACKAGE)) {
+                return candidate.getSimpleName();
+            }
+        }
+        return proxyClass.getSimpleName();
+    }
+}
@@ -0,0 +1,152 @@
+package com.clinique.api.tracing;
+
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Échantillonnage "en queue" des traces lentes.
+ *
+ * Toutes les requêtes sont tracées, mais les spans terminés sont mis en attente
+ * jusqu'à la fin de la span racine locale (la requête HTTP entrante). La trace
+ * complète n'est alors transmise à l'exporteur que si :
+ * - la requête a duré plus que le seuil, ou
+ * - elle s'est terminée en erreur, ou
+ * - elle fait partie d'un petit échantillon de base (baselineRatio).
+ *
+ * Les traces rapides (l'immense majorité) ne coûtent donc ni sérialisation ni envoi réseau.
+ */
+public class SlowTraceSpanProcessor implements SpanProcessor {
+
+    private static final long STALE_BUFFER_NANOS = 60_000_000_000L;
+    private static final int SWEEP_EVERY = 1024;
+
+    private final SpanProcessor delegate;
+    private final long thresholdNanos;
+    private final double baselineRatio;
+    private final int maxBufferedTraces;
+
+    private final Map<String, Buffer> pending = new ConcurrentHashMap<>();
+    private final AtomicLong rootsSinceSweep = new AtomicLong();
+    private final AtomicLong droppedSpans = new AtomicLong();
+
+    public SlowTraceSpanProcessor(SpanProcessor delegate, long thresholdNanos, double baselineRatio, int maxBufferedTraces) {
+        this.delegate = delegate;
+        this.thresholdNanos = thresholdNanos;
+        this.baselineRatio = baselineRatio;
+        this.maxBufferedTraces = maxBufferedTraces;
+    }
+
+    @Override
+    public void onStart(Context parentContext, ReadWriteSpan span) {
+        if (delegate.isStartRequired()) {
+            delegate.onStart(parentContext, span);
+        }
+    }
+
+    @Override
+    public boolean isStartRequired() {
+        return delegate.isStartRequired();
+    }
+
+    @Override
+    public void onEnd(ReadableSpan span) {
+        SpanContext parent = span.getParentSpanContext();
+        String traceId = span.getSpanContext().getTraceId();
+        boolean localRoot = !parent.isValid() || parent.isRemote();
+
+        if (!localRoot) {
+            Buffer buffer = pending.get(traceId);
+            if (buffer == null) {
+                if (pending.size() >= maxBufferedTraces) {
+                    droppedSpans.incrementAndGet();
+                    return;
+                }
+                buffer = pending.computeIfAbsent(traceId, id -> new Buffer());
+            }
+            buffer.add(span);
+            return;
+        }
+
+        Buffer buffer = pending.remove(traceId);
+        if (shouldExport(span)) {
+            if (buffer != null) {
+                buffer.forEach(delegate::onEnd);
+            }
+            delegate.onEnd(span);
+        }
+        if (rootsSinceSweep.incrementAndGet() % SWEEP_EVERY == 0) {
+            evictStaleBuffers();
+        }
+    }
+
+    @Override
+    public boolean isEndRequired() {
+        return true;
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        pending.clear();
+        return delegate.shutdown();
+    }
+
+    @Override
+    public CompletableResultCode forceFlush() {
+        return delegate.forceFlush();
+    }
+
+    /**
+     * Nombre de spans ignorés faute de place dans le tampon.
+     */
+    public long getDroppedSpans() {
+        return droppedSpans.get();
+    }
+
+    int getPendingTraceCount() {
+        return pending.size();
+    }
+
+    private boolean shouldExport(ReadableSpan root) {
+        if (root.getLatencyNanos() >= thresholdNanos) {
+            return true;
+        }
+        if (root.toSpanData().getStatus().getStatusCode() == StatusCode.ERROR) {
+            return true;
+        }
+        return baselineRatio > 0 && ThreadLocalRandom.current().nextDouble() < baselineRatio;
+    }
+
+    /**
+     * Les spans dont la racine ne se termine jamais localement (ex: traitements @Async
+     * qui finissent après la requête) ne doivent pas rester indéfiniment en mémoire.
+     */
+    private void evictStaleBuffers() {
+        long now = System.nanoTime();
+        pending.values().removeIf(buffer -> now - buffer.createdAtNanos > STALE_BUFFER_NANOS);
+    }
+
+    private static final class Buffer {
+        private final long createdAtNanos = System.nanoTime();
+        private final List<ReadableSpan> spans = new ArrayList<>(8);
+
+        synchronized void add(ReadableSpan span) {
+            spans.add(span);
+        }
+
+        synchronized void forEach(java.util.function.Consumer<ReadableSpan> action) {
+            spans.forEach(action);
+        }
+    }
+}
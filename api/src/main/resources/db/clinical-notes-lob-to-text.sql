@@ -0,0 +1,25 @@
+-- Conversion unique des notes écrites quand summary / private_notes étaient mappés en @Lob :
+-- la colonne TEXT contenait l'OID d'un large object au lieu du texte.
+-- Idempotent : seules les valeurs numériques qui désignent un large object existant sont converties.
+BEGIN;
+
+CREATE TEMP TABLE note_lobs ON COMMIT DROP AS
+SELECT m.oid AS lob_oid
+FROM pg_largeobject_metadata m
+WHERE m.oid::text IN (
+    SELECT summary FROM clinical_notes WHERE summary ~ '^[0-9]+$'
+    UNION
+    SELECT private_notes FROM clinical_notes WHERE private_notes ~ '^[0-9]+$'
+);
+
+UPDATE clinical_notes
+SET summary = convert_from(lo_get(summary::oid), 'UTF8')
+WHERE summary ~ '^[0-9]+$' AND summary::oid IN (SELECT lob_oid FROM note_lobs);
+
+UPDATE clinical_notes
+SET private_notes = convert_from(lo_get(private_notes::oid), 'UTF8')
+WHERE private_notes ~ '^[0-9]+$' AND private_notes::oid IN (SELECT lob_oid FROM note_lobs);
+
+SELECT lo_unlink(lob_oid) FROM note_lobs;
+
+COMMIT;
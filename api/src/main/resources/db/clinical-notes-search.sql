@@ -0,0 +1,43 @@
+-- Recherche plein texte dans les notes cliniques (résumé de séance).
+-- Exécuté au démarrage par NoteSearchSchemaInitializer, ou à la main avant un déploiement sur une grosse base
+-- (l'ajout de la colonne réécrit clinical_notes). Idempotent.
+
+-- Configuration française insensible aux accents : "anxiete" trouve "anxiété"
+CREATE EXTENSION IF NOT EXISTS unaccent;
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_ts_config WHERE cfgname = 'clinique_fr') THEN
+        CREATE TEXT SEARCH CONFIGURATION clinique_fr (COPY = french);
+        ALTER TEXT SEARCH CONFIGURATION clinique_fr
+            ALTER MAPPING FOR hword, hword_part, word WITH unaccent, french_stem;
+    END IF;
+END
+$$;
+
+-- therapist_profile_id recopie appointments.therapist_profile_id (renseigné par ClinicalNoteService) :
+-- l'index composite filtre par thérapeute et par mots en un seul parcours, sans jointure.
+-- search_vector est calculée par PostgreSQL à chaque écriture, y compris pour les notes insérées par COPY.
+-- Statistiques recalculées aussitôt, sinon le planificateur sous-estime les correspondances.
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_name = 'clinical_notes' AND column_name = 'search_vector') THEN
+        ALTER TABLE clinical_notes ADD COLUMN IF NOT EXISTS therapist_profile_id bigint;
+        UPDATE clinical_notes n
+        SET therapist_profile_id = a.therapist_profile_id
+        FROM appointments a
+        WHERE a.id = n.appointment_id AND n.therapist_profile_id IS NULL;
+
+        ALTER TABLE clinical_notes
+            ADD COLUMN search_vector tsvector
+            GENERATED ALWAYS AS (to_tsvector('clinique_fr'::regconfig, coalesce(summary, ''))) STORED;
+        ANALYZE clinical_notes;
+    END IF;
+END
+$$;
+
+-- btree_gin : permet une colonne bigint dans un index GIN
+CREATE EXTENSION IF NOT EXISTS btree_gin;
+CREATE INDEX IF NOT EXISTS idx_clinical_notes_therapist_search
+    ON clinical_notes USING gin (therapist_profile_id, search_vector);
@@ -0,0 +1,78 @@
+package com.clinique.api.analytics;
+
+import com.clinique.api.dto.AnalyticsGroupBy;
+import com.clinique.api.dto.AnalyticsReportDTO;
+import com.clinique.api.exception.ConflictException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour les rapports d'activité.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AnalyticsService - Tests des rapports d'activité")
+class AnalyticsServiceTest {
+
+    private static final LocalDate FROM = LocalDate.of(2025, 1, 1);
+
+    @Mock
+    private AppointmentStatsRepository statsRepository;
+
+    @Mock
+    private AnalyticsBackfillJob backfillJob;
+
+    @Mock
+    private AppointmentColumnStore columnStore;
+
+    private AnalyticsService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new AnalyticsService(statsRepository, backfillJob, columnStore, Period.ofYears(1));
+    }
+
+    @Test
+    @DisplayName("Doit lire le rapport dans les agrégats, spécialité vide ignorée")
+    void shouldReadReportFromRollups() {
+        when(statsRepository.report(FROM, FROM.plusMonths(6), AnalyticsGroupBy.MONTH, null, null)).thenReturn(List.of());
+
+        AnalyticsReportDTO report = service.getReport(FROM, FROM.plusMonths(6), AnalyticsGroupBy.MONTH, "  ", null);
+
+        assertNull(report.getSpecialty());
+        assertEquals(AnalyticsGroupBy.MONTH, report.getGroupBy());
+        assertTrue(report.getRows().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Doit refuser une période vide ou trop longue")
+    void shouldRejectInvalidRange() {
+        assertThrows(IllegalArgumentException.class,
+                () -> service.getReport(FROM, FROM, AnalyticsGroupBy.TOTAL, null, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.getReport(FROM, FROM.plusYears(1).plusDays(1), AnalyticsGroupBy.TOTAL, null, null));
+        verifyNoInteractions(statsRepository);
+    }
+
+    @Test
+    @DisplayName("Doit refuser un rattrapage si un autre est en cours")
+    void shouldRejectConcurrentBackfill() {
+        when(backfillJob.tryStart()).thenReturn(true, false);
+
+        service.startBackfill(FROM, FROM.plusMonths(1));
+
+        assertThrows(ConflictException.class, () -> service.startBackfill(FROM, FROM.plusMonths(1)));
+        verify(backfillJob, times(1)).run(any(), any());
+    }
+}
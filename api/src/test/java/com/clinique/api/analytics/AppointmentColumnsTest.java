@@ -0,0 +1,144 @@
+package com.clinique.api.analytics;
+
+import com.clinique.api.dto.AnalyticsGroupBy;
+import com.clinique.api.dto.AnalyticsRowDTO;
+import com.clinique.api.entity.AppointmentStatus;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour l'instantané en colonnes des rendez-vous.
+ */
+@DisplayName("AppointmentColumns - Tests de l'instantané en colonnes")
+class AppointmentColumnsTest {
+
+    private static final LocalDate JAN = LocalDate.of(2025, 1, 1);
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+    private static final Map<Long, String> SPECIALTIES = Map.of(1L, "Psychologue", 2L, "Kinésithérapie");
+
+    private static final float NONE = Float.NaN;
+
+    private AppointmentColumns columns;
+
+    private static int minute(LocalDateTime sessionDateTime) {
+        return AppointmentColumns.minuteOf(sessionDateTime);
+    }
+
+    @BeforeEach
+    void setUp() {
+        // Lignes volontairement dans le désordre : build() les trie par date de séance
+        columns = AppointmentColumns.builder(2)
+                .add(minute(JAN.plusMonths(1).atTime(11, 0)), 1L, 11L, AppointmentStatus.SCHEDULED, NONE, NONE, NONE)
+                .add(minute(JAN.atTime(23, 59)), 1L, 11L, AppointmentStatus.CANCELLED_BY_PATIENT, 0.8f, NONE, NONE)
+                .add(minute(JAN.atTime(9, 0)), 2L, 10L, AppointmentStatus.COMPLETED, 0.2f, 6, 0.5f)
+                .add(minute(JAN.plusMonths(1).atTime(10, 0)), 3L, 12L, AppointmentStatus.CANCELLED_BY_THERAPIST, 0.5f, NONE, NONE)
+                .add(minute(JAN.plusDays(1).atTime(10, 0)), 1L, 10L, AppointmentStatus.COMPLETED, NONE, 8, -0.5f)
+                .build(SPECIALTIES, Instant.EPOCH);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        POOL.shutdown();
+    }
+
+    private List<AnalyticsRowDTO> aggregate(LocalDate from, LocalDate to, AnalyticsGroupBy groupBy,
+                                            String specialty, Long therapistId, Long patientId) {
+        return columns.aggregate(from, to, groupBy, specialty, therapistId, patientId, POOL);
+    }
+
+    @Test
+    @DisplayName("Doit compter les statuts et moyenner les scores présents sur toute la période")
+    void shouldAggregateTotal() {
+        AnalyticsRowDTO total = aggregate(JAN, JAN.plusYears(1), AnalyticsGroupBy.TOTAL, null, null, null).get(0);
+
+        assertEquals(5, total.getBooked());
+        assertEquals(2, total.getCompleted());
+        assertEquals(1, total.getCancelledByPatient());
+        assertEquals(1, total.getCancelledByTherapist());
+        assertEquals(0.5, total.getAverageRiskScore(), 1e-6);
+        assertEquals(7.0, total.getAverageProgressScore(), 1e-6);
+        assertEquals(0.0, total.getAverageSentimentScore(), 1e-6);
+    }
+
+    @Test
+    @DisplayName("Doit borner la période à [from, to[ sur la date de séance")
+    void shouldRespectRangeBounds() {
+        assertEquals(2, aggregate(JAN, JAN.plusDays(1), AnalyticsGroupBy.TOTAL, null, null, null).get(0).getBooked());
+        assertEquals(1, aggregate(JAN.plusDays(1), JAN.plusMonths(1), AnalyticsGroupBy.TOTAL, null, null, null).get(0).getBooked());
+        AnalyticsRowDTO empty = aggregate(JAN.minusYears(1), JAN, AnalyticsGroupBy.TOTAL, null, null, null).get(0);
+        assertEquals(0, empty.getBooked());
+        assertNull(empty.getAverageRiskScore());
+    }
+
+    @Test
+    @DisplayName("Doit regrouper par jour et par mois en omettant les périodes sans RDV")
+    void shouldGroupByPeriod() {
+        List<AnalyticsRowDTO> days = aggregate(JAN, JAN.plusMonths(2), AnalyticsGroupBy.DAY, null, null, null);
+        assertEquals(List.of(JAN, JAN.plusDays(1), JAN.plusMonths(1)), days.stream().map(AnalyticsRowDTO::getPeriod).toList());
+        assertEquals(List.of(2L, 1L, 2L), days.stream().map(AnalyticsRowDTO::getBooked).toList());
+
+        List<AnalyticsRowDTO> months = aggregate(JAN.plusDays(1), JAN.plusMonths(2), AnalyticsGroupBy.MONTH, null, null, null);
+        assertEquals(List.of(JAN, JAN.plusMonths(1)), months.stream().map(AnalyticsRowDTO::getPeriod).toList());
+        assertEquals(List.of(1L, 2L), months.stream().map(AnalyticsRowDTO::getBooked).toList());
+    }
+
+    @Test
+    @DisplayName("Doit regrouper par spécialité et par thérapeute, triés comme le rapport SQL")
+    void shouldGroupBySpecialtyAndTherapist() {
+        List<AnalyticsRowDTO> specialties = aggregate(JAN, JAN.plusYears(1), AnalyticsGroupBy.SPECIALTY, null, null, null);
+        assertEquals(Arrays.asList(null, "Kinésithérapie", "Psychologue"),
+                specialties.stream().map(AnalyticsRowDTO::getSpecialty).toList());
+        assertEquals(List.of(1L, 1L, 3L), specialties.stream().map(AnalyticsRowDTO::getBooked).toList());
+
+        List<AnalyticsRowDTO> therapists = aggregate(JAN, JAN.plusYears(1), AnalyticsGroupBy.THERAPIST, null, null, null);
+        assertEquals(List.of(1L, 2L, 3L), therapists.stream().map(AnalyticsRowDTO::getTherapistId).toList());
+    }
+
+    @Test
+    @DisplayName("Doit appliquer les filtres spécialité, thérapeute et patient")
+    void shouldApplyFilters() {
+        assertEquals(3, aggregate(JAN, JAN.plusYears(1), AnalyticsGroupBy.TOTAL, "Psychologue", null, null).get(0).getBooked());
+        assertEquals(1, aggregate(JAN, JAN.plusYears(1), AnalyticsGroupBy.TOTAL, null, 2L, null).get(0).getBooked());
+        assertEquals(2, aggregate(JAN, JAN.plusYears(1), AnalyticsGroupBy.TOTAL, null, null, 10L).get(0).getBooked());
+        assertEquals(1, aggregate(JAN, JAN.plusYears(1), AnalyticsGroupBy.TOTAL, "Psychologue", null, 10L).get(0).getBooked());
+
+        assertEquals(0, aggregate(JAN, JAN.plusYears(1), AnalyticsGroupBy.TOTAL, "Dentiste", null, null).get(0).getBooked());
+        assertTrue(aggregate(JAN, JAN.plusYears(1), AnalyticsGroupBy.DAY, null, 99L, null).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Doit donner le même résultat en parallèle qu'un parcours séquentiel")
+    void shouldMatchSequentialScanOnLargeSnapshot() {
+        AppointmentColumns.Builder builder = AppointmentColumns.builder(0);
+        long expectedCompleted = 0;
+        LocalDateTime time = JAN.atStartOfDay();
+        for (int i = 0; i < 100_000; i++) {
+            AppointmentStatus status = AppointmentStatus.values()[i % 4];
+            expectedCompleted += status == AppointmentStatus.COMPLETED ? 1 : 0;
+            builder.add(minute(time.plusMinutes(i * 5L)), 1 + i % 7, i % 1000, status, NONE, i % 11, NONE);
+        }
+        columns = builder.build(SPECIALTIES, Instant.EPOCH);
+
+        AnalyticsRowDTO total = aggregate(JAN, JAN.plusYears(1), AnalyticsGroupBy.TOTAL, null, null, null).get(0);
+        long monthly = aggregate(JAN, JAN.plusYears(1), AnalyticsGroupBy.MONTH, null, null, null).stream()
+                .mapToLong(AnalyticsRowDTO::getBooked).sum();
+
+        assertEquals(100_000, columns.size());
+        assertEquals(100_000, total.getBooked());
+        assertEquals(100_000, monthly);
+        assertEquals(expectedCompleted, total.getCompleted());
+        assertNull(total.getAverageRiskScore());
+    }
+}
@@ -0,0 +1,143 @@
+package com.clinique.api.analytics;
+
+import com.clinique.api.event.AppointmentsBookedEvent;
+import com.clinique.api.event.TherapistProfileChangedEvent;
+import com.clinique.api.repository.AppointmentRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour la mise à jour des agrégats journaliers.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AppointmentStatsUpdater - Tests des agrégats journaliers")
+class AppointmentStatsUpdaterTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 10);
+
+    @Mock
+    private AppointmentStatsRepository statsRepository;
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @InjectMocks
+    private AppointmentStatsUpdater updater;
+
+    private static DailyStats stats(long booked, long completed, double progressSum, long progressCount) {
+        return new DailyStats(booked, completed, 0, 0, 0, 0, progressSum, progressCount, 0, 0);
+    }
+
+    private static TherapistDayStats row(LocalDate day, long therapistId, String specialty, DailyStats stats) {
+        return new TherapistDayStats(new TherapistDay(day, therapistId), specialty, stats);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<SpecialtyDay, DailyStats> capturedDeltas() {
+        ArgumentCaptor<Map<SpecialtyDay, DailyStats>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(statsRepository).addToSpecialties(captor.capture());
+        return captor.getValue();
+    }
+
+    @Test
+    @DisplayName("Doit enregistrer la ligne recalculée et reporter l'écart sur la spécialité")
+    void shouldSaveChangedRowAndApplyDelta() {
+        TherapistDay key = new TherapistDay(DAY, 1L);
+        when(statsRepository.find(anyCollection())).thenReturn(List.of(row(DAY, 1L, "Psychologue", stats(2, 1, 5, 1))));
+        when(statsRepository.compute(anyCollection())).thenReturn(List.of(row(DAY, 1L, "Psychologue", stats(3, 2, 12, 2))));
+
+        int changed = updater.refresh(Set.of(key));
+
+        assertEquals(1, changed);
+        verify(statsRepository).lockTherapists(List.of(1L));
+        verify(statsRepository).saveAll(List.of(row(DAY, 1L, "Psychologue", stats(3, 2, 12, 2))));
+        assertEquals(Map.of(new SpecialtyDay(DAY, "Psychologue"), stats(1, 1, 7, 1)), capturedDeltas());
+    }
+
+    @Test
+    @DisplayName("Ne doit rien écrire quand l'agrégat n'a pas changé")
+    void shouldSkipUnchangedRows() {
+        TherapistDayStats current = row(DAY, 1L, "Psychologue", stats(2, 1, 5, 1));
+        when(statsRepository.find(anyCollection())).thenReturn(List.of(current));
+        when(statsRepository.compute(anyCollection())).thenReturn(List.of(current));
+
+        int changed = updater.refresh(Set.of(new TherapistDay(DAY, 1L)));
+
+        assertEquals(0, changed);
+        verify(statsRepository).saveAll(List.of());
+        assertTrue(capturedDeltas().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Doit créer la ligne d'un nouveau jour et verrouiller les thérapeutes dans l'ordre")
+    void shouldCreateNewRowsAndLockInOrder() {
+        when(statsRepository.find(anyCollection())).thenReturn(List.of());
+        when(statsRepository.compute(anyCollection())).thenReturn(List.of(
+                row(DAY, 7L, "", stats(1, 0, 0, 0)),
+                row(DAY, 3L, "Psychologue", stats(1, 0, 0, 0))));
+
+        updater.refresh(Set.of(new TherapistDay(DAY, 7L), new TherapistDay(DAY, 3L)));
+
+        verify(statsRepository).lockTherapists(List.of(3L, 7L));
+        assertEquals(Map.of(
+                new SpecialtyDay(DAY, ""), stats(1, 0, 0, 0),
+                new SpecialtyDay(DAY, "Psychologue"), stats(1, 0, 0, 0)), capturedDeltas());
+    }
+
+    @Test
+    @DisplayName("Doit recalculer les jours touchés par une série de rendez-vous")
+    void shouldRefreshDaysOfBookedSeries() {
+        when(statsRepository.find(anyCollection())).thenReturn(List.of());
+        when(statsRepository.compute(anyCollection())).thenReturn(List.of());
+
+        updater.onAppointmentsBooked(new AppointmentsBookedEvent(4L, List.of(
+                DAY.atTime(9, 0), DAY.atTime(15, 0), DAY.plusWeeks(1).atTime(9, 0))));
+
+        verify(appointmentRepository).flush();
+        verify(statsRepository).compute(new TreeSet<>(Set.of(
+                new TherapistDay(DAY, 4L), new TherapistDay(DAY.plusWeeks(1), 4L))));
+    }
+
+    @Test
+    @DisplayName("Doit déplacer les agrégats d'un thérapeute qui change de spécialité")
+    void shouldMoveRowsToNewSpecialty() {
+        when(statsRepository.findSpecialty(1L)).thenReturn("Kinésithérapie");
+        when(statsRepository.findWithOtherSpecialty(1L, "Kinésithérapie")).thenReturn(List.of(
+                row(DAY, 1L, "Psychologue", stats(2, 1, 5, 1))));
+
+        updater.onTherapistProfileChanged(new TherapistProfileChangedEvent(1L));
+
+        verify(statsRepository).updateSpecialty(1L, "Kinésithérapie");
+        assertEquals(Map.of(
+                new SpecialtyDay(DAY, "Psychologue"), stats(2, 1, 5, 1).negate(),
+                new SpecialtyDay(DAY, "Kinésithérapie"), stats(2, 1, 5, 1)), capturedDeltas());
+    }
+
+    @Test
+    @DisplayName("Ne doit rien déplacer si la spécialité est inchangée")
+    void shouldNotMoveWhenSpecialtyUnchanged() {
+        when(statsRepository.findSpecialty(1L)).thenReturn("Psychologue");
+        when(statsRepository.findWithOtherSpecialty(1L, "Psychologue")).thenReturn(List.of());
+
+        updater.onTherapistProfileChanged(new TherapistProfileChangedEvent(1L));
+
+        verify(statsRepository, never()).updateSpecialty(any(), any());
+        verify(statsRepository, never()).addToSpecialties(any());
+    }
+}
@@ -0,0 +1,102 @@
+package com.clinique.api.analytics;
+
+import com.clinique.api.entity.AppointmentStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour le résumé des venues et la répartition en cohortes.
+ */
+@DisplayName("PatientVisitSummaries - Tests de la rétention par cohorte")
+class PatientVisitSummariesTest {
+
+    private static final LocalDate JAN = LocalDate.of(2025, 1, 6);
+    private static final LocalDate AS_OF = JAN.plusWeeks(10);
+    private static final Map<Long, String> SPECIALTIES = Map.of(1L, "Psychologue", 2L, "Kinésithérapie");
+
+    private static int day(LocalDate date) {
+        return (int) date.toEpochDay();
+    }
+
+    @Test
+    @DisplayName("Ne doit compter ni les annulations du patient ni les RDV à venir comme des venues")
+    void shouldIgnorePatientCancellationsAndFutureSessions() {
+        PatientVisitSummaries summaries = PatientVisitSummaries.builder(AS_OF)
+                // Patient 1 : première venue en semaine 1 (l'annulation de la semaine 0 ne compte pas), dernière en semaine 3
+                .add(1L, day(JAN), AppointmentStatus.CANCELLED_BY_PATIENT, 2L)
+                .add(1L, day(JAN.plusWeeks(1)), AppointmentStatus.COMPLETED, 1L)
+                .add(1L, day(JAN.plusWeeks(3)), AppointmentStatus.CANCELLED_BY_THERAPIST, 1L)
+                .add(1L, day(JAN.plusWeeks(5)), AppointmentStatus.CANCELLED_BY_PATIENT, 1L)
+                .add(1L, day(AS_OF), AppointmentStatus.SCHEDULED, 1L)
+                // Patient 2 : n'est jamais venu
+                .add(2L, day(JAN), AppointmentStatus.CANCELLED_BY_PATIENT, 1L)
+                .build(SPECIALTIES);
+
+        assertEquals(1, summaries.size());
+        PatientVisitSummaries.CohortMatrix matrix = summaries.bucket(JAN, JAN.plusMonths(1), 4);
+        int psychologue = 0;
+        assertEquals(1, matrix.specialties());
+        assertEquals("Psychologue", matrix.specialty(psychologue));
+        assertEquals(1, matrix.patients(psychologue, 0));
+        assertEquals(1, matrix.retained(psychologue, 0, 2));
+        assertEquals(0, matrix.retained(psychologue, 0, 3));
+    }
+
+    @Test
+    @DisplayName("Doit répartir par spécialité et mois d'entrée, semaines non écoulées exclues")
+    void shouldBucketByCohortAndCensorRecentWeeks() {
+        PatientVisitSummaries summaries = PatientVisitSummaries.builder(AS_OF)
+                .add(1L, day(JAN), AppointmentStatus.COMPLETED, 1L)
+                .add(1L, day(JAN.plusWeeks(6)), AppointmentStatus.COMPLETED, 1L)
+                .add(2L, day(JAN.plusDays(1)), AppointmentStatus.COMPLETED, 1L)
+                .add(3L, day(JAN.plusDays(2)), AppointmentStatus.COMPLETED, 2L)
+                .add(4L, day(AS_OF.minusWeeks(2)), AppointmentStatus.COMPLETED, 1L)
+                .add(4L, day(AS_OF.minusDays(1)), AppointmentStatus.COMPLETED, 1L)
+                .build(SPECIALTIES);
+
+        PatientVisitSummaries.CohortMatrix matrix = summaries.bucket(JAN.withDayOfMonth(1), AS_OF, 8);
+        int kine = 0;
+        int psychologue = 1;
+
+        assertEquals(3, matrix.cohorts());
+        assertEquals(JAN.withDayOfMonth(1).plusMonths(2), matrix.cohortMonth(2));
+        assertEquals(2, matrix.patients(psychologue, 0));
+        assertEquals(1, matrix.patients(kine, 0));
+        assertEquals(2, matrix.observed(psychologue, 0, 6));
+        assertEquals(1, matrix.retained(psychologue, 0, 6));
+        assertEquals(0, matrix.retained(psychologue, 0, 7));
+
+        // Patient 4 (entré en mars) : seules les semaines 0 et 1 sont écoulées
+        int march = 2;
+        assertEquals(1, matrix.observed(psychologue, march, 1));
+        assertEquals(1, matrix.retained(psychologue, march, 1));
+        assertEquals(0, matrix.observed(psychologue, march, 2));
+    }
+
+    @Test
+    @DisplayName("Doit ignorer les patients entrés hors de la période")
+    void shouldSkipPatientsOutsideRange() {
+        PatientVisitSummaries summaries = PatientVisitSummaries.builder(AS_OF)
+                .add(1L, day(JAN.minusMonths(1)), AppointmentStatus.COMPLETED, 1L)
+                .add(1L, day(JAN), AppointmentStatus.COMPLETED, 1L)
+                .build(SPECIALTIES);
+
+        PatientVisitSummaries.CohortMatrix matrix = summaries.bucket(JAN, AS_OF, 4);
+
+        assertEquals(0, matrix.patients(0, 0));
+    }
+
+    @Test
+    @DisplayName("Doit refuser des RDV qui ne sont pas groupés par patient")
+    void shouldRejectUngroupedPatients() {
+        PatientVisitSummaries.Builder builder = PatientVisitSummaries.builder(AS_OF)
+                .add(2L, day(JAN), AppointmentStatus.COMPLETED, 1L);
+
+        assertThrows(IllegalStateException.class, () -> builder.add(1L, day(JAN), AppointmentStatus.COMPLETED, 1L));
+    }
+}
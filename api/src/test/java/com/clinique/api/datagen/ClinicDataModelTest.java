@@ -0,0 +1,94 @@
+package com.clinique.api.datagen;
+
+import com.clinique.api.entity.AppointmentStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour le modèle de données synthétiques.
+ */
+@DisplayName("ClinicDataModel - Tests du générateur de données synthétiques")
+class ClinicDataModelTest {
+
+    private static final LocalDate ANCHOR = LocalDate.of(2025, 6, 2);
+
+    private DataGeneratorProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new DataGeneratorProperties();
+        properties.setTherapists(50);
+        properties.setPatients(1_000);
+    }
+
+    @Test
+    @DisplayName("Doit produire exactement les mêmes données pour la même graine")
+    void shouldBeDeterministic() {
+        ClinicDataModel first = new ClinicDataModel(properties, ANCHOR);
+        ClinicDataModel second = new ClinicDataModel(properties, ANCHOR);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(first.therapist(i % 50), second.therapist(i % 50));
+            assertEquals(first.patient(i), second.patient(i));
+            assertEquals(first.timeline(first.patient(i)), second.timeline(second.patient(i)));
+        }
+    }
+
+    @Test
+    @DisplayName("Doit produire des données différentes pour une autre graine")
+    void shouldDependOnSeed() {
+        ClinicDataModel first = new ClinicDataModel(properties, ANCHOR);
+        properties.setSeed(7L);
+        ClinicDataModel other = new ClinicDataModel(properties, ANCHOR);
+
+        assertNotEquals(first.timeline(first.patient(3)), other.timeline(other.patient(3)));
+    }
+
+    @Test
+    @DisplayName("Doit respecter la chronologie : passé terminé ou annulé, futur planifié, notes sur les séances terminées")
+    void shouldProduceConsistentTimelines() {
+        ClinicDataModel model = new ClinicDataModel(properties, ANCHOR);
+        long total = 0;
+        long completed = 0;
+
+        for (int p = 0; p < properties.getPatients(); p++) {
+            ClinicDataModel.Patient patient = model.patient(p);
+            assertTrue(patient.therapistIndex() >= 0 && patient.therapistIndex() < properties.getTherapists());
+
+            List<ClinicDataModel.Appointment> timeline = model.timeline(patient);
+            assertFalse(timeline.isEmpty());
+            for (int i = 0; i < timeline.size(); i++) {
+                ClinicDataModel.Appointment appointment = timeline.get(i);
+                boolean past = appointment.sessionDateTime().isBefore(ANCHOR.atStartOfDay());
+                if (i > 0) {
+                    assertTrue(appointment.sessionDateTime().isAfter(timeline.get(i - 1).sessionDateTime()));
+                }
+                assertTrue(appointment.createdAt().isBefore(appointment.sessionDateTime()));
+                if (past) {
+                    assertNotEquals(AppointmentStatus.SCHEDULED, appointment.status());
+                } else {
+                    assertTrue(appointment.status() == AppointmentStatus.SCHEDULED
+                            || appointment.status() == AppointmentStatus.CANCELLED_BY_PATIENT);
+                }
+                if (appointment.note() != null) {
+                    assertEquals(AppointmentStatus.COMPLETED, appointment.status());
+                    assertTrue(appointment.note().progressScore() >= 1 && appointment.note().progressScore() <= 10);
+                }
+                total++;
+                if (appointment.status() == AppointmentStatus.COMPLETED) {
+                    completed++;
+                }
+            }
+        }
+
+        // ~12 RDV par patient en moyenne, majorité de séances terminées
+        assertTrue(total > 8 * properties.getPatients() && total < 16 * properties.getPatients(), "total=" + total);
+        assertTrue(completed > total / 2, "completed=" + completed);
+    }
+}
@@ -0,0 +1,81 @@
+package com.clinique.api.datagen;
+
+import com.clinique.api.entity.AppointmentStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.postgresql.copy.CopyIn;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour l'écriture au format texte de COPY.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PgCopyWriter - Tests du format COPY")
+class PgCopyWriterTest {
+
+    @Mock
+    private CopyIn copyIn;
+
+    private ByteArrayOutputStream captureWrites() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        doAnswer(invocation -> {
+            out.write(invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2));
+            return null;
+        }).when(copyIn).writeToCopy(any(byte[].class), anyInt(), anyInt());
+        return out;
+    }
+
+    @Test
+    @DisplayName("Doit séparer les champs par tabulation, écrire \\N pour NULL et échapper les caractères spéciaux")
+    void shouldEncodeRows() throws Exception {
+        ByteArrayOutputStream out = captureWrites();
+        PgCopyWriter writer = new PgCopyWriter(copyIn);
+
+        writer.field(1L).field("Séance\tdifficile\nà revoir \\ suivi").field((String) null)
+                .field(AppointmentStatus.COMPLETED).field(LocalDateTime.of(2025, 6, 2, 9, 30)).field(0.25).endRow();
+        long rows = writer.finish();
+
+        assertEquals(1, rows);
+        assertEquals("1\tSéance\\tdifficile\\nà revoir \\\\ suivi\t\\N\tCOMPLETED\t2025-06-02T09:30\t0.25\n",
+                out.toString(StandardCharsets.UTF_8));
+        verify(copyIn).endCopy();
+    }
+
+    @Test
+    @DisplayName("Doit envoyer les lignes par blocs sans tout garder en mémoire")
+    void shouldFlushInChunks() throws Exception {
+        ByteArrayOutputStream out = captureWrites();
+        PgCopyWriter writer = new PgCopyWriter(copyIn);
+
+        for (int i = 0; i < 20_000; i++) {
+            writer.field(i).field("patient" + i + "@loadtest.clinique").endRow();
+        }
+        writer.finish();
+
+        verify(copyIn, atLeast(3)).writeToCopy(any(byte[].class), anyInt(), anyInt());
+        assertEquals(20_000, out.toString(StandardCharsets.UTF_8).lines().count());
+    }
+
+    @Test
+    @DisplayName("Doit annuler le COPY en cas d'erreur")
+    void shouldCancelActiveCopy() throws Exception {
+        when(copyIn.isActive()).thenReturn(true);
+        PgCopyWriter writer = new PgCopyWriter(copyIn);
+
+        writer.cancel();
+
+        verify(copyIn).cancelCopy();
+        verify(copyIn, never()).endCopy();
+    }
+}
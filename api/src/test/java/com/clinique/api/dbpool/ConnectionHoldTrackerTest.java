@@ -0,0 +1,109 @@
+package com.clinique.api.dbpool;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour l'attribution des connexions JDBC aux méthodes qui les tiennent.
+ */
+@DisplayName("ConnectionHoldTracker - Tests de la détention des connexions")
+class ConnectionHoldTrackerTest {
+
+    private SimpleMeterRegistry registry;
+    private ConnectionHoldTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        tracker = new ConnectionHoldTracker(registry, Duration.ofMillis(20));
+    }
+
+    private Timer timer(String name, String method) {
+        return registry.find(name).tag("method", method).timer();
+    }
+
+    @Test
+    @DisplayName("Doit attribuer la connexion à la méthode en cours lors de l'emprunt, et compter son appel HTTP")
+    void shouldAttributeHoldAndOutboundTimeToMethod() throws Exception {
+        String previous = tracker.enter("AppointmentService.createAppointment");
+        tracker.connectionAcquired();
+        // Réponse reçue sur un autre thread, comme avec le WebClient
+        ConnectionHoldTracker.OutboundCall call = tracker.startOutboundCall();
+        Thread.sleep(25);
+        CompletableFuture.runAsync(call::finish).get();
+        tracker.connectionReleased();
+        tracker.exit(previous);
+
+        Timer hold = timer("clinique.db.connection.hold", "AppointmentService.createAppointment");
+        Timer outbound = timer("clinique.db.connection.hold.outbound", "AppointmentService.createAppointment");
+        assertEquals(1, hold.count());
+        assertTrue(outbound.totalTime(TimeUnit.MILLISECONDS) >= 25);
+        assertTrue(hold.totalTime(TimeUnit.MILLISECONDS) >= outbound.totalTime(TimeUnit.MILLISECONDS));
+        assertEquals(1, registry.get("clinique.db.connection.hold.slow")
+                .tag("method", "AppointmentService.createAppointment").counter().count());
+        assertTrue(tracker.openHolds(Duration.ZERO).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Ne doit pas compter un appel HTTP fait sans connexion tenue")
+    void shouldIgnoreOutboundCallsWithoutConnection() {
+        String previous = tracker.enter("PatientService.getMyPatientsChurnRisks");
+        ConnectionHoldTracker.OutboundCall call = tracker.startOutboundCall();
+        tracker.connectionAcquired();
+        call.finish();
+        tracker.connectionReleased();
+        tracker.exit(previous);
+
+        assertEquals(0, timer("clinique.db.connection.hold.outbound", "PatientService.getMyPatientsChurnRisks")
+                .totalTime(TimeUnit.NANOSECONDS));
+        assertNull(registry.find("clinique.db.connection.hold.slow").counter());
+    }
+
+    @Test
+    @DisplayName("Doit lister les connexions encore tenues, les plus anciennes d'abord, et rétablir la méthode appelante")
+    void shouldListOpenHoldsOldestFirst() {
+        tracker.connectionAcquired();
+        String outer = tracker.enter("AppointmentRescoringJob.run");
+        String inner = tracker.enter("AppointmentStatsUpdater.refresh");
+        tracker.connectionAcquired();
+        tracker.exit(inner);
+
+        List<ConnectionHoldTracker.Hold> holds = tracker.openHolds(Duration.ZERO);
+        assertEquals(List.of(ConnectionHoldTracker.UNKNOWN_METHOD, "AppointmentStatsUpdater.refresh"),
+                holds.stream().map(ConnectionHoldTracker.Hold::method).toList());
+        assertTrue(tracker.openHolds(Duration.ofHours(1)).isEmpty());
+
+        tracker.connectionReleased();
+        tracker.exit(outer);
+        tracker.connectionReleased();
+        assertNotNull(timer("clinique.db.connection.hold", "AppointmentStatsUpdater.refresh"));
+        assertNotNull(timer("clinique.db.connection.hold", ConnectionHoldTracker.UNKNOWN_METHOD));
+        assertTrue(tracker.openHolds(Duration.ZERO).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Ne doit pas compter comme tenue une attente de connexion expirée")
+    void shouldDiscardTimedOutBorrow() {
+        String previous = tracker.enter("ClinicalNoteService.addOrUpdateNote");
+        tracker.connectionAcquired();
+        // Attente expirée : Hikari signale un emprunt puis l'expiration
+        tracker.connectionAcquired();
+        tracker.connectionTimedOut();
+
+        assertEquals(1, tracker.openHolds(Duration.ZERO).size());
+        tracker.connectionReleased();
+        tracker.exit(previous);
+        assertTrue(tracker.openHolds(Duration.ZERO).isEmpty());
+        assertEquals(1, timer("clinique.db.connection.hold", "ClinicalNoteService.addOrUpdateNote").count());
+    }
+}
@@ -0,0 +1,140 @@
+package com.clinique.api.mlexport;
+
+import com.clinique.api.entity.MlExportWatermark;
+import com.clinique.api.repository.MlExportWatermarkRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour l'export incrémental des données d'entraînement.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("MlTrainingExportJob - Tests des filigranes d'export")
+class MlTrainingExportJobTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 3, 10);
+    private static final LocalDateTime WATERMARK = LocalDateTime.of(2025, 3, 1, 0, 0);
+
+    @Mock
+    private TrainingDataset dataset;
+
+    @Mock
+    private MlExportWatermarkRepository watermarkRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path directory;
+
+    private MlTrainingExportJob job;
+
+    @BeforeEach
+    void setUp() {
+        job = new MlTrainingExportJob(List.of(dataset), watermarkRepository, jdbcTemplate, dataSource,
+                transactionManager, directory.toString(), 1000, true);
+        when(dataset.name()).thenReturn("jeu");
+    }
+
+    private static MlExportWatermark watermark(LocalDateTime exportedUntil) {
+        MlExportWatermark watermark = new MlExportWatermark();
+        watermark.setDataset("jeu");
+        watermark.setExportedUntil(exportedUntil);
+        return watermark;
+    }
+
+    @Test
+    @DisplayName("Doit exporter depuis le filigrane puis l'avancer jusqu'à la date de coupure")
+    void shouldExportFromWatermarkAndAdvanceIt() throws IOException {
+        when(watermarkRepository.findById("jeu")).thenReturn(Optional.of(watermark(WATERMARK)));
+        when(dataset.cutoff(TODAY)).thenReturn(TODAY.atStartOfDay());
+        when(dataset.columns()).thenReturn(List.of(new NpzWriter.Column("x", NpzWriter.Type.INT32)));
+        doAnswer(invocation -> {
+            NpzWriter writer = invocation.getArgument(3);
+            writer.int32(1).endRow();
+            writer.int32(2).endRow();
+            return null;
+        }).when(dataset).write(any(), eq(WATERMARK), eq(TODAY.atStartOfDay()), any());
+
+        job.exportAll(TODAY);
+
+        ArgumentCaptor<MlExportWatermark> saved = ArgumentCaptor.forClass(MlExportWatermark.class);
+        verify(watermarkRepository).save(saved.capture());
+        assertEquals(TODAY.atStartOfDay(), saved.getValue().getExportedUntil());
+        assertEquals(2, saved.getValue().getLastRows());
+        Path file = directory.resolve("jeu").resolve("jeu_20250301_20250310.npz");
+        assertEquals(file.toString(), saved.getValue().getLastFile());
+        assertTrue(Files.exists(file));
+    }
+
+    @Test
+    @DisplayName("Doit avancer le filigrane sans écrire de fichier quand il n'y a aucun exemple")
+    void shouldAdvanceWithoutFileWhenNoRows() throws IOException {
+        when(watermarkRepository.findById("jeu")).thenReturn(Optional.empty());
+        when(dataset.initialWatermark(jdbcTemplate)).thenReturn(WATERMARK);
+        when(dataset.cutoff(TODAY)).thenReturn(TODAY.atStartOfDay());
+        when(dataset.columns()).thenReturn(List.of(new NpzWriter.Column("x", NpzWriter.Type.INT32)));
+
+        job.exportAll(TODAY);
+
+        ArgumentCaptor<MlExportWatermark> saved = ArgumentCaptor.forClass(MlExportWatermark.class);
+        verify(watermarkRepository).save(saved.capture());
+        assertEquals(TODAY.atStartOfDay(), saved.getValue().getExportedUntil());
+        assertNull(saved.getValue().getLastFile());
+        try (var files = Files.list(directory.resolve("jeu"))) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Ne doit pas avancer le filigrane si l'écriture échoue")
+    void shouldKeepWatermarkOnFailure() throws IOException {
+        when(watermarkRepository.findById("jeu")).thenReturn(Optional.of(watermark(WATERMARK)));
+        when(dataset.cutoff(TODAY)).thenReturn(TODAY.atStartOfDay());
+        when(dataset.columns()).thenReturn(List.of(new NpzWriter.Column("x", NpzWriter.Type.INT32)));
+        doThrow(new IOException("disque plein")).when(dataset).write(any(), any(), any(), any());
+
+        job.exportAll(TODAY);
+
+        verify(watermarkRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Ne doit rien faire si le filigrane a déjà atteint la date de coupure")
+    void shouldSkipUpToDateDataset() throws IOException {
+        when(watermarkRepository.findById("jeu")).thenReturn(Optional.of(watermark(TODAY.atStartOfDay())));
+        when(dataset.cutoff(TODAY)).thenReturn(TODAY.atStartOfDay());
+
+        job.exportAll(TODAY);
+
+        verify(dataset, never()).write(any(), any(), any(), any());
+        verify(watermarkRepository, never()).save(any());
+    }
+}
@@ -0,0 +1,103 @@
+package com.clinique.api.mlexport;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour l'écriture des fichiers .npz.
+ */
+@DisplayName("NpzWriter - Tests du format des exports d'entraînement")
+class NpzWriterTest {
+
+    private static final List<NpzWriter.Column> COLUMNS = List.of(
+            new NpzWriter.Column("score", NpzWriter.Type.INT32),
+            new NpzWriter.Column("rate", NpzWriter.Type.FLOAT64),
+            new NpzWriter.Column("label", NpzWriter.Type.INT8));
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Doit aligner les données de chaque tableau sur 64 octets")
+    void shouldPadHeaderTo64Bytes() {
+        for (long rows : new long[]{0, 7, 123_456_789}) {
+            byte[] header = NpzWriter.npyHeader(NpzWriter.Type.FLOAT64, rows);
+            int headerLength = ByteBuffer.wrap(header, 8, 2).order(ByteOrder.LITTLE_ENDIAN).getShort();
+
+            assertEquals(0, header.length % 64);
+            assertEquals(header.length, 10 + headerLength);
+            assertEquals('\n', header[header.length - 1]);
+            assertTrue(new String(header, StandardCharsets.US_ASCII).contains("'shape': (" + rows + ",)"));
+        }
+    }
+
+    @Test
+    @DisplayName("Doit écrire une colonne .npy par colonne, valeurs en little-endian")
+    void shouldWriteOneArrayPerColumn() throws IOException {
+        Path target = directory.resolve("jeu").resolve("jeu_1.npz");
+        try (NpzWriter writer = NpzWriter.create(target, COLUMNS)) {
+            // Assez de lignes pour vider plusieurs fois les tampons
+            for (int i = 0; i < 20_000; i++) {
+                writer.int32(i).float64(i / 4.0).int8(i % 2).endRow();
+            }
+            writer.finish();
+        }
+
+        Map<String, ByteBuffer> arrays = readArrays(target);
+        assertEquals(Set.of("score.npy", "rate.npy", "label.npy"), arrays.keySet());
+        assertEquals(20_000 * 4, arrays.get("score.npy").remaining());
+        assertEquals(19_999, arrays.get("score.npy").getInt(19_999 * 4));
+        assertEquals(12_345 / 4.0, arrays.get("rate.npy").getDouble(12_345 * 8));
+        assertEquals(1, arrays.get("label.npy").get(12_345));
+        // Seule l'archive reste dans le dossier
+        try (var files = Files.list(target.getParent())) {
+            assertEquals(List.of(target), files.toList());
+        }
+    }
+
+    @Test
+    @DisplayName("Doit refuser une ligne incomplète ou un type inattendu, sans laisser de fichier")
+    void shouldRejectMalformedRows() throws IOException {
+        Path target = directory.resolve("jeu_2.npz");
+        try (NpzWriter writer = NpzWriter.create(target, COLUMNS)) {
+            assertThrows(IllegalStateException.class, () -> writer.float64(1.0));
+            writer.int32(1);
+            assertThrows(IllegalStateException.class, writer::endRow);
+            assertThrows(IllegalStateException.class, writer::finish);
+        }
+
+        try (var files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    private static Map<String, ByteBuffer> readArrays(Path npz) throws IOException {
+        Map<String, ByteBuffer> arrays = new HashMap<>();
+        try (InputStream in = Files.newInputStream(npz); ZipInputStream zip = new ZipInputStream(in)) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                byte[] bytes = zip.readAllBytes();
+                int headerLength = ByteBuffer.wrap(bytes, 8, 2).order(ByteOrder.LITTLE_ENDIAN).getShort();
+                arrays.put(entry.getName(), ByteBuffer.wrap(bytes, 10 + headerLength, bytes.length - 10 - headerLength)
+                        .slice().order(ByteOrder.LITTLE_ENDIAN));
+            }
+        }
+        return arrays;
+    }
+}
@@ -0,0 +1,142 @@
+package com.clinique.api.mlrescore;
+
+import com.clinique.api.analytics.AppointmentStatsUpdater;
+import com.clinique.api.analytics.TherapistDay;
+import com.clinique.api.dto.PredictionBatchResponse;
+import com.clinique.api.service.MlModelVersions;
+import com.clinique.api.service.MlService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour le re-scoring des RDV à venir.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AppointmentRescoringJob - Tests du re-scoring par pages")
+class AppointmentRescoringJobTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2025, 3, 10, 4, 0);
+    private static final LocalDateTime CREATED = LocalDateTime.of(2025, 3, 1, 9, 0);
+
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private WebClient mlWebClient;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private MlService mlService;
+
+    @Mock
+    private MlModelVersions modelVersions;
+
+    @Mock
+    private AppointmentStatsUpdater statsUpdater;
+
+    private AppointmentRescoringJob job;
+
+    @BeforeEach
+    void setUp() {
+        job = new AppointmentRescoringJob(mlWebClient, jdbcTemplate, transactionManager, mlService, modelVersions,
+                statsUpdater, 2, Duration.ZERO, Duration.ofSeconds(1));
+    }
+
+    private static AppointmentRescoringJob.Candidate candidate(long id, long therapistId, LocalDateTime session) {
+        return new AppointmentRescoringJob.Candidate(id, therapistId, CREATED, session);
+    }
+
+    private void givenPage(LocalDateTime afterSession, long afterId, List<AppointmentRescoringJob.Candidate> page) {
+        when(jdbcTemplate.query(anyString(), ArgumentMatchers.<RowMapper<AppointmentRescoringJob.Candidate>>any(),
+                eq(Timestamp.valueOf(afterSession)), eq(afterId), eq(false), eq("cancellation-v2"), eq(2)))
+                .thenReturn(page);
+    }
+
+    private void givenScores(PredictionBatchResponse response) {
+        when(mlWebClient.post().uri("/predict-batch").bodyValue(any()).retrieve()
+                .bodyToMono(PredictionBatchResponse.class).block(any(Duration.class)))
+                .thenReturn(response);
+    }
+
+    private static PredictionBatchResponse response(Double... scores) {
+        PredictionBatchResponse response = new PredictionBatchResponse();
+        response.setCancellationRiskScores(List.of(scores));
+        response.setModelVersion("cancellation-v2");
+        return response;
+    }
+
+    @Test
+    @DisplayName("Ne doit rien lire tant que la version du modèle d'annulation est inconnue")
+    void shouldSkipWhenModelVersionIsUnknown() {
+        when(modelVersions.get(MlModelVersions.CANCELLATION)).thenReturn(null);
+
+        AppointmentRescoringJob.RescoringRun run = job.rescore(FROM, false);
+
+        verify(mlService).refreshModelVersions();
+        assertNull(run.modelVersion());
+        assertEquals(0, run.scanned());
+        verifyNoInteractions(jdbcTemplate, statsUpdater);
+    }
+
+    @Test
+    @DisplayName("Doit reprendre après le dernier RDV de la page et recalculer les agrégats des RDV réécrits")
+    void shouldPageByKeysetAndRefreshTouchedDays() {
+        LocalDateTime monday = FROM.plusDays(1).withHour(10);
+        LocalDateTime tuesday = FROM.plusDays(2).withHour(14);
+        when(modelVersions.get(MlModelVersions.CANCELLATION)).thenReturn("cancellation-v2");
+        givenPage(FROM, 0L, List.of(candidate(7L, 1L, monday), candidate(3L, 2L, tuesday)));
+        givenPage(tuesday, 3L, List.of());
+        givenScores(response(0.2, 0.7));
+        // Le second RDV a été annulé entre la lecture et l'écriture
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), eq(2), any())).thenReturn(new int[][]{{1, 0}});
+
+        AppointmentRescoringJob.RescoringRun run = job.rescore(FROM, false);
+
+        assertEquals(2, run.scanned());
+        assertEquals(1, run.rescored());
+        assertEquals(0, run.failedPages());
+        verify(statsUpdater).refresh(Set.of(new TherapistDay(monday.toLocalDate(), 1L)));
+        verify(modelVersions).observe(MlModelVersions.CANCELLATION, "cancellation-v2");
+    }
+
+    @Test
+    @DisplayName("Doit s'arrêter après plusieurs pages en échec sans rien écrire")
+    void shouldStopAfterConsecutiveFailures() {
+        when(modelVersions.get(MlModelVersions.CANCELLATION)).thenReturn("cancellation-v2");
+        LocalDateTime session = FROM.plusDays(1);
+        givenPage(FROM, 0L, List.of(candidate(1L, 1L, session), candidate(2L, 1L, session)));
+        givenPage(session, 2L, List.of(candidate(3L, 1L, session), candidate(4L, 1L, session)));
+        givenPage(session, 4L, List.of(candidate(5L, 1L, session), candidate(6L, 1L, session)));
+        // Réponse incomplète : un score manquant
+        givenScores(response(0.5));
+
+        AppointmentRescoringJob.RescoringRun run = job.rescore(FROM, false);
+
+        assertEquals(6, run.scanned());
+        assertEquals(3, run.failedPages());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyCollection(), anyInt(), any());
+        verifyNoInteractions(statsUpdater);
+    }
+}
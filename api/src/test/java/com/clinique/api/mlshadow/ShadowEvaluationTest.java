@@ -0,0 +1,53 @@
+package com.clinique.api.mlshadow;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour l'évaluation des modèles de risque en scoring shadow.
+ */
+@DisplayName("ShadowEvaluation - Tests des métriques de comparaison des modèles")
+class ShadowEvaluationTest {
+
+    @Test
+    @DisplayName("Doit calculer l'AUC d'après les rangs, scores égaux comptés pour moitié")
+    void shouldComputeAucWithTies() {
+        double[] scores = {0.9, 0.8, 0.4, 0.4, 0.1};
+        boolean[] cancelled = {true, false, true, false, false};
+
+        ShadowEvaluation evaluation = ShadowEvaluation.evaluate(scores, cancelled, 10);
+
+        // Paires (annulé, honoré) bien ordonnées : 0.9 > tous (3), 0.4 > 0.1 (1), 0.4 = 0.4 (0.5) -> 4.5 / 6
+        assertEquals(0.75, evaluation.auc(), 1e-9);
+        assertEquals(2, evaluation.positives());
+    }
+
+    @Test
+    @DisplayName("Doit donner une AUC de 1 pour un classement parfait et null sans l'une des classes")
+    void shouldHandlePerfectAndSingleClass() {
+        assertEquals(1.0, ShadowEvaluation.evaluate(new double[]{0.2, 0.7}, new boolean[]{false, true}, 10).auc());
+        assertNull(ShadowEvaluation.evaluate(new double[]{0.2, 0.7}, new boolean[]{false, false}, 10).auc());
+    }
+
+    @Test
+    @DisplayName("Doit calculer le score de Brier et la calibration par tranche")
+    void shouldComputeBrierAndCalibration() {
+        double[] scores = {0.05, 0.15, 0.12, 1.0};
+        boolean[] cancelled = {false, true, false, true};
+
+        ShadowEvaluation evaluation = ShadowEvaluation.evaluate(scores, cancelled, 10);
+
+        double brier = (0.05 * 0.05 + 0.85 * 0.85 + 0.12 * 0.12 + 0) / 4;
+        assertEquals(brier, evaluation.brierScore(), 1e-9);
+        // Tranches vides omises ; un score de 1.0 tombe dans la dernière tranche
+        assertEquals(3, evaluation.calibration().size());
+        ShadowEvaluation.Bin second = evaluation.calibration().get(1);
+        assertEquals(0.1, second.lowerBound(), 1e-9);
+        assertEquals(2, second.count());
+        assertEquals(0.135, second.meanScore(), 1e-9);
+        assertEquals(0.5, second.observedRate(), 1e-9);
+        assertEquals(0.9, evaluation.calibration().get(2).lowerBound(), 1e-9);
+    }
+}
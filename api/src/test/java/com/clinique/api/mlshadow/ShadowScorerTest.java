@@ -0,0 +1,197 @@
+package com.clinique.api.mlshadow;
+
+import com.clinique.api.dto.PredictionRequest;
+import com.clinique.api.event.AppointmentsScoredEvent;
+import com.clinique.api.service.MlModelVersions;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour le scoring shadow : file bornée, lots envoyés au modèle candidat et écriture des scores.
+ * Le service de ML est simulé par un WebClient dont les réponses sont écrites à l'avance.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ShadowScorer - Tests du scoring shadow")
+class ShadowScorerTest {
+
+    private static final LocalDateTime BOOKED_AT = LocalDateTime.of(2030, 1, 6, 9, 0);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private MlModelVersions modelVersions;
+
+    private final Queue<String> responses = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger calls = new AtomicInteger();
+    // Appel en cours retenu jusqu'au déblocage (service de ML lent)
+    private volatile CountDownLatch callStarted = new CountDownLatch(0);
+    private volatile CountDownLatch releaseCall = new CountDownLatch(0);
+    private ShadowScorer scorer;
+
+    private final WebClient mlWebClient = WebClient.builder()
+            .exchangeFunction(request -> Mono.fromCallable(() -> {
+                calls.incrementAndGet();
+                callStarted.countDown();
+                releaseCall.await(5, TimeUnit.SECONDS);
+                return ClientResponse.create(HttpStatus.OK)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .body(responses.remove())
+                        .build();
+            }))
+            .build();
+
+    @AfterEach
+    void tearDown() {
+        releaseCall.countDown();
+        if (scorer != null) {
+            scorer.shutdown();
+        }
+    }
+
+    private ShadowScorer scorer(boolean enabled, int queueCapacity, int batchSize) {
+        scorer = new ShadowScorer(mlWebClient, jdbcTemplate, modelVersions, new SimpleMeterRegistry(),
+                enabled, 1.0, queueCapacity, batchSize);
+        return scorer;
+    }
+
+    private static PredictionRequest features(int day) {
+        return PredictionRequest.of(BOOKED_AT, BOOKED_AT.plusDays(day));
+    }
+
+    private static AppointmentsScoredEvent scored(List<Long> ids, List<Double> scores) {
+        List<PredictionRequest> features = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            features.add(features(i + 1));
+        }
+        return new AppointmentsScoredEvent(ids, features, scores, "cancellation-v1", 40.0);
+    }
+
+    private static ShadowScorer.Pending pending(long appointmentId, double primaryScore, int primaryBatchSize) {
+        return new ShadowScorer.Pending(appointmentId, features(1), primaryScore, "cancellation-v1", 40.0, primaryBatchSize);
+    }
+
+    @Test
+    @DisplayName("Doit compter comme perdus les RDV qui ne tiennent plus dans la file, puis vider la file par lots")
+    @SuppressWarnings("unchecked")
+    void shouldDropOverflowAndDrainInBatches() throws Exception {
+        when(modelVersions.get(ShadowScorer.CANDIDATE)).thenReturn("cancellation_candidate-v2");
+        responses.add("{\"cancellation_risk_scores\":[0.3],\"model_version\":\"cancellation_candidate-v2\"}");
+        responses.add("{\"cancellation_risk_scores\":[0.4,0.5],\"model_version\":\"cancellation_candidate-v2\"}");
+        callStarted = new CountDownLatch(1);
+        releaseCall = new CountDownLatch(1);
+        ShadowScorer shadowScorer = scorer(true, 2, 10);
+
+        // Le premier RDV occupe le thread de scoring, bloqué sur un service de ML lent
+        shadowScorer.onAppointmentsScored(scored(List.of(1L), List.of(0.2)));
+        assertTrue(callStarted.await(5, TimeUnit.SECONDS));
+        // File de 2 : 2 RDV attendent, 2 sont perdus ; un RDV sans score principal n'est pas soumis
+        shadowScorer.onAppointmentsScored(scored(List.of(2L, 3L, 4L, 5L, 6L), Arrays.asList(0.1, 0.2, null, 0.3, 0.4)));
+        assertEquals(2, shadowScorer.getDroppedCount());
+        releaseCall.countDown();
+
+        ArgumentCaptor<List<Integer>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, timeout(5000).times(2)).batchUpdate(anyString(), rows.capture(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(List.of(1, 2), rows.getAllValues().stream().map(List::size).toList());
+        assertEquals(2, calls.get());
+        assertEquals(2, shadowScorer.getDroppedCount());
+    }
+
+    @Test
+    @DisplayName("Ne doit rien soumettre sans modèle candidat chargé")
+    void shouldIgnoreEventsWithoutCandidate() {
+        ShadowScorer shadowScorer = scorer(true, 10, 10);
+
+        shadowScorer.onAppointmentsScored(scored(List.of(1L), List.of(0.2)));
+
+        verify(modelVersions).get(ShadowScorer.CANDIDATE);
+        assertEquals(0, calls.get());
+        assertEquals(0, shadowScorer.getDroppedCount());
+    }
+
+    @Test
+    @DisplayName("Doit écarter le lot quand la réponse du candidat n'a pas de version")
+    void shouldDropBatchWithoutCandidateVersion() {
+        responses.add("{\"cancellation_risk_scores\":[-1.0,-1.0]}");
+        ShadowScorer shadowScorer = scorer(false, 10, 10);
+
+        shadowScorer.score(List.of(pending(1L, 0.2, 1), pending(2L, 0.3, 1)));
+
+        assertEquals(2, shadowScorer.getDroppedCount());
+        verifyNoInteractions(jdbcTemplate);
+        verify(modelVersions, never()).observe(anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("Doit écarter le lot quand le candidat ne renvoie pas un score par RDV")
+    void shouldDropBatchWithWrongSize() {
+        responses.add("{\"cancellation_risk_scores\":[0.4],\"model_version\":\"cancellation_candidate-v2\"}");
+        ShadowScorer shadowScorer = scorer(false, 10, 10);
+
+        shadowScorer.score(List.of(pending(1L, 0.2, 1), pending(2L, 0.3, 1)));
+
+        assertEquals(2, shadowScorer.getDroppedCount());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    @DisplayName("Doit enregistrer en un batch les scores principal et candidat de chaque RDV")
+    @SuppressWarnings("unchecked")
+    void shouldInsertPrimaryAndCandidateScores() throws Exception {
+        responses.add("{\"cancellation_risk_scores\":[0.4,0.9],\"model_version\":\"cancellation_candidate-v2\"}");
+        ShadowScorer shadowScorer = scorer(false, 10, 10);
+
+        shadowScorer.score(List.of(pending(11L, 0.2, 1), pending(12L, 0.7, 4)));
+
+        ArgumentCaptor<ParameterizedPreparedStatementSetter<Integer>> setter =
+                ArgumentCaptor.forClass(ParameterizedPreparedStatementSetter.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO ml_shadow_scores"), eq(List.of(0, 1)), eq(2), setter.capture());
+        verify(modelVersions).observe(ShadowScorer.CANDIDATE, "cancellation_candidate-v2");
+
+        PreparedStatement second = mock(PreparedStatement.class);
+        setter.getValue().setValues(second, 1);
+        verify(second).setLong(1, 12L);
+        verify(second).setString(3, "cancellation-v1");
+        verify(second).setDouble(4, 0.7);
+        verify(second).setDouble(5, 40.0);
+        verify(second).setInt(6, 4);
+        verify(second).setString(7, "cancellation_candidate-v2");
+        verify(second).setDouble(8, 0.9);
+        verify(second).setInt(10, 2);
+        assertEquals(0, shadowScorer.getDroppedCount());
+    }
+}
@@ -0,0 +1,240 @@
+package com.clinique.api.mlstub;
+
+import com.clinique.api.dto.AppointmentDTO;
+import com.clinique.api.dto.CreateAppointmentRequest;
+import com.clinique.api.entity.PatientProfile;
+import com.clinique.api.entity.Role;
+import com.clinique.api.entity.TherapistProfile;
+import com.clinique.api.entity.User;
+import com.clinique.api.repository.AppointmentRepository;
+import com.clinique.api.repository.PatientProfileRepository;
+import com.clinique.api.repository.TherapistProfileRepository;
+import com.clinique.api.repository.UserRepository;
+import com.clinique.api.service.AppointmentService;
+import com.clinique.api.service.MlModelVersions;
+import com.clinique.api.service.MlService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests d'intégration du client de ML contre le stub embarqué (contexte Spring complet, base locale).
+ * Chaque test utilise ses propres features : le cache de prédictions de MlService est partagé.
+ * Les tests de réservation (AppointmentService, via le mlWebClient) sont annulés en fin de test.
+ */
+@SpringBootTest
+@DisplayName("MlService - Tests d'intégration contre le stub de ML")
+class MlServiceStubIntegrationTest {
+
+    private static final StubMlServer STUB = startStub();
+
+    @Autowired
+    private MlService mlService;
+
+    @Autowired
+    private MlModelVersions modelVersions;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PatientProfileRepository patientProfileRepository;
+
+    @Autowired
+    private TherapistProfileRepository therapistProfileRepository;
+
+    private static StubMlServer startStub() {
+        try {
+            return StubMlServer.start(0, StubMlServer.Faults.none());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @DynamicPropertySource
+    static void mlProperties(DynamicPropertyRegistry registry) {
+        registry.add("application.ml.base-url", STUB::getBaseUrl);
+        registry.add("application.ml.read-timeout", () -> "PT0.5S");
+        registry.add("application.ml.models.poll-interval", () -> "PT1H");
+        // Aucun traitement de fond : les compteurs du stub ne voient que les appels des tests
+        registry.add("application.analytics.backfill.on-startup", () -> "false");
+        registry.add("application.ml.shadow.enabled", () -> "false");
+        registry.add("application.ml.export.enabled", () -> "false");
+        registry.add("application.ml.rescoring.enabled", () -> "false");
+    }
+
+    @AfterEach
+    void resetStub() {
+        STUB.setFaults(StubMlServer.Faults.none());
+        STUB.reset();
+    }
+
+    @AfterAll
+    static void stopStub() {
+        STUB.close();
+    }
+
+    @Test
+    @DisplayName("Doit prédire le churn de plusieurs patients en un seul appel au service de ML")
+    void shouldPredictChurnInOneBatchCall() {
+        List<Map<String, Object>> results = mlService.predictChurnBatch(List.of(
+                new MlService.ChurnFeatures(11, 3, 0.1),
+                new MlService.ChurnFeatures(45, 8, 0.2),
+                new MlService.ChurnFeatures(120, 1, 0.0)));
+
+        assertEquals(1, STUB.calls("/predict-churn-batch"));
+        assertEquals(3, STUB.items("/predict-churn-batch"));
+        assertTrue(results.stream().allMatch(r -> r != null && r.get("churn_probability") instanceof Double));
+        assertEquals("churn-stub-1", results.get(0).get("model_version"));
+    }
+
+    @Test
+    @DisplayName("Doit rendre null sans lever d'exception quand le service de ML répond en erreur")
+    void shouldDegradeGracefullyOnErrors() {
+        STUB.setFaults(StubMlServer.Faults.none().withErrorRate(1.0));
+
+        List<Map<String, Object>> results = mlService.predictChurnBatch(List.of(
+                new MlService.ChurnFeatures(12, 3, 0.1), new MlService.ChurnFeatures(46, 8, 0.2)));
+
+        assertEquals(1, STUB.calls("/predict-churn-batch"));
+        assertNull(results.get(0));
+        assertNull(results.get(1));
+    }
+
+    @Test
+    @DisplayName("Doit abandonner un appel trop lent au bout du délai de lecture")
+    void shouldGiveUpOnSlowCallsAfterReadTimeout() {
+        // Premier appel hors mesure : l'initialisation du client ne compte pas dans le délai
+        mlService.predictChurn(13, 2, 0.1);
+        STUB.setFaults(StubMlServer.Faults.none().withTimeouts(1.0, Duration.ofSeconds(3)));
+
+        long start = System.nanoTime();
+        Map<String, Object> result = mlService.predictChurn(13, 3, 0.1);
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        assertNull(result);
+        assertTrue(elapsed.compareTo(Duration.ofSeconds(2)) < 0, "Appel bloqué " + elapsed.toMillis() + " ms");
+    }
+
+    @Test
+    @DisplayName("Doit subir exactement le taux d'erreur injecté, aux mêmes requêtes à chaque exécution")
+    void shouldInjectErrorsDeterministically() {
+        STUB.setFaults(StubMlServer.Faults.none().withErrorRate(0.25));
+
+        List<Integer> failed = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            if (mlService.predictChurn(14, i, 0.1) == null) {
+                failed.add(i);
+            }
+        }
+
+        assertEquals(8, STUB.calls("/predict-churn-batch"));
+        assertEquals(List.of(3, 7), failed);
+    }
+
+    @Test
+    @DisplayName("Doit détecter un changement de version des modèles annoncé par le service de ML")
+    void shouldDetectModelVersionChange() {
+        try {
+            STUB.setModelVersion("stub-2");
+
+            mlService.refreshModelVersions();
+
+            assertEquals("churn-stub-2", modelVersions.get(MlModelVersions.CHURN));
+            assertEquals("cancellation-stub-2", modelVersions.get(MlModelVersions.CANCELLATION));
+        } finally {
+            STUB.setModelVersion("stub-1");
+            mlService.refreshModelVersions();
+        }
+    }
+
+    private CreateAppointmentRequest bookingRequest(LocalDateTime sessionDateTime) {
+        String suffix = UUID.randomUUID().toString();
+        User therapistUser = userRepository.save(User.builder()
+                .email("stub-therapist-" + suffix + "@test.com").password("x").role(Role.ROLE_THERAPIST).build());
+        TherapistProfile therapist = new TherapistProfile();
+        therapist.setUser(therapistUser);
+        therapist.setFirstName("Stub");
+        therapist.setLastName("Thérapeute");
+        User patientUser = userRepository.save(User.builder()
+                .email("stub-patient-" + suffix + "@test.com").password("x").role(Role.ROLE_PATIENT).build());
+        PatientProfile patient = new PatientProfile();
+        patient.setUser(patientUser);
+        patient.setFirstName("Stub");
+        patient.setLastName("Patient");
+
+        CreateAppointmentRequest request = new CreateAppointmentRequest();
+        request.setTherapistId(therapistProfileRepository.save(therapist).getId());
+        request.setPatientId(patientProfileRepository.save(patient).getId());
+        request.setSessionDateTime(sessionDateTime);
+        return request;
+    }
+
+    @Test
+    @Transactional
+    @DisplayName("Doit scorer un RDV réservé en un appel à /predict-batch")
+    void shouldScoreBookingThroughPredictBatch() {
+        AppointmentDTO appointment = appointmentService.createAppointment(
+                bookingRequest(LocalDateTime.of(2031, 6, 2, 10, 0)));
+
+        assertEquals(1, STUB.calls("/predict-batch"));
+        assertNotNull(appointment.getCancellationRiskScore());
+        assertEquals("cancellation-stub-1",
+                appointmentRepository.findById(appointment.getId()).orElseThrow().getCancellationRiskModelVersion());
+    }
+
+    @Test
+    @Transactional
+    @DisplayName("Doit réserver sans score quand le service de ML répond en erreur, aux mêmes requêtes à chaque exécution")
+    void shouldBookWithoutScoreOnInjectedErrors() {
+        STUB.setFaults(StubMlServer.Faults.none().withErrorRate(0.5));
+
+        AppointmentDTO first = appointmentService.createAppointment(bookingRequest(LocalDateTime.of(2031, 6, 3, 10, 0)));
+        AppointmentDTO second = appointmentService.createAppointment(bookingRequest(LocalDateTime.of(2031, 6, 3, 11, 0)));
+
+        assertEquals(2, STUB.calls("/predict-batch"));
+        assertNotNull(first.getCancellationRiskScore());
+        assertNull(second.getCancellationRiskScore());
+        assertTrue(appointmentRepository.existsById(second.getId()));
+    }
+
+    @Test
+    @Transactional
+    @DisplayName("Doit réserver sans score passé le délai de lecture quand le service de ML ne répond pas")
+    void shouldBookWithoutScoreWhenMlServiceHangs() {
+        STUB.setFaults(StubMlServer.Faults.none().withTimeouts(1.0, Duration.ofSeconds(10)));
+
+        long start = System.nanoTime();
+        AppointmentDTO appointment = appointmentService.createAppointment(
+                bookingRequest(LocalDateTime.of(2031, 6, 4, 10, 0)));
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        assertNull(appointment.getCancellationRiskScore());
+        assertTrue(appointmentRepository.existsById(appointment.getId()));
+        // application.ml.read-timeout=PT0.5S pour ce test
+        assertTrue(elapsed.compareTo(Duration.ofSeconds(3)) < 0, "Réservation bloquée " + elapsed.toMillis() + " ms");
+    }
+}
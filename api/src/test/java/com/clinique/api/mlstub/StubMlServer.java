@@ -0,0 +1,368 @@
+package com.clinique.api.mlstub;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+/**
+ * Service de ML factice embarqué (serveur HTTP du JDK, sans dépendance) : mêmes routes et mêmes réponses
+ * que clinique-ml-service/main.py, scores déterministes dérivés des features.
+ *
+ * Les pannes sont injectées de façon reproductible sur les routes de prédiction : la N-ième requête reçoit
+ * sa latence (base + gigue tirée d'une graine) et, selon un calendrier régulier, une réponse 503 ou une réponse
+ * retardée au-delà du délai de lecture du client. Avec un taux de 25 %, exactement une requête sur quatre
+ * échoue. Chaque requête est traitée sur un thread virtuel : la latence injectée ne limite pas le débit.
+ *
+ * Utilisé par les tests d'intégration (port libre, start(0, ...)) et par le profil Maven load-test (main).
+ */
+public final class StubMlServer implements AutoCloseable {
+
+    public static final List<String> MODEL_NAMES =
+            List.of("cancellation", "timing", "churn", "sentiment", "cancellation_candidate");
+
+    /**
+     * Pannes injectées.
+     *
+     * @param latency      latence ajoutée à chaque prédiction
+     * @param jitter       gigue maximale ajoutée à la latence (tirée de seed et du numéro de requête)
+     * @param errorRate    part des prédictions en erreur 503, de 0 à 1
+     * @param timeoutRate  part des prédictions retardées de timeoutDelay, de 0 à 1
+     * @param timeoutDelay retard d'une requête "en timeout" (à régler au-delà du délai de lecture du client)
+     */
+    public record Faults(Duration latency, Duration jitter, double errorRate, double timeoutRate,
+                         Duration timeoutDelay, long seed) {
+
+        public static Faults none() {
+            return new Faults(Duration.ZERO, Duration.ZERO, 0, 0, Duration.ofSeconds(30), 42);
+        }
+
+        public Faults withLatency(Duration latency, Duration jitter) {
+            return new Faults(latency, jitter, errorRate, timeoutRate, timeoutDelay, seed);
+        }
+
+        public Faults withErrorRate(double errorRate) {
+            return new Faults(latency, jitter, errorRate, timeoutRate, timeoutDelay, seed);
+        }
+
+        public Faults withTimeouts(double timeoutRate, Duration timeoutDelay) {
+            return new Faults(latency, jitter, errorRate, timeoutRate, timeoutDelay, seed);
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Map<String, Function<JsonNode, Map<String, Object>>> routes = new HashMap<>();
+    private final AtomicLong predictions = new AtomicLong();
+    private final Map<String, LongAdder> calls = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> items = new ConcurrentHashMap<>();
+    private volatile Faults faults;
+    private volatile String modelVersion = "stub-1";
+
+    private StubMlServer(HttpServer server, Faults faults) {
+        this.server = server;
+        this.faults = faults;
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+
+        routes.put("/predict", this::predict);
+        routes.put("/predict-batch", body -> Map.of(
+                "cancellation_risk_scores", each(body, item -> predict(item).get("cancellation_risk_score")),
+                "model_version", version("cancellation")));
+        // Candidat volontairement différent du modèle courant (autre graine) pour le scoring shadow
+        routes.put("/predict-batch-candidate", body -> Map.of(
+                "cancellation_risk_scores", each(body, item -> score("candidate", item.path("lead_time_days"),
+                        item.path("day_of_week"), item.path("hour_of_day"))),
+                "model_version", version("cancellation_candidate")));
+        routes.put("/predict-timing", this::predictTiming);
+        routes.put("/predict-timing-batch", body -> Map.of(
+                "recommended_days_next_sessions", each(body, item -> predictTiming(item).get("recommended_days_next_session")),
+                "model_version", version("timing")));
+        routes.put("/predict-sentiment", this::predictSentiment);
+        routes.put("/predict-sentiment-batch", body -> {
+            List<Map<String, Object>> results = each(body, this::predictSentiment);
+            return Map.of(
+                    "polarities", results.stream().map(r -> r.get("polarity")).toList(),
+                    "subjectivities", results.stream().map(r -> r.get("subjectivity")).toList(),
+                    "sentiment_labels", results.stream().map(r -> r.get("sentiment_label")).toList(),
+                    "model_version", version("sentiment"));
+        });
+        routes.put("/predict-churn", this::predictChurn);
+        routes.put("/predict-churn-batch", body -> {
+            List<Map<String, Object>> results = each(body, this::predictChurn);
+            return Map.of(
+                    "churn_risks", results.stream().map(r -> r.get("is_churn_risk")).toList(),
+                    "churn_probabilities", results.stream().map(r -> r.get("churn_probability")).toList(),
+                    "model_version", version("churn"));
+        });
+    }
+
+    /**
+     * Démarre le stub sur la boucle locale (port 0 : port libre, voir getBaseUrl()).
+     */
+    public static StubMlServer start(int port, Faults faults) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+        StubMlServer stub = new StubMlServer(server, faults);
+        server.setExecutor(stub.executor);
+        server.createContext("/", stub::handle);
+        server.start();
+        return stub;
+    }
+
+    /**
+     * Lancement autonome (profil load-test), réglé par propriétés système :
+     * ml.stub.port (8001), ml.stub.latency.ms (5), ml.stub.jitter.ms (0), ml.stub.error.percent (0),
+     * ml.stub.timeout.percent (0), ml.stub.timeout.ms (30000), ml.stub.seed (42).
+     */
+    public static void main(String[] args) throws Exception {
+        int port = Integer.getInteger("ml.stub.port", 8001);
+        Faults faults = new Faults(
+                Duration.ofMillis(Long.getLong("ml.stub.latency.ms", 5)),
+                Duration.ofMillis(Long.getLong("ml.stub.jitter.ms", 0)),
+                Double.parseDouble(System.getProperty("ml.stub.error.percent", "0")) / 100,
+                Double.parseDouble(System.getProperty("ml.stub.timeout.percent", "0")) / 100,
+                Duration.ofMillis(Long.getLong("ml.stub.timeout.ms", 30_000)),
+                Long.getLong("ml.stub.seed", 42));
+        StubMlServer stub = start(port, faults);
+        Runtime.getRuntime().addShutdownHook(new Thread(stub::close));
+        System.out.println("Stub du service de ML sur " + stub.getBaseUrl() + " : " + faults);
+        Thread.currentThread().join();
+    }
+
+    public String getBaseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    public void setFaults(Faults faults) {
+        this.faults = faults;
+    }
+
+    /**
+     * Simule un réentraînement : toutes les versions annoncées changent (comme POST /models/reload?version=).
+     */
+    public void setModelVersion(String modelVersion) {
+        this.modelVersion = modelVersion;
+    }
+
+    /**
+     * Nombre d'appels reçus sur une route de prédiction.
+     */
+    public long calls(String path) {
+        LongAdder count = calls.get(path);
+        return count == null ? 0 : count.sum();
+    }
+
+    /**
+     * Nombre d'éléments prédits sur une route (1 par appel unitaire, la taille du lot sinon).
+     */
+    public long items(String path) {
+        LongAdder count = items.get(path);
+        return count == null ? 0 : count.sum();
+    }
+
+    /**
+     * Remet à zéro les compteurs et le calendrier des pannes.
+     */
+    public void reset() {
+        calls.clear();
+        items.clear();
+        predictions.set(0);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * La requête n (à partir de 0) est touchée si le cumul floor((n + 1) * rate) augmente :
+     * les pannes sont régulièrement espacées et leur nombre exact après N requêtes.
+     */
+    static boolean scheduled(long n, double rate) {
+        return rate > 0 && Math.floor((n + 1) * rate) > Math.floor(n * rate);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getPath();
+            String method = exchange.getRequestMethod();
+            if ("GET".equals(method) && "/models".equals(path)) {
+                reply(exchange, 200, models());
+            } else if ("GET".equals(method) && "/".equals(path)) {
+                reply(exchange, 200, Map.of("message", "Stub du service de prédiction clinique en ligne"));
+            } else if ("POST".equals(method) && "/models/reload".equals(path)) {
+                String version = query(exchange).get("version");
+                if (version != null) {
+                    modelVersion = version;
+                }
+                reply(exchange, 200, models());
+            } else if ("POST".equals(method) && routes.containsKey(path)) {
+                predict(exchange, path);
+            } else {
+                reply(exchange, 404, Map.of("detail", "Not Found"));
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void predict(HttpExchange exchange, String path) throws IOException {
+        Map<String, Object> payload;
+        JsonNode body;
+        try (InputStream in = exchange.getRequestBody()) {
+            body = mapper.readTree(in);
+            payload = routes.get(path).apply(body);
+        } catch (IOException | RuntimeException e) {
+            reply(exchange, 422, Map.of("detail", String.valueOf(e.getMessage())));
+            return;
+        }
+        calls.computeIfAbsent(path, p -> new LongAdder()).increment();
+        items.computeIfAbsent(path, p -> new LongAdder()).add(body.has("items") ? body.get("items").size() : 1);
+
+        long n = predictions.getAndIncrement();
+        Faults current = faults;
+        long delayMillis = current.latency().toMillis();
+        if (!current.jitter().isZero()) {
+            delayMillis += new SplittableRandom(current.seed() + n).nextLong(current.jitter().toMillis() + 1);
+        }
+        if (scheduled(n, current.timeoutRate())) {
+            delayMillis += current.timeoutDelay().toMillis();
+        }
+        if (delayMillis > 0) {
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        if (scheduled(n, current.errorRate())) {
+            reply(exchange, 503, Map.of("detail", "Erreur injectée par le stub (requête " + n + ")"));
+            return;
+        }
+        reply(exchange, 200, payload);
+    }
+
+    private void reply(HttpExchange exchange, int status, Object payload) throws IOException {
+        byte[] data = mapper.writeValueAsBytes(payload);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, data.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(data);
+        } catch (IOException e) {
+            // Client parti avant la réponse (délai de lecture dépassé) : rien à faire
+        }
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw != null) {
+            for (String pair : raw.split("&")) {
+                int eq = pair.indexOf('=');
+                if (eq > 0) {
+                    params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                            URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return params;
+    }
+
+    private Map<String, Object> models() {
+        List<Map<String, Object>> models = new ArrayList<>();
+        for (String name : MODEL_NAMES) {
+            models.add(Map.of("name", name, "version", version(name), "available", true));
+        }
+        return Map.of("models", models);
+    }
+
+    private String version(String name) {
+        return name + "-" + modelVersion;
+    }
+
+    /**
+     * Score stable dans [0, 1) calculé à partir des features.
+     */
+    private static double score(Object... values) {
+        CRC32 crc = new CRC32();
+        for (Object value : values) {
+            crc.update((value instanceof JsonNode node ? node.asText() : String.valueOf(value)).getBytes(StandardCharsets.UTF_8));
+            crc.update('|');
+        }
+        return (crc.getValue() % 10_000) / 10_000.0;
+    }
+
+    private static <T> List<T> each(JsonNode body, Function<JsonNode, T> item) {
+        if (!body.path("items").isArray()) {
+            throw new IllegalArgumentException("items manquant");
+        }
+        List<T> results = new ArrayList<>(body.get("items").size());
+        body.get("items").forEach(node -> results.add(item.apply(node)));
+        return results;
+    }
+
+    private static JsonNode required(JsonNode body, String field) {
+        JsonNode value = body.get(field);
+        if (value == null || value.isNull()) {
+            throw new IllegalArgumentException("Champ manquant : " + field);
+        }
+        return value;
+    }
+
+    private Map<String, Object> predict(JsonNode body) {
+        return Map.of(
+                "cancellation_risk_score", score(required(body, "lead_time_days"), required(body, "day_of_week"),
+                        required(body, "hour_of_day")),
+                "model_version", version("cancellation"));
+    }
+
+    private Map<String, Object> predictTiming(JsonNode body) {
+        return Map.of(
+                "recommended_days_next_session", Math.max(1, 15 - required(body, "last_progress_score").asInt()),
+                "model_version", version("timing"));
+    }
+
+    private Map<String, Object> predictSentiment(JsonNode body) {
+        double polarity = Math.round((score(required(body, "text")) * 2 - 1) * 10_000) / 10_000.0;
+        String label = polarity > 0.1 ? "POSITIVE" : polarity < -0.1 ? "NEGATIVE" : "NEUTRAL";
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("polarity", polarity);
+        response.put("subjectivity", 0.5);
+        response.put("sentiment_label", label);
+        response.put("model_version", version("sentiment"));
+        return response;
+    }
+
+    private Map<String, Object> predictChurn(JsonNode body) {
+        double probability = score(required(body, "days_since_last_visit"), required(body, "total_visits"),
+                required(body, "cancellation_rate"));
+        return Map.of(
+                "is_churn_risk", probability > 0.5,
+                "churn_probability", probability,
+                "model_version", version("churn"));
+    }
+}
@@ -0,0 +1,101 @@
+package com.clinique.api.reminder;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour la roue temporelle hiérarchique.
+ */
+@DisplayName("HierarchicalTimingWheel - Tests de la roue temporelle")
+class HierarchicalTimingWheelTest {
+
+    private static final long TICK = 1000L;
+
+    @Test
+    @DisplayName("Doit rendre un élément à son échéance et pas avant")
+    void shouldExpireAtDeadline() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, 8, 3, 0L);
+        wheel.schedule(5_000L, "a");
+
+        assertTrue(wheel.advanceTo(4_999L).isEmpty());
+        assertEquals(List.of("a"), wheel.advanceTo(5_000L));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    @DisplayName("Doit gérer les échéances lointaines via la cascade des niveaux")
+    void shouldCascadeFromUpperLevels() {
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(TICK, 8, 2, 0L);
+        // 8 * 8 = 64 ticks d'horizon exact : on dépasse volontairement cet horizon
+        long[] deadlines = {9_000L, 63_000L, 64_000L, 200_000L, 1_000_000L};
+        for (long deadline : deadlines) {
+            wheel.schedule(deadline, deadline);
+        }
+
+        List<Long> fired = new ArrayList<>();
+        for (long now = 0; now <= 1_000_000L; now += TICK) {
+            for (Long deadline : wheel.advanceTo(now)) {
+                assertEquals(deadline.longValue(), now, "Échéance tirée au mauvais tick");
+                fired.add(deadline);
+            }
+        }
+        assertEquals(deadlines.length, fired.size());
+    }
+
+    @Test
+    @DisplayName("Doit rendre immédiatement une échéance déjà passée")
+    void shouldReturnOverdueImmediately() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, 8, 3, 10_000L);
+        wheel.schedule(2_000L, "late");
+
+        assertEquals(List.of("late"), wheel.advanceTo(10_000L));
+    }
+
+    @Test
+    @DisplayName("Ne doit pas rendre un élément annulé")
+    void shouldSkipCancelled() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, 8, 3, 0L);
+        HierarchicalTimingWheel.Timeout<String> timeout = wheel.schedule(3_000L, "cancelled");
+        wheel.schedule(3_000L, "kept");
+        timeout.cancel();
+
+        assertEquals(List.of("kept"), wheel.advanceTo(3_000L));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    @DisplayName("Doit tirer un grand nombre d'échéances aléatoires exactement une fois")
+    void shouldFireManyRandomDeadlinesOnce() {
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(TICK, 64, 4, 0L);
+        Random random = new Random(42);
+        int count = 100_000;
+        for (int i = 0; i < count; i++) {
+            long deadline = (1 + random.nextInt(172_800)) * TICK; // 2 jours
+            wheel.schedule(deadline, deadline);
+        }
+
+        int fired = 0;
+        // Avancée par grands pas : la roue doit quand même rendre chaque élément au bon tick
+        for (long now = 0; now <= 172_800 * TICK; now += 3_600 * TICK) {
+            for (Long deadline : wheel.advanceTo(now)) {
+                assertTrue(deadline <= now);
+                fired++;
+            }
+        }
+        assertEquals(count, fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    @DisplayName("Doit refuser une taille de roue qui n'est pas une puissance de 2")
+    void shouldRejectInvalidWheelSize() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new HierarchicalTimingWheel<String>(TICK, 10, 3, 0L));
+    }
+}
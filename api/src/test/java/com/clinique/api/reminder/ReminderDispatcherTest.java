@@ -0,0 +1,153 @@
+package com.clinique.api.reminder;
+
+import com.clinique.api.dto.UpcomingAppointmentDTO;
+import com.clinique.api.entity.AppointmentStatus;
+import com.clinique.api.entity.SentReminder;
+import com.clinique.api.repository.AppointmentRepository;
+import com.clinique.api.repository.SentReminderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour l'envoi des rappels : rechargements, redémarrage, RDV annulés et priorité au risque.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ReminderDispatcher - Tests de l'envoi des rappels")
+class ReminderDispatcherTest {
+
+    private static final Duration OFFSET = Duration.ofHours(24);
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private ReminderSink reminderSink;
+
+    @Mock
+    private SentReminderRepository sentReminderRepository;
+
+    private ReminderDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        ReminderProperties properties = new ReminderProperties();
+        properties.setOffsets(List.of(OFFSET));
+        dispatcher = new ReminderDispatcher(appointmentRepository, reminderSink, properties, sentReminderRepository);
+    }
+
+    /**
+     * RDV dont le rappel de la veille est échu depuis 5 minutes (dans la fenêtre de rattrapage).
+     */
+    private UpcomingAppointmentDTO pastDue(long appointmentId, Double riskScore) {
+        return new UpcomingAppointmentDTO(appointmentId, appointmentId * 10, 1L,
+                LocalDateTime.now().plus(OFFSET).minusMinutes(5), riskScore);
+    }
+
+    private SentReminder sent(long appointmentId) {
+        SentReminder sentReminder = new SentReminder();
+        sentReminder.setAppointmentId(appointmentId);
+        sentReminder.setOffsetSeconds(OFFSET.toSeconds());
+        sentReminder.setSentAt(LocalDateTime.now().minusMinutes(4));
+        return sentReminder;
+    }
+
+    private void loadWindow(UpcomingAppointmentDTO... appointments) {
+        when(appointmentRepository.findUpcomingByStatus(eq(AppointmentStatus.SCHEDULED), any(), any()))
+                .thenReturn(List.of(appointments));
+    }
+
+    private void stillScheduled(Long... appointmentIds) {
+        when(appointmentRepository.findIdsByIdInAndStatus(anyCollection(), eq(AppointmentStatus.SCHEDULED)))
+                .thenReturn(List.of(appointmentIds));
+    }
+
+    private List<Long> sentAppointmentIds() {
+        ArgumentCaptor<Reminder> reminders = ArgumentCaptor.forClass(Reminder.class);
+        verify(reminderSink, atLeast(0)).send(reminders.capture());
+        return reminders.getAllValues().stream().map(Reminder::getAppointmentId).toList();
+    }
+
+    @Test
+    @DisplayName("Ne doit planifier qu'une fois un rappel retrouvé à chaque rechargement")
+    void shouldScheduleReminderOnceAcrossReloads() {
+        loadWindow(new UpcomingAppointmentDTO(1L, 10L, 1L, LocalDateTime.now().plus(OFFSET).plusHours(1), 0.5));
+
+        dispatcher.reloadWindow();
+        dispatcher.reloadWindow();
+
+        assertEquals(1, dispatcher.getPendingCount());
+        // Rappel à venir : il ne peut pas avoir déjà été envoyé
+        verify(sentReminderRepository, never()).findByAppointmentIdIn(any());
+    }
+
+    @Test
+    @DisplayName("Ne doit pas renvoyer après un redémarrage un rappel rattrapé déjà envoyé")
+    void shouldNotResendCatchUpReminderAfterRestart() {
+        loadWindow(pastDue(1L, 0.5), pastDue(2L, 0.5));
+        when(sentReminderRepository.findByAppointmentIdIn(List.of(1L, 2L))).thenReturn(List.of(sent(1L)));
+        stillScheduled(2L);
+
+        dispatcher.reloadWindow();
+        assertEquals(1, dispatcher.getPendingCount());
+        dispatcher.tick();
+
+        assertEquals(List.of(2L), sentAppointmentIds());
+        ArgumentCaptor<SentReminder> marker = ArgumentCaptor.forClass(SentReminder.class);
+        verify(sentReminderRepository).save(marker.capture());
+        assertEquals(2L, marker.getValue().getAppointmentId());
+        assertEquals(OFFSET.toSeconds(), marker.getValue().getOffsetSeconds());
+    }
+
+    @Test
+    @DisplayName("Ne doit pas envoyer de rappel pour un RDV annulé depuis le chargement")
+    void shouldSkipAppointmentsCancelledSinceLoad() {
+        loadWindow(pastDue(1L, 0.5), pastDue(2L, 0.5));
+        stillScheduled(1L);
+
+        dispatcher.reloadWindow();
+        dispatcher.tick();
+
+        assertEquals(List.of(1L), sentAppointmentIds());
+        verify(sentReminderRepository, times(1)).save(any(SentReminder.class));
+    }
+
+    @Test
+    @DisplayName("Doit envoyer d'abord les rappels des patients les plus à risque d'annuler")
+    void shouldSendMostAtRiskFirst() {
+        loadWindow(pastDue(1L, 0.2), pastDue(2L, null), pastDue(3L, 0.9));
+        stillScheduled(1L, 2L, 3L);
+
+        dispatcher.reloadWindow();
+        dispatcher.tick();
+
+        assertEquals(List.of(3L, 1L, 2L), sentAppointmentIds());
+    }
+
+    @Test
+    @DisplayName("Ne doit pas marquer comme envoyé un rappel dont l'envoi a échoué")
+    void shouldNotMarkFailedSends() {
+        loadWindow(pastDue(1L, 0.5));
+        stillScheduled(1L);
+        doThrow(new IllegalStateException("fournisseur indisponible")).when(reminderSink).send(any());
+
+        dispatcher.reloadWindow();
+        dispatcher.tick();
+
+        verify(sentReminderRepository, never()).save(any());
+    }
+}
@@ -2,6 +2,8 @@ package com.clinique.api.security;
 
 import com.clinique.api.entity.Role;
 import com.clinique.api.entity.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -12,6 +14,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -39,6 +42,9 @@ class JwtAuthenticationFilterTest {
     @Mock
     private UserDetailsService userDetailsService;
 
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @Mock
     private HttpServletRequest request;
 
@@ -90,6 +96,8 @@ class JwtAuthenticationFilterTest {
         verify(filterChain).doFilter(request, response);
         assertNotNull(SecurityContextHolder.getContext().getAuthentication(),
                 "L'authentification doit être définie dans le contexte");
+        assertEquals(1L, meterRegistry.get("clinique.security.jwt.validation")
+                .tag("outcome", "authenticated").timer().count());
         assertEquals(testUser.getEmail(),
                 SecurityContextHolder.getContext().getAuthentication().getName(),
                 "L'utilisateur authentifié doit correspondre");
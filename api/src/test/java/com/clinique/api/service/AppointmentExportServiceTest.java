@@ -0,0 +1,73 @@
+package com.clinique.api.service;
+
+import com.clinique.api.dto.ExportFormat;
+import com.clinique.api.entity.Role;
+import com.clinique.api.entity.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour les règles d'accès de l'export.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AppointmentExportService - Tests de l'export des rendez-vous")
+class AppointmentExportServiceTest {
+
+    @Mock
+    private AppointmentService appointmentService;
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private AppointmentExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        exportService = new AppointmentExportService(appointmentService, new ObjectMapper(), dataSource,
+                transactionManager, 1000);
+    }
+
+    @Test
+    @DisplayName("Doit refuser l'export avant d'ouvrir le moindre curseur")
+    void shouldDenyExportBeforeStreaming() {
+        // Given
+        User otherTherapist = User.builder().id(99L).role(Role.ROLE_THERAPIST).build();
+        doThrow(new AccessDeniedException("Accès refusé"))
+                .when(appointmentService).assertCanListTherapistAppointments(1L, otherTherapist);
+
+        // When & Then
+        assertThrows(AccessDeniedException.class, () -> exportService.exportTherapistAppointments(
+                1L, null, null, ExportFormat.CSV, true, otherTherapist));
+        verifyNoInteractions(dataSource, transactionManager);
+    }
+
+    @Test
+    @DisplayName("Doit préparer l'export sans rien lire tant que la réponse n'est pas écrite")
+    void shouldDeferReadingUntilResponseIsWritten() {
+        // Given
+        User therapist = User.builder().id(2L).role(Role.ROLE_THERAPIST).build();
+
+        // When
+        var body = exportService.exportTherapistAppointments(1L, null, null, ExportFormat.NDJSON, false, therapist);
+
+        // Then
+        assertNotNull(body);
+        verify(appointmentService).assertCanListTherapistAppointments(1L, therapist);
+        verifyNoInteractions(dataSource, transactionManager);
+    }
+}
@@ -0,0 +1,92 @@
+package com.clinique.api.service;
+
+import com.clinique.api.dto.AppointmentExportRow;
+import com.clinique.api.dto.ExportFormat;
+import com.clinique.api.entity.AppointmentStatus;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour l'écriture des exports CSV / NDJSON.
+ */
+@DisplayName("AppointmentExportWriter - Tests des formats d'export")
+class AppointmentExportWriterTest {
+
+    private ObjectMapper objectMapper;
+    private AppointmentExportRow withNote;
+    private AppointmentExportRow withoutNote;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        withNote = new AppointmentExportRow();
+        withNote.setAppointmentId(10L);
+        withNote.setSessionDateTime(LocalDateTime.of(2025, 6, 2, 9, 30));
+        withNote.setStatus(AppointmentStatus.COMPLETED);
+        withNote.setCancellationRiskScore(0.25);
+        withNote.setPatientId(3L);
+        withNote.setPatientFirstName("Chloé");
+        withNote.setPatientLastName("Roux");
+        withNote.setNoteId(7L);
+        withNote.setNoteSummary("Séance \"difficile\", à revoir\nla semaine prochaine");
+        withNote.setPatientProgressScore(6);
+        withNote.setSentimentScore(-0.4);
+        withNote.setSentimentLabel("NEGATIVE");
+
+        withoutNote = new AppointmentExportRow();
+        withoutNote.setAppointmentId(11L);
+        withoutNote.setSessionDateTime(LocalDateTime.of(2025, 6, 9, 9, 30));
+        withoutNote.setStatus(AppointmentStatus.SCHEDULED);
+        withoutNote.setPatientId(3L);
+        withoutNote.setPatientFirstName("Chloé");
+        withoutNote.setPatientLastName("Roux");
+    }
+
+    private String export(ExportFormat format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AppointmentExportWriter writer = AppointmentExportWriter.of(format, out, objectMapper);
+        writer.start();
+        writer.write(withNote);
+        writer.write(withoutNote);
+        writer.finish();
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("Doit écrire un CSV avec en-tête, guillemets échappés et colonnes vides sans note")
+    void shouldWriteCsv() throws Exception {
+        String csv = export(ExportFormat.CSV);
+
+        assertEquals(String.join(",", AppointmentExportWriter.CSV_HEADER) + "\r\n"
+                + "10,2025-06-02T09:30,COMPLETED,0.25,3,Chloé,Roux,7,"
+                + "\"Séance \"\"difficile\"\", à revoir\nla semaine prochaine\",6,-0.4,NEGATIVE\r\n"
+                + "11,2025-06-09T09:30,SCHEDULED,,3,Chloé,Roux,,,,,\r\n", csv);
+    }
+
+    @Test
+    @DisplayName("Doit écrire un objet JSON par ligne")
+    void shouldWriteNdjson() throws Exception {
+        List<String> lines = export(ExportFormat.NDJSON).lines().toList();
+
+        assertEquals(2, lines.size());
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        assertEquals(10L, first.get("appointmentId").asLong());
+        assertEquals("2025-06-02T09:30:00", first.get("sessionDateTime").asText());
+        assertEquals("Séance \"difficile\", à revoir\nla semaine prochaine", first.get("noteSummary").asText());
+        assertTrue(objectMapper.readTree(lines.get(1)).get("noteId").isNull());
+    }
+}
@@ -2,7 +2,11 @@ package com.clinique.api.service;
 
 import com.clinique.api.dto.*;
 import com.clinique.api.entity.*;
+import com.clinique.api.event.AppointmentCancelledEvent;
+import com.clinique.api.event.AppointmentsScoredEvent;
+import com.clinique.api.exception.ConflictException;
 import com.clinique.api.exception.ResourceNotFoundException;
+import com.clinique.api.repository.AppointmentReadRepository;
 import com.clinique.api.repository.AppointmentRepository;
 import com.clinique.api.repository.PatientProfileRepository;
 import com.clinique.api.repository.TherapistProfileRepository;
@@ -10,19 +14,40 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
 import org.springframework.security.access.AccessDeniedException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.reactive.function.client.WebClient;
-
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -35,6 +60,9 @@ class AppointmentServiceTest {
     @Mock
     private AppointmentRepository appointmentRepository;
 
+    @Mock
+    private AppointmentReadRepository appointmentReadRepository;
+
     @Mock
     private PatientProfileRepository patientProfileRepository;
 
@@ -44,6 +72,19 @@ class AppointmentServiceTest {
     @Mock
     private WebClient mlWebClient;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private MlModelVersions modelVersions;
+
+    // Vraie TransactionTemplate : le callback s'exécute, l'ordre scoring / transaction est vérifiable
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
     @InjectMocks
     private AppointmentService appointmentService;
 
@@ -56,6 +97,8 @@ class AppointmentServiceTest {
 
     @BeforeEach
     void setUp() {
+        ReflectionTestUtils.setField(appointmentService, "mlReadTimeout", Duration.ofSeconds(2));
+
         // Setup users
         patientUser = User.builder()
                 .id(1L)
@@ -131,6 +174,49 @@ class AppointmentServiceTest {
         verify(appointmentRepository, atLeastOnce()).save(any(Appointment.class));
     }
 
+    /**
+     * Vérifie qu'un rendez-vous est scoré avant l'ouverture de la transaction,
+     * puis enregistré une seule fois avec son score.
+     */
+    @Test
+    @DisplayName("Doit scorer le rendez-vous avant la transaction et l'enregistrer avec son score")
+    void shouldScoreAppointmentBeforeTransaction() {
+        // Given
+        CreateAppointmentRequest request = new CreateAppointmentRequest();
+        request.setPatientId(1L);
+        request.setTherapistId(1L);
+        request.setSessionDateTime(appointment.getSessionDateTime());
+        PredictionBatchResponse prediction = new PredictionBatchResponse();
+        prediction.setCancellationRiskScores(List.of(0.42));
+        prediction.setModelVersion("cancellation-v3");
+        mockPredictBatch(prediction);
+        when(patientProfileRepository.findById(1L)).thenReturn(Optional.of(patientProfile));
+        when(therapistProfileRepository.findById(1L)).thenReturn(Optional.of(therapistProfile));
+        when(appointmentRepository.save(any(Appointment.class))).thenAnswer(invocation -> {
+            Appointment saved = invocation.getArgument(0);
+            saved.setId(5L);
+            return saved;
+        });
+
+        // When
+        AppointmentDTO result = appointmentService.createAppointment(request);
+
+        // Then
+        InOrder order = inOrder(mlWebClient, transactionTemplate, patientProfileRepository);
+        order.verify(mlWebClient).post();
+        order.verify(transactionTemplate).execute(any());
+        order.verify(patientProfileRepository).findById(1L);
+        ArgumentCaptor<Appointment> saved = ArgumentCaptor.forClass(Appointment.class);
+        verify(appointmentRepository).save(saved.capture());
+        assertEquals(0.42, saved.getValue().getCancellationRiskScore());
+        assertEquals("cancellation-v3", saved.getValue().getCancellationRiskModelVersion());
+        assertEquals(0.42, result.getCancellationRiskScore());
+        ArgumentCaptor<Object> events = ArgumentCaptor.forClass(Object.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        AppointmentsScoredEvent scoredEvent = (AppointmentsScoredEvent) events.getAllValues().get(0);
+        assertEquals(List.of(5L), scoredEvent.appointmentIds());
+    }
+
     /**
      * Vérifie qu'une exception est lancée si l'on tente de créer un rendez-vous
      * pour un patient inexistant.
@@ -345,6 +431,65 @@ class AppointmentServiceTest {
         assertEquals(1, result.size());
     }
 
+    /**
+     * Vérifie que l'historique en flux d'un patient vient de la lecture R2DBC.
+     */
+    @Test
+    @DisplayName("Doit envoyer en flux les rendez-vous d'un patient")
+    void shouldStreamAppointmentsForPatient() {
+        // Given
+        AppointmentDTO first = new AppointmentDTO();
+        first.setId(1L);
+        AppointmentDTO second = new AppointmentDTO();
+        second.setId(2L);
+        when(patientProfileRepository.findById(1L)).thenReturn(Optional.of(patientProfile));
+        when(appointmentReadRepository.streamByPatientId(1L)).thenReturn(Flux.just(first, second));
+
+        // When & Then
+        StepVerifier.create(appointmentService.streamAppointmentsForPatient(1L, patientUser))
+                .expectNext(first, second)
+                .verifyComplete();
+        verify(appointmentRepository, never()).findByPatientId(any());
+    }
+
+    /**
+     * Vérifie que les règles d'accès du flux sont celles de la liste, vérifiées
+     * avant toute lecture.
+     */
+    @Test
+    @DisplayName("Doit refuser le flux des rendez-vous d'un autre patient ou thérapeute")
+    void shouldDenyStreamsOfOtherUsers() {
+        // Given
+        User otherPatient = User.builder().id(99L).role(Role.ROLE_PATIENT).build();
+        User otherTherapist = User.builder().id(98L).role(Role.ROLE_THERAPIST).build();
+        when(patientProfileRepository.findById(1L)).thenReturn(Optional.of(patientProfile));
+        when(therapistProfileRepository.findById(1L)).thenReturn(Optional.of(therapistProfile));
+
+        // When & Then
+        assertThrows(AccessDeniedException.class,
+                () -> appointmentService.streamAppointmentsForPatient(1L, otherPatient));
+        assertThrows(AccessDeniedException.class,
+                () -> appointmentService.streamAppointmentsForTherapist(1L, otherTherapist));
+        assertThrows(AccessDeniedException.class,
+                () -> appointmentService.streamAppointmentsForTherapist(1L, patientUser));
+        verifyNoInteractions(appointmentReadRepository);
+    }
+
+    /**
+     * Vérifie qu'un thérapeute inconnu donne une 404 avant l'ouverture du flux.
+     */
+    @Test
+    @DisplayName("Doit lever une exception pour le flux d'un thérapeute inexistant")
+    void shouldFailStreamForUnknownTherapist() {
+        // Given
+        when(therapistProfileRepository.findById(42L)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThrows(ResourceNotFoundException.class,
+                () -> appointmentService.streamAppointmentsForTherapist(42L, adminUser));
+        verifyNoInteractions(appointmentReadRepository);
+    }
+
     /**
      * Vérifie qu'un patient peut annuler son propre rendez-vous.
      */
@@ -361,6 +506,7 @@ class AppointmentServiceTest {
         // Then
         assertNotNull(result);
         verify(appointmentRepository).save(any(Appointment.class));
+        verify(eventPublisher).publishEvent(any(AppointmentCancelledEvent.class));
     }
 
     /**
@@ -475,4 +621,123 @@ class AppointmentServiceTest {
             appointmentService.getTimingRecommendation(999L);
         });
     }
-}
\ No newline at end of file
+
+    private CreateAppointmentSeriesRequest weeklySeries(LocalDateTime first, int count) {
+        RecurrenceRule recurrence = new RecurrenceRule();
+        recurrence.setFrequency(RecurrenceFrequency.WEEKLY);
+        recurrence.setCount(count);
+        CreateAppointmentSeriesRequest request = new CreateAppointmentSeriesRequest();
+        request.setPatientId(1L);
+        request.setTherapistId(1L);
+        request.setFirstSessionDateTime(first);
+        request.setRecurrence(recurrence);
+        return request;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void mockPredictBatch(PredictionBatchResponse response) {
+        WebClient.RequestBodyUriSpec uriSpec = mock(WebClient.RequestBodyUriSpec.class);
+        WebClient.RequestHeadersSpec headersSpec = mock(WebClient.RequestHeadersSpec.class);
+        WebClient.ResponseSpec responseSpec = mock(WebClient.ResponseSpec.class);
+        when(mlWebClient.post()).thenReturn(uriSpec);
+        when(uriSpec.uri("/predict-batch")).thenReturn(uriSpec);
+        when(uriSpec.bodyValue(any())).thenReturn(headersSpec);
+        when(headersSpec.retrieve()).thenReturn(responseSpec);
+        when(responseSpec.bodyToMono(PredictionBatchResponse.class)).thenReturn(Mono.just(response));
+    }
+
+    private Appointment seriesAppointment(long id, LocalDateTime session, Double score) {
+        Appointment seriesAppointment = new Appointment();
+        seriesAppointment.setId(id);
+        seriesAppointment.setPatient(patientProfile);
+        seriesAppointment.setTherapist(therapistProfile);
+        seriesAppointment.setSessionDateTime(session);
+        seriesAppointment.setStatus(AppointmentStatus.SCHEDULED);
+        seriesAppointment.setCancellationRiskScore(score);
+        return seriesAppointment;
+    }
+
+    /**
+     * Vérifie qu'une série est scorée avant la transaction et le verrou du thérapeute, insérée en un batch avec
+     * un score par séance, et que chaque score est rattaché au bon RDV (par créneau).
+     */
+    @Test
+    @DisplayName("Doit scorer la série, verrouiller le thérapeute puis insérer les séances en un batch")
+    @SuppressWarnings("unchecked")
+    void shouldScoreLockThenBatchInsertSeries() throws Exception {
+        // Given
+        LocalDateTime first = LocalDateTime.now().plusDays(7).withHour(10).withMinute(0).withSecond(0).withNano(0);
+        List<LocalDateTime> sessions = List.of(first, first.plusWeeks(1), first.plusWeeks(2));
+        PredictionBatchResponse prediction = new PredictionBatchResponse();
+        prediction.setCancellationRiskScores(Arrays.asList(0.1, null, 0.7));
+        prediction.setModelVersion("cancellation-v3");
+        when(patientProfileRepository.existsById(1L)).thenReturn(true);
+        when(therapistProfileRepository.existsById(1L)).thenReturn(true);
+        mockPredictBatch(prediction);
+        when(appointmentRepository.findConflictingSlots(eq(1L), eq(1L), eq(sessions), eq(AppointmentStatus.SCHEDULED)))
+                .thenReturn(new ArrayList<>());
+        // Relecture dans un ordre différent de celui de la série
+        when(appointmentRepository.findBySeriesId(anyString())).thenReturn(List.of(
+                seriesAppointment(32L, sessions.get(2), 0.7),
+                seriesAppointment(30L, sessions.get(0), 0.1),
+                seriesAppointment(31L, sessions.get(1), null)));
+
+        // When
+        AppointmentSeriesDTO result = appointmentService.createAppointmentSeries(weeklySeries(first, 3));
+
+        // Then
+        InOrder order = inOrder(mlWebClient, transactionTemplate, therapistProfileRepository, appointmentRepository, jdbcTemplate);
+        order.verify(mlWebClient).post();
+        order.verify(transactionTemplate).execute(any());
+        order.verify(therapistProfileRepository).lockById(1L);
+        order.verify(appointmentRepository).findConflictingSlots(eq(1L), eq(1L), eq(sessions), eq(AppointmentStatus.SCHEDULED));
+        ArgumentCaptor<ParameterizedPreparedStatementSetter<Integer>> setter =
+                ArgumentCaptor.forClass(ParameterizedPreparedStatementSetter.class);
+        order.verify(jdbcTemplate).batchUpdate(anyString(), eq(List.of(0, 1, 2)), eq(3), setter.capture());
+
+        PreparedStatement scored = mock(PreparedStatement.class);
+        setter.getValue().setValues(scored, 2);
+        verify(scored).setTimestamp(3, Timestamp.valueOf(sessions.get(2)));
+        verify(scored).setDouble(6, 0.7);
+        verify(scored).setString(7, "cancellation-v3");
+        verify(scored).setString(8, result.getSeriesId());
+        PreparedStatement unscored = mock(PreparedStatement.class);
+        setter.getValue().setValues(unscored, 1);
+        verify(unscored).setNull(6, Types.DOUBLE);
+        verify(unscored).setNull(7, Types.VARCHAR);
+
+        ArgumentCaptor<AppointmentsScoredEvent> scoredEvent = ArgumentCaptor.forClass(AppointmentsScoredEvent.class);
+        verify(eventPublisher).publishEvent(scoredEvent.capture());
+        assertEquals(List.of(30L, 31L, 32L), scoredEvent.getValue().appointmentIds());
+        assertEquals(Arrays.asList(0.1, null, 0.7), scoredEvent.getValue().scores());
+        assertEquals("cancellation-v3", scoredEvent.getValue().modelVersion());
+        assertEquals(3, result.getAppointments().size());
+    }
+
+    /**
+     * Vérifie qu'une série en conflit est refusée après le verrou, sans aucune insertion.
+     */
+    @Test
+    @DisplayName("Doit refuser une série dont un créneau est déjà pris, sans rien insérer")
+    void shouldRejectSeriesWithConflictingSlots() {
+        // Given
+        LocalDateTime first = LocalDateTime.now().plusDays(7).withHour(10).withMinute(0).withSecond(0).withNano(0);
+        when(patientProfileRepository.existsById(1L)).thenReturn(true);
+        when(therapistProfileRepository.existsById(1L)).thenReturn(true);
+        // Service de ML indisponible : la série serait créée sans score
+        when(mlWebClient.post()).thenThrow(new IllegalStateException("connexion refusée"));
+        when(appointmentRepository.findConflictingSlots(eq(1L), eq(1L), anyList(), eq(AppointmentStatus.SCHEDULED)))
+                .thenReturn(new ArrayList<>(List.of(first.plusWeeks(1))));
+
+        // When & Then
+        ConflictException exception = assertThrows(ConflictException.class,
+                () -> appointmentService.createAppointmentSeries(weeklySeries(first, 2)));
+        assertTrue(exception.getMessage().contains(first.plusWeeks(1).toString()));
+        InOrder order = inOrder(transactionTemplate, therapistProfileRepository, appointmentRepository);
+        order.verify(transactionTemplate).execute(any());
+        order.verify(therapistProfileRepository).lockById(1L);
+        order.verify(appointmentRepository).findConflictingSlots(eq(1L), eq(1L), anyList(), eq(AppointmentStatus.SCHEDULED));
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+}
@@ -4,6 +4,7 @@ import com.clinique.api.dto.AuthRequest;
 import com.clinique.api.dto.AuthResponse;
 import com.clinique.api.dto.RegisterRequest;
 import com.clinique.api.entity.*;
+import com.clinique.api.event.TherapistProfileChangedEvent;
 import com.clinique.api.repository.PatientProfileRepository;
 import com.clinique.api.repository.TherapistProfileRepository;
 import com.clinique.api.repository.UserRepository;
@@ -15,6 +16,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -52,6 +54,9 @@ class AuthServiceTest {
     @Mock
     private AuthenticationManager authenticationManager;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private AuthService authService;
 
@@ -115,6 +120,7 @@ class AuthServiceTest {
         assertEquals(1L, response.getUser().getProfileId());
         verify(userRepository).save(any(User.class));
         verify(patientProfileRepository).save(any(PatientProfile.class));
+        verifyNoInteractions(eventPublisher);
     }
 
     /**
@@ -152,6 +158,7 @@ class AuthServiceTest {
         assertNotNull(response.getToken());
         assertEquals(1L, response.getUser().getProfileId());
         verify(therapistProfileRepository).save(any(TherapistProfile.class));
+        verify(eventPublisher).publishEvent(new TherapistProfileChangedEvent(1L));
     }
 
     /**
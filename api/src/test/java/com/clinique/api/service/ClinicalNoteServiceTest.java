@@ -1,8 +1,10 @@
 package com.clinique.api.service;
 
 import com.clinique.api.dto.AppointmentDTO;
+import com.clinique.api.dto.ClinicalNoteDetailDTO;
 import com.clinique.api.dto.UpdateNoteRequest;
 import com.clinique.api.entity.*;
+import com.clinique.api.event.ClinicalNoteSavedEvent;
 import com.clinique.api.exception.ResourceNotFoundException;
 import com.clinique.api.repository.AppointmentRepository;
 import com.clinique.api.repository.ClinicalNoteRepository;
@@ -13,6 +15,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.access.AccessDeniedException;
 
 import java.time.LocalDateTime;
@@ -38,6 +41,9 @@ class ClinicalNoteServiceTest {
     @Mock
     private MlService mlService;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private ClinicalNoteService clinicalNoteService;
 
@@ -122,6 +128,7 @@ class ClinicalNoteServiceTest {
         verify(clinicalNoteRepository).save(argThat(note -> note.getSummary().equals("Le patient progresse bien") &&
                 note.getPrivateNotes().equals("Notes privées du thérapeute") &&
                 note.getPatientProgressScore() == 7));
+        verify(eventPublisher).publishEvent(new ClinicalNoteSavedEvent(1L, 1L, 1L, 1L, appointment.getSessionDateTime()));
     }
 
     /**
@@ -233,7 +240,8 @@ class ClinicalNoteServiceTest {
         clinicalNoteService.addOrUpdateNote(1L, request, therapistUser);
 
         // Then
-        verify(clinicalNoteRepository).save(argThat(note -> note.getAppointment().equals(appointment)));
+        verify(clinicalNoteRepository).save(argThat(note -> note.getAppointment().equals(appointment)
+                && note.getTherapistProfileId().equals(1L)));
     }
 
     /**
@@ -285,4 +293,66 @@ class ClinicalNoteServiceTest {
         assertNotNull(result);
         verify(clinicalNoteRepository).save(argThat(note -> note.getPatientProgressScore() == 10));
     }
-}
\ No newline at end of file
+
+    /**
+     * Vérifie que le thérapeute auteur lit la note complète, notes privées comprises.
+     */
+    @Test
+    @DisplayName("Doit renvoyer la note complète, notes privées comprises, au thérapeute auteur")
+    void shouldReturnFullNoteToAuthor() {
+        // Given
+        when(clinicalNoteRepository.findWithAppointmentById(1L)).thenReturn(Optional.of(clinicalNote));
+
+        // When
+        ClinicalNoteDetailDTO result = clinicalNoteService.getNote(1L, therapistUser);
+
+        // Then
+        assertEquals("Test summary", result.getSummary());
+        assertEquals("Private notes", result.getPrivateNotes());
+        assertEquals(1L, result.getAppointmentId());
+        assertEquals(8, result.getPatientProgressScore());
+    }
+
+    /**
+     * Vérifie que le patient du RDV lit le résumé, mais jamais les notes privées.
+     */
+    @Test
+    @DisplayName("Doit masquer les notes privées au patient")
+    void shouldHidePrivateNotesFromPatient() {
+        // Given
+        when(clinicalNoteRepository.findWithAppointmentById(1L)).thenReturn(Optional.of(clinicalNote));
+
+        // When
+        ClinicalNoteDetailDTO result = clinicalNoteService.getNote(1L, patientProfile.getUser());
+
+        // Then
+        assertEquals("Test summary", result.getSummary());
+        assertNull(result.getPrivateNotes());
+    }
+
+    /**
+     * Vérifie qu'un autre thérapeute ne peut pas lire la note.
+     */
+    @Test
+    @DisplayName("Doit refuser la lecture de la note à un autre thérapeute")
+    void shouldDenyNoteToOtherTherapist() {
+        // Given
+        when(clinicalNoteRepository.findWithAppointmentById(1L)).thenReturn(Optional.of(clinicalNote));
+
+        // When & Then
+        assertThrows(AccessDeniedException.class, () -> clinicalNoteService.getNote(1L, otherTherapistUser));
+    }
+
+    /**
+     * Vérifie qu'une exception est lancée pour une note inexistante.
+     */
+    @Test
+    @DisplayName("Doit lancer une exception si la note n'existe pas")
+    void shouldThrowExceptionWhenNoteNotFound() {
+        // Given
+        when(clinicalNoteRepository.findWithAppointmentById(999L)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThrows(ResourceNotFoundException.class, () -> clinicalNoteService.getNote(999L, therapistUser));
+    }
+}
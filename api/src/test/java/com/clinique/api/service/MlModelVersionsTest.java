@@ -0,0 +1,62 @@
+package com.clinique.api.service;
+
+import com.clinique.api.event.MlModelVersionChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour le suivi des versions des modèles de ML.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("MlModelVersions - Tests du suivi des versions de modèles")
+class MlModelVersionsTest {
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private MlModelVersions modelVersions;
+
+    @BeforeEach
+    void setUp() {
+        modelVersions = new MlModelVersions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Doit retenir la première version vue sans publier d'événement")
+    void shouldRecordFirstVersionSilently() {
+        modelVersions.observe(MlModelVersions.CHURN, "churn-a1");
+        modelVersions.observe(MlModelVersions.CHURN, "churn-a1");
+
+        assertEquals("churn-a1", modelVersions.get(MlModelVersions.CHURN));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    @DisplayName("Doit publier un événement quand le modèle change de version")
+    void shouldPublishEventOnVersionChange() {
+        modelVersions.observe(MlModelVersions.TIMING, "timing-a1");
+        modelVersions.observe(MlModelVersions.TIMING, "timing-b2");
+
+        assertEquals("timing-b2", modelVersions.get(MlModelVersions.TIMING));
+        verify(eventPublisher).publishEvent(new MlModelVersionChangedEvent(MlModelVersions.TIMING, "timing-a1", "timing-b2"));
+    }
+
+    @Test
+    @DisplayName("Doit ignorer une réponse sans version (modèle non chargé)")
+    void shouldIgnoreMissingVersion() {
+        modelVersions.observe(MlModelVersions.CANCELLATION, "cancellation-a1");
+        modelVersions.observe(MlModelVersions.CANCELLATION, null);
+
+        assertEquals("cancellation-a1", modelVersions.get(MlModelVersions.CANCELLATION));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+}
@@ -0,0 +1,89 @@
+package com.clinique.api.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.test.web.client.MockServerRestTemplateCustomizer;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.*;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.*;
+
+/**
+ * Tests unitaires pour les prédictions de churn par lot.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("MlService - Tests des prédictions de churn par lot")
+class MlServiceTest {
+
+    private static final String BASE_URL = "http://ml.test";
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private MockRestServiceServer server;
+    private MlService mlService;
+
+    @BeforeEach
+    void setUp() {
+        MockServerRestTemplateCustomizer customizer = new MockServerRestTemplateCustomizer();
+        mlService = new MlService(new RestTemplateBuilder(customizer), BASE_URL, Duration.ofSeconds(1),
+                Duration.ofSeconds(1), new MlModelVersions(eventPublisher), 100);
+        server = customizer.getServer();
+    }
+
+    @Test
+    @DisplayName("Ne doit envoyer au service que les patients absents du cache, en un seul appel")
+    void shouldOnlySendCacheMissesInOneCall() {
+        MlService.ChurnFeatures first = new MlService.ChurnFeatures(10, 4, 0.25);
+        MlService.ChurnFeatures second = new MlService.ChurnFeatures(90, 2, 0.5);
+        MlService.ChurnFeatures third = new MlService.ChurnFeatures(3, 12, 0.0);
+        server.expect(requestTo("/predict-churn-batch"))
+                .andExpect(method(HttpMethod.POST))
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andRespond(withSuccess("{\"churn_risks\":[false,true],\"churn_probabilities\":[0.2,0.8],"
+                        + "\"model_version\":\"churn-a1\"}", MediaType.APPLICATION_JSON));
+        server.expect(requestTo("/predict-churn-batch"))
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].total_visits").value(12))
+                .andRespond(withSuccess("{\"churn_risks\":[false],\"churn_probabilities\":[0.1],"
+                        + "\"model_version\":\"churn-a1\"}", MediaType.APPLICATION_JSON));
+
+        mlService.predictChurnBatch(List.of(first, second));
+        List<Map<String, Object>> results = mlService.predictChurnBatch(List.of(second, third, first));
+
+        server.verify();
+        assertEquals(0.8, results.get(0).get("churn_probability"));
+        assertEquals(true, results.get(0).get("is_churn_risk"));
+        assertEquals(0.1, results.get(1).get("churn_probability"));
+        assertEquals(0.2, results.get(2).get("churn_probability"));
+    }
+
+    @Test
+    @DisplayName("Doit rendre null pour chaque patient si la réponse ne correspond pas à la requête")
+    void shouldReturnNullsOnMismatchedResponse() {
+        server.expect(requestTo("/predict-churn-batch"))
+                .andRespond(withSuccess("{\"churn_risks\":[false],\"churn_probabilities\":[0.2],"
+                        + "\"model_version\":\"churn-a1\"}", MediaType.APPLICATION_JSON));
+
+        List<Map<String, Object>> results = mlService.predictChurnBatch(List.of(
+                new MlService.ChurnFeatures(10, 4, 0.25), new MlService.ChurnFeatures(90, 2, 0.5)));
+
+        server.verify();
+        assertEquals(2, results.size());
+        assertNull(results.get(0));
+        assertNull(results.get(1));
+    }
+}
@@ -0,0 +1,112 @@
+package com.clinique.api.service;
+
+import com.clinique.api.dto.NoteSearchHitDTO;
+import com.clinique.api.dto.NoteSearchPageDTO;
+import com.clinique.api.entity.Role;
+import com.clinique.api.entity.User;
+import com.clinique.api.repository.ClinicalNoteSearchRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.access.AccessDeniedException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour la recherche dans les notes cliniques.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("NoteSearchService - Tests de la recherche dans les notes")
+class NoteSearchServiceTest {
+
+    @Mock
+    private ClinicalNoteSearchRepository clinicalNoteSearchRepository;
+
+    @Mock
+    private AppointmentService appointmentService;
+
+    private NoteSearchService noteSearchService;
+    private User therapistUser;
+
+    @BeforeEach
+    void setUp() {
+        noteSearchService = new NoteSearchService(clinicalNoteSearchRepository, appointmentService, 50);
+        therapistUser = User.builder().id(2L).email("therapist@test.com").role(Role.ROLE_THERAPIST).build();
+    }
+
+    private static List<NoteSearchHitDTO> hits(int count) {
+        List<NoteSearchHitDTO> hits = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            NoteSearchHitDTO hit = new NoteSearchHitDTO();
+            hit.setNoteId((long) i);
+            hit.setHighlight("gestion du \u0002stress\u0003");
+            hits.add(hit);
+        }
+        return hits;
+    }
+
+    @Test
+    @DisplayName("Doit demander une ligne de plus que la page pour savoir s'il reste des résultats")
+    void shouldDetectNextPage() {
+        when(clinicalNoteSearchRepository.search(1L, "stress", 40L, 21)).thenReturn(hits(21));
+
+        NoteSearchPageDTO result = noteSearchService.searchTherapistNotes(1L, "  stress ", 2, 20, therapistUser);
+
+        assertTrue(result.isHasNext());
+        assertEquals(20, result.getResults().size());
+        assertEquals("stress", result.getQuery());
+        assertEquals("gestion du <mark>stress</mark>", result.getResults().get(0).getHighlight());
+        verify(appointmentService).assertCanListTherapistAppointments(1L, therapistUser);
+    }
+
+    @Test
+    @DisplayName("Doit indiquer la dernière page")
+    void shouldDetectLastPage() {
+        when(clinicalNoteSearchRepository.search(1L, "stress", 0L, 21)).thenReturn(hits(3));
+
+        NoteSearchPageDTO result = noteSearchService.searchTherapistNotes(1L, "stress", 0, 20, therapistUser);
+
+        assertFalse(result.isHasNext());
+        assertEquals(3, result.getResults().size());
+    }
+
+    @Test
+    @DisplayName("Doit échapper le HTML de la note sans toucher aux accents")
+    void shouldEscapeNoteText() {
+        assertEquals("&lt;script&gt; séance <mark>anxiété</mark> &amp; co",
+                NoteSearchService.toHtml("<script> séance \u0002anxiété\u0003 & co"));
+    }
+
+    @Test
+    @DisplayName("Doit refuser une recherche vide ou une pagination invalide")
+    void shouldRejectInvalidRequests() {
+        assertThrows(IllegalArgumentException.class,
+                () -> noteSearchService.searchTherapistNotes(1L, "   ", 0, 20, therapistUser));
+        assertThrows(IllegalArgumentException.class,
+                () -> noteSearchService.searchTherapistNotes(1L, "x".repeat(201), 0, 20, therapistUser));
+        assertThrows(IllegalArgumentException.class,
+                () -> noteSearchService.searchTherapistNotes(1L, "stress", -1, 20, therapistUser));
+        assertThrows(IllegalArgumentException.class,
+                () -> noteSearchService.searchTherapistNotes(1L, "stress", 0, 51, therapistUser));
+        verifyNoInteractions(clinicalNoteSearchRepository);
+    }
+
+    @Test
+    @DisplayName("Doit refuser la recherche dans les notes d'un autre thérapeute")
+    void shouldCheckAccessBeforeSearching() {
+        doThrow(new AccessDeniedException("refusé"))
+                .when(appointmentService).assertCanListTherapistAppointments(9L, therapistUser);
+
+        assertThrows(AccessDeniedException.class,
+                () -> noteSearchService.searchTherapistNotes(9L, "stress", 0, 20, therapistUser));
+        verify(clinicalNoteSearchRepository, never()).search(anyLong(), anyString(), anyLong(), anyInt());
+    }
+}
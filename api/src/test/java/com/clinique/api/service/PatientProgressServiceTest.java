@@ -0,0 +1,148 @@
+package com.clinique.api.service;
+
+import com.clinique.api.dto.ProgressPointDTO;
+import com.clinique.api.dto.ProgressTimelineDTO;
+import com.clinique.api.entity.PatientProfile;
+import com.clinique.api.entity.Role;
+import com.clinique.api.entity.User;
+import com.clinique.api.event.ClinicalNoteSavedEvent;
+import com.clinique.api.repository.AppointmentRepository;
+import com.clinique.api.repository.PatientProfileRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.access.AccessDeniedException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour la chronologie de progression des patients.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PatientProgressService - Tests de la chronologie de progression")
+class PatientProgressServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 6, 10, 0);
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private PatientProfileRepository patientProfileRepository;
+
+    private PatientProgressService service;
+    private User patientUser;
+    private User therapistUser;
+
+    @BeforeEach
+    void setUp() {
+        service = newService(Duration.ofMinutes(10));
+
+        patientUser = User.builder().id(1L).email("patient@test.com").role(Role.ROLE_PATIENT).build();
+        therapistUser = User.builder().id(2L).email("therapist@test.com").role(Role.ROLE_THERAPIST).build();
+
+        PatientProfile patient = new PatientProfile();
+        patient.setId(10L);
+        patient.setUser(patientUser);
+        lenient().when(patientProfileRepository.findById(10L)).thenReturn(Optional.of(patient));
+    }
+
+    private PatientProgressService newService(Duration ttl) {
+        return new PatientProgressService(appointmentRepository, patientProfileRepository, 100, ttl);
+    }
+
+    private static ProgressPointDTO point(int week, Integer progress, Double sentiment) {
+        return new ProgressPointDTO(START.plusWeeks(week), progress, sentiment);
+    }
+
+    @Test
+    @DisplayName("Doit renvoyer toutes les séances notées en colonnes, scores absents compris")
+    void shouldReturnFullTimeline() {
+        when(appointmentRepository.findProgressTimelineByPatientId(10L)).thenReturn(List.of(
+                point(0, 4, 0.1), point(1, null, -0.2), point(2, 6, null)));
+
+        ProgressTimelineDTO timeline = service.getTimeline(10L, null, patientUser);
+
+        assertEquals(10L, timeline.getPatientId());
+        assertEquals(3, timeline.getTotalSessions());
+        assertFalse(timeline.isDownsampled());
+        assertEquals(List.of(START, START.plusWeeks(1), START.plusWeeks(2)), timeline.getSessionDateTimes());
+        assertEquals(Arrays.asList(4.0, null, 6.0), timeline.getProgressScores());
+        assertEquals(Arrays.asList(0.1, -0.2, null), timeline.getSentimentScores());
+    }
+
+    @Test
+    @DisplayName("Doit regrouper les séances consécutives en moyennant dates et scores présents")
+    void shouldDownsampleLongHistories() {
+        when(appointmentRepository.findProgressTimelineByPatientId(10L)).thenReturn(List.of(
+                point(0, 2, 0.0), point(2, 4, null), point(4, 6, 0.5), point(6, null, 0.3),
+                point(8, 8, 0.2), point(10, 10, 0.4)));
+
+        ProgressTimelineDTO timeline = service.getTimeline(10L, 3, patientUser);
+
+        assertTrue(timeline.isDownsampled());
+        assertEquals(6, timeline.getTotalSessions());
+        assertEquals(List.of(START.plusWeeks(1), START.plusWeeks(5), START.plusWeeks(9)), timeline.getSessionDateTimes());
+        assertEquals(List.of(3.0, 6.0, 9.0), timeline.getProgressScores());
+        assertEquals(0.0, timeline.getSentimentScores().get(0), 1e-9);
+        assertEquals(0.4, timeline.getSentimentScores().get(1), 1e-9);
+        assertEquals(0.3, timeline.getSentimentScores().get(2), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Doit servir la chronologie depuis le cache jusqu'à l'enregistrement d'une note du patient")
+    void shouldCacheUntilNoteSaved() {
+        when(appointmentRepository.findProgressTimelineByPatientId(10L))
+                .thenReturn(List.of(point(0, 4, 0.1)))
+                .thenReturn(List.of(point(0, 4, 0.1), point(1, 7, 0.6)));
+
+        service.getTimeline(10L, null, patientUser);
+        assertEquals(1, service.getTimeline(10L, null, patientUser).getTotalSessions());
+
+        service.onClinicalNoteSaved(new ClinicalNoteSavedEvent(5L, 6L, 99L, 2L, START));
+        assertEquals(1, service.getTimeline(10L, null, patientUser).getTotalSessions());
+
+        service.onClinicalNoteSaved(new ClinicalNoteSavedEvent(5L, 6L, 10L, 2L, START));
+        assertEquals(2, service.getTimeline(10L, null, patientUser).getTotalSessions());
+        verify(appointmentRepository, times(2)).findProgressTimelineByPatientId(10L);
+    }
+
+    @Test
+    @DisplayName("Doit relire la chronologie une fois la durée de vie du cache écoulée")
+    void shouldReloadExpiredEntries() {
+        service = newService(Duration.ZERO);
+        when(appointmentRepository.findProgressTimelineByPatientId(10L)).thenReturn(List.of(point(0, 4, 0.1)));
+
+        service.getTimeline(10L, null, patientUser);
+        service.getTimeline(10L, null, patientUser);
+
+        verify(appointmentRepository, times(2)).findProgressTimelineByPatientId(10L);
+    }
+
+    @Test
+    @DisplayName("Doit autoriser un thérapeute qui suit le patient et refuser les autres")
+    void shouldRestrictTherapistsToTheirPatients() {
+        when(appointmentRepository.findProgressTimelineByPatientId(10L)).thenReturn(List.of());
+        when(appointmentRepository.existsByPatientAndTherapistUser(10L, 2L)).thenReturn(true, false);
+
+        assertEquals(0, service.getTimeline(10L, null, therapistUser).getTotalSessions());
+        assertThrows(AccessDeniedException.class, () -> service.getTimeline(10L, null, therapistUser));
+    }
+
+    @Test
+    @DisplayName("Doit refuser un maxPoints inférieur à 2")
+    void shouldRejectInvalidMaxPoints() {
+        assertThrows(IllegalArgumentException.class, () -> service.getTimeline(10L, 1, patientUser));
+        verifyNoInteractions(appointmentRepository);
+    }
+}
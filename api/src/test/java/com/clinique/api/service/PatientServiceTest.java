@@ -1,11 +1,15 @@
 package com.clinique.api.service;
 
+import com.clinique.api.dto.ChurnRiskDTO;
 import com.clinique.api.dto.PatientInfoDTO;
+import com.clinique.api.entity.Appointment;
+import com.clinique.api.entity.AppointmentStatus;
 import com.clinique.api.entity.PatientProfile;
 import com.clinique.api.entity.Role;
 import com.clinique.api.entity.TherapistProfile;
 import com.clinique.api.entity.User;
 import com.clinique.api.exception.ResourceNotFoundException;
+import com.clinique.api.repository.AppointmentRepository;
 import com.clinique.api.repository.PatientProfileRepository;
 import com.clinique.api.repository.TherapistProfileRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -16,9 +20,12 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -37,6 +44,12 @@ class PatientServiceTest {
     @Mock
     private TherapistProfileRepository therapistProfileRepository;
 
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private MlService mlService;
+
     @InjectMocks
     private PatientService patientService;
 
@@ -195,4 +208,33 @@ class PatientServiceTest {
         assertEquals("Youssef", result.get(2).getFirstName());
         assertEquals("Idrissi", result.get(2).getLastName());
     }
-}
\ No newline at end of file
+
+    /**
+     * Vérifie que le taux d'annulation envoyé au modèle compte les annulations du patient
+     * (et seulement celles-ci).
+     */
+    @Test
+    @DisplayName("Doit calculer le taux d'annulation à partir des annulations du patient")
+    void shouldComputeCancellationRateFromPatientCancellations() {
+        // Given
+        List<Appointment> history = new ArrayList<>();
+        for (AppointmentStatus status : List.of(AppointmentStatus.COMPLETED, AppointmentStatus.CANCELLED_BY_PATIENT,
+                AppointmentStatus.CANCELLED_BY_THERAPIST, AppointmentStatus.CANCELLED_BY_PATIENT)) {
+            Appointment appointment = new Appointment();
+            appointment.setStatus(status);
+            appointment.setSessionDateTime(LocalDateTime.now().minusWeeks(history.size() + 1));
+            history.add(appointment);
+        }
+        when(appointmentRepository.findByPatientId(1L)).thenReturn(history);
+        when(mlService.predictChurn(anyInt(), eq(4), eq(0.5)))
+                .thenReturn(Map.of("is_churn_risk", true, "churn_probability", 0.7));
+
+        // When
+        ChurnRiskDTO result = patientService.getPatientChurnRisk(1L, therapistUser);
+
+        // Then
+        assertTrue(result.isChurnRisk());
+        assertEquals(0.7, result.getChurnProbability());
+        verify(mlService).predictChurn(7, 4, 0.5);
+    }
+}
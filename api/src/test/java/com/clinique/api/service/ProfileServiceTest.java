@@ -3,6 +3,7 @@ package com.clinique.api.service;
 import com.clinique.api.dto.ProfileDTO;
 import com.clinique.api.dto.UpdateProfileRequest;
 import com.clinique.api.entity.*;
+import com.clinique.api.event.TherapistProfileChangedEvent;
 import com.clinique.api.exception.ResourceNotFoundException;
 import com.clinique.api.repository.PatientProfileRepository;
 import com.clinique.api.repository.TherapistProfileRepository;
@@ -13,6 +14,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDate;
 import java.util.Optional;
@@ -34,6 +36,9 @@ class ProfileServiceTest {
     @Mock
     private TherapistProfileRepository therapistProfileRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private ProfileService profileService;
 
@@ -205,6 +210,7 @@ class ProfileServiceTest {
                 profile.getLastName().equals("Idrissi") &&
                 profile.getSpecialty().equals("Psychologue") &&
                 profile.getCredentials().equals("Master en Psychologie")));
+        verify(eventPublisher).publishEvent(new TherapistProfileChangedEvent(therapistProfile.getId()));
     }
 
     /**
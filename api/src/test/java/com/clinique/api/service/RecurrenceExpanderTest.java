@@ -0,0 +1,93 @@
+package com.clinique.api.service;
+
+import com.clinique.api.dto.RecurrenceFrequency;
+import com.clinique.api.dto.RecurrenceRule;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour le développement des règles de récurrence.
+ */
+@DisplayName("RecurrenceExpander - Tests des séries récurrentes")
+class RecurrenceExpanderTest {
+
+    // Lundi 7 janvier 2030, 10h
+    private static final LocalDateTime FIRST = LocalDateTime.of(2030, 1, 7, 10, 0);
+
+    private RecurrenceRule rule(RecurrenceFrequency frequency, int interval, Integer count, LocalDate until) {
+        RecurrenceRule rule = new RecurrenceRule();
+        rule.setFrequency(frequency);
+        rule.setInterval(interval);
+        rule.setCount(count);
+        rule.setUntil(until);
+        return rule;
+    }
+
+    @Test
+    @DisplayName("Doit générer une séance par semaine à la même heure")
+    void shouldExpandWeeklyWithCount() {
+        List<LocalDateTime> sessions = RecurrenceExpander.expand(FIRST, rule(RecurrenceFrequency.WEEKLY, 1, 4, null));
+
+        assertEquals(List.of(FIRST, FIRST.plusWeeks(1), FIRST.plusWeeks(2), FIRST.plusWeeks(3)), sessions);
+    }
+
+    @Test
+    @DisplayName("Doit gérer plusieurs jours par semaine et un intervalle de 2 semaines")
+    void shouldExpandWeeklyByDayWithInterval() {
+        RecurrenceRule rule = rule(RecurrenceFrequency.WEEKLY, 2, 4, null);
+        rule.setByDay(List.of(DayOfWeek.THURSDAY, DayOfWeek.MONDAY));
+
+        List<LocalDateTime> sessions = RecurrenceExpander.expand(FIRST, rule);
+
+        assertEquals(List.of(
+                FIRST,
+                FIRST.plusDays(3),
+                FIRST.plusWeeks(2),
+                FIRST.plusWeeks(2).plusDays(3)), sessions);
+    }
+
+    @Test
+    @DisplayName("Ne doit pas générer de séance avant la première date")
+    void shouldSkipDaysBeforeFirstSession() {
+        RecurrenceRule rule = rule(RecurrenceFrequency.WEEKLY, 1, 2, null);
+        rule.setByDay(List.of(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY));
+        LocalDateTime wednesday = FIRST.plusDays(2);
+
+        List<LocalDateTime> sessions = RecurrenceExpander.expand(wednesday, rule);
+
+        assertEquals(List.of(wednesday, FIRST.plusWeeks(1)), sessions);
+    }
+
+    @Test
+    @DisplayName("Doit s'arrêter à la date 'until' incluse")
+    void shouldStopAtUntil() {
+        List<LocalDateTime> sessions = RecurrenceExpander.expand(FIRST,
+                rule(RecurrenceFrequency.DAILY, 1, null, LocalDate.of(2030, 1, 9)));
+
+        assertEquals(3, sessions.size());
+        assertEquals(LocalDate.of(2030, 1, 9), sessions.get(2).toLocalDate());
+    }
+
+    @Test
+    @DisplayName("Doit plafonner le nombre de séances")
+    void shouldCapOccurrences() {
+        List<LocalDateTime> sessions = RecurrenceExpander.expand(FIRST,
+                rule(RecurrenceFrequency.MONTHLY, 1, null, LocalDate.of(2100, 1, 1)));
+
+        assertEquals(RecurrenceExpander.MAX_OCCURRENCES, sessions.size());
+    }
+
+    @Test
+    @DisplayName("Doit exiger 'count' ou 'until'")
+    void shouldRequireCountOrUntil() {
+        assertThrows(IllegalArgumentException.class,
+                () -> RecurrenceExpander.expand(FIRST, rule(RecurrenceFrequency.WEEKLY, 1, null, null)));
+    }
+}
@@ -0,0 +1,81 @@
+package com.clinique.api.service;
+
+import com.clinique.api.dto.TherapistInfoDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour l'instantané en mémoire de l'annuaire des thérapeutes.
+ */
+@DisplayName("TherapistDirectory - Tests de l'annuaire en mémoire")
+class TherapistDirectoryTest {
+
+    private TherapistDirectory directory;
+
+    private static List<TherapistInfoDTO> entries() {
+        return List.of(
+                new TherapistInfoDTO(1L, "Fatima", "Zahra", "Kinésithérapeute"),
+                new TherapistInfoDTO(2L, "Youssef", "El Idrissi", "Psychologue"),
+                new TherapistInfoDTO(3L, "Yasmine", "Benali", "psychologue"),
+                new TherapistInfoDTO(4L, "Ali", "Zahir", "Orthophoniste"));
+    }
+
+    private static List<Long> ids(List<TherapistInfoDTO> result) {
+        return result.stream().map(TherapistInfoDTO::getId).toList();
+    }
+
+    @BeforeEach
+    void setUp() {
+        directory = TherapistDirectory.of(entries());
+    }
+
+    @Test
+    @DisplayName("Doit renvoyer tout l'annuaire, dans l'ordre, sans critère")
+    void shouldReturnEverythingWithoutCriteria() {
+        assertEquals(List.of(1L, 2L, 3L, 4L), ids(directory.search(null, "  ")));
+        assertSame(directory.getEntries(), directory.search("", null));
+    }
+
+    @Test
+    @DisplayName("Doit filtrer par spécialité sans tenir compte de la casse ni des accents")
+    void shouldFilterBySpecialty() {
+        assertEquals(List.of(2L, 3L), ids(directory.search("PSYCHOLOGUE", null)));
+        assertEquals(List.of(1L), ids(directory.search("kinesitherapeute", null)));
+        assertTrue(directory.search("Dentiste", null).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Doit trouver par préfixe sur le prénom ou le nom, tous les mots devant correspondre")
+    void shouldSearchByNamePrefix() {
+        assertEquals(List.of(1L, 4L), ids(directory.search(null, "zah")));
+        assertEquals(List.of(2L, 3L), ids(directory.search(null, "y")));
+        assertEquals(List.of(2L), ids(directory.search(null, "youssef idri")));
+        assertEquals(List.of(2L), ids(directory.search(null, "el")));
+        assertTrue(directory.search(null, "yasmine zahra").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Doit combiner spécialité et nom")
+    void shouldCombineSpecialtyAndName() {
+        assertEquals(List.of(3L), ids(directory.search("Psychologue", "ben")));
+        assertTrue(directory.search("Orthophoniste", "fatima").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Doit garder le même ETag pour le même contenu et en changer dès qu'un champ change")
+    void shouldDeriveEtagFromContent() {
+        TherapistDirectory same = TherapistDirectory.of(entries());
+        List<TherapistInfoDTO> renamed = new ArrayList<>(entries());
+        renamed.set(3, new TherapistInfoDTO(4L, "Ali", "Zahir", "Psychomotricien"));
+
+        assertEquals(directory.getEtag(), same.getEtag());
+        assertNotEquals(directory.getEtag(), TherapistDirectory.of(renamed).getEtag());
+        assertTrue(directory.getEtag().startsWith("\"") && directory.getEtag().endsWith("\""));
+    }
+}
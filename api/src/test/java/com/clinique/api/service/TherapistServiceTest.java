@@ -0,0 +1,64 @@
+package com.clinique.api.service;
+
+import com.clinique.api.dto.TherapistInfoDTO;
+import com.clinique.api.event.TherapistProfileChangedEvent;
+import com.clinique.api.repository.TherapistProfileRepository;
+import com.clinique.api.repository.TherapistReadRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour le service de l'annuaire des thérapeutes.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TherapistService - Tests du service d'annuaire")
+class TherapistServiceTest {
+
+    @Mock
+    private TherapistProfileRepository therapistProfileRepository;
+
+    @Mock
+    private TherapistReadRepository therapistReadRepository;
+
+    @InjectMocks
+    private TherapistService therapistService;
+
+    @Test
+    @DisplayName("Doit servir l'annuaire depuis la mémoire après la première lecture")
+    void shouldReuseSnapshot() {
+        when(therapistProfileRepository.findDirectoryEntries())
+                .thenReturn(List.of(new TherapistInfoDTO(1L, "Fatima", "Zahra", "Kinésithérapeute")));
+
+        TherapistDirectory first = therapistService.getDirectory();
+        TherapistDirectory second = therapistService.getDirectory();
+
+        assertSame(first, second);
+        assertEquals(1, therapistService.getAllTherapists().size());
+        verify(therapistProfileRepository, times(1)).findDirectoryEntries();
+    }
+
+    @Test
+    @DisplayName("Doit relire l'annuaire après la modification d'un profil thérapeute")
+    void shouldRebuildAfterProfileChange() {
+        when(therapistProfileRepository.findDirectoryEntries())
+                .thenReturn(List.of(new TherapistInfoDTO(1L, "Fatima", "Zahra", "Kinésithérapeute")))
+                .thenReturn(List.of(new TherapistInfoDTO(1L, "Fatima", "Zahra", "Psychologue")));
+
+        String before = therapistService.getDirectory().getEtag();
+        therapistService.onTherapistProfileChanged(new TherapistProfileChangedEvent(1L));
+        TherapistDirectory after = therapistService.getDirectory();
+
+        assertNotEquals(before, after.getEtag());
+        assertEquals("Psychologue", after.getEntries().get(0).getSpecialty());
+        verify(therapistProfileRepository, times(2)).findDirectoryEntries();
+    }
+}
@@ -0,0 +1,85 @@
+package com.clinique.api.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour l'index mémoire de la liste d'attente.
+ */
+@DisplayName("WaitlistIndex - Tests de l'index de liste d'attente")
+class WaitlistIndexTest {
+
+    private static final LocalDateTime SLOT = LocalDateTime.of(2030, 1, 15, 10, 0);
+
+    private WaitlistIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new WaitlistIndex();
+    }
+
+    private WaitlistIndex.Candidate candidate(long entryId, long patientId, int priority, LocalDateTime createdAt,
+                                              LocalDateTime earliest, LocalDateTime latest) {
+        return new WaitlistIndex.Candidate(entryId, 1L, patientId, priority, createdAt, earliest, latest);
+    }
+
+    @Test
+    @DisplayName("Doit proposer d'abord la priorité la plus haute, puis le plus ancien")
+    void shouldPollByPriorityThenAge() {
+        LocalDateTime t0 = LocalDateTime.of(2030, 1, 1, 9, 0);
+        index.add(candidate(1L, 11L, 0, t0, null, null));
+        index.add(candidate(2L, 12L, 5, t0.plusHours(2), null, null));
+        index.add(candidate(3L, 13L, 5, t0.plusHours(1), null, null));
+
+        assertEquals(3L, index.pollBestMatch(1L, SLOT, Set.of()).orElseThrow().entryId());
+        assertEquals(2L, index.pollBestMatch(1L, SLOT, Set.of()).orElseThrow().entryId());
+        assertEquals(1L, index.pollBestMatch(1L, SLOT, Set.of()).orElseThrow().entryId());
+        assertTrue(index.pollBestMatch(1L, SLOT, Set.of()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Doit ignorer les candidats dont la plage horaire n'accepte pas le créneau")
+    void shouldRespectTimeWindow() {
+        LocalDateTime t0 = LocalDateTime.of(2030, 1, 1, 9, 0);
+        index.add(candidate(1L, 11L, 9, t0, SLOT.plusDays(1), null));
+        index.add(candidate(2L, 12L, 1, t0, SLOT.minusDays(1), SLOT.plusDays(1)));
+
+        Optional<WaitlistIndex.Candidate> match = index.pollBestMatch(1L, SLOT, Set.of());
+
+        assertEquals(2L, match.orElseThrow().entryId());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    @DisplayName("Doit ignorer le patient exclu (celui qui vient d'annuler)")
+    void shouldSkipExcludedPatient() {
+        LocalDateTime t0 = LocalDateTime.of(2030, 1, 1, 9, 0);
+        index.add(candidate(1L, 11L, 9, t0, null, null));
+        index.add(candidate(2L, 12L, 1, t0, null, null));
+
+        assertEquals(2L, index.pollBestMatch(1L, SLOT, Set.of(11L)).orElseThrow().entryId());
+    }
+
+    @Test
+    @DisplayName("Ne doit plus proposer une inscription retirée")
+    void shouldNotReturnRemovedEntry() {
+        index.add(candidate(1L, 11L, 0, null, null, null));
+        index.remove(1L);
+
+        assertTrue(index.pollBestMatch(1L, SLOT, Set.of()).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    @DisplayName("Ne doit rien renvoyer pour un thérapeute inconnu")
+    void shouldReturnEmptyForUnknownTherapist() {
+        assertTrue(index.pollBestMatch(99L, SLOT, Set.of()).isEmpty());
+    }
+}
@@ -0,0 +1,246 @@
+package com.clinique.api.service;
+
+import com.clinique.api.dto.JoinWaitlistRequest;
+import com.clinique.api.dto.WaitlistEntryDTO;
+import com.clinique.api.entity.*;
+import com.clinique.api.event.AppointmentCancelledEvent;
+import com.clinique.api.exception.ConflictException;
+import com.clinique.api.repository.AppointmentRepository;
+import com.clinique.api.repository.PatientProfileRepository;
+import com.clinique.api.repository.TherapistProfileRepository;
+import com.clinique.api.repository.WaitlistEntryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour WaitlistService : propositions de créneaux et cohérence de l'index
+ * mémoire avec les transactions (commit ou annulation).
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WaitlistService - Tests de la liste d'attente")
+class WaitlistServiceTest {
+
+    private static final LocalDateTime SLOT = LocalDateTime.now().plusDays(3).withNano(0);
+
+    @Mock
+    private WaitlistEntryRepository waitlistEntryRepository;
+
+    @Mock
+    private PatientProfileRepository patientProfileRepository;
+
+    @Mock
+    private TherapistProfileRepository therapistProfileRepository;
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private AppointmentService appointmentService;
+
+    @Spy
+    private WaitlistIndex waitlistIndex = new WaitlistIndex();
+
+    @InjectMocks
+    private WaitlistService waitlistService;
+
+    private TherapistProfile therapist;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(waitlistService, "offerTtl", Duration.ofHours(2));
+        User therapistUser = User.builder().id(100L).email("therapist@test.com").role(Role.ROLE_THERAPIST).build();
+        therapist = new TherapistProfile();
+        therapist.setId(1L);
+        therapist.setUser(therapistUser);
+        // Transaction simulée : les synchronisations sont déclenchées par completeTransaction()
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private void completeTransaction(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        }
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+
+    private PatientProfile patient(long id) {
+        PatientProfile patient = new PatientProfile();
+        patient.setId(id);
+        patient.setUser(User.builder().id(id).email("patient" + id + "@test.com").role(Role.ROLE_PATIENT).build());
+        return patient;
+    }
+
+    private WaitlistEntry entry(long id, PatientProfile patient, int priority, WaitlistStatus status) {
+        WaitlistEntry entry = new WaitlistEntry();
+        entry.setId(id);
+        entry.setPatient(patient);
+        entry.setTherapist(therapist);
+        entry.setPriority(priority);
+        entry.setStatus(status);
+        entry.setCreatedAt(LocalDateTime.now().minusDays(1).plusMinutes(id));
+        return entry;
+    }
+
+    private WaitlistEntry waiting(long id, PatientProfile patient, int priority) {
+        WaitlistEntry entry = entry(id, patient, priority, WaitlistStatus.WAITING);
+        waitlistIndex.add(new WaitlistIndex.Candidate(id, therapist.getId(), patient.getId(), priority,
+                entry.getCreatedAt(), null, null));
+        lenient().when(waitlistEntryRepository.findById(id)).thenReturn(Optional.of(entry));
+        return entry;
+    }
+
+    private WaitlistEntry offered(long id, PatientProfile patient, LocalDateTime slot, LocalDateTime expiresAt) {
+        WaitlistEntry entry = entry(id, patient, 0, WaitlistStatus.OFFERED);
+        entry.setOfferedSessionDateTime(slot);
+        entry.setOfferExpiresAt(expiresAt);
+        return entry;
+    }
+
+    @Test
+    @DisplayName("Doit proposer le créneau annulé au patient le plus prioritaire, sauf à celui qui a annulé")
+    void shouldOfferCancelledSlotToBestCandidate() {
+        PatientProfile canceller = patient(1L);
+        waiting(10L, canceller, 9);
+        WaitlistEntry best = waiting(11L, patient(2L), 5);
+        waiting(12L, patient(3L), 0);
+
+        waitlistService.onAppointmentCancelled(new AppointmentCancelledEvent(50L, 1L, 1L, SLOT, AppointmentStatus.CANCELLED_BY_PATIENT));
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertEquals(WaitlistStatus.OFFERED, best.getStatus());
+        assertEquals(SLOT, best.getOfferedSessionDateTime());
+        assertFalse(best.getOfferExpiresAt().isAfter(SLOT));
+        verify(waitlistEntryRepository).save(best);
+        // Le candidat servi quitte l'index, celui qui a annulé y reste
+        assertEquals(2, waitlistIndex.size());
+        assertEquals(10L, waitlistIndex.pollBestMatch(1L, SLOT, Set.of()).orElseThrow().entryId());
+    }
+
+    @Test
+    @DisplayName("Doit remettre en attente le patient qui refuse et passer le créneau au suivant")
+    void shouldRequeueDecliningPatientAndOfferSlotToNext() {
+        PatientProfile declining = patient(1L);
+        WaitlistEntry entry = offered(10L, declining, SLOT, LocalDateTime.now().plusHours(1));
+        when(waitlistEntryRepository.findById(10L)).thenReturn(Optional.of(entry));
+        when(waitlistEntryRepository.save(any(WaitlistEntry.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        WaitlistEntry next = waiting(11L, patient(2L), 0);
+
+        WaitlistEntryDTO result = waitlistService.declineOffer(10L, declining.getUser());
+
+        assertEquals(WaitlistStatus.WAITING, result.getStatus());
+        assertNull(result.getOfferedSessionDateTime());
+        assertEquals(WaitlistStatus.OFFERED, next.getStatus());
+        assertEquals(SLOT, next.getOfferedSessionDateTime());
+        // Retour dans l'index seulement au commit
+        assertEquals(0, waitlistIndex.size());
+
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertEquals(10L, waitlistIndex.pollBestMatch(1L, SLOT, Set.of()).orElseThrow().entryId());
+    }
+
+    @Test
+    @DisplayName("Doit faire expirer les propositions sans réponse et reproposer leurs créneaux")
+    void shouldExpireOffersAndOfferSlotsAgain() {
+        WaitlistEntry expired = offered(10L, patient(1L), SLOT, LocalDateTime.now().minusMinutes(1));
+        when(waitlistEntryRepository.findExpiredOffers(any(LocalDateTime.class))).thenReturn(List.of(expired));
+        WaitlistEntry next = waiting(11L, patient(2L), 0);
+
+        waitlistService.expireOffers();
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertEquals(WaitlistStatus.EXPIRED, expired.getStatus());
+        assertEquals(WaitlistStatus.OFFERED, next.getStatus());
+        assertEquals(SLOT, next.getOfferedSessionDateTime());
+        assertEquals(0, waitlistIndex.size());
+    }
+
+    @Test
+    @DisplayName("Doit remettre dans l'index tous les candidats servis quand le balayage des expirations échoue")
+    void shouldRestorePolledCandidatesWhenSweepRollsBack() {
+        WaitlistEntry first = offered(10L, patient(1L), SLOT, LocalDateTime.now().minusMinutes(2));
+        WaitlistEntry second = offered(11L, patient(2L), SLOT.plusHours(1), LocalDateTime.now().minusMinutes(1));
+        WaitlistEntry failing = offered(12L, patient(3L), SLOT.plusHours(2), LocalDateTime.now().minusMinutes(1));
+        when(waitlistEntryRepository.findExpiredOffers(any(LocalDateTime.class))).thenReturn(List.of(first, second, failing));
+        when(waitlistEntryRepository.save(any(WaitlistEntry.class))).thenAnswer(invocation -> {
+            if (invocation.getArgument(0) == failing) {
+                throw new DataAccessResourceFailureException("connexion perdue");
+            }
+            return invocation.getArgument(0);
+        });
+        waiting(20L, patient(4L), 0);
+        waiting(21L, patient(5L), 0);
+
+        assertThrows(DataAccessResourceFailureException.class, () -> waitlistService.expireOffers());
+        assertEquals(0, waitlistIndex.size());
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertEquals(2, waitlistIndex.size());
+        assertEquals(20L, waitlistIndex.pollBestMatch(1L, SLOT, Set.of()).orElseThrow().entryId());
+        assertEquals(21L, waitlistIndex.pollBestMatch(1L, SLOT, Set.of()).orElseThrow().entryId());
+    }
+
+    @Test
+    @DisplayName("Ne doit pas indexer une inscription dont la transaction est annulée")
+    void shouldNotIndexJoinWhenTransactionRollsBack() {
+        PatientProfile patient = patient(1L);
+        when(patientProfileRepository.findByUserId(1L)).thenReturn(Optional.of(patient));
+        when(therapistProfileRepository.findById(1L)).thenReturn(Optional.of(therapist));
+        when(waitlistEntryRepository.save(any(WaitlistEntry.class))).thenAnswer(invocation -> {
+            WaitlistEntry saved = invocation.getArgument(0);
+            saved.setId(30L);
+            return saved;
+        });
+        JoinWaitlistRequest request = new JoinWaitlistRequest();
+        request.setTherapistId(1L);
+
+        waitlistService.join(request, patient.getUser());
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertEquals(0, waitlistIndex.size());
+    }
+
+    @Test
+    @DisplayName("Doit refuser une seconde inscription en cours du même patient chez le même thérapeute")
+    void shouldRejectDuplicateActiveEntry() {
+        PatientProfile patient = patient(1L);
+        when(patientProfileRepository.findByUserId(1L)).thenReturn(Optional.of(patient));
+        when(therapistProfileRepository.findById(1L)).thenReturn(Optional.of(therapist));
+        when(waitlistEntryRepository.existsActiveEntry(1L, 1L)).thenReturn(true);
+        JoinWaitlistRequest request = new JoinWaitlistRequest();
+        request.setTherapistId(1L);
+
+        assertThrows(ConflictException.class, () -> waitlistService.join(request, patient.getUser()));
+        verify(waitlistEntryRepository, never()).save(any());
+    }
+}
@@ -0,0 +1,85 @@
+package com.clinique.api.threads;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour la détection des threads virtuels épinglés.
+ */
+@DisplayName("VirtualThreadPinningMonitor - Tests de la détection des épinglages")
+class VirtualThreadPinningMonitorTest {
+
+    private static final List<String> STACK = List.of(
+            "java.lang.VirtualThread.parkOnCarrierThread:681",
+            "org.postgresql.core.v3.QueryExecutorImpl.execute:360",
+            "com.clinique.api.service.AppointmentService.createAppointment:88",
+            "com.clinique.api.controller.AppointmentController.createAppointment:41");
+
+    private SimpleMeterRegistry registry;
+    private VirtualThreadPinningMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        monitor = new VirtualThreadPinningMonitor(registry, Duration.ofMillis(20));
+    }
+
+    @Test
+    @DisplayName("Doit attribuer l'épinglage à la première méthode de l'application, sinon à la bibliothèque")
+    void shouldResolveSource() {
+        assertEquals("com.clinique.api.service.AppointmentService.createAppointment", VirtualThreadPinningMonitor.source(STACK));
+        assertEquals("org.postgresql.core.v3.QueryExecutorImpl.execute",
+                VirtualThreadPinningMonitor.source(STACK.subList(0, 2)));
+        assertEquals("unknown", VirtualThreadPinningMonitor.source(STACK.subList(0, 1)));
+    }
+
+    @Test
+    @DisplayName("Doit compter chaque épinglage et ne journaliser qu'une fois chaque pile")
+    void shouldCountEveryPinningAndReportEachStackOnce() {
+        monitor.onPinned(Duration.ofMillis(30), STACK);
+        monitor.onPinned(Duration.ofMillis(50), STACK);
+        monitor.onPinned(Duration.ofMillis(25), STACK.subList(0, 2));
+
+        assertEquals(2, registry.get("jvm.threads.virtual.pinned")
+                .tag("source", "com.clinique.api.service.AppointmentService.createAppointment").counter().count());
+        assertEquals(3, registry.get("jvm.threads.virtual.pinned.duration").timer().count());
+        assertEquals(2, monitor.reportedStacks());
+    }
+
+    @Test
+    @DisplayName("Doit détecter un vrai blocage dans un bloc synchronized via JFR")
+    void shouldDetectRealPinning() throws Exception {
+        monitor = new VirtualThreadPinningMonitor(registry, Duration.ofMillis(1));
+        monitor.start();
+        try {
+            Object lock = new Object();
+            Thread.ofVirtual().start(() -> {
+                synchronized (lock) {
+                    try {
+                        Thread.sleep(50);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }).join();
+
+            // Le flux JFR est vidé environ une fois par seconde
+            long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+            while (registry.find("jvm.threads.virtual.pinned").counter() == null && System.nanoTime() < deadline) {
+                Thread.sleep(100);
+            }
+            assertNotNull(registry.find("jvm.threads.virtual.pinned").counter());
+            assertTrue(registry.get("jvm.threads.virtual.pinned").counter().getId().getTag("source")
+                    .startsWith(VirtualThreadPinningMonitorTest.class.getName()));
+        } finally {
+            monitor.close();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.clinique.api.tracing;
+
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.data.StatusData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour l'échantillonnage des traces lentes.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SlowTraceSpanProcessor - Tests de l'échantillonnage des traces lentes")
+class SlowTraceSpanProcessorTest {
+
+    private static final String TRACE_ID = "0af7651916cd43dd8448eb211c80319c";
+    private static final long THRESHOLD = 500_000_000L;
+
+    @Mock
+    private SpanProcessor delegate;
+
+    private SlowTraceSpanProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        processor = new SlowTraceSpanProcessor(delegate, THRESHOLD, 0.0, 100);
+    }
+
+    private SpanContext context(String spanId) {
+        return SpanContext.create(TRACE_ID, spanId, TraceFlags.getSampled(), TraceState.getDefault());
+    }
+
+    private ReadableSpan child(String spanId, String parentId) {
+        ReadableSpan span = mock(ReadableSpan.class);
+        when(span.getSpanContext()).thenReturn(context(spanId));
+        when(span.getParentSpanContext()).thenReturn(context(parentId));
+        return span;
+    }
+
+    private ReadableSpan root(long latencyNanos, StatusData status) {
+        ReadableSpan span = mock(ReadableSpan.class);
+        when(span.getSpanContext()).thenReturn(context("b7ad6b7169203331"));
+        when(span.getParentSpanContext()).thenReturn(SpanContext.getInvalid());
+        when(span.getLatencyNanos()).thenReturn(latencyNanos);
+        if (latencyNanos < THRESHOLD) {
+            SpanData data = mock(SpanData.class);
+            when(data.getStatus()).thenReturn(status);
+            when(span.toSpanData()).thenReturn(data);
+        }
+        return span;
+    }
+
+    @Test
+    @DisplayName("Doit exporter toute la trace quand la requête est lente")
+    void shouldExportSlowTrace() {
+        ReadableSpan db = child("00f067aa0ba902b7", "b7ad6b7169203331");
+        ReadableSpan ml = child("00f067aa0ba902b8", "b7ad6b7169203331");
+        ReadableSpan request = root(THRESHOLD + 1, null);
+
+        processor.onEnd(db);
+        processor.onEnd(ml);
+        processor.onEnd(request);
+
+        verify(delegate).onEnd(db);
+        verify(delegate).onEnd(ml);
+        verify(delegate).onEnd(request);
+        assertEquals(0, processor.getPendingTraceCount());
+    }
+
+    @Test
+    @DisplayName("Ne doit pas exporter une trace rapide et sans erreur")
+    void shouldDropFastTrace() {
+        ReadableSpan db = child("00f067aa0ba902b7", "b7ad6b7169203331");
+        ReadableSpan request = root(1_000_000L, StatusData.ok());
+
+        processor.onEnd(db);
+        processor.onEnd(request);
+
+        verify(delegate, never()).onEnd(any());
+        assertEquals(0, processor.getPendingTraceCount());
+    }
+
+    @Test
+    @DisplayName("Doit exporter une trace rapide terminée en erreur")
+    void shouldExportFailedTrace() {
+        ReadableSpan request = root(1_000_000L, StatusData.error());
+
+        processor.onEnd(request);
+
+        verify(delegate).onEnd(request);
+    }
+
+    @Test
+    @DisplayName("Doit ignorer les spans au-delà de la capacité du tampon")
+    void shouldBoundBufferedTraces() {
+        SlowTraceSpanProcessor small = new SlowTraceSpanProcessor(delegate, THRESHOLD, 0.0, 0);
+
+        small.onEnd(child("00f067aa0ba902b7", "b7ad6b7169203331"));
+
+        assertEquals(0, small.getPendingTraceCount());
+        assertEquals(1, small.getDroppedSpans());
+    }
+}
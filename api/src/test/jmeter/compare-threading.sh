@@ -0,0 +1,53 @@
+#!/usr/bin/env bash
+# Compare le modèle thread-par-requête (pool Tomcat) et les threads virtuels
+# sur la même campagne clinical_workflow.jmx (profil Maven load-test).
+#
+# Usage (depuis api/) :
+#   src/test/jmeter/compare-threading.sh [options Maven de la campagne...]
+#   src/test/jmeter/compare-threading.sh -Djmeter.users=100 -Djmeter.loop=50 -Dml.stub.latency.ms=200
+#
+# Une latence du stub de ML élevée rend visible la différence : en mode plateforme chaque
+# appel bloquant occupe un des 200 threads Tomcat, en mode virtuel il libère son porteur.
+# Résultats : target/threading-comparison/{platform,virtual}.json et tableau récapitulatif.
+set -uo pipefail
+
+cd "$(dirname "$0")/../../.."
+OUT=target/threading-comparison
+mkdir -p "$OUT"
+
+run() {
+    local mode=$1 profiles=$2
+    shift 2
+    echo ">>> Campagne en mode $mode"
+    # JMeter refuse un dossier de rapport non vide ; l'échec des seuils SLA n'interrompt pas la comparaison
+    rm -rf target/jmeter
+    mvn -B -q -P load-test verify -DskipTests -Dspring-boot.run.profiles="$profiles" "$@" \
+        > "$OUT/$mode.log" 2>&1 || echo "    (seuils dépassés ou échec, voir $OUT/$mode.log)"
+    local stats=target/jmeter/reports/clinical_workflow/statistics.json
+    if [[ ! -f $stats ]]; then
+        echo "Pas de statistiques pour le mode $mode" >&2
+        exit 1
+    fi
+    cp "$stats" "$OUT/$mode.json"
+}
+
+run platform "" "$@"
+run virtual virtual-threads "$@"
+
+python3 - "$OUT/platform.json" "$OUT/virtual.json" <<'PY'
+import json
+import sys
+
+platform, virtual = (json.load(open(path)) for path in sys.argv[1:3])
+columns = [("sampleCount", "requêtes", "{:.0f}"), ("errorPct", "erreurs %", "{:.2f}"),
+           ("throughput", "req/s", "{:.1f}"), ("medianResTime", "p50 ms", "{:.0f}"),
+           ("pct2ResTime", "p95 ms", "{:.0f}"), ("pct3ResTime", "p99 ms", "{:.0f}")]
+
+print(f"{'transaction':<32}{'mode':<10}" + "".join(f"{label:>12}" for _, label, _ in columns))
+for name in sorted(set(platform) & set(virtual), key=lambda n: (n != "Total", n)):
+    if name.startswith(("Dataset", "SLA")):
+        continue
+    for mode, stats in (("platform", platform[name]), ("virtual", virtual[name])):
+        print(f"{name if mode == 'platform' else '':<32}{mode:<10}"
+              + "".join(f"{fmt.format(stats[key]):>12}" for key, _, fmt in columns))
+PY
@@ -1,28 +1,116 @@
+import os
+import warnings
 from fastapi import FastAPI
 from pydantic import BaseModel
-import joblib
-import pandas as pd
+from typing import List, Optional
 import numpy as np # Importez numpy
+import textblob
+from textblob import TextBlob
+
+from model_registry import ModelRegistry
+
+# Les modèles ont été ajustés sur des DataFrames pandas ; on leur passe des matrices numpy dans le même
+# ordre de colonnes. scikit-learn le signale à chaque appel : avertissement ignoré.
+warnings.filterwarnings("ignore", message="X does not have valid feature names")
 
 app = FastAPI(title="API de Prédiction Clinique")
 
-# --- Modèle 1: Risque d'Annulation ---
-try:
-    cancel_model = joblib.load("cancellation_model.joblib")
-    cancel_scaler = joblib.load("scaler.joblib")
-    print("Modèle d'annulation chargé.")
-except FileNotFoundError:
-    print("ERREUR: Fichiers du modèle d'annulation non trouvés. Exécutez train.py")
-    cancel_model = None
-    cancel_scaler = None
-
-# --- Modèle 2: Timing de Session ---
-try:
-    timing_model = joblib.load("timing_model.joblib")
-    print("Modèle de timing chargé.")
-except FileNotFoundError:
-    print("ERREUR: Fichiers du modèle de timing non trouvés. Exécutez train_timing.py")
-    timing_model = None
+# --- Tracing distribué (optionnel) ---
+# L'API Java propage l'en-tête W3C "traceparent" : les spans créés ici rejoignent
+# la même trace. Export vers un collecteur OTLP (OTEL_EXPORTER_OTLP_ENDPOINT)
+# ou vers un fichier (OTEL_TRACES_FILE). Sans ces variables, rien n'est activé.
+
+def setup_tracing(application):
+    otlp_endpoint = os.getenv("OTEL_EXPORTER_OTLP_ENDPOINT")
+    traces_file = os.getenv("OTEL_TRACES_FILE")
+    if not otlp_endpoint and not traces_file:
+        return
+    try:
+        from opentelemetry import trace
+        from opentelemetry.instrumentation.fastapi import FastAPIInstrumentor
+        from opentelemetry.sdk.resources import Resource
+        from opentelemetry.sdk.trace import TracerProvider
+        from opentelemetry.sdk.trace.export import BatchSpanProcessor, ConsoleSpanExporter
+    except ImportError:
+        print("ATTENTION: paquets opentelemetry absents, tracing désactivé.")
+        return
+
+    provider = TracerProvider(resource=Resource.create({"service.name": "clinique-ml-service"}))
+    if otlp_endpoint:
+        from opentelemetry.exporter.otlp.proto.http.trace_exporter import OTLPSpanExporter
+        provider.add_span_processor(BatchSpanProcessor(OTLPSpanExporter()))
+    if traces_file:
+        provider.add_span_processor(BatchSpanProcessor(ConsoleSpanExporter(out=open(traces_file, "a"))))
+    trace.set_tracer_provider(provider)
+    FastAPIInstrumentor.instrument_app(application)
+    print("Tracing OpenTelemetry activé.")
+
+setup_tracing(app)
+
+# --- Calcul vectorisé ---
+# Chaque endpoint (unitaire ou par lot) construit une seule matrice numpy et appelle le modèle une fois :
+# pas de DataFrame par requête, dont la construction coûtait plus cher que le modèle lui-même.
+CANCELLATION_FEATURES = ("lead_time_days", "day_of_week", "hour_of_day")
+CHURN_FEATURES = ("days_since_last_visit", "total_visits", "cancellation_rate")
+
+def _matrix(items, features):
+    return np.array([[getattr(item, f) for f in features] for item in items], dtype=float).reshape(len(items), len(features))
+
+def cancellation_scores(model, X):
+    cancel_model, cancel_scaler = model.artifacts
+    return cancel_model.predict_proba(cancel_scaler.transform(X))[:, 1]
+
+def timing_days(model, X):
+    timing_model, = model.artifacts
+    # Arrondi au jour le plus proche, au moins 1 jour
+    return np.maximum(1, np.rint(timing_model.predict(X))).astype(int)
+
+def churn_probabilities(model, X):
+    churn_model, = model.artifacts
+    return churn_model.predict_proba(X)[:, 1]
+
+# Pas d'artefact entraîné : la version est celle de la bibliothèque
+SENTIMENT_MODEL_VERSION = f"sentiment-textblob-{textblob.__version__}"
+
+def sentiment(text):
+    # TextBlob analyse un texte à la fois : le lot économise les allers-retours, pas le calcul
+    blob = TextBlob(text)
+    polarity = blob.sentiment.polarity
+    label = "NEUTRAL"
+    if polarity > 0.1:
+        label = "POSITIVE"
+    elif polarity < -0.1:
+        label = "NEGATIVE"
+    return polarity, blob.sentiment.subjectivity, label
+
+# --- Préchauffage ---
+# Une prédiction à vide sur une ligne puis sur un lot, avant la publication de chaque modèle chargé
+# (démarrage et rechargement à chaud) : initialisations paresseuses de scikit-learn, threads de calcul.
+WARM_UP_ROWS = int(os.getenv("MODEL_WARM_UP_ROWS", "256"))
+PREDICTORS = {
+    "cancellation": (cancellation_scores, len(CANCELLATION_FEATURES)),
+    "cancellation_candidate": (cancellation_scores, len(CANCELLATION_FEATURES)),
+    "timing": (timing_days, 1),
+    "churn": (churn_probabilities, len(CHURN_FEATURES)),
+}
+
+def warm_up(model):
+    predict, n_features = PREDICTORS[model.name]
+    for rows in (1, WARM_UP_ROWS):
+        predict(model, np.zeros((rows, n_features)))
+
+# Le lexique de TextBlob n'est lu qu'à la première analyse
+sentiment("Préchauffage du service de prédiction.")
+
+# --- Registre des modèles (annulation, timing, churn) ---
+# Chargés (et préchauffés) au démarrage, puis rechargés à chaud quand un script train*.py réécrit leurs
+# artefacts (surveillance toutes les MODEL_RELOAD_INTERVAL secondes, 0 = désactivée) ou sur POST /models/reload.
+# Chaque réponse indique la version du modèle qui l'a produite (model_version).
+registry = ModelRegistry(on_load=warm_up)
+registry.reload()
+MODEL_RELOAD_INTERVAL = float(os.getenv("MODEL_RELOAD_INTERVAL", "30"))
+if MODEL_RELOAD_INTERVAL > 0:
+    registry.watch(MODEL_RELOAD_INTERVAL)
 
 # --- DTOs pour le Modèle 1 ---
 class AppointmentFeatures(BaseModel):
@@ -32,6 +120,7 @@ class AppointmentFeatures(BaseModel):
 
 class PredictionResponse(BaseModel):
     cancellation_risk_score: float
+    model_version: Optional[str] = None
 
 # --- DTOs pour le Modèle 2 ---
 class TimingFeatures(BaseModel):
@@ -40,41 +129,71 @@ class TimingFeatures(BaseModel):
 
 class TimingResponse(BaseModel):
     recommended_days_next_session: int
+    model_version: Optional[str] = None
 
 # --- Endpoint 1: Prédire l'Annulation ---
 @app.post("/predict", response_model=PredictionResponse)
 async def predict_cancellation(features: AppointmentFeatures):
-    if not cancel_model or not cancel_scaler:
+    model = registry.get("cancellation")
+    if not model.available:
         return {"cancellation_risk_score": -1.0}
+    risk_score = cancellation_scores(model, _matrix([features], CANCELLATION_FEATURES))[0]
+    return {"cancellation_risk_score": float(risk_score), "model_version": model.version}
+
+# --- Endpoint 1 bis: Prédire l'Annulation par lot (séries de RDV) ---
+class AppointmentFeaturesBatch(BaseModel):
+    items: List[AppointmentFeatures]
+
+class PredictionBatchResponse(BaseModel):
+    cancellation_risk_scores: List[float]
+    model_version: Optional[str] = None
 
-    input_data = pd.DataFrame([features.dict()])
-    input_scaled = cancel_scaler.transform(input_data)
-    prediction_proba = cancel_model.predict_proba(input_scaled)
-    risk_score = prediction_proba[0][1]
-    
-    return {"cancellation_risk_score": risk_score}
+@app.post("/predict-batch", response_model=PredictionBatchResponse)
+async def predict_cancellation_batch(batch: AppointmentFeaturesBatch):
+    return _score_batch(registry.get("cancellation"), batch)
+
+# --- Endpoint 1 ter: modèle d'annulation candidat (scoring shadow, jamais utilisé pour les RDV) ---
+@app.post("/predict-batch-candidate", response_model=PredictionBatchResponse)
+async def predict_cancellation_batch_candidate(batch: AppointmentFeaturesBatch):
+    return _score_batch(registry.get("cancellation_candidate"), batch)
+
+def _score_batch(model, batch):
+    if not model.available:
+        return {"cancellation_risk_scores": [-1.0] * len(batch.items)}
+    if not batch.items:
+        return {"cancellation_risk_scores": [], "model_version": model.version}
+    risk_scores = cancellation_scores(model, _matrix(batch.items, CANCELLATION_FEATURES))
+    return {"cancellation_risk_scores": risk_scores.tolist(), "model_version": model.version}
 
 # --- NOUVEL Endpoint 2: Prédire le Timing ---
 @app.post("/predict-timing", response_model=TimingResponse)
 async def predict_timing(features: TimingFeatures):
-    if not timing_model:
+    model = registry.get("timing")
+    if not model.available:
         return {"recommended_days_next_session": -1} # Erreur
 
-    # Préparer les données pour le modèle de régression
-    # Note: .predict() attend un array 2D, d'où [[...]]
-    input_data = np.array([[features.last_progress_score]])
-    
-    # Faire la prédiction
-    predicted_days = timing_model.predict(input_data)
-    
-    # Arrondir au jour le plus proche et s'assurer qu'il est positif
-    recommended_days = max(1, int(round(predicted_days[0])))
-    
-    return {"recommended_days_next_session": recommended_days}
+    recommended_days = timing_days(model, np.array([[features.last_progress_score]], dtype=float))[0]
+    return {"recommended_days_next_session": int(recommended_days), "model_version": model.version}
 
-# --- NOUVEL Endpoint 3: Analyse de Sentiment ---
-from textblob import TextBlob
+class TimingFeaturesBatch(BaseModel):
+    items: List[TimingFeatures]
+
+class TimingBatchResponse(BaseModel):
+    recommended_days_next_sessions: List[int]
+    model_version: Optional[str] = None
+
+@app.post("/predict-timing-batch", response_model=TimingBatchResponse)
+async def predict_timing_batch(batch: TimingFeaturesBatch):
+    model = registry.get("timing")
+    if not model.available:
+        return {"recommended_days_next_sessions": [-1] * len(batch.items)}
+    if not batch.items:
+        return {"recommended_days_next_sessions": [], "model_version": model.version}
+
+    scores = np.array([item.last_progress_score for item in batch.items], dtype=float).reshape(-1, 1)
+    return {"recommended_days_next_sessions": timing_days(model, scores).tolist(), "model_version": model.version}
 
+# --- NOUVEL Endpoint 3: Analyse de Sentiment ---
 class SentimentRequest(BaseModel):
     text: str
 
@@ -82,33 +201,38 @@ class SentimentResponse(BaseModel):
     polarity: float # -1.0 (Négatif) à 1.0 (Positif)
     subjectivity: float # 0.0 (Objectif) à 1.0 (Subjectif)
     sentiment_label: str # "POSITIVE", "NEGATIVE", "NEUTRAL"
+    model_version: Optional[str] = None
 
 @app.post("/predict-sentiment", response_model=SentimentResponse)
 async def predict_sentiment(request: SentimentRequest):
-    blob = TextBlob(request.text)
-    polarity = blob.sentiment.polarity
-    subjectivity = blob.sentiment.subjectivity
-    
-    label = "NEUTRAL"
-    if polarity > 0.1:
-        label = "POSITIVE"
-    elif polarity < -0.1:
-        label = "NEGATIVE"
-        
+    polarity, subjectivity, label = sentiment(request.text)
     return {
         "polarity": polarity,
         "subjectivity": subjectivity,
-        "sentiment_label": label
+        "sentiment_label": label,
+        "model_version": SENTIMENT_MODEL_VERSION
     }
 
-# --- Modèle 3: Churn Prediction ---
-try:
-    churn_model = joblib.load("churn_model.joblib")
-    print("Modèle de churn chargé.")
-except FileNotFoundError:
-    print("ERREUR: 'churn_model.joblib' non trouvé.")
-    churn_model = None
+class SentimentBatchRequest(BaseModel):
+    items: List[SentimentRequest]
+
+class SentimentBatchResponse(BaseModel):
+    polarities: List[float]
+    subjectivities: List[float]
+    sentiment_labels: List[str]
+    model_version: Optional[str] = None
 
+@app.post("/predict-sentiment-batch", response_model=SentimentBatchResponse)
+async def predict_sentiment_batch(batch: SentimentBatchRequest):
+    results = [sentiment(item.text) for item in batch.items]
+    return {
+        "polarities": [r[0] for r in results],
+        "subjectivities": [r[1] for r in results],
+        "sentiment_labels": [r[2] for r in results],
+        "model_version": SENTIMENT_MODEL_VERSION
+    }
+
+# --- Modèle 3: Churn Prediction ---
 class ChurnFeatures(BaseModel):
     days_since_last_visit: int
     total_visits: int
@@ -117,23 +241,69 @@ class ChurnFeatures(BaseModel):
 class ChurnResponse(BaseModel):
     is_churn_risk: bool
     churn_probability: float
+    model_version: Optional[str] = None
 
 @app.post("/predict-churn", response_model=ChurnResponse)
 async def predict_churn(features: ChurnFeatures):
-    if not churn_model:
+    model = registry.get("churn")
+    if not model.available:
         return {"is_churn_risk": False, "churn_probability": -1.0}
 
-    input_data = pd.DataFrame([features.dict()])
-    
-    # Predict probability
-    prob = churn_model.predict_proba(input_data)[0][1]
-    is_risk = prob > 0.5
-    
+    prob = churn_probabilities(model, _matrix([features], CHURN_FEATURES))[0]
     return {
-        "is_churn_risk": bool(is_risk),
-        "churn_probability": float(prob)
+        "is_churn_risk": bool(prob > 0.5),
+        "churn_probability": float(prob),
+        "model_version": model.version
     }
 
+class ChurnFeaturesBatch(BaseModel):
+    items: List[ChurnFeatures]
+
+class ChurnBatchResponse(BaseModel):
+    churn_risks: List[bool]
+    churn_probabilities: List[float]
+    model_version: Optional[str] = None
+
+@app.post("/predict-churn-batch", response_model=ChurnBatchResponse)
+async def predict_churn_batch(batch: ChurnFeaturesBatch):
+    model = registry.get("churn")
+    if not model.available:
+        return {"churn_risks": [False] * len(batch.items), "churn_probabilities": [-1.0] * len(batch.items)}
+    if not batch.items:
+        return {"churn_risks": [], "churn_probabilities": [], "model_version": model.version}
+
+    probs = churn_probabilities(model, _matrix(batch.items, CHURN_FEATURES))
+    return {"churn_risks": (probs > 0.5).tolist(), "churn_probabilities": probs.tolist(), "model_version": model.version}
+
+
+# --- Registre des modèles ---
+class ModelInfo(BaseModel):
+    name: str
+    version: Optional[str]
+    available: bool
+    trained_at: Optional[str] = None
+    loaded_at: Optional[str] = None
+
+class ModelsResponse(BaseModel):
+    models: List[ModelInfo]
+
+def _models_response():
+    models = [ModelInfo(name=m.name, version=m.version, available=m.available,
+                        trained_at=m.trained_at, loaded_at=m.loaded_at)
+              for m in registry.snapshot().values()]
+    models.append(ModelInfo(name="sentiment", version=SENTIMENT_MODEL_VERSION, available=True))
+    return {"models": models}
+
+@app.get("/models", response_model=ModelsResponse)
+def list_models():
+    return _models_response()
+
+# Rechargement immédiat après un réentraînement (sans attendre la surveillance des fichiers)
+@app.post("/models/reload", response_model=ModelsResponse)
+def reload_models(force: bool = False):
+    registry.reload(force=force)
+    return _models_response()
+
 
 @app.get("/")
 def root():
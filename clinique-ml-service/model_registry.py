@@ -0,0 +1,159 @@
+"""Registre des modèles chargés par le service de prédiction.
+
+Chaque modèle est un ensemble d'artefacts joblib (ex : modèle d'annulation + scaler) chargés ensemble.
+Sa version est l'empreinte (sha256) du contenu de ces artefacts : deux services qui chargent les mêmes
+fichiers annoncent la même version, un réentraînement donne une nouvelle version.
+
+Le rechargement est atomique : les nouveaux artefacts sont entièrement chargés à côté des anciens, puis
+le registre remplace d'un coup l'instantané courant. Une requête lit `registry.snapshot()` une seule fois
+et utilise donc toujours un modèle, un scaler et une version cohérents entre eux. Un artefact illisible
+(en cours d'écriture, corrompu) laisse le modèle précédent en place. Un modèle neuf peut être préchauffé
+(on_load) avant d'être publié : la première requête servie par ce modèle ne paie pas son initialisation.
+"""
+import hashlib
+import os
+import tempfile
+import threading
+import time
+from dataclasses import dataclass, field
+from datetime import datetime, timezone
+from typing import Dict, Optional, Tuple
+
+import joblib
+
+MODEL_DIR = os.environ.get("MODEL_DIR", os.path.dirname(os.path.abspath(__file__)))
+
+# Nom du modèle -> artefacts, dans l'ordre où les endpoints les attendent
+MODEL_ARTIFACTS = {
+    "cancellation": ("cancellation_model.joblib", "scaler.joblib"),
+    "timing": ("timing_model.joblib",),
+    "churn": ("churn_model.joblib",),
+    # Modèle d'annulation réentraîné en attente de promotion (train.py --candidate) : évalué en
+    # parallèle du modèle courant (scoring "shadow" de l'API), sans influencer les réponses de /predict
+    "cancellation_candidate": ("cancellation_model.candidate.joblib", "scaler.candidate.joblib"),
+}
+
+
+def save_artifact(obj, filename):
+    """Écrit un artefact sous un nom temporaire puis le renomme : un rechargement ne lit jamais un fichier partiel."""
+    target = os.path.join(MODEL_DIR, filename)
+    fd, partial = tempfile.mkstemp(prefix=f".{filename}-", dir=MODEL_DIR)
+    try:
+        with os.fdopen(fd, "wb") as out:
+            joblib.dump(obj, out)
+        os.replace(partial, target)
+    except BaseException:
+        if os.path.exists(partial):
+            os.remove(partial)
+        raise
+
+
+@dataclass(frozen=True)
+class LoadedModel:
+    name: str
+    version: Optional[str]
+    artifacts: Tuple = ()
+    trained_at: Optional[str] = None
+    loaded_at: Optional[str] = None
+    # (taille, mtime) de chaque fichier : détecte un réentraînement sans relire les artefacts
+    stamps: Tuple = field(default=(), compare=False)
+
+    @property
+    def available(self):
+        return self.version is not None
+
+
+def _stamps(files):
+    stamps = []
+    for path in files:
+        stat = os.stat(path)
+        stamps.append((stat.st_size, stat.st_mtime_ns))
+    return tuple(stamps)
+
+
+def _load(name, filenames):
+    files = [os.path.join(MODEL_DIR, f) for f in filenames]
+    stamps = _stamps(files)
+    digest = hashlib.sha256()
+    artifacts = []
+    for path in files:
+        with open(path, "rb") as f:
+            digest.update(f.read())
+        artifacts.append(joblib.load(path))
+    trained_at = datetime.fromtimestamp(max(s[1] for s in stamps) / 1e9, timezone.utc).isoformat()
+    return LoadedModel(name, f"{name}-{digest.hexdigest()[:12]}", tuple(artifacts), trained_at,
+                       datetime.now(timezone.utc).isoformat(), stamps)
+
+
+class ModelRegistry:
+
+    def __init__(self, models=MODEL_ARTIFACTS, on_load=None):
+        """on_load(modèle) : appelé sur chaque modèle chargé avant sa publication (préchauffage) ;
+        s'il lève une exception, le modèle n'est pas publié."""
+        self._models = models
+        self._on_load = on_load
+        self._lock = threading.Lock()
+        self._snapshot: Dict[str, LoadedModel] = {name: LoadedModel(name, None) for name in models}
+        # Artefacts absents déjà signalés (la surveillance ne répète pas le message à chaque passage)
+        self._reported_missing = set()
+
+    def snapshot(self) -> Dict[str, LoadedModel]:
+        """Instantané courant (jamais modifié : un rechargement en installe un nouveau)."""
+        return self._snapshot
+
+    def get(self, name) -> LoadedModel:
+        return self._snapshot[name]
+
+    def reload(self, force=False, settle_seconds=0.0):
+        """Recharge les modèles dont les fichiers ont changé (tous si force). Renvoie les noms rechargés.
+
+        settle_seconds : ignore pour l'instant un modèle dont un fichier a changé depuis moins longtemps,
+        pour ne pas charger un modèle d'annulation neuf avec l'ancien scaler entre les deux écritures.
+        """
+        with self._lock:
+            current = self._snapshot
+            updated = dict(current)
+            reloaded = []
+            for name, filenames in self._models.items():
+                files = [os.path.join(MODEL_DIR, f) for f in filenames]
+                try:
+                    stamps = _stamps(files)
+                    if not force and current[name].available and stamps == current[name].stamps:
+                        continue
+                    if time.time() - max(s[1] for s in stamps) / 1e9 < settle_seconds:
+                        continue
+                    candidate = _load(name, filenames)
+                    if self._on_load is not None and candidate.version != current[name].version:
+                        self._on_load(candidate)
+                except FileNotFoundError:
+                    if name in self._reported_missing:
+                        continue
+                    self._reported_missing.add(name)
+                    if current[name].available:
+                        print(f"ATTENTION: artefacts du modèle '{name}' absents, version {current[name].version} conservée.")
+                    else:
+                        print(f"ERREUR: artefacts du modèle '{name}' non trouvés ({', '.join(filenames)}).")
+                    continue
+                except Exception as e:
+                    print(f"ATTENTION: rechargement du modèle '{name}' impossible ({e}), version précédente conservée.")
+                    continue
+                self._reported_missing.discard(name)
+                if candidate.version != current[name].version:
+                    updated[name] = candidate
+                    reloaded.append(name)
+                    print(f"Modèle '{name}' chargé : version {candidate.version}.")
+                else:
+                    # Fichiers réécrits à l'identique : on garde l'instance en place, nouvelles empreintes de fichiers
+                    updated[name] = LoadedModel(name, current[name].version, current[name].artifacts,
+                                                current[name].trained_at, current[name].loaded_at, candidate.stamps)
+            self._snapshot = updated
+            return reloaded
+
+    def watch(self, interval_seconds):
+        """Surveille les artefacts en arrière-plan et recharge ceux qui changent (réentraînement à chaud)."""
+        def loop():
+            while True:
+                time.sleep(interval_seconds)
+                self.reload(settle_seconds=interval_seconds / 2)
+
+        threading.Thread(target=loop, name="model-watcher", daemon=True).start()
@@ -0,0 +1,26 @@
+"""Lecture des données d'entraînement exportées par l'API (POST /api/v1/admin/ml-exports, ou chaque nuit).
+
+Chaque jeu est un dossier de fichiers .npz (une colonne par tableau), un fichier par export incrémental :
+on les concatène tous. Le dossier racine vient de ML_EXPORT_DIR (par défaut ../api/ml-exports).
+"""
+import glob
+import os
+
+import numpy as np
+import pandas as pd
+
+EXPORT_DIR = os.environ.get(
+    "ML_EXPORT_DIR", os.path.join(os.path.dirname(os.path.abspath(__file__)), "..", "api", "ml-exports"))
+
+
+def load_export(name):
+    """Renvoie le DataFrame de toutes les exportations du jeu `name`, ou None s'il n'y en a aucune."""
+    files = sorted(glob.glob(os.path.join(EXPORT_DIR, name, f"{name}_*.npz")))
+    if not files:
+        return None
+    frames = []
+    for path in files:
+        with np.load(path) as archive:
+            frames.append(pd.DataFrame({column: archive[column] for column in archive.files}))
+    print(f"Export '{name}' : {len(files)} fichier(s) lus dans {EXPORT_DIR}")
+    return pd.concat(frames, ignore_index=True)
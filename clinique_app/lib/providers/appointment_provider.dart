@@ -33,3 +33,12 @@ final patientAppointmentsProvider = FutureProvider<List<AppointmentDTO>>((
     return [];
   }
 });
+
+/// Texte complet d'une note clinique, chargé à l'ouverture du détail d'un RDV
+final noteDetailProvider = FutureProvider.autoDispose.family<ClinicalNoteDTO, int>((
+  ref,
+  noteId,
+) async {
+  final appointmentService = ref.watch(appointmentServiceProvider);
+  return appointmentService.getNote(noteId);
+});
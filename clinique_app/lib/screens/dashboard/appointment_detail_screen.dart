@@ -223,7 +223,15 @@ class AppointmentDetailScreen extends ConsumerWidget {
                   Row(
                     mainAxisAlignment: MainAxisAlignment.spaceBetween,
                     children: [
-                       Expanded(child: Text(note.summary ?? 'No summary', style: AppTextStyles.bodyLarge)),
+                       Expanded(
+                         child: note.summary != null
+                             ? Text(note.summary!, style: AppTextStyles.bodyLarge)
+                             : ref.watch(noteDetailProvider(note.id)).when(
+                                 data: (detail) => Text(detail.summary ?? 'No summary', style: AppTextStyles.bodyLarge),
+                                 loading: () => const LinearProgressIndicator(),
+                                 error: (e, _) => Text('Failed to load note.', style: AppTextStyles.bodyMedium),
+                               ),
+                       ),
                        if (note.sentimentLabel != null)
                          Container(
                            padding: const EdgeInsets.symmetric(horizontal: 12, vertical: 6),
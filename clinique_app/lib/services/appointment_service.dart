@@ -86,6 +86,18 @@ class AppointmentService {
     }
   }
 
+  /// Fetches a full clinical note (summary text included).
+  /// Appointment lists only carry the note id and scores.
+  Future<ClinicalNoteDTO> getNote(int noteId) async {
+    try {
+      final response = await _apiClient.dio.get('/notes/$noteId');
+      return ClinicalNoteDTO.fromJson(response.data);
+    } on DioException catch (e) {
+      print("Failed to fetch note: ${e.response?.data}");
+      throw Exception('Failed to fetch note: ${e.message}');
+    }
+  }
+
   /// --- THIS IS THE MISSING METHOD ---
   /// Adds or updates a clinical note
   Future<AppointmentDTO> addOrUpdateNote({